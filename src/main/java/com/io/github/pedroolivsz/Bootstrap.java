@@ -0,0 +1,175 @@
+package com.io.github.pedroolivsz;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.controller.OrderTabController;
+import com.io.github.pedroolivsz.controller.ProdutoController;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.logs.StartupTimer;
+import com.io.github.pedroolivsz.repository.InMemoryProductStore;
+import com.io.github.pedroolivsz.repository.OrderTabRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.ProductStore;
+import com.io.github.pedroolivsz.service.BackupService;
+import com.io.github.pedroolivsz.service.IdempotencyKeys;
+import com.io.github.pedroolivsz.service.LowStockMonitor;
+import com.io.github.pedroolivsz.service.MaintenanceService;
+import com.io.github.pedroolivsz.service.OrderTabService;
+import com.io.github.pedroolivsz.service.ProductCatalog;
+import com.io.github.pedroolivsz.service.ProductAutocomplete;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.SalesVelocityTracker;
+import com.io.github.pedroolivsz.service.StockJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Inicialização da aplicação fora da thread de interface.
+ *
+ * <p>Cria o pool de conexões, aplica as migrações, recupera o journal (ou carrega o
+ * catálogo em memória, com {@code product.store=memory}), agenda os backups e a manutenção do banco, monta os
+ * services, inicia a carga do índice de autocompletar e aquece o catálogo. A conclusão é sinalizada por
+ * {@link #ready()}, de modo que a janela possa ser exibida antes de qualquer acesso ao banco.</p>
+ *
+ * @author João Pedro
+ */
+
+public class Bootstrap {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(Bootstrap.class);
+
+    //=============== Estado ===============
+
+    private final StartupTimer startupTimer;
+    private final CompletableFuture<Bootstrap> ready = new CompletableFuture<>();
+
+    private volatile ProductService productService;
+    private volatile ProdutoController produtoController;
+    private volatile OrderTabService orderTabService;
+    private volatile OrderTabController orderTabController;
+    private volatile StockJournal stockJournal;
+    private volatile InMemoryProductStore inMemoryProductStore;
+    private volatile BackupService backupService;
+    private volatile MaintenanceService maintenanceService;
+    private volatile SalesVelocityTracker salesVelocity;
+    private volatile List<Product> catalog = List.of();
+
+    //=============== Construtor ===============
+
+    public Bootstrap(StartupTimer startupTimer) {
+        if(startupTimer == null) throw new IllegalArgumentException("StartupTimer não pode ser null");
+        this.startupTimer = startupTimer;
+    }
+
+    //=============== Ciclo de vida ===============
+
+    /**
+     * Executa a inicialização em uma thread de segundo plano.
+     *
+     * @return sinal de prontidão, completado com este bootstrap ou com o erro da inicialização
+     */
+    public CompletableFuture<Bootstrap> start() {
+        Thread thread = new Thread(this::run, "bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+        return ready;
+    }
+
+    /**
+     * Executa a inicialização na thread atual.
+     *
+     * @return sinal de prontidão já completado
+     */
+    public CompletableFuture<Bootstrap> run() {
+        try {
+            Database.initialize();
+            startupTimer.phase("Pool de conexões e migrações");
+
+            ProductStore productStore;
+            if("memory".equalsIgnoreCase(Config.get("product.store"))) {
+                //O catálogo em memória tem o próprio journal, que já cobre as movimentações de estoque
+                inMemoryProductStore = InMemoryProductStore.fromConfig();
+                productStore = inMemoryProductStore;
+                startupTimer.phase("Catálogo em memória (" + inMemoryProductStore.size() + " produtos)");
+            } else {
+                stockJournal = StockJournal.fromConfig().orElse(null);
+                productStore = new ProductRepository();
+                startupTimer.phase("Journal de escrita");
+            }
+
+            backupService = BackupService.fromConfig().orElse(null);
+            maintenanceService = MaintenanceService.fromConfig().orElse(null);
+
+            LowStockMonitor lowStockMonitor = new LowStockMonitor();
+            ProductAutocomplete autocomplete = new ProductAutocomplete(productStore);
+            autocomplete.start();
+            ProductCatalog productCatalog = new ProductCatalog(productStore);
+            IdempotencyKeys idempotencyKeys = new IdempotencyKeys();
+            salesVelocity = SalesVelocityTracker.shared();
+            productService = new ProductService(productStore, lowStockMonitor, stockJournal, autocomplete, productCatalog,
+                    idempotencyKeys, salesVelocity);
+            produtoController = new ProdutoController(productService);
+            orderTabService = new OrderTabService(new OrderTabRepository(), productStore, lowStockMonitor, productCatalog,
+                    idempotencyKeys, salesVelocity, stockJournal);
+            orderTabController = new OrderTabController(orderTabService);
+
+            catalog = productService.listAll();
+            startupTimer.phase("Aquecimento do catálogo (" + catalog.size() + " produtos)");
+
+            ready.complete(this);
+        } catch (RuntimeException e) {
+            logger.error("Erro na inicialização da aplicação", e);
+            ready.completeExceptionally(e);
+        }
+
+        return ready;
+    }
+
+    /**
+     * Libera os recursos abertos na inicialização.
+     */
+    public void shutdown() {
+        if(salesVelocity != null) salesVelocity.close();
+        if(maintenanceService != null) maintenanceService.close();
+        if(backupService != null) backupService.close();
+        if(stockJournal != null) stockJournal.close();
+        if(inMemoryProductStore != null) inMemoryProductStore.close();
+    }
+
+    //=============== Consultas ===============
+
+    public CompletableFuture<Bootstrap> ready() {
+        return ready;
+    }
+
+    public boolean isReady() {
+        return ready.isDone() && !ready.isCompletedExceptionally();
+    }
+
+    public ProductService getProductService() {
+        return productService;
+    }
+
+    public ProdutoController getProdutoController() {
+        return produtoController;
+    }
+
+    public OrderTabService getOrderTabService() {
+        return orderTabService;
+    }
+
+    public OrderTabController getOrderTabController() {
+        return orderTabController;
+    }
+
+    /**
+     * @return catálogo carregado durante o aquecimento
+     */
+    public List<Product> getCatalog() {
+        return catalog;
+    }
+}
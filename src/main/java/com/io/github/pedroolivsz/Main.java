@@ -1,7 +1,49 @@
 package com.io.github.pedroolivsz;
 
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.http.ApiServer;
+import com.io.github.pedroolivsz.logs.StartupTimer;
+
+import java.io.IOException;
+import java.util.Arrays;
+
 public class Main {
-    public static void main(String[] args) {
+    /**
+     * Execução de treino usada pelo perfil Maven {@code appcds}: percorre toda a
+     * inicialização sem interface gráfica, para que as classes carregadas sejam
+     * gravadas no arquivo de Class Data Sharing.
+     */
+    private static final String CDS_TRAINING = "--cds-training";
+
+    /**
+     * Execução sem interface gráfica, expondo a API HTTP na porta {@code http.port}.
+     */
+    private static final String SERVER = "--server";
+
+    private static final int DEFAULT_HTTP_PORT = 8080;
+
+    public static void main(String[] args) throws IOException {
+        if(Arrays.asList(args).contains(CDS_TRAINING)) {
+            Bootstrap bootstrap = new Bootstrap(new StartupTimer());
+            bootstrap.run().join();
+            bootstrap.shutdown();
+            return;
+        }
+
+        if(Arrays.asList(args).contains(SERVER)) {
+            Bootstrap bootstrap = new Bootstrap(new StartupTimer());
+            bootstrap.run().join();
+
+            ApiServer apiServer = new ApiServer(bootstrap.getProdutoController(), bootstrap.getOrderTabController());
+            apiServer.start(Config.getInt("http.port", DEFAULT_HTTP_PORT));
+
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                apiServer.stop();
+                bootstrap.shutdown();
+            }, "shutdown"));
+            return;
+        }
 
+        MainFX.main(args);
     }
-}
\ No newline at end of file
+}
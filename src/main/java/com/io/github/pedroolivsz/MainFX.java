@@ -1,25 +1,48 @@
 package com.io.github.pedroolivsz;
 
-import com.io.github.pedroolivsz.controller.ProdutoController;
-import com.io.github.pedroolivsz.repository.ProductRepository;
-import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.logs.StartupTimer;
 import com.io.github.pedroolivsz.viewfx.ProductListView;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 
 public class MainFX extends Application {
+    private final StartupTimer startupTimer = new StartupTimer();
+    private Bootstrap bootstrap;
+
     @Override
     public void start(Stage stage) throws Exception {
-        ProductRepository productRepository = new ProductRepository();
-        ProductService productService = new ProductService(productRepository);
-        ProdutoController produtoController = new ProdutoController(productService);
-        ProductListView view = new ProductListView(produtoController);
-        Scene scene = new Scene(view.getRoot(), 600, 400);
+        //A janela é exibida antes de qualquer acesso ao banco
+        Label status = new Label("Carregando produtos...");
+        VBox loading = new VBox(10, new ProgressIndicator(), status);
+        loading.setStyle("-fx-alignment: center;");
+        Scene scene = new Scene(loading, 600, 400);
 
         stage.setTitle("Lista produtos");
         stage.setScene(scene);
         stage.show();
+        startupTimer.phase("Janela exibida");
+
+        bootstrap = new Bootstrap(startupTimer);
+        bootstrap.start().whenComplete((ready, error) -> Platform.runLater(() -> {
+            if(error != null) {
+                status.setText("Erro ao iniciar: " + error.getMessage());
+                return;
+            }
+
+            ProductListView view = new ProductListView(ready.getProdutoController(), ready.getCatalog());
+            scene.setRoot(view.getRoot());
+            startupTimer.phase("Catálogo exibido");
+        }));
+    }
+
+    @Override
+    public void stop() {
+        if(bootstrap != null) bootstrap.shutdown();
     }
 
     public static void main(String[] args) {
@@ -6,9 +6,16 @@ import java.util.Properties;
 
 public class Config {
 
-    private static final Properties properties = new Properties();
+    /**
+     * As propriedades só são lidas no primeiro acesso a uma configuração.
+     */
+    private static class Holder {
+        private static final Properties properties = load();
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
 
-    static {
         try(InputStream inputStream = Config.class.getClassLoader().getResourceAsStream("application.properties")) {
 
             if(inputStream == null) {
@@ -20,10 +27,26 @@ public class Config {
         } catch (IOException ioException) {
             throw new RuntimeException("Erro ao carregar o arquivo de configuração!", ioException);
         }
+
+        return properties;
     }
 
     public static String get(String key) {
-        return properties.getProperty(key);
+        return System.getProperty(key, Holder.properties.getProperty(key));
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = get(key);
+
+        if(value == null || value.isBlank()) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException numberFormatException) {
+            throw new RuntimeException("Valor inválido para a configuração '" + key + "': " + value, numberFormatException);
+        }
     }
 
 }
@@ -1,19 +1,166 @@
 package com.io.github.pedroolivsz.config;
 
+import com.io.github.pedroolivsz.logs.InstrumentedConnection;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+import com.io.github.pedroolivsz.logs.SlowQueryLog;
+import com.io.github.pedroolivsz.logs.Span;
+import com.io.github.pedroolivsz.logs.Trace;
 import com.zaxxer.hikari.HikariDataSource;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Registro dos pools de conexão, um por loja.
+ *
+ * <p>Cada loja tem o próprio arquivo SQLite, configurado em {@code store.<id>.db.url}; a
+ * loja {@value #DEFAULT_STORE} usa {@code db.url}. O pool de uma loja é criado, e as
+ * migrações aplicadas nela, no primeiro acesso. {@link #connect()} entrega uma conexão da
+ * loja selecionada pelo {@link StoreContext} da thread atual.</p>
+ *
+ * <p>O horário da última conexão entregue por loja fica disponível em
+ * {@link #lastActivityNanos(String)}, para que as tarefas de manutenção rodem só quando o
+ * banco estiver ocioso.</p>
+ */
 public class Database {
 
-    private static final HikariDataSource dataSource = new HikariDataSource();
+    public static final String DEFAULT_STORE = "default";
 
-    static {
-        dataSource.setJdbcUrl(Config.get("db.url"));
-        dataSource.setMaximumPoolSize(10);
+    private static final LogDatabase logger = new LogDatabase(Database.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+    private static final int DEFAULT_BUSY_TIMEOUT_MILLIS = 5000;
+
+    private static final Map<String, HikariDataSource> dataSources = new ConcurrentHashMap<>();
+    private static final Map<String, AtomicLong> lastActivity = new ConcurrentHashMap<>();
+
+    /**
+     * Cria o pool da loja padrão e aplica as migrações, caso ainda não tenha sido feito. É
+     * chamado pela inicialização em segundo plano, mas qualquer acesso ao banco também o dispara.
+     */
+    public static void initialize() {
+        dataSource(DEFAULT_STORE);
     }
+
+    public static boolean isInitialized() {
+        return dataSources.containsKey(DEFAULT_STORE);
+    }
+
+    /**
+     * @return lojas configuradas em {@code stores}, separadas por vírgula; sem a
+     * configuração, apenas a loja padrão
+     */
+    public static List<String> stores() {
+        String configured = Config.get("stores");
+        if(configured == null || configured.isBlank()) return List.of(DEFAULT_STORE);
+
+        return Arrays.stream(configured.split(","))
+                .map(String::trim)
+                .filter(store -> !store.isEmpty())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * @param store ID da loja
+     * @return {@link System#nanoTime()} da última conexão entregue para a loja, ou da criação
+     * do pool se nenhuma foi pedida ainda
+     * @throws IllegalArgumentException se a loja não estiver configurada
+     */
+    public static long lastActivityNanos(String store) {
+        dataSource(store);
+        return lastActivity.get(store).get();
+    }
+
+    /**
+     * Obtém uma conexão do pool da loja selecionada na thread atual. Dentro de uma operação
+     * rastreada a espera pelo pool é medida; a conexão entregue cronometra os comandos para
+     * o rastreamento e para o log de consultas lentas.
+     *
+     * @throws IllegalArgumentException se a loja selecionada não estiver configurada
+     */
     public static Connection connect() throws SQLException {
-        return dataSource.getConnection();
+        return connect(StoreContext.current());
+    }
+
+    /**
+     * Obtém uma conexão do pool de uma loja específica.
+     *
+     * @param store ID da loja
+     * @throws IllegalArgumentException se a loja não estiver configurada
+     */
+    public static Connection connect(String store) throws SQLException {
+        HikariDataSource dataSource = dataSource(store);
+        lastActivity.get(store).set(System.nanoTime());
+
+        boolean traced = Trace.isActive();
+        if(!traced && !SlowQueryLog.isEnabled()) return dataSource.getConnection();
+
+        Connection conn;
+        Span span = Trace.span("connection.acquire");
+        try {
+            conn = dataSource.getConnection();
+        } finally {
+            span.close();
+        }
+        return InstrumentedConnection.wrap(conn);
+    }
+
+    private static HikariDataSource dataSource(String store) {
+        HikariDataSource current = dataSources.get(store);
+        if(current != null) return current;
+
+        synchronized (Database.class) {
+            HikariDataSource created = dataSources.get(store);
+            if(created == null) {
+                created = create(store);
+                lastActivity.put(store, new AtomicLong(System.nanoTime()));
+                dataSources.put(store, created);
+            }
+            return created;
+        }
+    }
+
+    private static HikariDataSource create(String store) {
+        long start = System.nanoTime();
+
+        String url = DEFAULT_STORE.equals(store) && Config.get("store." + store + ".db.url") == null
+                ? Config.get("db.url")
+                : Config.get("store." + store + ".db.url");
+        if(url == null || url.isBlank()) throw new IllegalArgumentException("Loja não configurada: " + store);
+
+        HikariDataSource created = new HikariDataSource();
+        created.setPoolName("oasis-" + store);
+        created.setJdbcUrl(url);
+        created.setMaximumPoolSize(Config.getInt("store." + store + ".db.pool.size", Config.getInt("db.pool.size", DEFAULT_POOL_SIZE)));
+
+        //WAL permite leituras concorrentes com uma escrita; busy_timeout faz a escrita aguardar
+        //o lock em vez de falhar de imediato quando várias requisições escrevem ao mesmo tempo
+        created.addDataSourceProperty("journal_mode", "WAL");
+        created.addDataSourceProperty("synchronous", "NORMAL");
+        //Transações começam já com o lock de escrita: em WAL, uma transação que lê e depois
+        //escreve falha com SQLITE_BUSY, sem esperar, se outra conexão gravou no intervalo
+        created.addDataSourceProperty("transaction_mode", "IMMEDIATE");
+        created.addDataSourceProperty("busy_timeout", String.valueOf(Config.getInt("db.busy.timeout.millis", DEFAULT_BUSY_TIMEOUT_MILLIS)));
+
+        //O Hikari só inicia o pool na primeira conexão solicitada
+        try(Connection conn = created.getConnection()) {
+            long poolStarted = System.nanoTime();
+            logger.info("Pool de conexões da loja " + store + " iniciado em " + TimeUnit.NANOSECONDS.toMillis(poolStarted - start) + " ms");
+
+            Migrations.migrate(conn);
+            logger.info("Migrações da loja " + store + " verificadas em " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - poolStarted) + " ms");
+        } catch (SQLException sqlException) {
+            created.close();
+            throw new RuntimeException("Erro ao aplicar as migrações do banco de dados!", sqlException);
+        }
+
+        return created;
     }
 }
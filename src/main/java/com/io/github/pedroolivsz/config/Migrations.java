@@ -0,0 +1,281 @@
+package com.io.github.pedroolivsz.config;
+
+import com.io.github.pedroolivsz.logs.LogDatabase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Responsável por criar e evoluir o schema do banco de dados.
+ *
+ * <p>Cada posição da lista {@code VERSIONS} representa uma versão do schema. A versão
+ * aplicada fica registrada em {@code PRAGMA user_version}, portanto apenas as versões
+ * ainda não aplicadas são executadas, cada uma em sua própria transação.</p>
+ *
+ * <p>Novas alterações devem sempre ser adicionadas ao final da lista, nunca editando
+ * versões já publicadas.</p>
+ *
+ * @author João Pedro
+ */
+
+public class Migrations {
+    //=============== Versões do schema ===============
+
+    private static final List<String[]> VERSIONS = List.of(
+            //1 - Tabela de produtos
+            new String[] {
+                    "CREATE TABLE IF NOT EXISTS produtos (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "quantidade INTEGER NOT NULL DEFAULT 0, " +
+                            "nome TEXT NOT NULL, " +
+                            "valor_unitario NUMERIC NOT NULL DEFAULT 0)"
+            },
+            //2 - Estoque mínimo para alertas de reposição
+            new String[] {
+                    "ALTER TABLE produtos ADD COLUMN estoque_minimo INTEGER NOT NULL DEFAULT 0"
+            },
+            //3 - Histórico de movimentações de estoque e snapshots periódicos. A quantidade atual
+            //dos produtos existentes entra como saldo de abertura, no instante da migração
+            new String[] {
+                    "CREATE TABLE IF NOT EXISTS movimentacoes_estoque (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "produto_id INTEGER NOT NULL, " +
+                            "delta INTEGER NOT NULL, " +
+                            "motivo TEXT NOT NULL, " +
+                            "comanda_id INTEGER, " +
+                            "criado_em INTEGER NOT NULL)",
+                    "CREATE INDEX IF NOT EXISTS idx_movimentacoes_produto ON movimentacoes_estoque (produto_id, id)",
+                    "CREATE TABLE IF NOT EXISTS snapshots_estoque (" +
+                            "produto_id INTEGER NOT NULL, " +
+                            "movimentacao_id INTEGER NOT NULL, " +
+                            "quantidade INTEGER NOT NULL, " +
+                            "criado_em INTEGER NOT NULL, " +
+                            "PRIMARY KEY (produto_id, movimentacao_id))",
+                    "CREATE INDEX IF NOT EXISTS idx_snapshots_produto_data ON snapshots_estoque (produto_id, criado_em)",
+                    "INSERT INTO movimentacoes_estoque (produto_id, delta, motivo, comanda_id, criado_em) " +
+                            "SELECT id, quantidade, 'CREATION', NULL, CAST(strftime('%s', 'now') AS INTEGER) * 1000 " +
+                            "FROM produtos ORDER BY id"
+            },
+            //4 - Comandas, itens e agregados de vendas por hora e por dia
+            new String[] {
+                    "CREATE TABLE IF NOT EXISTS comandas (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "table_number INTEGER NOT NULL, " +
+                            "total_amount NUMERIC NOT NULL DEFAULT 0, " +
+                            "status TEXT NOT NULL DEFAULT 'OPEN', " +
+                            "aberta_em INTEGER NOT NULL, " +
+                            "fechada_em INTEGER)",
+                    "CREATE INDEX IF NOT EXISTS idx_comandas_fechamento ON comandas (status, fechada_em)",
+                    "CREATE TABLE IF NOT EXISTS itens_comanda (" +
+                            "id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                            "comanda_id INTEGER NOT NULL, " +
+                            "produto_id INTEGER NOT NULL, " +
+                            "quantidade INTEGER NOT NULL, " +
+                            "valor_unitario NUMERIC NOT NULL)",
+                    "CREATE INDEX IF NOT EXISTS idx_itens_comanda ON itens_comanda (comanda_id)",
+                    "CREATE TABLE IF NOT EXISTS vendas_por_hora (" +
+                            "hora INTEGER NOT NULL, " +
+                            "produto_id INTEGER NOT NULL, " +
+                            "quantidade INTEGER NOT NULL, " +
+                            "valor_centavos INTEGER NOT NULL, " +
+                            "PRIMARY KEY (hora, produto_id)) WITHOUT ROWID",
+                    "CREATE TABLE IF NOT EXISTS vendas_por_dia (" +
+                            "dia TEXT NOT NULL, " +
+                            "produto_id INTEGER NOT NULL, " +
+                            "quantidade INTEGER NOT NULL, " +
+                            "valor_centavos INTEGER NOT NULL, " +
+                            "PRIMARY KEY (dia, produto_id)) WITHOUT ROWID"
+            },
+            //5 - Última sequência aplicada de cada journal de escrita
+            new String[] {
+                    "CREATE TABLE IF NOT EXISTS journal_aplicado (" +
+                            "journal TEXT PRIMARY KEY, " +
+                            "sequencia INTEGER NOT NULL)"
+            },
+            //6 - Versão da linha de produto para controle otimista de concorrência
+            new String[] {
+                    "ALTER TABLE produtos ADD COLUMN versao INTEGER NOT NULL DEFAULT 0"
+            },
+            //7 - Nome normalizado único. Duplicatas já gravadas são renomeadas antes, em
+            //renameDuplicateNames (ver DATA_STEPS)
+            new String[] {
+                    "CREATE UNIQUE INDEX IF NOT EXISTS idx_produtos_nome_normalizado ON produtos (LOWER(TRIM(nome)))"
+            },
+            //8 - Chaves de idempotência das escritas, com o resultado original e a validade
+            new String[] {
+                    "CREATE TABLE IF NOT EXISTS chaves_idempotencia (" +
+                            "chave TEXT PRIMARY KEY, " +
+                            "operacao TEXT NOT NULL, " +
+                            "resultado TEXT NOT NULL, " +
+                            "expira_em INTEGER NOT NULL) WITHOUT ROWID",
+                    "CREATE INDEX IF NOT EXISTS idx_chaves_idempotencia_expiracao ON chaves_idempotencia (expira_em)"
+            },
+            //9 - Histórico de preços. O preço atual dos produtos existentes passa a valer desde sempre
+            new String[] {
+                    "CREATE TABLE IF NOT EXISTS historico_precos (" +
+                            "produto_id INTEGER NOT NULL, " +
+                            "vigente_desde INTEGER NOT NULL, " +
+                            "valor_centavos INTEGER NOT NULL, " +
+                            "PRIMARY KEY (produto_id, vigente_desde)) WITHOUT ROWID",
+                    "INSERT OR IGNORE INTO historico_precos (produto_id, vigente_desde, valor_centavos) " +
+                            "SELECT id, 0, CAST(ROUND(valor_unitario * 100) AS INTEGER) FROM produtos"
+            },
+            //10 - Velocidade de vendas por produto, gravada periodicamente a partir da memória
+            new String[] {
+                    "CREATE TABLE IF NOT EXISTS velocidade_vendas (" +
+                            "produto_id INTEGER PRIMARY KEY, " +
+                            "taxa_diaria REAL NOT NULL, " +
+                            "atualizada_em INTEGER NOT NULL)"
+            }
+    );
+
+    //Passos em Java que rodam antes do SQL da versão, na mesma transação
+    private static final Map<Integer, DataStep> DATA_STEPS = Map.of(
+            7, Migrations::renameDuplicateNames
+    );
+
+    private static final String FIND_NAMES = "SELECT id, nome FROM produtos ORDER BY id";
+    private static final String RENAME = "UPDATE produtos SET nome = ?, versao = versao + 1 WHERE id = ?";
+
+    private static final LogDatabase logger = new LogDatabase(Migrations.class);
+
+    private Migrations() {
+    }
+
+    /**
+     * Aplica as versões pendentes do schema.
+     *
+     * @param conn conexão utilizada para aplicar as migrações
+     * @throws SQLException se alguma migração falhar
+     */
+    public static void migrate(Connection conn) throws SQLException {
+        int current = currentVersion(conn);
+
+        //Em um banco novo, antes da primeira tabela: permite devolver páginas livres aos poucos
+        //com PRAGMA incremental_vacuum. O pool já gravou o cabeçalho ao ativar o WAL, então o
+        //modo só vale depois de um VACUUM, instantâneo com o banco ainda vazio
+        if(current == 0 && isEmpty(conn)) {
+            try(Statement statement = conn.createStatement()) {
+                statement.execute("PRAGMA auto_vacuum = INCREMENTAL");
+                statement.execute("VACUUM");
+            }
+        }
+
+        for(int version = current + 1; version <= VERSIONS.size(); version++) {
+            apply(conn, version, VERSIONS.get(version - 1));
+        }
+    }
+
+    /**
+     * Versão mais recente conhecida pela aplicação.
+     *
+     * @return número da última versão do schema
+     */
+    public static int latestVersion() {
+        return VERSIONS.size();
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private static int currentVersion(Connection conn) throws SQLException {
+        try(Statement statement = conn.createStatement();
+            ResultSet resultSet = statement.executeQuery("PRAGMA user_version")) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private static boolean isEmpty(Connection conn) throws SQLException {
+        try(Statement statement = conn.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM sqlite_master")) {
+            return resultSet.next() && resultSet.getInt(1) == 0;
+        }
+    }
+
+    private static void apply(Connection conn, int version, String[] statements) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+
+        try(Statement statement = conn.createStatement()) {
+            DataStep dataStep = DATA_STEPS.get(version);
+            if(dataStep != null) dataStep.run(conn);
+            for(String sql : statements) {
+                statement.execute(sql);
+            }
+            statement.execute("PRAGMA user_version = " + version);
+
+            conn.commit();
+            logger.info("Migração do schema aplicada. Versão: " + version);
+        } catch (SQLException sqlException) {
+            conn.rollback();
+            logger.logDatabaseError("Aplicar migração " + version, String.join("; ", statements), sqlException);
+            throw sqlException;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Mantém o nome original no produto mais antigo de cada grupo de nomes iguais (pela mesma
+     * chave do índice único) e acrescenta o ID aos demais. Se o nome com o sufixo também já
+     * existir, o sufixo ganha um contador até ficar livre.
+     */
+    private static void renameDuplicateNames(Connection conn) throws SQLException {
+        Map<Integer, String> names = new LinkedHashMap<>();
+        try(Statement statement = conn.createStatement();
+            ResultSet resultSet = statement.executeQuery(FIND_NAMES)) {
+            while(resultSet.next()) names.put(resultSet.getInt("id"), resultSet.getString("nome"));
+        }
+
+        Set<String> taken = new HashSet<>();
+        names.values().forEach(name -> taken.add(indexKey(name)));
+        Set<String> kept = new HashSet<>();
+
+        try(PreparedStatement preparedStatement = conn.prepareStatement(RENAME)) {
+            for(Map.Entry<Integer, String> entry : names.entrySet()) {
+                if(kept.add(indexKey(entry.getValue()))) continue;
+
+                String renamed = entry.getValue() + " (" + entry.getKey() + ")";
+                for(int attempt = 2; taken.contains(indexKey(renamed)); attempt++) {
+                    renamed = entry.getValue() + " (" + entry.getKey() + "-" + attempt + ")";
+                }
+                taken.add(indexKey(renamed));
+
+                preparedStatement.setString(1, renamed);
+                preparedStatement.setInt(2, entry.getKey());
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Mesma chave de {@code LOWER(TRIM(nome))} no SQLite: TRIM remove só espaços e LOWER só
+     * converte letras ASCII.
+     */
+    private static String indexKey(String name) {
+        int start = 0;
+        int end = name.length();
+        while(start < end && name.charAt(start) == ' ') start++;
+        while(end > start && name.charAt(end - 1) == ' ') end--;
+
+        StringBuilder key = new StringBuilder(end - start);
+        for(int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            key.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return key.toString();
+    }
+
+    @FunctionalInterface
+    private interface DataStep {
+        void run(Connection conn) throws SQLException;
+    }
+}
@@ -0,0 +1,56 @@
+package com.io.github.pedroolivsz.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Loja selecionada na thread atual, usada por {@link Database#connect()} para escolher o pool.
+ *
+ * <p>Sem seleção, as chamadas vão para a loja {@value Database#DEFAULT_STORE}. Os services
+ * mantêm índices e catálogos em memória da loja em que foram usados, então cada loja deve
+ * ter os próprios services; os repositories não guardam estado e servem qualquer loja.</p>
+ *
+ * @author João Pedro
+ */
+
+public final class StoreContext {
+
+    private static final ThreadLocal<String> current = new ThreadLocal<>();
+
+    private StoreContext() {
+    }
+
+    /**
+     * @return loja selecionada na thread atual
+     */
+    public static String current() {
+        String store = current.get();
+        return store != null ? store : Database.DEFAULT_STORE;
+    }
+
+    /**
+     * Executa a chamada com a loja selecionada, restaurando a seleção anterior ao final.
+     *
+     * @param store ID da loja
+     * @param call chamada a executar
+     * @return resultado da chamada
+     */
+    public static <T> T call(String store, Supplier<T> call) {
+        if(store == null || store.isBlank()) throw new IllegalArgumentException("Loja não pode ser vazia");
+
+        String previous = current.get();
+        current.set(store);
+        try {
+            return call.get();
+        } finally {
+            if(previous != null) current.set(previous);
+            else current.remove();
+        }
+    }
+
+    public static void run(String store, Runnable call) {
+        call(store, () -> {
+            call.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.io.github.pedroolivsz.controller;
+
+import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.logs.Span;
+import com.io.github.pedroolivsz.logs.Trace;
+import com.io.github.pedroolivsz.service.OrderTabService;
+
+import java.util.function.Supplier;
+
+public class OrderTabController {
+    private final OrderTabService orderTabService;
+
+    public OrderTabController(OrderTabService orderTabService) {
+        this.orderTabService = orderTabService;
+    }
+
+    public OrderTab open(int numeroMesa) {
+        return traced("open", () -> orderTabService.open(numeroMesa));
+    }
+
+    public void addItem(int comandaId, int produtoId, int quantidade) {
+        traced("addItem", () -> {
+            orderTabService.addItem(comandaId, produtoId, quantidade);
+            return null;
+        });
+    }
+
+    public OrderTab close(int comandaId) {
+        return traced("close", () -> orderTabService.close(comandaId));
+    }
+
+    public OrderTab checkout(int comandaId) {
+        return traced("checkout", () -> orderTabService.checkout(comandaId));
+    }
+
+    public OrderTab checkout(String chave, int comandaId) {
+        return traced("checkout", () -> orderTabService.checkout(chave, comandaId));
+    }
+
+    public OrderTab findById(int comandaId) {
+        return traced("findById", () -> orderTabService.findById(comandaId));
+    }
+
+    /**
+     * Executa a chamada ao service dentro de uma operação rastreada.
+     */
+    private <T> T traced(String operation, Supplier<T> call) {
+        Span root = Trace.root("OrderTabController." + operation);
+        Span service = Trace.span("OrderTabService." + operation);
+        try {
+            return call.get();
+        } finally {
+            service.close();
+            root.close();
+        }
+    }
+}
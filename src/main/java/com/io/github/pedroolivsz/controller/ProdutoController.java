@@ -1,10 +1,21 @@
 package com.io.github.pedroolivsz.controller;
 
+import com.io.github.pedroolivsz.dominio.CatalogMetrics;
+import com.io.github.pedroolivsz.dominio.PriceAdjustment;
+import com.io.github.pedroolivsz.dominio.PriceChange;
 import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ProductFilter;
+import com.io.github.pedroolivsz.dominio.ProductSuggestion;
+import com.io.github.pedroolivsz.dominio.ReceivingLine;
+import com.io.github.pedroolivsz.dominio.ReceivingResult;
+import com.io.github.pedroolivsz.dominio.ReorderSuggestion;
+import com.io.github.pedroolivsz.logs.Span;
+import com.io.github.pedroolivsz.logs.Trace;
 import com.io.github.pedroolivsz.service.ProductService;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Supplier;
 
 public class ProdutoController {
     private final ProductService productService;
@@ -14,22 +25,89 @@ public class ProdutoController {
     }
 
     public Product create(String nome, int quantidade, BigDecimal valorUnitario) {
-        return productService.create(nome, quantidade, valorUnitario);
+        return traced("create", () -> productService.create(nome, quantidade, valorUnitario));
+    }
+
+    public Product create(String chave, String nome, int quantidade, BigDecimal valorUnitario) {
+        return traced("create", () -> productService.create(chave, nome, quantidade, valorUnitario));
     }
 
     public Product update(int id, String nome, int quantidade, BigDecimal valorUnitario) {
-        return productService.update(id, nome, quantidade, valorUnitario);
+        return traced("update", () -> productService.update(id, nome, quantidade, valorUnitario));
+    }
+
+    public Product update(int id, String nome, int quantidade, BigDecimal valorUnitario, int versao) {
+        return traced("update", () -> productService.update(id, nome, quantidade, valorUnitario, versao));
     }
 
     public void delete(int id) {
-        productService.delete(id);
+        traced("delete", () -> {
+            productService.delete(id);
+            return null;
+        });
     }
 
     public List<Product> listAll() {
-        return productService.listAll();
+        return traced("listAll", productService::listAll);
+    }
+
+    public CatalogMetrics catalogMetrics() {
+        return productService.catalogMetrics();
     }
 
     public Product findbyId(int id) {
-        return productService.findById(id);
+        return traced("findById", () -> productService.findById(id));
+    }
+
+    public List<ProductSuggestion> suggest(String prefixo, int limite) {
+        return traced("suggest", () -> productService.suggest(prefixo, limite));
+    }
+
+    public List<ReorderSuggestion> reorderSuggestions(int limite) {
+        return traced("reorderSuggestions", () -> productService.reorderSuggestions(limite));
+    }
+
+    public Product updateMinimumStock(int id, int estoqueMinimo) {
+        return traced("updateMinimumStock", () -> productService.updateMinimumStock(id, estoqueMinimo));
+    }
+
+    public Product addStock(int id, int quantidade) {
+        return traced("addStock", () -> productService.addStock(id, quantidade));
+    }
+
+    public Product addStock(String chave, int id, int quantidade) {
+        return traced("addStock", () -> productService.addStock(chave, id, quantidade));
+    }
+
+    public Product removeStock(int id, int quantidade) {
+        return traced("removeStock", () -> productService.removeStock(id, quantidade));
+    }
+
+    public Product removeStock(String chave, int id, int quantidade) {
+        return traced("removeStock", () -> productService.removeStock(chave, id, quantidade));
+    }
+
+    public List<ReceivingResult> receive(List<ReceivingLine> linhas) {
+        return traced("receive", () -> productService.receive(linhas));
+    }
+
+    public List<PriceChange> reprice(ProductFilter filter, PriceAdjustment adjustment, boolean preview) {
+        return preview
+                ? traced("previewReprice", () -> productService.previewReprice(filter, adjustment))
+                : traced("reprice", () -> productService.reprice(filter, adjustment));
+    }
+
+    /**
+     * Executa a chamada ao service dentro de uma operação rastreada.
+     */
+    private <T> T traced(String operation, Supplier<T> call) {
+        Span root = Trace.root("ProdutoController." + operation);
+        Span service = Trace.span("ProductService." + operation);
+        try {
+            return call.get();
+        } finally {
+            service.close();
+            root.close();
+        }
     }
 }
@@ -0,0 +1,54 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Resultado de um backup verificado: arquivo gerado, páginas copiadas, quantas vezes a
+ * cópia recomeçou por causa de escritas concorrentes e o tempo gasto.
+ */
+public class BackupResult {
+
+    private final Path file;
+    private final int pages;
+    private final int restarts;
+    private final Duration copyDuration;
+    private final Duration checkDuration;
+
+    public BackupResult(Path file, int pages, int restarts, Duration copyDuration, Duration checkDuration) {
+        this.file = file;
+        this.pages = pages;
+        this.restarts = restarts;
+        this.copyDuration = copyDuration;
+        this.checkDuration = checkDuration;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public int getPages() {
+        return pages;
+    }
+
+    public int getRestarts() {
+        return restarts;
+    }
+
+    public Duration getCopyDuration() {
+        return copyDuration;
+    }
+
+    public Duration getCheckDuration() {
+        return checkDuration;
+    }
+
+    @Override
+    public String toString() {
+        return "Arquivo: " + file +
+                "| Páginas: " + pages +
+                "| Reinícios: " + restarts +
+                "| Cópia: " + copyDuration.toMillis() + " ms" +
+                "| Verificação: " + checkDuration.toMillis() + " ms";
+    }
+}
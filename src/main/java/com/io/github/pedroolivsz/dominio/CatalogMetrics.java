@@ -0,0 +1,77 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.time.Duration;
+
+/**
+ * Métricas do catálogo publicado para leitura: versão atual, custo das reconstruções a
+ * partir do banco, custo das atualizações incrementais e há quanto tempo o catálogo não
+ * é conferido com o banco.
+ */
+public class CatalogMetrics {
+
+    private final long version;
+    private final int products;
+    private final long rebuilds;
+    private final Duration lastRebuild;
+    private final Duration totalRebuild;
+    private final long incrementalUpdates;
+    private final Duration totalIncremental;
+    private final Duration staleness;
+
+    public CatalogMetrics(long version, int products, long rebuilds, Duration lastRebuild, Duration totalRebuild,
+                          long incrementalUpdates, Duration totalIncremental, Duration staleness) {
+        this.version = version;
+        this.products = products;
+        this.rebuilds = rebuilds;
+        this.lastRebuild = lastRebuild;
+        this.totalRebuild = totalRebuild;
+        this.incrementalUpdates = incrementalUpdates;
+        this.totalIncremental = totalIncremental;
+        this.staleness = staleness;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getProducts() {
+        return products;
+    }
+
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    public Duration getLastRebuild() {
+        return lastRebuild;
+    }
+
+    public Duration getTotalRebuild() {
+        return totalRebuild;
+    }
+
+    public long getIncrementalUpdates() {
+        return incrementalUpdates;
+    }
+
+    public Duration getTotalIncremental() {
+        return totalIncremental;
+    }
+
+    /**
+     * @return tempo desde a última reconstrução a partir do banco; escritas feitas fora da
+     * aplicação podem estar ausentes do catálogo por, no máximo, esse tempo
+     */
+    public Duration getStaleness() {
+        return staleness;
+    }
+
+    @Override
+    public String toString() {
+        return "Versão: " + version +
+                "| Produtos: " + products +
+                "| Reconstruções: " + rebuilds + " (última " + lastRebuild.toMillis() + " ms)" +
+                "| Atualizações incrementais: " + incrementalUpdates +
+                "| Defasagem: " + staleness.toMillis() + " ms";
+    }
+}
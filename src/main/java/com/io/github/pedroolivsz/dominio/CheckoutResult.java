@@ -0,0 +1,52 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.util.List;
+
+/**
+ * Resultado do fechamento de uma comanda com baixa de estoque: ou a comanda fechada, os
+ * produtos como ficaram após a baixa e as movimentações de venda gravadas, ou a lista de
+ * itens sem estoque suficiente, caso em que nada foi gravado.
+ */
+public class CheckoutResult {
+
+    private final OrderTab orderTab;
+    private final List<Product> updatedProducts;
+    private final List<StockMovement> movements;
+    private final List<StockShortage> shortages;
+
+    private CheckoutResult(OrderTab orderTab, List<Product> updatedProducts, List<StockMovement> movements,
+                           List<StockShortage> shortages) {
+        this.orderTab = orderTab;
+        this.updatedProducts = updatedProducts;
+        this.movements = movements;
+        this.shortages = shortages;
+    }
+
+    public static CheckoutResult completed(OrderTab orderTab, List<Product> updatedProducts, List<StockMovement> movements) {
+        return new CheckoutResult(orderTab, List.copyOf(updatedProducts), List.copyOf(movements), List.of());
+    }
+
+    public static CheckoutResult rejected(List<StockShortage> shortages) {
+        return new CheckoutResult(null, List.of(), List.of(), List.copyOf(shortages));
+    }
+
+    public boolean isCompleted() {
+        return shortages.isEmpty();
+    }
+
+    public OrderTab getOrderTab() {
+        return orderTab;
+    }
+
+    public List<Product> getUpdatedProducts() {
+        return updatedProducts;
+    }
+
+    public List<StockMovement> getMovements() {
+        return movements;
+    }
+
+    public List<StockShortage> getShortages() {
+        return shortages;
+    }
+}
@@ -0,0 +1,44 @@
+package com.io.github.pedroolivsz.dominio;
+
+/**
+ * Escrita já executada sob uma chave de idempotência: a operação, com os argumentos que a
+ * identificam, o resultado codificado e o instante, em ms desde a época, em que a chave
+ * deixa de valer.
+ */
+public class IdempotencyRecord {
+
+    private final String key;
+    private final String operation;
+    private final String result;
+    private final long expiresAtMillis;
+
+    public IdempotencyRecord(String key, String operation, String result, long expiresAtMillis) {
+        this.key = key;
+        this.operation = operation;
+        this.result = result;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Chave: " + key +
+                "| Operação: " + operation +
+                "| Expira em: " + expiresAtMillis;
+    }
+}
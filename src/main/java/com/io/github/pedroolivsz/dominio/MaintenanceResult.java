@@ -0,0 +1,103 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.time.Duration;
+
+/**
+ * Resultado de uma manutenção do banco: tamanho do arquivo e páginas livres antes e
+ * depois, páginas devolvidas pelo vacuum incremental, estado do WAL após o último
+ * checkpoint, maior tempo de um comando com o banco ocupado e tempo total. Uma manutenção
+ * interrompida por atividade da aplicação fica marcada como incompleta.
+ */
+public class MaintenanceResult {
+
+    private final String store;
+    private final long fileSizeBefore;
+    private final long fileSizeAfter;
+    private final int freelistBefore;
+    private final int freelistAfter;
+    private final int vacuumedPages;
+    private final int walFrames;
+    private final boolean walTruncated;
+    private final boolean analyzed;
+    private final boolean completed;
+    private final Duration longestLock;
+    private final Duration duration;
+
+    public MaintenanceResult(String store, long fileSizeBefore, long fileSizeAfter, int freelistBefore, int freelistAfter,
+                             int vacuumedPages, int walFrames, boolean walTruncated, boolean analyzed,
+                             boolean completed, Duration longestLock, Duration duration) {
+        this.store = store;
+        this.fileSizeBefore = fileSizeBefore;
+        this.fileSizeAfter = fileSizeAfter;
+        this.freelistBefore = freelistBefore;
+        this.freelistAfter = freelistAfter;
+        this.vacuumedPages = vacuumedPages;
+        this.walFrames = walFrames;
+        this.walTruncated = walTruncated;
+        this.analyzed = analyzed;
+        this.completed = completed;
+        this.longestLock = longestLock;
+        this.duration = duration;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public long getFileSizeBefore() {
+        return fileSizeBefore;
+    }
+
+    public long getFileSizeAfter() {
+        return fileSizeAfter;
+    }
+
+    public int getFreelistBefore() {
+        return freelistBefore;
+    }
+
+    public int getFreelistAfter() {
+        return freelistAfter;
+    }
+
+    public int getVacuumedPages() {
+        return vacuumedPages;
+    }
+
+    public int getWalFrames() {
+        return walFrames;
+    }
+
+    public boolean isWalTruncated() {
+        return walTruncated;
+    }
+
+    public boolean isAnalyzed() {
+        return analyzed;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public Duration getLongestLock() {
+        return longestLock;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return "Loja: " + store +
+                "| Arquivo: " + fileSizeBefore + " -> " + fileSizeAfter + " bytes" +
+                "| Páginas livres: " + freelistBefore + " -> " + freelistAfter +
+                "| Vacuum: " + vacuumedPages + " páginas" +
+                "| WAL: " + walFrames + " quadros" + (walTruncated ? " (truncado)" : "") +
+                "| Estatísticas: " + (analyzed ? "atualizadas" : "não atualizadas") +
+                "| Maior lock: " + longestLock.toMillis() + " ms" +
+                "| Tempo: " + duration.toMillis() + " ms" +
+                (completed ? "" : "| Interrompida por atividade");
+    }
+}
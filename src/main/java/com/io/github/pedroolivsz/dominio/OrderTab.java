@@ -1,14 +1,24 @@
 package com.io.github.pedroolivsz.dominio;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
 public class OrderTab {
+
+    public enum Status {
+        OPEN,
+        CLOSED
+    }
+
     private int id;
     private int tableNumber;
     private List<Product> products;
     private BigDecimal totalAmount;
+    private Status status = Status.OPEN;
+    private Instant openedAt;
+    private Instant closedAt;
 
     public OrderTab(int id, int tableNumber, BigDecimal totalAmount) {
         this.id = id;
@@ -44,6 +54,34 @@ public class OrderTab {
         this.totalAmount = totalAmount;
     }
 
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public boolean isOpen() {
+        return status == Status.OPEN;
+    }
+
+    public Instant getOpenedAt() {
+        return openedAt;
+    }
+
+    public void setOpenedAt(Instant openedAt) {
+        this.openedAt = openedAt;
+    }
+
+    public Instant getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(Instant closedAt) {
+        this.closedAt = closedAt;
+    }
+
     public int getId() {
         return id;
     }
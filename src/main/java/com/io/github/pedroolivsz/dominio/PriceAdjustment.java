@@ -0,0 +1,66 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Reajuste de preço aplicado a um conjunto de produtos: percentual, valor fixo somado ao
+ * preço atual ou uma lista explícita de novos preços por produto.
+ */
+public class PriceAdjustment {
+
+    public enum Type {
+        PERCENTAGE,
+        FIXED_DELTA,
+        PRICE_LIST
+    }
+
+    private final Type type;
+    private final BigDecimal value;
+    private final Map<Integer, BigDecimal> prices;
+
+    private PriceAdjustment(Type type, BigDecimal value, Map<Integer, BigDecimal> prices) {
+        this.type = type;
+        this.value = value;
+        this.prices = prices;
+    }
+
+    /**
+     * @param percentage percentual do reajuste, por exemplo 8 para +8% ou -10 para -10%
+     */
+    public static PriceAdjustment percentage(BigDecimal percentage) {
+        return new PriceAdjustment(Type.PERCENTAGE, percentage, Map.of());
+    }
+
+    /**
+     * @param delta valor somado ao preço atual, negativo para reduzir
+     */
+    public static PriceAdjustment fixedDelta(BigDecimal delta) {
+        return new PriceAdjustment(Type.FIXED_DELTA, delta, Map.of());
+    }
+
+    /**
+     * @param prices novo preço de cada produto, por ID
+     */
+    public static PriceAdjustment priceList(Map<Integer, BigDecimal> prices) {
+        return new PriceAdjustment(Type.PRICE_LIST, null, Map.copyOf(prices));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public BigDecimal getValue() {
+        return value;
+    }
+
+    public Map<Integer, BigDecimal> getPrices() {
+        return prices;
+    }
+
+    @Override
+    public String toString() {
+        return "Tipo: " + type +
+                "| Valor: " + (type == Type.PRICE_LIST ? prices.size() + " preços" : value);
+    }
+}
@@ -0,0 +1,41 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.math.BigDecimal;
+
+public class PriceChange {
+
+    private final int productId;
+    private final String productName;
+    private final BigDecimal oldPrice;
+    private final BigDecimal newPrice;
+
+    public PriceChange(int productId, String productName, BigDecimal oldPrice, BigDecimal newPrice) {
+        this.productId = productId;
+        this.productName = productName;
+        this.oldPrice = oldPrice;
+        this.newPrice = newPrice;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public BigDecimal getOldPrice() {
+        return oldPrice;
+    }
+
+    public BigDecimal getNewPrice() {
+        return newPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "Produto: " + productId +
+                "| " + productName +
+                "| Preço: " + oldPrice + " -> " + newPrice;
+    }
+}
@@ -8,6 +8,8 @@ public class Product {
     private int quantity;
     private String name;
     private BigDecimal unitValue;
+    private int minimumStock;
+    private int version;
 
     public Product(int id, String name, int quantity, BigDecimal unitValue) {
         this.id = id;
@@ -54,6 +56,29 @@ public class Product {
         this.unitValue = unitValue;
     }
 
+    public int getMinimumStock() {
+        return minimumStock;
+    }
+
+    public void setMinimumStock(int minimumStock) {
+        this.minimumStock = minimumStock;
+    }
+
+    public boolean isBelowMinimumStock() {
+        return minimumStock > 0 && quantity < minimumStock;
+    }
+
+    /**
+     * @return versão da linha no banco, incrementada a cada escrita no produto
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     public int getId() {
         return id;
     }
@@ -0,0 +1,59 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * Critérios para selecionar um conjunto de produtos. Critérios não informados não
+ * restringem a seleção; um filtro vazio seleciona todos os produtos.
+ */
+public class ProductFilter {
+
+    private String nameContains;
+    private Set<Integer> ids;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+
+    public static ProductFilter all() {
+        return new ProductFilter();
+    }
+
+    public ProductFilter nameContains(String text) {
+        this.nameContains = text;
+        return this;
+    }
+
+    public ProductFilter ids(Set<Integer> ids) {
+        this.ids = ids == null ? null : Set.copyOf(ids);
+        return this;
+    }
+
+    public ProductFilter priceBetween(BigDecimal min, BigDecimal max) {
+        this.minPrice = min;
+        this.maxPrice = max;
+        return this;
+    }
+
+    public String getNameContains() {
+        return nameContains;
+    }
+
+    public Set<Integer> getIds() {
+        return ids;
+    }
+
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+
+    @Override
+    public String toString() {
+        return "Nome contém: " + nameContains +
+                "| IDs: " + ids +
+                "| Preço entre: " + minPrice + " e " + maxPrice;
+    }
+}
@@ -0,0 +1,39 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.math.BigDecimal;
+
+public class ProductSales {
+
+    private final int productId;
+    private final long quantity;
+    private final BigDecimal amount;
+
+    public ProductSales(int productId, long quantity, BigDecimal amount) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.amount = amount;
+    }
+
+    public ProductSales plus(ProductSales other) {
+        return new ProductSales(productId, quantity + other.quantity, amount.add(other.amount));
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    @Override
+    public String toString() {
+        return "Produto: " + productId +
+                "| Quantidade: " + quantity +
+                "| Valor: " + amount;
+    }
+}
@@ -0,0 +1,28 @@
+package com.io.github.pedroolivsz.dominio;
+
+/**
+ * Produto sugerido pelo autocompletar de nomes.
+ */
+public class ProductSuggestion {
+
+    private final int productId;
+    private final String name;
+
+    public ProductSuggestion(int productId, String name) {
+        this.productId = productId;
+        this.name = name;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "Produto: " + productId + "| " + name;
+    }
+}
@@ -0,0 +1,29 @@
+package com.io.github.pedroolivsz.dominio;
+
+/**
+ * Linha de uma nota de entrega de fornecedor: produto e quantidade recebida.
+ */
+public class ReceivingLine {
+
+    private final int productId;
+    private final int quantity;
+
+    public ReceivingLine(int productId, int quantity) {
+        this.productId = productId;
+        this.quantity = quantity;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    @Override
+    public String toString() {
+        return "Produto: " + productId +
+                "| Quantidade: " + quantity;
+    }
+}
@@ -0,0 +1,49 @@
+package com.io.github.pedroolivsz.dominio;
+
+/**
+ * Resultado de uma linha de recebimento.
+ */
+public class ReceivingResult {
+
+    public enum Status {
+        RECEIVED,
+        PRODUCT_NOT_FOUND,
+        INVALID_QUANTITY
+    }
+
+    private final ReceivingLine line;
+    private final Status status;
+    private final Product product;
+
+    public ReceivingResult(ReceivingLine line, Status status, Product product) {
+        this.line = line;
+        this.status = status;
+        this.product = product;
+    }
+
+    public ReceivingLine getLine() {
+        return line;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isReceived() {
+        return status == Status.RECEIVED;
+    }
+
+    /**
+     * @return produto como ficou logo após esta linha, ou null se a linha não foi aplicada
+     */
+    public Product getProduct() {
+        return product;
+    }
+
+    @Override
+    public String toString() {
+        return line +
+                "| Situação: " + status +
+                "| Quantidade resultante: " + (product != null ? product.getQuantity() : "-");
+    }
+}
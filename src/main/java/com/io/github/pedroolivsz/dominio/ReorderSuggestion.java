@@ -0,0 +1,59 @@
+package com.io.github.pedroolivsz.dominio;
+
+/**
+ * Sugestão de reposição de um produto: quantidade atual, velocidade de vendas, dias de
+ * estoque que a quantidade atual cobre nessa velocidade e quantidade a pedir para cobrir o
+ * horizonte de reposição.
+ */
+public class ReorderSuggestion {
+
+    private final int productId;
+    private final String name;
+    private final int quantity;
+    private final double dailyRate;
+    private final double daysOfCover;
+    private final int suggestedQuantity;
+
+    public ReorderSuggestion(int productId, String name, int quantity, double dailyRate, double daysOfCover,
+                             int suggestedQuantity) {
+        this.productId = productId;
+        this.name = name;
+        this.quantity = quantity;
+        this.dailyRate = dailyRate;
+        this.daysOfCover = daysOfCover;
+        this.suggestedQuantity = suggestedQuantity;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public double getDailyRate() {
+        return dailyRate;
+    }
+
+    public double getDaysOfCover() {
+        return daysOfCover;
+    }
+
+    public int getSuggestedQuantity() {
+        return suggestedQuantity;
+    }
+
+    @Override
+    public String toString() {
+        return "Produto: " + productId + " (" + name + ")" +
+                "| Quantidade: " + quantity +
+                "| Unidades/dia: " + String.format("%.2f", dailyRate) +
+                "| Cobertura: " + String.format("%.1f", daysOfCover) + " dias" +
+                "| Pedir: " + suggestedQuantity;
+    }
+}
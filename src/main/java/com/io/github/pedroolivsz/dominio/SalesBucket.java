@@ -0,0 +1,30 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.time.Instant;
+
+/**
+ * Vendas de um produto em um intervalo (hora ou dia) iniciado em {@code start}.
+ */
+public class SalesBucket {
+
+    private final Instant start;
+    private final ProductSales sales;
+
+    public SalesBucket(Instant start, ProductSales sales) {
+        this.start = start;
+        this.sales = sales;
+    }
+
+    public Instant getStart() {
+        return start;
+    }
+
+    public ProductSales getSales() {
+        return sales;
+    }
+
+    @Override
+    public String toString() {
+        return "Início: " + start + "| " + sales;
+    }
+}
@@ -0,0 +1,38 @@
+package com.io.github.pedroolivsz.dominio;
+
+/**
+ * Velocidade de vendas de um produto: média exponencialmente ponderada das unidades
+ * vendidas por dia, válida no instante em que foi atualizada. Fora desse instante a taxa
+ * decai com o tempo sem vendas.
+ */
+public class SalesVelocity {
+
+    private final int productId;
+    private final double dailyRate;
+    private final long updatedAtMillis;
+
+    public SalesVelocity(int productId, double dailyRate, long updatedAtMillis) {
+        this.productId = productId;
+        this.dailyRate = dailyRate;
+        this.updatedAtMillis = updatedAtMillis;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public double getDailyRate() {
+        return dailyRate;
+    }
+
+    public long getUpdatedAtMillis() {
+        return updatedAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Produto: " + productId +
+                "| Unidades/dia: " + String.format("%.3f", dailyRate) +
+                "| Atualizada em: " + updatedAtMillis;
+    }
+}
@@ -0,0 +1,93 @@
+package com.io.github.pedroolivsz.dominio;
+
+import java.time.Instant;
+
+public class StockMovement {
+
+    public enum Reason {
+        CREATION,
+        RECEIVING,
+        REMOVAL,
+        SALE,
+        ADJUSTMENT
+    }
+
+    private long id;
+    private int productId;
+    private int delta;
+    private Reason reason;
+    private Integer orderTabId;
+    private Instant timestamp;
+
+    public StockMovement(int productId, int delta, Reason reason, Integer orderTabId) {
+        this.productId = productId;
+        this.delta = delta;
+        this.reason = reason;
+        this.orderTabId = orderTabId;
+    }
+
+    public StockMovement(int productId, int delta, Reason reason) {
+        this(productId, delta, reason, null);
+    }
+
+    public StockMovement() {
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    public int getDelta() {
+        return delta;
+    }
+
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public void setReason(Reason reason) {
+        this.reason = reason;
+    }
+
+    public Integer getOrderTabId() {
+        return orderTabId;
+    }
+
+    public void setOrderTabId(Integer orderTabId) {
+        this.orderTabId = orderTabId;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "Id: " + id +
+                "| Produto: " + productId +
+                "| Delta: " + delta +
+                "| Motivo: " + reason +
+                (orderTabId != null ? "| Comanda: " + orderTabId : "") +
+                "| Data: " + timestamp;
+    }
+}
@@ -0,0 +1,43 @@
+package com.io.github.pedroolivsz.dominio;
+
+/**
+ * Produto sem estoque suficiente para atender uma quantidade pedida.
+ */
+public class StockShortage {
+
+    private final int productId;
+    private final String productName;
+    private final int requested;
+    private final int available;
+
+    public StockShortage(int productId, String productName, int requested, int available) {
+        this.productId = productId;
+        this.productName = productName;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    @Override
+    public String toString() {
+        return "Produto: " + productId +
+                "| " + productName +
+                "| Pedido: " + requested +
+                "| Disponível: " + available;
+    }
+}
@@ -0,0 +1,28 @@
+package com.io.github.pedroolivsz.dominio;
+
+/**
+ * Produto encontrado em uma loja, em uma consulta que percorre todas as lojas.
+ */
+public class StoreProduct {
+
+    private final String store;
+    private final Product product;
+
+    public StoreProduct(String store, Product product) {
+        this.store = store;
+        this.product = product;
+    }
+
+    public String getStore() {
+        return store;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    @Override
+    public String toString() {
+        return "Loja: " + store + "| " + product;
+    }
+}
@@ -0,0 +1,718 @@
+package com.io.github.pedroolivsz.http;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.controller.OrderTabController;
+import com.io.github.pedroolivsz.controller.ProdutoController;
+import com.io.github.pedroolivsz.dominio.CatalogMetrics;
+import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.dominio.PriceAdjustment;
+import com.io.github.pedroolivsz.dominio.PriceChange;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ProductFilter;
+import com.io.github.pedroolivsz.dominio.ProductSuggestion;
+import com.io.github.pedroolivsz.dominio.ReceivingLine;
+import com.io.github.pedroolivsz.dominio.ReceivingResult;
+import com.io.github.pedroolivsz.dominio.ReorderSuggestion;
+import com.io.github.pedroolivsz.dominio.StockShortage;
+import com.io.github.pedroolivsz.logs.SlowQuery;
+import com.io.github.pedroolivsz.logs.SlowQueryLog;
+import com.io.github.pedroolivsz.repository.OptimisticLockException;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import com.io.github.pedroolivsz.service.ServiceException;
+import com.io.github.pedroolivsz.validation.DuplicateProductException;
+import com.io.github.pedroolivsz.validation.InsufficientStockException;
+import com.io.github.pedroolivsz.validation.ProductException;
+import com.io.github.pedroolivsz.validation.ProductNotFoundException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * API HTTP/JSON sobre os controllers de produtos e comandas.
+ *
+ * <p>Usa o servidor embutido do JDK. Toda resposta leva {@code Content-Length} e o corpo
+ * da requisição é sempre consumido, para que a conexão permaneça aberta entre requisições
+ * (keep-alive) e requisições enviadas em sequência na mesma conexão sejam atendidas em ordem.</p>
+ *
+ * <p>Cada requisição é atendida em uma thread virtual quando a JVM oferece suporte; caso
+ * contrário, em um pool fixo com o tamanho configurado em {@code http.threads}.</p>
+ *
+ * <pre>
+ * GET    /api/health
+ * GET    /api/diagnostics/slow-queries      SQLs mais lentos, com parâmetros mascarados e plano
+ * GET    /api/diagnostics/catalog           versão, custo de reconstrução e defasagem do catálogo
+ * GET    /api/products
+ * POST   /api/products                      {"nome", "quantidade", "valorUnitario"}
+ * GET    /api/products/suggest?prefixo=&limite=   autocompletar pelo início do nome
+ * GET    /api/products/reorder?limite=      reposição pelos dias de estoque na velocidade de vendas
+ * GET    /api/products/{id}
+ * PUT    /api/products/{id}                 {"nome", "quantidade", "valorUnitario", "versao" (opcional)}
+ * DELETE /api/products/{id}
+ * POST   /api/products/reprice              {"percentual" | "delta" | "precos": {id: preço},
+ *                                           "nomeContem", "ids", "precoMinimo", "precoMaximo", "previa"}
+ * POST   /api/products/receiving            {"itens": [{"produtoId", "quantidade"}]}
+ * POST   /api/products/{id}/stock/add       {"quantidade"}
+ * POST   /api/products/{id}/stock/remove    {"quantidade"}
+ * POST   /api/order-tabs                    {"mesa"}
+ * GET    /api/order-tabs/{id}
+ * POST   /api/order-tabs/{id}/items         {"produtoId", "quantidade"}
+ * POST   /api/order-tabs/{id}/close
+ * POST   /api/order-tabs/{id}/checkout      fecha dando baixa no estoque
+ * </pre>
+ *
+ * <p>A criação de produto, a entrada e a baixa de estoque e o fechamento com baixa aceitam o
+ * cabeçalho {@code Idempotency-Key}: repetidas com a mesma chave, devolvem a resposta da
+ * primeira execução sem executá-las de novo.</p>
+ *
+ * @author João Pedro
+ */
+
+public class ApiServer {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiServer.class);
+
+    private static final String JSON_TYPE = "application/json; charset=utf-8";
+    private static final int BACKLOG = 256;
+    private static final int DEFAULT_THREADS = 64;
+    private static final int DEFAULT_SUGGESTIONS = 10;
+    private static final String NODELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String ERROR_NOT_FOUND = "Recurso não encontrado";
+    private static final String ERROR_METHOD = "Método não permitido";
+    private static final String ERROR_INTERNAL = "Erro interno. Tente novamente mais tarde.";
+
+    //=============== Dependências ===============
+
+    private final ProdutoController produtoController;
+    private final OrderTabController orderTabController;
+
+    //=============== Estado ===============
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    //=============== Construtor ===============
+
+    /**
+     * @throws IllegalArgumentException se algum controller for null
+     */
+    public ApiServer(ProdutoController produtoController, OrderTabController orderTabController) {
+        if(produtoController == null) throw new IllegalArgumentException("ProdutoController não pode ser null");
+        if(orderTabController == null) throw new IllegalArgumentException("OrderTabController não pode ser null");
+
+        this.produtoController = produtoController;
+        this.orderTabController = orderTabController;
+    }
+
+    //=============== Ciclo de vida ===============
+
+    /**
+     * Inicia o servidor na porta informada. A porta 0 escolhe uma porta livre.
+     *
+     * @return porta em que o servidor está escutando
+     * @throws IOException se não for possível abrir a porta
+     */
+    public synchronized int start(int port) throws IOException {
+        if(server != null) throw new IllegalStateException("Servidor já iniciado");
+
+        //O servidor do JDK grava cabeçalhos e corpo separadamente; sem TCP_NODELAY, o algoritmo
+        //de Nagle combinado ao ACK atrasado do cliente adiciona dezenas de ms a cada resposta.
+        //A propriedade é lida uma única vez, na primeira criação de um servidor.
+        if(System.getProperty(NODELAY_PROPERTY) == null) System.setProperty(NODELAY_PROPERTY, "true");
+
+        executor = newExecutor();
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        server.createContext("/api/health", exchange -> handle(exchange, this::health));
+        server.createContext("/api/diagnostics", exchange -> handle(exchange, this::diagnostics));
+        server.createContext("/api/products", exchange -> handle(exchange, this::products));
+        server.createContext("/api/order-tabs", exchange -> handle(exchange, this::orderTabs));
+        server.setExecutor(executor);
+        server.start();
+
+        int boundPort = server.getAddress().getPort();
+        logger.info("API HTTP escutando na porta {}", boundPort);
+        return boundPort;
+    }
+
+    /**
+     * Encerra o servidor, aguardando até um segundo pelas requisições em andamento.
+     */
+    public synchronized void stop() {
+        if(server == null) return;
+
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        executor = null;
+        logger.info("API HTTP encerrada");
+    }
+
+    /**
+     * Threads virtuais exigem Java 21; o projeto compila para Java 17, por isso o executor
+     * é obtido por reflexão e substituído por um pool fixo quando não estiver disponível.
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            ExecutorService virtual = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            logger.info("API HTTP usando threads virtuais");
+            return virtual;
+        } catch (ReflectiveOperationException e) {
+            int threads = Config.getInt("http.threads", DEFAULT_THREADS);
+            logger.info("Threads virtuais indisponíveis. API HTTP usando pool de {} threads", threads);
+
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory factory = runnable -> {
+                Thread thread = new Thread(runnable, "http-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(threads, factory);
+        }
+    }
+
+    //=============== Rotas ===============
+
+    private Response health(Request request) {
+        request.requireMethod("GET");
+        return Response.ok(Map.of("status", "UP"));
+    }
+
+    private Response diagnostics(Request request) {
+        String[] path = request.segments();
+        if(path.length != 1) throw new NotFound();
+        request.requireMethod("GET");
+
+        return switch (path[0]) {
+            case "slow-queries" -> slowQueries();
+            case "catalog" -> catalog();
+            default -> throw new NotFound();
+        };
+    }
+
+    private Response catalog() {
+        CatalogMetrics metrics = produtoController.catalogMetrics();
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("versao", metrics.getVersion());
+        json.put("produtos", metrics.getProducts());
+        json.put("reconstrucoes", metrics.getRebuilds());
+        json.put("ultimaReconstrucaoMs", BigDecimal.valueOf(metrics.getLastRebuild().toNanos(), 6));
+        json.put("totalReconstrucaoMs", BigDecimal.valueOf(metrics.getTotalRebuild().toNanos(), 6));
+        json.put("atualizacoesIncrementais", metrics.getIncrementalUpdates());
+        json.put("totalIncrementalMs", BigDecimal.valueOf(metrics.getTotalIncremental().toNanos(), 6));
+        json.put("defasagemMs", metrics.getStaleness().toMillis());
+        return Response.ok(json);
+    }
+
+    private Response slowQueries() {
+
+        List<Object> queries = new ArrayList<>();
+        for(SlowQuery query : SlowQueryLog.top()) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("sql", query.getSql());
+            json.put("ocorrencias", query.getCount());
+            json.put("piorMs", BigDecimal.valueOf(query.getMaxNanos(), 6));
+            json.put("totalMs", BigDecimal.valueOf(query.getTotalNanos(), 6));
+            json.put("parametros", query.getParameters());
+            json.put("plano", query.getPlan());
+            json.put("ultimaEm", query.getLastSeen());
+            queries.add(json);
+        }
+        return Response.ok(queries);
+    }
+
+    private Response products(Request request) {
+        String[] path = request.segments();
+
+        if(path.length == 0) {
+            switch (request.method()) {
+                case "GET" -> {
+                    List<Object> products = new ArrayList<>();
+                    for(Product product : produtoController.listAll()) products.add(toJson(product));
+                    return Response.ok(products);
+                }
+                case "POST" -> {
+                    Map<String, Object> body = request.body();
+                    Product created = produtoController.create(
+                            request.header(IDEMPOTENCY_KEY_HEADER),
+                            requireString(body, "nome"),
+                            requireInt(body, "quantidade"),
+                            requireDecimal(body, "valorUnitario"));
+                    return new Response(201, toJson(created));
+                }
+                default -> throw new MethodNotAllowed();
+            }
+        }
+
+        if(path.length == 1 && path[0].equals("suggest")) {
+            request.requireMethod("GET");
+            String limit = request.query("limite");
+
+            List<Object> suggestions = new ArrayList<>();
+            for(ProductSuggestion suggestion : produtoController.suggest(
+                    request.query("prefixo") == null ? "" : request.query("prefixo"),
+                    limit == null ? DEFAULT_SUGGESTIONS : parseQueryInt(limit, "limite"))) {
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("id", suggestion.getProductId());
+                json.put("nome", suggestion.getName());
+                suggestions.add(json);
+            }
+            return Response.ok(suggestions);
+        }
+
+        if(path.length == 1 && path[0].equals("reorder")) {
+            request.requireMethod("GET");
+            String limit = request.query("limite");
+
+            List<Object> suggestions = new ArrayList<>();
+            for(ReorderSuggestion suggestion : produtoController.reorderSuggestions(
+                    limit == null ? DEFAULT_SUGGESTIONS : parseQueryInt(limit, "limite"))) {
+                Map<String, Object> json = new LinkedHashMap<>();
+                json.put("id", suggestion.getProductId());
+                json.put("nome", suggestion.getName());
+                json.put("quantidade", suggestion.getQuantity());
+                json.put("vendasPorDia", BigDecimal.valueOf(suggestion.getDailyRate()).setScale(2, RoundingMode.HALF_UP));
+                json.put("diasDeEstoque", BigDecimal.valueOf(suggestion.getDaysOfCover()).setScale(1, RoundingMode.HALF_UP));
+                json.put("quantidadeSugerida", suggestion.getSuggestedQuantity());
+                suggestions.add(json);
+            }
+            return Response.ok(suggestions);
+        }
+
+        if(path.length == 1 && path[0].equals("reprice")) {
+            request.requireMethod("POST");
+            return Response.ok(reprice(request.body()));
+        }
+
+        if(path.length == 1 && path[0].equals("receiving")) {
+            request.requireMethod("POST");
+            return Response.ok(receive(request.body()));
+        }
+
+        int id = parseId(path[0]);
+
+        if(path.length == 1) {
+            switch (request.method()) {
+                case "GET" -> {
+                    return Response.ok(toJson(produtoController.findbyId(id)));
+                }
+                case "PUT" -> {
+                    Map<String, Object> body = request.body();
+                    String nome = requireString(body, "nome");
+                    int quantidade = requireInt(body, "quantidade");
+                    BigDecimal valorUnitario = requireDecimal(body, "valorUnitario");
+
+                    Product updated = body.containsKey("versao")
+                            ? produtoController.update(id, nome, quantidade, valorUnitario, requireInt(body, "versao"))
+                            : produtoController.update(id, nome, quantidade, valorUnitario);
+                    return Response.ok(toJson(updated));
+                }
+                case "DELETE" -> {
+                    produtoController.delete(id);
+                    return new Response(204, null);
+                }
+                default -> throw new MethodNotAllowed();
+            }
+        }
+
+        if(path.length == 3 && path[1].equals("stock")) {
+            request.requireMethod("POST");
+            int quantity = requireInt(request.body(), "quantidade");
+
+            return switch (path[2]) {
+                case "add" -> Response.ok(toJson(produtoController.addStock(request.header(IDEMPOTENCY_KEY_HEADER), id, quantity)));
+                case "remove" -> Response.ok(toJson(produtoController.removeStock(request.header(IDEMPOTENCY_KEY_HEADER), id, quantity)));
+                default -> throw new NotFound();
+            };
+        }
+
+        throw new NotFound();
+    }
+
+    private List<Object> receive(Map<String, Object> body) {
+        if(!(body.get("itens") instanceof List<?> items)) throw new IllegalArgumentException("Campo 'itens' é obrigatório");
+
+        List<ReceivingLine> lines = new ArrayList<>();
+        for(Object item : items) {
+            if(!(item instanceof Map<?, ?> line)) throw new IllegalArgumentException("Item de recebimento inválido");
+            @SuppressWarnings("unchecked")
+            Map<String, Object> fields = (Map<String, Object>) line;
+            lines.add(new ReceivingLine(requireInt(fields, "produtoId"), requireInt(fields, "quantidade")));
+        }
+
+        List<Object> results = new ArrayList<>();
+        for(ReceivingResult result : produtoController.receive(lines)) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("produtoId", result.getLine().getProductId());
+            json.put("quantidade", result.getLine().getQuantity());
+            json.put("situacao", result.getStatus());
+            json.put("quantidadeResultante", result.isReceived() ? result.getProduct().getQuantity() : null);
+            results.add(json);
+        }
+        return results;
+    }
+
+    private Map<String, Object> reprice(Map<String, Object> body) {
+        PriceAdjustment adjustment;
+        if(body.containsKey("percentual")) {
+            adjustment = PriceAdjustment.percentage(requireDecimal(body, "percentual"));
+        } else if(body.containsKey("delta")) {
+            adjustment = PriceAdjustment.fixedDelta(requireDecimal(body, "delta"));
+        } else if(body.get("precos") instanceof Map<?, ?> prices) {
+            Map<Integer, BigDecimal> priceList = new LinkedHashMap<>();
+            for(Map.Entry<?, ?> entry : prices.entrySet()) {
+                if(!(entry.getValue() instanceof BigDecimal price)) throw new IllegalArgumentException("Preço inválido para o produto " + entry.getKey());
+                priceList.put(parseId(String.valueOf(entry.getKey())), price);
+            }
+            adjustment = PriceAdjustment.priceList(priceList);
+        } else {
+            throw new IllegalArgumentException("Informe 'percentual', 'delta' ou 'precos'");
+        }
+
+        ProductFilter filter = ProductFilter.all();
+        if(body.get("nomeContem") instanceof String text) filter.nameContains(text);
+        if(body.get("ids") instanceof List<?> ids) {
+            Set<Integer> selected = new HashSet<>();
+            for(Object id : ids) {
+                if(!(id instanceof BigDecimal number)) throw new IllegalArgumentException("ID inválido: " + id);
+                selected.add(number.intValue());
+            }
+            filter.ids(selected);
+        }
+        filter.priceBetween(
+                body.containsKey("precoMinimo") ? requireDecimal(body, "precoMinimo") : null,
+                body.containsKey("precoMaximo") ? requireDecimal(body, "precoMaximo") : null);
+
+        boolean preview = Boolean.TRUE.equals(body.get("previa"));
+        List<Object> changes = new ArrayList<>();
+        for(PriceChange change : produtoController.reprice(filter, adjustment, preview)) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("produtoId", change.getProductId());
+            json.put("nome", change.getProductName());
+            json.put("precoAnterior", change.getOldPrice());
+            json.put("precoNovo", change.getNewPrice());
+            changes.add(json);
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("previa", preview);
+        json.put("produtosAfetados", changes.size());
+        json.put("alteracoes", changes);
+        return json;
+    }
+
+    private Response orderTabs(Request request) {
+        String[] path = request.segments();
+
+        if(path.length == 0) {
+            request.requireMethod("POST");
+            OrderTab opened = orderTabController.open(requireInt(request.body(), "mesa"));
+            return new Response(201, toJson(opened));
+        }
+
+        int id = parseId(path[0]);
+
+        if(path.length == 1) {
+            request.requireMethod("GET");
+            return Response.ok(toJson(orderTabController.findById(id)));
+        }
+
+        if(path.length == 2) {
+            request.requireMethod("POST");
+            switch (path[1]) {
+                case "items" -> {
+                    Map<String, Object> body = request.body();
+                    orderTabController.addItem(id, requireInt(body, "produtoId"), requireInt(body, "quantidade"));
+                    return Response.ok(toJson(orderTabController.findById(id)));
+                }
+                case "close" -> {
+                    return Response.ok(toJson(orderTabController.close(id)));
+                }
+                case "checkout" -> {
+                    return Response.ok(toJson(orderTabController.checkout(request.header(IDEMPOTENCY_KEY_HEADER), id)));
+                }
+                default -> throw new NotFound();
+            }
+        }
+
+        throw new NotFound();
+    }
+
+    //=============== Tratamento das requisições ===============
+
+    private void handle(HttpExchange exchange, Route route) throws IOException {
+        Response response;
+        try {
+            response = route.handle(new Request(exchange));
+        } catch (NotFound e) {
+            response = Response.error(404, ERROR_NOT_FOUND);
+        } catch (MethodNotAllowed e) {
+            response = Response.error(405, ERROR_METHOD);
+        } catch (RuntimeException e) {
+            response = toErrorResponse(exchange, e);
+        }
+
+        try {
+            send(exchange, response);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Converte a exceção lançada pelos controllers em uma resposta. A cadeia de causas é
+     * percorrida porque os services encapsulam os erros de validação em {@link ServiceException}.
+     * Uma cadeia que termina em {@link ServiceException} ou {@link RepositoryException}, sem
+     * erro de infraestrutura por baixo, indica uma regra de negócio violada (comanda fechada,
+     * comanda inexistente).
+     */
+    private static Response toErrorResponse(HttpExchange exchange, RuntimeException exception) {
+        Throwable root = exception;
+        for(Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if(cause instanceof ProductNotFoundException) return Response.error(404, cause.getMessage());
+            if(cause instanceof InsufficientStockException shortage) return toShortageResponse(shortage);
+            if(cause instanceof OptimisticLockException) return Response.error(409, cause.getMessage());
+            if(cause instanceof DuplicateProductException) return Response.error(409, cause.getMessage());
+            if(cause instanceof ProductException || cause instanceof IllegalArgumentException) {
+                return Response.error(400, cause.getMessage());
+            }
+            root = cause;
+        }
+
+        if(root instanceof ServiceException || root instanceof RepositoryException) {
+            return Response.error(409, root.getMessage());
+        }
+
+        logger.error("Erro ao atender {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), exception);
+        return Response.error(500, ERROR_INTERNAL);
+    }
+
+    private static Response toShortageResponse(InsufficientStockException exception) {
+        List<Object> items = new ArrayList<>();
+        for(StockShortage shortage : exception.getShortages()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("produtoId", shortage.getProductId());
+            item.put("nome", shortage.getProductName());
+            item.put("pedido", shortage.getRequested());
+            item.put("disponivel", shortage.getAvailable());
+            items.add(item);
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("erro", exception.getMessage());
+        json.put("itensEmFalta", items);
+        return new Response(409, json);
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        if(response.body() == null) {
+            exchange.sendResponseHeaders(response.status(), -1);
+            return;
+        }
+
+        byte[] bytes = Json.write(response.body()).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", JSON_TYPE);
+        exchange.sendResponseHeaders(response.status(), bytes.length);
+        try(OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    //=============== Conversões ===============
+
+    private static Map<String, Object> toJson(Product product) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", product.getId());
+        json.put("nome", product.getName());
+        json.put("quantidade", product.getQuantity());
+        json.put("valorUnitario", product.getUnitValue());
+        json.put("estoqueMinimo", product.getMinimumStock());
+        json.put("versao", product.getVersion());
+        return json;
+    }
+
+    private static Map<String, Object> toJson(OrderTab orderTab) {
+        List<Object> items = new ArrayList<>();
+        if(orderTab.getProdutos() != null) {
+            for(Product line : orderTab.getProdutos()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("produtoId", line.getId());
+                item.put("nome", line.getName());
+                item.put("quantidade", line.getQuantity());
+                item.put("valorUnitario", line.getUnitValue());
+                items.add(item);
+            }
+        }
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", orderTab.getId());
+        json.put("mesa", orderTab.getTableNumber());
+        json.put("status", orderTab.getStatus());
+        json.put("abertaEm", orderTab.getOpenedAt());
+        json.put("fechadaEm", orderTab.getClosedAt());
+        json.put("total", orderTab.getTotalAmount());
+        json.put("itens", items);
+        return json;
+    }
+
+    private static int parseId(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new NotFound();
+        }
+    }
+
+    private static int parseQueryInt(String value, String parameter) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parâmetro '" + parameter + "' deve ser inteiro");
+        }
+    }
+
+    private static String requireString(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if(!(value instanceof String text)) throw new IllegalArgumentException("Campo '" + field + "' é obrigatório");
+        return text;
+    }
+
+    private static BigDecimal requireDecimal(Map<String, Object> body, String field) {
+        Object value = body.get(field);
+        if(!(value instanceof BigDecimal decimal)) throw new IllegalArgumentException("Campo '" + field + "' deve ser numérico");
+        return decimal;
+    }
+
+    private static int requireInt(Map<String, Object> body, String field) {
+        try {
+            return requireDecimal(body, field).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Campo '" + field + "' deve ser inteiro");
+        }
+    }
+
+    //=============== Tipos auxiliares ===============
+
+    @FunctionalInterface
+    private interface Route {
+        Response handle(Request request);
+    }
+
+    private record Response(int status, Object body) {
+        static Response ok(Object body) {
+            return new Response(200, body);
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, Map.of("erro", message == null ? ERROR_INTERNAL : message));
+        }
+    }
+
+    private static final class Request {
+        private final HttpExchange exchange;
+        private final byte[] rawBody;
+
+        /**
+         * O corpo é lido por inteiro já na criação: uma requisição com corpo não consumido
+         * impede que a conexão seja reaproveitada.
+         */
+        private Request(HttpExchange exchange) {
+            this.exchange = exchange;
+            try(InputStream input = exchange.getRequestBody()) {
+                this.rawBody = input.readAllBytes();
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Não foi possível ler o corpo da requisição", e);
+            }
+        }
+
+        String method() {
+            return exchange.getRequestMethod();
+        }
+
+        void requireMethod(String method) {
+            if(!method.equals(method())) throw new MethodNotAllowed();
+        }
+
+        /**
+         * @return segmentos do caminho após o contexto da rota
+         */
+        String[] segments() {
+            String path = exchange.getRequestURI().getPath();
+            String rest = path.substring(exchange.getHttpContext().getPath().length());
+            if(rest.startsWith("/")) rest = rest.substring(1);
+            if(rest.endsWith("/")) rest = rest.substring(0, rest.length() - 1);
+            return rest.isEmpty() ? new String[0] : rest.split("/");
+        }
+
+        /**
+         * @return valor decodificado do parâmetro da query string, ou null se ausente
+         */
+        String query(String name) {
+            String query = exchange.getRequestURI().getRawQuery();
+            if(query == null) return null;
+
+            for(String pair : query.split("&")) {
+                int separator = pair.indexOf('=');
+                String key = separator < 0 ? pair : pair.substring(0, separator);
+                if(URLDecoder.decode(key, StandardCharsets.UTF_8).equals(name)) {
+                    return separator < 0 ? "" : URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return primeiro valor do cabeçalho, ou null se ausente
+         */
+        String header(String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+        Map<String, Object> body() {
+            if(rawBody.length == 0) throw new IllegalArgumentException("Corpo da requisição é obrigatório");
+            return Json.parseObject(new String(rawBody, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class NotFound extends RuntimeException {
+        private NotFound() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class MethodNotAllowed extends RuntimeException {
+        private MethodNotAllowed() {
+            super(null, null, false, false);
+        }
+    }
+}
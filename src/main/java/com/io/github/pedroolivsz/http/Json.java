@@ -0,0 +1,249 @@
+package com.io.github.pedroolivsz.http;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura e escrita de JSON sem dependências externas, suficiente para a API local.
+ *
+ * <p>Objetos são lidos como {@link Map}, listas como {@link List}, números como
+ * {@link BigDecimal}, além de {@link String}, {@link Boolean} e null.</p>
+ */
+public final class Json {
+
+    private Json() {
+    }
+
+    //=============== Escrita ===============
+
+    public static String write(Object value) {
+        StringBuilder json = new StringBuilder(128);
+        write(json, value);
+        return json.toString();
+    }
+
+    private static void write(StringBuilder json, Object value) {
+        if(value == null) {
+            json.append("null");
+        } else if(value instanceof String || value instanceof Enum<?> || value instanceof Instant) {
+            writeString(json, value.toString());
+        } else if(value instanceof BigDecimal decimal) {
+            json.append(decimal.toPlainString());
+        } else if(value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else if(value instanceof Map<?, ?> map) {
+            json.append('{');
+            boolean first = true;
+            for(Map.Entry<?, ?> entry : map.entrySet()) {
+                if(!first) json.append(',');
+                writeString(json, String.valueOf(entry.getKey()));
+                json.append(':');
+                write(json, entry.getValue());
+                first = false;
+            }
+            json.append('}');
+        } else if(value instanceof Iterable<?> iterable) {
+            json.append('[');
+            boolean first = true;
+            for(Object item : iterable) {
+                if(!first) json.append(',');
+                write(json, item);
+                first = false;
+            }
+            json.append(']');
+        } else {
+            throw new IllegalArgumentException("Tipo não suportado em JSON: " + value.getClass().getName());
+        }
+    }
+
+    private static void writeString(StringBuilder json, String value) {
+        json.append('"');
+        for(int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if(c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    //=============== Leitura ===============
+
+    /**
+     * @throws IllegalArgumentException se o texto não for um JSON válido
+     */
+    public static Object parse(String text) {
+        Parser parser = new Parser(text);
+        parser.skipWhitespace();
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if(parser.position != text.length()) throw parser.error("Conteúdo após o fim do JSON");
+        return value;
+    }
+
+    /**
+     * @throws IllegalArgumentException se o texto não for um objeto JSON
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if(!(value instanceof Map)) throw new IllegalArgumentException("Era esperado um objeto JSON");
+        return (Map<String, Object>) value;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+        private Object readValue() {
+            if(position >= text.length()) throw error("Fim inesperado do JSON");
+
+            char c = text.charAt(position);
+            return switch (c) {
+                case '{' -> readObject();
+                case '[' -> readArray();
+                case '"' -> readString();
+                case 't' -> readLiteral("true", Boolean.TRUE);
+                case 'f' -> readLiteral("false", Boolean.FALSE);
+                case 'n' -> readLiteral("null", null);
+                default -> readNumber();
+            };
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> object = new LinkedHashMap<>();
+            position++;
+            skipWhitespace();
+            if(peek() == '}') {
+                position++;
+                return object;
+            }
+
+            while(true) {
+                skipWhitespace();
+                if(peek() != '"') throw error("Era esperado o nome de um campo");
+                String key = readString();
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                object.put(key, readValue());
+                skipWhitespace();
+                if(peek() == ',') {
+                    position++;
+                } else {
+                    expect('}');
+                    return object;
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> array = new ArrayList<>();
+            position++;
+            skipWhitespace();
+            if(peek() == ']') {
+                position++;
+                return array;
+            }
+
+            while(true) {
+                skipWhitespace();
+                array.add(readValue());
+                skipWhitespace();
+                if(peek() == ',') {
+                    position++;
+                } else {
+                    expect(']');
+                    return array;
+                }
+            }
+        }
+
+        private String readString() {
+            StringBuilder value = new StringBuilder();
+            position++;
+
+            while(position < text.length()) {
+                char c = text.charAt(position++);
+                if(c == '"') return value.toString();
+                if(c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+
+                if(position >= text.length()) break;
+                char escaped = text.charAt(position++);
+                switch (escaped) {
+                    case '"', '\\', '/' -> value.append(escaped);
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'u' -> {
+                        if(position + 4 > text.length()) throw error("Escape unicode incompleto");
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                        position += 4;
+                    }
+                    default -> throw error("Escape inválido");
+                }
+            }
+
+            throw error("Texto não terminado");
+        }
+
+        private BigDecimal readNumber() {
+            int start = position;
+            while(position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+                position++;
+            }
+            if(start == position) throw error("Valor inválido");
+
+            try {
+                return new BigDecimal(text.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("Número inválido");
+            }
+        }
+
+        private Object readLiteral(String literal, Object value) {
+            if(!text.startsWith(literal, position)) throw error("Valor inválido");
+            position += literal.length();
+            return value;
+        }
+
+        private void skipWhitespace() {
+            while(position < text.length() && Character.isWhitespace(text.charAt(position))) position++;
+        }
+
+        private char peek() {
+            if(position >= text.length()) throw error("Fim inesperado do JSON");
+            return text.charAt(position);
+        }
+
+        private void expect(char expected) {
+            if(peek() != expected) throw error("Era esperado '" + expected + "'");
+            position++;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " (posição " + position + ")");
+        }
+    }
+}
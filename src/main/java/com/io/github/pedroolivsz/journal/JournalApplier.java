@@ -0,0 +1,26 @@
+package com.io.github.pedroolivsz.journal;
+
+import java.util.List;
+
+/**
+ * Destino dos registros do {@link WriteAheadJournal}, normalmente o banco de dados.
+ *
+ * <p>Para que o replay após uma queda seja idempotente, a implementação deve gravar a
+ * sequência do último registro aplicado na mesma transação em que aplica o lote e
+ * ignorar registros com sequência menor ou igual à já gravada.</p>
+ */
+public interface JournalApplier {
+
+    /**
+     * @return sequência do último registro aplicado de forma durável (0 se nenhum)
+     */
+    long lastAppliedSequence();
+
+    /**
+     * Aplica um lote de registros, em ordem de sequência, de forma atômica.
+     *
+     * @param records registros a aplicar
+     * @throws Exception se o lote não puder ser aplicado; ele será tentado novamente
+     */
+    void apply(List<JournalRecord> records) throws Exception;
+}
@@ -0,0 +1,8 @@
+package com.io.github.pedroolivsz.journal;
+
+public class JournalException extends RuntimeException {
+    public JournalException(String message, Throwable cause) {
+        super(message, cause);
+    }
+    public JournalException(String message) { super(message); }
+}
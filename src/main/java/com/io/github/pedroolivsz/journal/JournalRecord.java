@@ -0,0 +1,23 @@
+package com.io.github.pedroolivsz.journal;
+
+/**
+ * Registro gravado no journal: número de sequência e conteúdo já serializado.
+ */
+public class JournalRecord {
+
+    private final long sequence;
+    private final byte[] payload;
+
+    public JournalRecord(long sequence, byte[] payload) {
+        this.sequence = sequence;
+        this.payload = payload;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+}
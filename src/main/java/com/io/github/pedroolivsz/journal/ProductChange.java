@@ -0,0 +1,74 @@
+package com.io.github.pedroolivsz.journal;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+
+import java.time.Instant;
+
+/**
+ * Alteração de um produto gravada no journal do catálogo em memória: o estado completo do
+ * produto após a escrita (ou a exclusão) e a movimentação de estoque que a originou, se houver.
+ *
+ * <p>Por carregar o estado completo, e não a diferença, reaplicar a mesma alteração mais
+ * de uma vez leva ao mesmo resultado. O instante da alteração vai junto, para que o
+ * histórico de preços gravado no snapshot registre quando o preço mudou, e não quando o
+ * snapshot foi feito.</p>
+ */
+public class ProductChange {
+
+    private final int productId;
+    private final Product state;
+    private final StockMovement movement;
+    private final Instant changedAt;
+
+    private ProductChange(int productId, Product state, StockMovement movement, Instant changedAt) {
+        this.productId = productId;
+        this.state = state;
+        this.movement = movement;
+        this.changedAt = changedAt;
+    }
+
+    /**
+     * @param state estado do produto após a escrita
+     * @param movement movimentação de estoque da escrita, ou null
+     */
+    public static ProductChange put(Product state, StockMovement movement) {
+        return put(state, movement, Instant.now());
+    }
+
+    /**
+     * @param state estado do produto após a escrita
+     * @param movement movimentação de estoque da escrita, ou null
+     * @param changedAt instante da escrita
+     */
+    public static ProductChange put(Product state, StockMovement movement, Instant changedAt) {
+        return new ProductChange(state.getId(), state, movement, changedAt);
+    }
+
+    public static ProductChange delete(int productId) {
+        return new ProductChange(productId, null, null, Instant.now());
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    /**
+     * @return estado após a escrita, ou null se o produto foi excluído
+     */
+    public Product getState() {
+        return state;
+    }
+
+    public StockMovement getMovement() {
+        return movement;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+
+    public boolean isDelete() {
+        return state == null;
+    }
+}
@@ -0,0 +1,94 @@
+package com.io.github.pedroolivsz.journal;
+
+import com.io.github.pedroolivsz.dominio.Product;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serialização das alterações do catálogo em memória. Um registro do journal guarda todas
+ * as alterações de uma operação, de modo que um recebimento ou reajuste com vários
+ * produtos seja recuperado por inteiro ou não seja recuperado.
+ *
+ * <p>Registros gravados antes do instante da alteração fazer parte do formato ({@code PUT})
+ * continuam legíveis; a alteração recuperada deles fica com o instante da leitura.</p>
+ */
+public class ProductChangeCodec {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final byte TIMED_PUT = 3;
+
+    private ProductChangeCodec() {
+    }
+
+    public static byte[] encode(List<ProductChange> changes) {
+        try(ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * changes.size());
+            DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(changes.size());
+
+            for(ProductChange change : changes) {
+                if(change.isDelete()) {
+                    output.writeByte(DELETE);
+                    output.writeInt(change.getProductId());
+                    continue;
+                }
+
+                Product state = change.getState();
+                output.writeByte(TIMED_PUT);
+                output.writeLong(change.getChangedAt().toEpochMilli());
+                output.writeInt(state.getId());
+                output.writeUTF(state.getName());
+                output.writeInt(state.getQuantity());
+                output.writeUTF(state.getUnitValue().toPlainString());
+                output.writeInt(state.getMinimumStock());
+                output.writeInt(state.getVersion());
+
+                byte[] movement = change.getMovement() != null ? StockMovementCodec.encode(change.getMovement()) : new byte[0];
+                output.writeInt(movement.length);
+                output.write(movement);
+            }
+            output.flush();
+
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new JournalException("Erro ao serializar alteração de produto", e);
+        }
+    }
+
+    public static List<ProductChange> decode(byte[] payload) {
+        try(DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int count = input.readInt();
+            List<ProductChange> changes = new ArrayList<>(count);
+
+            for(int i = 0; i < count; i++) {
+                byte type = input.readByte();
+                if(type == DELETE) {
+                    changes.add(ProductChange.delete(input.readInt()));
+                    continue;
+                }
+                if(type != PUT && type != TIMED_PUT) throw new JournalException("Tipo de alteração de produto desconhecido: " + type);
+                Instant changedAt = type == TIMED_PUT ? Instant.ofEpochMilli(input.readLong()) : Instant.now();
+
+                Product state = new Product(input.readInt(), input.readUTF(), input.readInt(), new BigDecimal(input.readUTF()));
+                state.setMinimumStock(input.readInt());
+                state.setVersion(input.readInt());
+
+                byte[] movement = new byte[input.readInt()];
+                input.readFully(movement);
+                changes.add(ProductChange.put(state, movement.length > 0 ? StockMovementCodec.decode(movement) : null, changedAt));
+            }
+
+            return changes;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new JournalException("Registro de alteração de produto inválido", e);
+        }
+    }
+}
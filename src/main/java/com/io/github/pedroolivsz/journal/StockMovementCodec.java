@@ -0,0 +1,56 @@
+package com.io.github.pedroolivsz.journal;
+
+import com.io.github.pedroolivsz.dominio.StockMovement;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Serialização compacta de {@link StockMovement} para os registros do journal.
+ */
+public class StockMovementCodec {
+
+    private static final int NO_ORDER_TAB = -1;
+
+    private StockMovementCodec() {
+    }
+
+    public static byte[] encode(StockMovement movement) {
+        try(ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+            DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(movement.getProductId());
+            output.writeInt(movement.getDelta());
+            output.writeUTF(movement.getReason().name());
+            output.writeInt(movement.getOrderTabId() != null ? movement.getOrderTabId() : NO_ORDER_TAB);
+            output.writeLong(movement.getTimestamp() != null
+                    ? movement.getTimestamp().toEpochMilli()
+                    : System.currentTimeMillis());
+            output.flush();
+
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new JournalException("Erro ao serializar movimentação de estoque", e);
+        }
+    }
+
+    public static StockMovement decode(byte[] payload) {
+        try(DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload))) {
+            int productId = input.readInt();
+            int delta = input.readInt();
+            StockMovement.Reason reason = StockMovement.Reason.valueOf(input.readUTF());
+            int orderTabId = input.readInt();
+
+            StockMovement movement = new StockMovement(productId, delta, reason,
+                    orderTabId != NO_ORDER_TAB ? orderTabId : null);
+            movement.setTimestamp(Instant.ofEpochMilli(input.readLong()));
+
+            return movement;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new JournalException("Registro de movimentação de estoque inválido", e);
+        }
+    }
+}
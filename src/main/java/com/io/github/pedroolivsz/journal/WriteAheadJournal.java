@@ -0,0 +1,517 @@
+package com.io.github.pedroolivsz.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Journal de escrita antecipada (write-ahead) em arquivos mapeados em memória.
+ *
+ * <p>As mutações são anexadas a segmentos de tamanho fixo e confirmadas ao chamador
+ * somente depois do {@code force()} do segmento. Um único fsync cobre todos os registros
+ * anexados durante a janela de group commit. Em seguida, uma thread de aplicação entrega
+ * os registros em lotes ao {@link JournalApplier}, repetindo enquanto o banco estiver
+ * indisponível.</p>
+ *
+ * <p>Formato de cada registro: {@code [tamanho:int][sequência:long][conteúdo][crc32:int]}.
+ * O tamanho é escrito por último, de modo que um registro incompleto seja ignorado na
+ * recuperação. Segmentos cujos registros já foram todos aplicados são removidos.</p>
+ *
+ * <p>Ciclo de vida: {@link #recover()}, {@link #start()}, {@link #append(byte[])} e
+ * {@link #close()}.</p>
+ *
+ * @author João Pedro
+ */
+
+public class WriteAheadJournal implements Closeable {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteAheadJournal.class);
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int TRAILER_BYTES = Integer.BYTES;
+    private static final int MAX_APPLY_BATCH = 500;
+    private static final long APPLY_RETRY_MILLIS = 200;
+
+    //=============== Configuração ===============
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long groupCommitNanos;
+    private final JournalApplier applier;
+
+    //=============== Estado (protegido por lock) ===============
+
+    private final Object lock = new Object();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final List<Segment> dirty = new ArrayList<>();
+    private final List<JournalRecord> unflushed = new ArrayList<>();
+    private final List<Path> pendingDeletion = new ArrayList<>();
+    private long nextSequence = 1;
+    private long durableSequence;
+    private RuntimeException flushFailure;
+    private boolean recovered;
+    private boolean running;
+
+    private final BlockingQueue<JournalRecord> toApply = new LinkedBlockingQueue<>();
+    private volatile long appliedSequence;
+    private Thread flusherThread;
+    private Thread applierThread;
+
+    //=============== Construtor ===============
+
+    /**
+     * @param directory diretório dos segmentos
+     * @param segmentBytes tamanho de cada segmento em bytes
+     * @param groupCommitMillis janela para agrupar registros em um único fsync
+     * @param applier destino dos registros
+     * @throws IllegalArgumentException se algum parâmetro for inválido
+     */
+    public WriteAheadJournal(Path directory, int segmentBytes, long groupCommitMillis, JournalApplier applier) {
+        if(directory == null) throw new IllegalArgumentException("Diretório do journal não pode ser null");
+        if(segmentBytes < 4096) throw new IllegalArgumentException("Segmento deve ter pelo menos 4096 bytes");
+        if(groupCommitMillis < 0) throw new IllegalArgumentException("Janela de group commit não pode ser negativa");
+        if(applier == null) throw new IllegalArgumentException("JournalApplier não pode ser null");
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.groupCommitNanos = TimeUnit.MILLISECONDS.toNanos(groupCommitMillis);
+        this.applier = applier;
+    }
+
+    //=============== Ciclo de vida ===============
+
+    /**
+     * Lê os segmentos existentes e agenda para aplicação os registros com sequência maior
+     * que a última aplicada. Deve ser chamado uma única vez, antes de {@link #start()}.
+     *
+     * @return registros recuperados que ainda não foram aplicados, em ordem
+     * @throws JournalException se os segmentos não puderem ser lidos
+     */
+    public List<JournalRecord> recover() {
+        synchronized (lock) {
+            if(recovered) throw new JournalException("Journal já recuperado");
+
+            try {
+                Files.createDirectories(directory);
+                long lastApplied = applier.lastAppliedSequence();
+                long maxSequence = lastApplied;
+                List<JournalRecord> pending = new ArrayList<>();
+
+                for(Path path : listSegments()) {
+                    Segment segment = Segment.map(path, firstSequenceOf(path), 0);
+                    for(JournalRecord record : segment.scan()) {
+                        maxSequence = Math.max(maxSequence, record.getSequence());
+                        if(record.getSequence() > lastApplied) pending.add(record);
+                    }
+                    segments.addLast(segment);
+                }
+
+                Segment last = segments.peekLast();
+                if(last != null) last.clearTail();
+
+                nextSequence = maxSequence + 1;
+                durableSequence = maxSequence;
+                appliedSequence = lastApplied;
+                recovered = true;
+                truncateApplied();
+
+                toApply.addAll(pending);
+                logger.info("Journal recuperado. Segmentos: {}, registros pendentes: {}, última sequência aplicada: {}",
+                        segments.size(), pending.size(), lastApplied);
+
+                return List.copyOf(pending);
+            } catch (IOException | UncheckedIOException e) {
+                throw new JournalException("Erro ao recuperar o journal em " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * Inicia as threads de fsync e de aplicação.
+     */
+    public void start() {
+        synchronized (lock) {
+            if(!recovered) recover();
+            if(running) return;
+            running = true;
+        }
+
+        flusherThread = new Thread(this::flushLoop, "journal-flusher");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+
+        applierThread = new Thread(this::applyLoop, "journal-applier");
+        applierThread.setDaemon(true);
+        applierThread.start();
+    }
+
+    /**
+     * Para as threads após gravar os registros pendentes. Registros ainda não aplicados
+     * permanecem nos segmentos e serão aplicados na próxima inicialização.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            if(!running) return;
+            running = false;
+            lock.notifyAll();
+        }
+
+        join(flusherThread);
+        join(applierThread);
+
+        synchronized (lock) {
+            segments.forEach(Segment::force);
+            lock.notifyAll();
+        }
+
+        logger.info("Journal fechado. Última sequência aplicada: {}", appliedSequence);
+    }
+
+    //=============== Escrita ===============
+
+    /**
+     * Anexa um registro e aguarda até que ele esteja gravado de forma durável.
+     *
+     * @param payload conteúdo serializado
+     * @return sequência atribuída ao registro
+     * @throws JournalException se o journal estiver fechado ou o fsync falhar
+     */
+    public long append(byte[] payload) {
+        int recordBytes = HEADER_BYTES + payload.length + TRAILER_BYTES;
+        if(recordBytes + Integer.BYTES > segmentBytes) {
+            throw new JournalException("Registro de " + payload.length + " bytes não cabe em um segmento");
+        }
+
+        synchronized (lock) {
+            if(!running) throw new JournalException("Journal não está em execução");
+
+            Segment segment = segments.peekLast();
+            if(segment == null || segment.remaining() < recordBytes + Integer.BYTES) {
+                segment = roll();
+            }
+
+            long sequence = nextSequence++;
+            segment.write(sequence, payload);
+            if(!dirty.contains(segment)) dirty.add(segment);
+            unflushed.add(new JournalRecord(sequence, payload));
+            lock.notifyAll();
+
+            boolean interrupted = false;
+            try {
+                while(durableSequence < sequence) {
+                    if(flushFailure != null) throw new JournalException("Falha ao gravar o journal", flushFailure);
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } finally {
+                if(interrupted) Thread.currentThread().interrupt();
+            }
+
+            return sequence;
+        }
+    }
+
+    //=============== Consultas ===============
+
+    public boolean isRunning() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public int getPendingCount() {
+        return toApply.size();
+    }
+
+    public int getSegmentCount() {
+        synchronized (lock) {
+            return segments.size();
+        }
+    }
+
+    //=============== Threads ===============
+
+    private void flushLoop() {
+        while(true) {
+            synchronized (lock) {
+                while(unflushed.isEmpty() && running) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+                if(unflushed.isEmpty()) return;
+            }
+
+            //Janela de group commit: registros anexados durante a espera entram no mesmo fsync
+            if(groupCommitNanos > 0) LockSupport.parkNanos(groupCommitNanos);
+
+            List<Segment> toForce;
+            List<JournalRecord> batch;
+            synchronized (lock) {
+                toForce = new ArrayList<>(dirty);
+                dirty.clear();
+                batch = new ArrayList<>(unflushed);
+                unflushed.clear();
+            }
+
+            try {
+                toForce.forEach(Segment::force);
+            } catch (RuntimeException e) {
+                logger.error("Erro ao gravar o journal em disco", e);
+                synchronized (lock) {
+                    flushFailure = e;
+                    lock.notifyAll();
+                }
+                return;
+            }
+
+            synchronized (lock) {
+                durableSequence = batch.get(batch.size() - 1).getSequence();
+                lock.notifyAll();
+            }
+            toApply.addAll(batch);
+        }
+    }
+
+    private void applyLoop() {
+        while(true) {
+            JournalRecord first;
+            try {
+                first = toApply.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            if(first == null) {
+                if(isStopped()) return;
+                continue;
+            }
+
+            List<JournalRecord> batch = new ArrayList<>();
+            batch.add(first);
+            toApply.drainTo(batch, MAX_APPLY_BATCH - 1);
+
+            if(!applyWithRetry(batch)) return;
+
+            appliedSequence = batch.get(batch.size() - 1).getSequence();
+            synchronized (lock) {
+                truncateApplied();
+            }
+        }
+    }
+
+    private boolean applyWithRetry(List<JournalRecord> batch) {
+        while(true) {
+            try {
+                applier.apply(batch);
+                return true;
+            } catch (Exception e) {
+                //No fechamento a recusa é esperada: os registros ficam nos segmentos para a próxima inicialização
+                if(!isRunning()) {
+                    logger.debug("Journal em fechamento; {} registros ficam para a próxima inicialização", batch.size());
+                    return false;
+                }
+                logger.warn("Não foi possível aplicar {} registros do journal; nova tentativa em {} ms",
+                        batch.size(), APPLY_RETRY_MILLIS, e);
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(APPLY_RETRY_MILLIS));
+            }
+        }
+    }
+
+    private boolean isStopped() {
+        synchronized (lock) {
+            return !running && unflushed.isEmpty() && (flusherThread == null || !flusherThread.isAlive());
+        }
+    }
+
+    //=============== Segmentos (chamados com lock) ===============
+
+    private Segment roll() {
+        try {
+            Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+            Segment segment = Segment.map(path, nextSequence, segmentBytes);
+            segments.addLast(segment);
+            logger.debug("Novo segmento do journal: {}", path.getFileName());
+            return segment;
+        } catch (IOException e) {
+            throw new JournalException("Erro ao criar segmento do journal", e);
+        }
+    }
+
+    /**
+     * Remove os segmentos antigos cujos registros já foram todos aplicados.
+     */
+    private void truncateApplied() {
+        while(segments.size() > 1) {
+            Segment oldest = segments.peekFirst();
+            if(oldest.lastSequence > appliedSequence || dirty.contains(oldest)) break;
+
+            segments.pollFirst();
+            pendingDeletion.add(oldest.path);
+        }
+
+        pendingDeletion.removeIf(path -> {
+            try {
+                Files.deleteIfExists(path);
+                return true;
+            } catch (IOException e) {
+                //No Windows o arquivo continua bloqueado até o mapeamento ser liberado pelo GC
+                logger.debug("Segmento {} ainda em uso; remoção adiada", path.getFileName());
+                return false;
+            }
+        });
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try(Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted(Comparator.comparingLong(WriteAheadJournal::firstSequenceOf))
+                    .toList();
+        }
+    }
+
+    private static long firstSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void join(Thread thread) {
+        if(thread == null) return;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //=============== Segmento mapeado ===============
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private long lastSequence;
+
+        private Segment(Path path, MappedByteBuffer buffer, long firstSequence) {
+            this.path = path;
+            this.buffer = buffer;
+            this.lastSequence = firstSequence - 1;
+        }
+
+        /**
+         * Mapeia um segmento. Com {@code size} igual a zero usa o tamanho atual do arquivo.
+         */
+        static Segment map(Path path, long firstSequence, int size) throws IOException {
+            try(FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long length = size > 0 ? size : channel.size();
+                return new Segment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, length), firstSequence);
+            }
+        }
+
+        int remaining() {
+            return buffer.capacity() - position;
+        }
+
+        void write(long sequence, byte[] payload) {
+            int start = position;
+            buffer.putLong(start + Integer.BYTES, sequence);
+            buffer.put(start + HEADER_BYTES, payload);
+            buffer.putInt(start + HEADER_BYTES + payload.length, checksum(start, payload.length));
+            buffer.putInt(start, payload.length);
+
+            position = start + HEADER_BYTES + payload.length + TRAILER_BYTES;
+            lastSequence = sequence;
+        }
+
+        /**
+         * Lê os registros válidos, parando no primeiro registro vazio, incompleto ou corrompido.
+         */
+        List<JournalRecord> scan() {
+            List<JournalRecord> records = new ArrayList<>();
+            int offset = 0;
+
+            while(offset + HEADER_BYTES + TRAILER_BYTES <= buffer.capacity()) {
+                int length = buffer.getInt(offset);
+                if(length <= 0 || offset + HEADER_BYTES + length + TRAILER_BYTES > buffer.capacity()) break;
+
+                long sequence = buffer.getLong(offset + Integer.BYTES);
+                if(sequence <= lastSequence) break;
+                if(buffer.getInt(offset + HEADER_BYTES + length) != checksum(offset, length)) break;
+
+                byte[] payload = new byte[length];
+                buffer.get(offset + HEADER_BYTES, payload);
+                records.add(new JournalRecord(sequence, payload));
+
+                lastSequence = sequence;
+                offset += HEADER_BYTES + length + TRAILER_BYTES;
+            }
+
+            position = offset;
+            return records;
+        }
+
+        /**
+         * Zera o espaço após o último registro válido, descartando restos de uma escrita interrompida.
+         */
+        void clearTail() {
+            boolean changed = false;
+
+            for(int i = position; i < buffer.capacity(); i++) {
+                if(buffer.get(i) != 0) {
+                    buffer.put(i, (byte) 0);
+                    changed = true;
+                }
+            }
+
+            if(changed) force();
+        }
+
+        void force() {
+            buffer.force();
+        }
+
+        private int checksum(int offset, int payloadLength) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset + Integer.BYTES, Long.BYTES + payloadLength));
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.io.github.pedroolivsz.logs;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Envolve uma conexão para cronometrar a execução de cada comando criado por ela.
+ *
+ * <p>Dentro de uma operação rastreada, cada execução vira um trecho {@code statement} na
+ * árvore do {@link Trace}. Execuções acima do limite do {@link SlowQueryLog} são
+ * registradas nele com o SQL e os parâmetros da execução, capturados das chamadas
+ * {@code set*} do comando.</p>
+ *
+ * @author João Pedro
+ */
+
+public final class InstrumentedConnection {
+    //=============== Constantes ===============
+
+    public static final String STATEMENT_SPAN = "statement";
+
+    private InstrumentedConnection() {
+    }
+
+    //=============== Operações ===============
+
+    /**
+     * @param connection conexão obtida do pool
+     * @return conexão que cria comandos cronometrados
+     */
+    public static Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(connection));
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result = InstrumentedConnection.invoke(connection, method, args);
+
+            if(result instanceof Statement statement) {
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class
+                        : Statement.class;
+                //prepareStatement e prepareCall recebem o SQL como primeiro argumento
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                        new Class<?>[] {type}, new StatementHandler(connection, statement, sql));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Connection connection;
+        private final Statement statement;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private int batchSize;
+
+        private StatementHandler(Connection connection, Statement statement, String sql) {
+            this.connection = connection;
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+
+            if(name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if(name.equals("clearParameters")) {
+                parameters.clear();
+            } else if(name.equals("addBatch") || name.equals("clearBatch")) {
+                batchSize = name.equals("addBatch") ? batchSize + 1 : 0;
+            }
+
+            if(!name.startsWith("execute")) return InstrumentedConnection.invoke(statement, method, args);
+
+            //Statement.execute*(sql) recebe o SQL na própria execução
+            String executed = args != null && args.length > 0 && args[0] instanceof String text ? text : sql;
+            long start = System.nanoTime();
+            Span span = Trace.span(STATEMENT_SPAN);
+            try {
+                return InstrumentedConnection.invoke(statement, method, args);
+            } finally {
+                span.close();
+                long elapsed = System.nanoTime() - start;
+                long threshold = SlowQueryLog.thresholdNanos();
+                if(threshold >= 0 && elapsed >= threshold && executed != null) {
+                    SlowQueryLog.record(connection, executed, new TreeMap<>(parameters),
+                            name.equals("executeBatch") ? batchSize : 0, elapsed);
+                }
+                if(name.equals("executeBatch")) batchSize = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.io.github.pedroolivsz.logs;
+
+import java.time.Instant;
+
+/**
+ * Consulta SQL que ultrapassou o limite do log de consultas lentas, com o acumulado de
+ * todas as ocorrências do mesmo SQL e os parâmetros da ocorrência mais lenta.
+ *
+ * <p>Instâncias são cópias imutáveis do estado no momento da leitura.</p>
+ */
+public class SlowQuery {
+
+    private final String sql;
+    private final int count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final String parameters;
+    private final String plan;
+    private final Instant lastSeen;
+
+    public SlowQuery(String sql, int count, long totalNanos, long maxNanos, String parameters, String plan, Instant lastSeen) {
+        this.sql = sql;
+        this.count = count;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.parameters = parameters;
+        this.plan = plan;
+        this.lastSeen = lastSeen;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * @return parâmetros da ocorrência mais lenta, já mascarados conforme a configuração
+     */
+    public String getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return saída do {@code EXPLAIN QUERY PLAN}, uma linha por passo do plano
+     */
+    public String getPlan() {
+        return plan;
+    }
+
+    public Instant getLastSeen() {
+        return lastSeen;
+    }
+}
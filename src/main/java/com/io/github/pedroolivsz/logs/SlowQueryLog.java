@@ -0,0 +1,248 @@
+package com.io.github.pedroolivsz.logs;
+
+import com.io.github.pedroolivsz.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log de consultas lentas do banco.
+ *
+ * <p>Todo comando executado por uma conexão de {@code Database.connect()} é cronometrado;
+ * os que passam de {@code db.slow.query.threshold.millis} são escritos no log
+ * {@value #SLOW_LOG} com o SQL, a duração e os parâmetros mascarados conforme
+ * {@code db.slow.query.parameters}. Na primeira vez que um SQL é lento, o plano do
+ * {@code EXPLAIN QUERY PLAN} é capturado na mesma conexão e guardado junto dele.</p>
+ *
+ * <p>Em memória ficam apenas os {@code db.slow.query.top} SQLs com a pior ocorrência,
+ * disponíveis em {@link #top()}.</p>
+ *
+ * @author João Pedro
+ */
+
+public final class SlowQueryLog {
+    //=============== Constantes ===============
+
+    public static final String SLOW_LOG = "slow-queries";
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final Logger slowLog = LoggerFactory.getLogger(SLOW_LOG);
+
+    private static final int DEFAULT_THRESHOLD_MILLIS = 50;
+    private static final int DEFAULT_TOP = 20;
+    private static final String DEFAULT_PARAMETER_MODE = "TYPES";
+
+    /**
+     * Como os parâmetros aparecem no log e em {@link SlowQuery#getParameters()}.
+     */
+    public enum ParameterMode {
+        /** Apenas a quantidade de parâmetros: {@code [?, ?]} */
+        HIDDEN,
+        /** O tipo de cada valor: {@code [String, Integer]} */
+        TYPES,
+        /** Os valores como foram enviados ao banco */
+        VALUES
+    }
+
+    //=============== Estado ===============
+
+    private static volatile long thresholdNanos = toNanos(Config.getInt("db.slow.query.threshold.millis", DEFAULT_THRESHOLD_MILLIS));
+    private static volatile ParameterMode parameterMode = parameterModeFromConfig();
+    private static volatile int capacity = Config.getInt("db.slow.query.top", DEFAULT_TOP);
+
+    //Protegido pelo monitor da classe
+    private static final Map<String, Entry> entries = new HashMap<>();
+
+    private SlowQueryLog() {
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * @return false se o log estiver desligado ({@code db.slow.query.threshold.millis} negativo)
+     */
+    public static boolean isEnabled() {
+        return thresholdNanos >= 0;
+    }
+
+    /**
+     * @return os SQLs mais lentos, da pior ocorrência para a menor
+     */
+    public static List<SlowQuery> top() {
+        List<SlowQuery> queries = new ArrayList<>();
+        synchronized(SlowQueryLog.class) {
+            for(Entry entry : entries.values()) queries.add(entry.snapshot());
+        }
+        queries.sort(Comparator.comparingLong(SlowQuery::getMaxNanos).reversed());
+        return queries;
+    }
+
+    //=============== Configuração ===============
+
+    /**
+     * @param millis duração a partir da qual um comando é registrado; negativo desliga o log
+     */
+    public static void setThresholdMillis(long millis) {
+        thresholdNanos = toNanos(millis);
+    }
+
+    public static void setParameterMode(ParameterMode mode) {
+        if(mode == null) throw new IllegalArgumentException("Modo dos parâmetros não pode ser null");
+        parameterMode = mode;
+    }
+
+    public static synchronized void clear() {
+        entries.clear();
+    }
+
+    //=============== Registro ===============
+
+    static long thresholdNanos() {
+        return thresholdNanos;
+    }
+
+    /**
+     * Registra um comando que passou do limite.
+     *
+     * @param conn conexão que executou o comando, usada para o {@code EXPLAIN QUERY PLAN}
+     * @param sql SQL do comando
+     * @param parameters parâmetros da última execução, por posição
+     * @param batchSize linhas do lote executado, ou 0 fora de lote
+     * @param nanos duração da execução
+     */
+    static void record(Connection conn, String sql, Map<Integer, Object> parameters, int batchSize, long nanos) {
+        String formatted = format(parameters, batchSize);
+        Entry entry;
+        boolean explain;
+
+        synchronized(SlowQueryLog.class) {
+            entry = entries.get(sql);
+            if(entry == null) {
+                entry = new Entry(sql);
+                entries.put(sql, entry);
+                evictBeyondCapacity(entry);
+            }
+            entry.add(nanos, formatted);
+
+            explain = !entry.planRequested;
+            entry.planRequested = true;
+        }
+
+        String plan = null;
+        if(explain) {
+            plan = explain(conn, sql);
+            synchronized(SlowQueryLog.class) {
+                entry.plan = plan;
+            }
+        }
+
+        slowLog.warn("Consulta lenta: {} ms | SQL: {} | Parâmetros: {}{}",
+                String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0), sql, formatted,
+                plan == null ? "" : System.lineSeparator() + plan);
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    /**
+     * Mantém no máximo {@code capacity} SQLs, descartando o de menor pior ocorrência.
+     */
+    private static void evictBeyondCapacity(Entry added) {
+        while(entries.size() > Math.max(1, capacity)) {
+            Entry smallest = null;
+            for(Entry entry : entries.values()) {
+                if(entry != added && (smallest == null || entry.maxNanos < smallest.maxNanos)) smallest = entry;
+            }
+            if(smallest == null) return;
+            entries.remove(smallest.sql);
+        }
+    }
+
+    private static String explain(Connection conn, String sql) {
+        try(PreparedStatement preparedStatement = conn.prepareStatement("EXPLAIN QUERY PLAN " + sql)) {
+            //O plano não depende dos valores: os parâmetros são enviados como NULL
+            int count = preparedStatement.getParameterMetaData().getParameterCount();
+            for(int i = 1; i <= count; i++) preparedStatement.setNull(i, Types.NULL);
+
+            Map<Integer, Integer> depth = new HashMap<>();
+            StringJoiner plan = new StringJoiner(System.lineSeparator());
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) {
+                    int level = depth.getOrDefault(resultSet.getInt("parent"), -1) + 1;
+                    depth.put(resultSet.getInt("id"), level);
+                    plan.add("  ".repeat(level) + resultSet.getString("detail"));
+                }
+            }
+            return plan.length() == 0 ? "(sem plano)" : plan.toString();
+        } catch (SQLException sqlException) {
+            logger.debug("Não foi possível obter o plano da consulta: {}", sqlException.getMessage());
+            return "(plano indisponível: " + sqlException.getMessage() + ")";
+        }
+    }
+
+    private static String format(Map<Integer, Object> parameters, int batchSize) {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for(Object value : parameters.values()) {
+            switch (parameterMode) {
+                case HIDDEN -> joiner.add("?");
+                case TYPES -> joiner.add(value == null ? "null" : value.getClass().getSimpleName());
+                case VALUES -> joiner.add(value instanceof String ? "'" + value + "'" : String.valueOf(value));
+            }
+        }
+        return batchSize > 0 ? "lote de " + batchSize + ", última linha " + joiner : joiner.toString();
+    }
+
+    private static ParameterMode parameterModeFromConfig() {
+        String value = Config.get("db.slow.query.parameters");
+        return ParameterMode.valueOf((value == null || value.isBlank() ? DEFAULT_PARAMETER_MODE : value).trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static long toNanos(long millis) {
+        return millis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Acumulado de um SQL. Alterado apenas com o monitor da classe.
+     */
+    private static final class Entry {
+        private final String sql;
+        private int count;
+        private long totalNanos;
+        private long maxNanos;
+        private String maxParameters;
+        private String plan;
+        private boolean planRequested;
+        private Instant lastSeen;
+
+        private Entry(String sql) {
+            this.sql = sql;
+        }
+
+        private void add(long nanos, String parameters) {
+            count++;
+            totalNanos += nanos;
+            if(nanos >= maxNanos) {
+                maxNanos = nanos;
+                maxParameters = parameters;
+            }
+            lastSeen = Instant.now();
+        }
+
+        private SlowQuery snapshot() {
+            return new SlowQuery(sql, count, totalNanos, maxNanos, maxParameters, plan, lastSeen);
+        }
+    }
+}
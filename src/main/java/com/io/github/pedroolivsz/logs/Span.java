@@ -0,0 +1,150 @@
+package com.io.github.pedroolivsz.logs;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trecho cronometrado de uma operação, com os trechos internos como filhos.
+ *
+ * <p>Trechos irmãos com o mesmo nome são acumulados em um só, com a soma dos tempos e a
+ * quantidade de ocorrências: as 200 linhas mapeadas de uma listagem aparecem como um único
+ * {@code row.mapping (x200)} em vez de 200 nós.</p>
+ *
+ * <p>Um trecho pertence à thread que o abriu e deve ser fechado por ela, em um bloco
+ * {@code finally}: como o corpo em geral não usa o trecho, o try-with-resources geraria o
+ * aviso {@code -Xlint:try}. Fora de uma operação rastreada, {@link Trace#span(String)}
+ * retorna um trecho inerte que não mede nada.</p>
+ *
+ * @author João Pedro
+ */
+
+public final class Span implements AutoCloseable {
+    //=============== Constantes ===============
+
+    static final Span NOOP = new Span(null, null, null);
+
+    //=============== Estado ===============
+
+    private final String name;
+    private final Span parent;
+    private final String correlationId;
+    private final Map<String, Span> children = new LinkedHashMap<>();
+
+    private long totalNanos;
+    private int count;
+    private long openedAt;
+    private boolean open;
+    private boolean ownsCorrelationId;
+
+    //=============== Construtor ===============
+
+    Span(String name, Span parent, String correlationId) {
+        this.name = name;
+        this.parent = parent;
+        this.correlationId = correlationId;
+    }
+
+    //=============== Ciclo de vida ===============
+
+    void open() {
+        openedAt = System.nanoTime();
+        open = true;
+        count++;
+    }
+
+    /**
+     * Retorna o filho com o nome informado, criando-o se necessário. Um filho ainda aberto
+     * (chamada recursiva) não é reaproveitado.
+     */
+    Span child(String childName) {
+        Span existing = children.get(childName);
+        if(existing != null && !existing.open) return existing;
+
+        Span created = new Span(childName, this, correlationId);
+        children.put(existing == null ? childName : childName + "#" + children.size(), created);
+        return created;
+    }
+
+    @Override
+    public void close() {
+        if(this == NOOP || !open) return;
+
+        totalNanos += System.nanoTime() - openedAt;
+        open = false;
+        Trace.closed(this);
+    }
+
+    //=============== Consultas ===============
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public List<Span> getChildren() {
+        return new ArrayList<>(children.values());
+    }
+
+    Span getParent() {
+        return parent;
+    }
+
+    /**
+     * Indica se o ID de correlação foi criado por este trecho raiz, e não recebido do MDC,
+     * e por isso deve ser retirado do MDC ao final da operação.
+     */
+    boolean ownsCorrelationId() {
+        return ownsCorrelationId;
+    }
+
+    void ownCorrelationId() {
+        ownsCorrelationId = true;
+    }
+
+    /**
+     * Procura, em profundidade, o primeiro trecho com o nome informado.
+     *
+     * @param spanName nome do trecho
+     * @return trecho encontrado, ou null
+     */
+    public Span find(String spanName) {
+        if(spanName.equals(name)) return this;
+        for(Span child : children.values()) {
+            Span found = child.find(spanName);
+            if(found != null) return found;
+        }
+        return null;
+    }
+
+    /**
+     * @return árvore formatada, um trecho por linha, indentada pela profundidade
+     */
+    public String format() {
+        StringBuilder builder = new StringBuilder();
+        format(builder, 0);
+        return builder.toString();
+    }
+
+    private void format(StringBuilder builder, int depth) {
+        builder.append(System.lineSeparator()).append("  ".repeat(depth))
+                .append(name).append(' ')
+                .append(String.format("%.3f ms", totalNanos / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+        if(count > 1) builder.append(" (x").append(count).append(')');
+
+        for(Span child : children.values()) child.format(builder, depth + 1);
+    }
+}
@@ -0,0 +1,34 @@
+package com.io.github.pedroolivsz.logs;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registra no log a duração de cada fase da inicialização da aplicação.
+ */
+public class StartupTimer {
+
+    private final Logger log = LoggerFactory.getLogger(StartupTimer.class);
+    private final long start = System.nanoTime();
+    private long last = start;
+
+    public StartupTimer() {
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        log.info("Inicialização - JVM até a aplicação: {} ms", sinceJvmStart);
+    }
+
+    /**
+     * Registra o fim de uma fase.
+     *
+     * @param phase nome da fase concluída
+     */
+    public synchronized void phase(String phase) {
+        long now = System.nanoTime();
+        log.info("Inicialização - {}: {} ms (total: {} ms)", phase,
+                TimeUnit.NANOSECONDS.toMillis(now - last), TimeUnit.NANOSECONDS.toMillis(now - start));
+        last = now;
+    }
+}
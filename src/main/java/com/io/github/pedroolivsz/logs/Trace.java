@@ -0,0 +1,137 @@
+package com.io.github.pedroolivsz.logs;
+
+import com.io.github.pedroolivsz.config.Config;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Rastreamento leve das operações, do controller ao banco.
+ *
+ * <p>Cada chamada de controller abre um trecho raiz com um ID de correlação, publicado no
+ * MDC do SLF4J em {@value #CORRELATION_ID} para que todas as linhas de log da operação
+ * possam ser agrupadas. As camadas abaixo abrem trechos filhos (service, validação,
+ * obtenção de conexão, execução de comando, mapeamento de linhas) medidos em nanossegundos.</p>
+ *
+ * <p>Ao fechar o trecho raiz, a árvore é entregue aos listeners e, se a operação levou
+ * mais que {@code trace.slow.threshold.millis}, escrita no log {@value #SLOW_LOG}.</p>
+ *
+ * @author João Pedro
+ */
+
+public final class Trace {
+    //=============== Constantes ===============
+
+    public static final String CORRELATION_ID = "correlationId";
+    public static final String SLOW_LOG = "slow-operations";
+
+    private static final Logger logger = LoggerFactory.getLogger(Trace.class);
+    private static final Logger slowLog = LoggerFactory.getLogger(SLOW_LOG);
+
+    private static final int DEFAULT_SLOW_THRESHOLD_MILLIS = 200;
+
+    //=============== Estado ===============
+
+    private static final ThreadLocal<Span> current = new ThreadLocal<>();
+    private static final List<Consumer<Span>> listeners = new CopyOnWriteArrayList<>();
+    private static volatile long slowThresholdNanos =
+            TimeUnit.MILLISECONDS.toNanos(Config.getInt("trace.slow.threshold.millis", DEFAULT_SLOW_THRESHOLD_MILLIS));
+
+    private Trace() {
+    }
+
+    //=============== Trechos ===============
+
+    /**
+     * Abre o trecho raiz de uma operação. Se a thread já estiver dentro de uma operação
+     * rastreada (um controller chamando outro), abre um trecho filho.
+     *
+     * @param name nome da operação
+     * @return trecho aberto
+     */
+    public static Span root(String name) {
+        Span parent = current.get();
+        if(parent != null) return span(name);
+
+        String correlationId = MDC.get(CORRELATION_ID);
+        boolean created = correlationId == null;
+        if(created) {
+            correlationId = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+            MDC.put(CORRELATION_ID, correlationId);
+        }
+
+        Span root = new Span(name, null, correlationId);
+        if(created) root.ownCorrelationId();
+        root.open();
+        current.set(root);
+        return root;
+    }
+
+    /**
+     * Abre um trecho filho do trecho corrente da thread.
+     *
+     * @param name nome do trecho
+     * @return trecho aberto, ou um trecho inerte fora de uma operação rastreada
+     */
+    public static Span span(String name) {
+        Span parent = current.get();
+        if(parent == null) return Span.NOOP;
+
+        Span child = parent.child(name);
+        child.open();
+        current.set(child);
+        return child;
+    }
+
+    public static boolean isActive() {
+        return current.get() != null;
+    }
+
+    //=============== Configuração ===============
+
+    public static void addListener(Consumer<Span> listener) {
+        if(listener == null) throw new IllegalArgumentException("Listener não pode ser null");
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Consumer<Span> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param millis duração a partir da qual uma operação vai para o log de operações lentas
+     */
+    public static void setSlowThresholdMillis(long millis) {
+        if(millis < 0) throw new IllegalArgumentException("Limite não pode ser negativo");
+        slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    //=============== Métodos auxiliares ===============
+
+    static void closed(Span span) {
+        current.set(span.getParent());
+        if(span.getParent() != null) return;
+
+        try {
+            for(Consumer<Span> listener : listeners) {
+                try {
+                    listener.accept(span);
+                } catch (RuntimeException e) {
+                    logger.error("Erro em listener de rastreamento", e);
+                }
+            }
+
+            if(span.getTotalNanos() >= slowThresholdNanos) {
+                slowLog.warn("Operação lenta [{}]: {}", span.getCorrelationId(), span.format());
+            }
+        } finally {
+            if(span.ownsCorrelationId()) MDC.remove(CORRELATION_ID);
+        }
+    }
+}
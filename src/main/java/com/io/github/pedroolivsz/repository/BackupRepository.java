@@ -0,0 +1,103 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cópia online do banco pela API de backup do SQLite e verificação da cópia.
+ *
+ * <p>A cópia usa uma conexão do pool: cada passo lê algumas páginas sob um lock de
+ * leitura, que é liberado ao fim do passo. Em WAL as escritas não esperam pela cópia;
+ * se alguma delas alterar o banco no meio do caminho, o SQLite recomeça a cópia no
+ * passo seguinte.</p>
+ *
+ * @author João Pedro
+ */
+
+public class BackupRepository {
+    //=============== Constantes ===============
+
+    private static final String MAIN_DATABASE = "main";
+    //Tentativas do passo quando o banco de origem ou de destino estiver ocupado
+    private static final int BUSY_RETRIES = 20;
+    private static final int BUSY_SLEEP_MILLIS = 100;
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_BACKUP = "Erro ao copiar o banco de dados";
+    private static final String ERROR_CHECK = "Erro ao verificar a integridade do backup";
+
+    //Queries SQL
+    private static final String INTEGRITY_CHECK = "PRAGMA integrity_check";
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(BackupRepository.class);
+
+    //=============== Operações ===============
+
+    /**
+     * Copia o banco para o arquivo informado, em passos.
+     *
+     * @param target arquivo de destino; é sobrescrito se existir
+     * @param pagesPerStep páginas copiadas por passo
+     * @param stepObserver chamado depois de cada passo com as páginas restantes e o total;
+     *                     o tempo gasto nele é o intervalo entre os passos
+     * @throws RepositoryException se houver erro na operação
+     */
+    public void backup(Path target, int pagesPerStep, StepObserver stepObserver) {
+        try(Connection conn = Database.connect()) {
+            DB db = conn.unwrap(SQLiteConnection.class).getDatabase();
+            int result = db.backup(MAIN_DATABASE, target.toString(), stepObserver::afterStep, BUSY_SLEEP_MILLIS, BUSY_RETRIES, pagesPerStep);
+            if(result != 0) throw new SQLException("Backup terminou com o código SQLite " + result, null, result);
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Backup online", "backup " + MAIN_DATABASE, target, sqlException);
+            throw new RepositoryException(ERROR_BACKUP, sqlException);
+        }
+    }
+
+    /**
+     * Executa {@code PRAGMA integrity_check} em um arquivo de backup, fora do pool.
+     *
+     * @param file arquivo de backup
+     * @return problemas encontrados; vazio se o arquivo estiver íntegro
+     * @throws RepositoryException se o arquivo não puder ser lido
+     */
+    public List<String> integrityCheck(Path file) {
+        try(Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+            PreparedStatement preparedStatement = conn.prepareStatement(INTEGRITY_CHECK);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+            List<String> problems = new ArrayList<>();
+            while(resultSet.next()) {
+                String line = resultSet.getString(1);
+                if(!"ok".equalsIgnoreCase(line)) problems.add(line);
+            }
+            return problems;
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Verificar backup", INTEGRITY_CHECK, file, sqlException);
+            throw new RepositoryException(ERROR_CHECK, sqlException);
+        }
+    }
+
+    /**
+     * Andamento da cópia, informado depois de cada passo.
+     */
+    @FunctionalInterface
+    public interface StepObserver {
+        /**
+         * @param remaining páginas que ainda faltam copiar
+         * @param pageCount total de páginas do banco
+         */
+        void afterStep(int remaining, int pageCount);
+    }
+}
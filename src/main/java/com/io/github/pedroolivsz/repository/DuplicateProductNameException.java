@@ -0,0 +1,18 @@
+package com.io.github.pedroolivsz.repository;
+
+/**
+ * Lançada quando a escrita de um produto viola o índice único do nome normalizado,
+ * ou seja, já existe outro produto com o mesmo nome.
+ */
+public class DuplicateProductNameException extends RepositoryException {
+    private final String name;
+
+    public DuplicateProductNameException(String name, Throwable cause) {
+        super("Já existe um produto com o nome '" + name + "'", cause);
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,137 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.IdempotencyRecord;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Persistência das chaves de idempotência em {@code chaves_idempotencia}.
+ *
+ * <p>A tabela guarda só a chave, a operação, o resultado codificado e a validade, e é
+ * limpa das chaves vencidas por {@link #deleteExpired(long)}.</p>
+ *
+ * @author João Pedro
+ */
+
+public class IdempotencyKeyRepository {
+    //=============== Constantes ===============
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_SAVE = "Erro ao gravar chave de idempotência";
+    private static final String ERROR_FIND = "Erro ao procurar chave de idempotência";
+    private static final String ERROR_DELETE = "Erro ao remover chaves de idempotência vencidas";
+
+    //Queries SQL
+    //Uma chave gravada por outra instância prevalece: o resultado dela é o original
+    private static final String SAVE =
+            "INSERT OR IGNORE INTO chaves_idempotencia (chave, operacao, resultado, expira_em) VALUES(?, ?, ?, ?)";
+    private static final String FIND =
+            "SELECT chave, operacao, resultado, expira_em FROM chaves_idempotencia WHERE chave = ? AND expira_em > ?";
+    private static final String FIND_RECENT =
+            "SELECT chave, operacao, resultado, expira_em FROM chaves_idempotencia WHERE expira_em > ? " +
+            "ORDER BY expira_em DESC LIMIT ?";
+    private static final String DELETE_EXPIRED =
+            "DELETE FROM chaves_idempotencia WHERE expira_em <= ?";
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(IdempotencyKeyRepository.class);
+
+    //=============== Operações ===============
+
+    /**
+     * @param record chave e resultado da escrita; ignorada se a chave já estiver gravada
+     * @throws RepositoryException se houver erro na operação
+     */
+    public void save(IdempotencyRecord record) {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(SAVE)) {
+            preparedStatement.setString(1, record.getKey());
+            preparedStatement.setString(2, record.getOperation());
+            preparedStatement.setString(3, record.getResult());
+            preparedStatement.setLong(4, record.getExpiresAtMillis());
+            preparedStatement.executeUpdate();
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Gravar chave de idempotência", SAVE, record, sqlException);
+            throw new RepositoryException(ERROR_SAVE, sqlException);
+        }
+    }
+
+    /**
+     * @param key chave de idempotência
+     * @param nowMillis instante atual; chaves vencidas são ignoradas
+     * @return a escrita registrada sob a chave, se ainda valer
+     * @throws RepositoryException se houver erro na operação
+     */
+    public Optional<IdempotencyRecord> find(String key, long nowMillis) {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(FIND)) {
+            preparedStatement.setString(1, key);
+            preparedStatement.setLong(2, nowMillis);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? Optional.of(map(resultSet)) : Optional.empty();
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Procurar chave de idempotência", FIND, key, sqlException);
+            throw new RepositoryException(ERROR_FIND, sqlException);
+        }
+    }
+
+    /**
+     * @param nowMillis instante atual; chaves vencidas são ignoradas
+     * @param limit máximo de chaves retornadas
+     * @return chaves ainda válidas, das que vencem por último para as que vencem primeiro
+     * @throws RepositoryException se houver erro na operação
+     */
+    public List<IdempotencyRecord> findRecent(long nowMillis, int limit) {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(FIND_RECENT)) {
+            preparedStatement.setLong(1, nowMillis);
+            preparedStatement.setInt(2, limit);
+
+            List<IdempotencyRecord> records = new ArrayList<>();
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) records.add(map(resultSet));
+            }
+            return records;
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Carregar chaves de idempotência", FIND_RECENT, limit, sqlException);
+            throw new RepositoryException(ERROR_FIND, sqlException);
+        }
+    }
+
+    /**
+     * @param nowMillis instante atual
+     * @return quantidade de chaves vencidas removidas
+     * @throws RepositoryException se houver erro na operação
+     */
+    public int deleteExpired(long nowMillis) {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(DELETE_EXPIRED)) {
+            preparedStatement.setLong(1, nowMillis);
+            return preparedStatement.executeUpdate();
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Remover chaves de idempotência vencidas", DELETE_EXPIRED, nowMillis, sqlException);
+            throw new RepositoryException(ERROR_DELETE, sqlException);
+        }
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private static IdempotencyRecord map(ResultSet resultSet) throws SQLException {
+        return new IdempotencyRecord(
+                resultSet.getString("chave"),
+                resultSet.getString("operacao"),
+                resultSet.getString("resultado"),
+                resultSet.getLong("expira_em"));
+    }
+}
@@ -0,0 +1,711 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.dominio.PriceAdjustment;
+import com.io.github.pedroolivsz.dominio.PriceChange;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ProductFilter;
+import com.io.github.pedroolivsz.dominio.ReceivingLine;
+import com.io.github.pedroolivsz.dominio.ReceivingResult;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.journal.JournalApplier;
+import com.io.github.pedroolivsz.journal.JournalException;
+import com.io.github.pedroolivsz.journal.JournalRecord;
+import com.io.github.pedroolivsz.journal.ProductChange;
+import com.io.github.pedroolivsz.journal.ProductChangeCodec;
+import com.io.github.pedroolivsz.journal.WriteAheadJournal;
+import com.io.github.pedroolivsz.service.ProductNameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Catálogo de produtos residente em memória, para terminais com muitas leituras.
+ *
+ * <p>Todos os produtos ficam em mapas concorrentes indexados pelo ID; consultas não fazem
+ * I/O. Cada escrita é confirmada ao chamador depois de gravada no {@link WriteAheadJournal}
+ * (com group commit) e só então publicada no mapa. Um snapshot periódico
+ * ({@code product.store.snapshot.interval.millis}) grava no SQLite os produtos alterados,
+ * as movimentações de estoque e os preços alterados do período (no histórico de preços,
+ * com o instante de cada alteração), e os segmentos do journal cobertos por ele são
+ * descartados.</p>
+ *
+ * <p>Na inicialização, a tabela de produtos é lida com uma única consulta e apenas os
+ * registros do journal posteriores ao último snapshot são reaplicados. Os registros trazem
+ * o estado completo do produto, então reaplicá-los é idempotente.</p>
+ *
+ * <p>Escritas em um produto usam o lock de leitura do catálogo e o lock do produto; escritas
+ * em vários produtos (recebimento, reajuste) e a captura do snapshot usam o lock de
+ * escrita. Os produtos guardados nunca são alterados depois de publicados, e toda consulta
+ * devolve uma cópia.</p>
+ *
+ * @author João Pedro
+ */
+
+public class InMemoryProductStore implements ProductStore, Closeable {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryProductStore.class);
+
+    private static final int DEFAULT_SEGMENT_BYTES = 1024 * 1024;
+    private static final int DEFAULT_GROUP_COMMIT_MILLIS = 2;
+    private static final int DEFAULT_SNAPSHOT_INTERVAL_MILLIS = 1000;
+    private static final int LOCK_STRIPES = 64;
+    //Intervalo em que o applier confere se o journal começou a fechar
+    private static final long APPLIER_CLOSE_CHECK_MILLIS = 100;
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_NOT_FOUND = "Produto não encontrado";
+    private static final String ERROR_WRITE = "Erro ao gravar alteração de produto";
+    private static final String ERROR_CLOSED = "Catálogo em memória fechado";
+
+    //=============== Estado ===============
+
+    private final Map<Integer, Product> products = new ConcurrentHashMap<>();
+    private final Map<String, Integer> names = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    private final ReentrantReadWriteLock catalogLock = new ReentrantReadWriteLock();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    //Alterações ainda não gravadas no SQLite
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    private final Queue<StockMovement> pendingMovements = new ConcurrentLinkedQueue<>();
+    private final Queue<ProductChange> pendingPriceChanges = new ConcurrentLinkedQueue<>();
+    private final AtomicLong lastSequence = new AtomicLong();
+
+    //Sequência coberta pelo último snapshot, protegida pelo monitor de snapshotMonitor
+    private final Object snapshotMonitor = new Object();
+    private long snapshotSequence;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private volatile boolean closed;
+
+    //=============== Dependências ===============
+
+    private final ProductSnapshotRepository snapshotRepository;
+    private final WriteAheadJournal journal;
+    private final ScheduledExecutorService scheduler;
+
+    //=============== Construtores ===============
+
+    /**
+     * Cria o catálogo em memória a partir das configurações ({@code product.store.dir},
+     * {@code product.store.snapshot.interval.millis} e as do journal de escrita).
+     *
+     * @return catálogo carregado e com os snapshots agendados
+     */
+    public static InMemoryProductStore fromConfig() {
+        String directory = Config.get("product.store.dir");
+        return new InMemoryProductStore(
+                Path.of(directory != null ? directory : "product-store"),
+                Config.getInt("journal.segment.bytes", DEFAULT_SEGMENT_BYTES),
+                Config.getInt("journal.group.commit.millis", DEFAULT_GROUP_COMMIT_MILLIS),
+                Config.getInt("product.store.snapshot.interval.millis", DEFAULT_SNAPSHOT_INTERVAL_MILLIS),
+                new ProductSnapshotRepository());
+    }
+
+    /**
+     * Carrega o catálogo do SQLite, reaplica o journal e agenda os snapshots.
+     *
+     * @param directory diretório dos segmentos do journal
+     * @param segmentBytes tamanho de cada segmento
+     * @param groupCommitMillis janela de group commit
+     * @param snapshotIntervalMillis intervalo entre snapshots
+     * @param snapshotRepository leitura e gravação do catálogo no SQLite
+     * @throws IllegalArgumentException se algum parâmetro for inválido
+     */
+    public InMemoryProductStore(Path directory, int segmentBytes, long groupCommitMillis, long snapshotIntervalMillis,
+                                ProductSnapshotRepository snapshotRepository) {
+        if(snapshotIntervalMillis <= 0) throw new IllegalArgumentException("Intervalo de snapshot deve ser maior que zero");
+        if(snapshotRepository == null) throw new IllegalArgumentException("ProductSnapshotRepository não pode ser null");
+        this.snapshotRepository = snapshotRepository;
+        for(int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+
+        long started = System.nanoTime();
+        ProductSnapshotRepository.StoredCatalog stored = snapshotRepository.load();
+        for(Product product : stored.getProducts()) install(product);
+        lastId.accumulateAndGet(stored.getLastId(), Math::max);
+        snapshotSequence = stored.getSequence();
+        lastSequence.set(stored.getSequence());
+
+        this.journal = new WriteAheadJournal(directory, segmentBytes, groupCommitMillis, new Applier());
+        List<JournalRecord> pending = journal.recover();
+        for(JournalRecord record : pending) {
+            ProductChangeCodec.decode(record.getPayload()).forEach(this::publish);
+            lastSequence.accumulateAndGet(record.getSequence(), Math::max);
+        }
+        journal.start();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledSnapshot, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+
+        logger.info("Catálogo em memória carregado. Produtos: {}, registros do journal reaplicados: {}, tempo: {} ms",
+                products.size(), pending.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    //=============== Escrita ===============
+
+    @Override
+    public Product create(Product product) {
+        ProductRepository.validateProduct(product);
+        int id = lastId.incrementAndGet();
+
+        return writeProduct(id, () -> {
+            Product state = ProductRepository.copyOf(product);
+            state.setId(id);
+            state.setVersion(0);
+
+            String name = ProductNameIndex.normalize(state.getName());
+            boolean reserved = reserveName(name, id, state.getName());
+            StockMovement movement = state.getQuantity() != 0 ? movement(id, state.getQuantity(), StockMovement.Reason.CREATION) : null;
+            commit(List.of(ProductChange.put(state, movement)), reserved ? name : null, id);
+
+            product.setId(id);
+            product.setVersion(0);
+            logger.info("Produto criado. ID: {}", id);
+            return product;
+        });
+    }
+
+    @Override
+    public Product createWithTransaction(Product product) {
+        return create(product);
+    }
+
+    @Override
+    public Product update(Product product) {
+        ProductRepository.validateProduct(product);
+        ProductRepository.validateId(product.getId());
+        int id = product.getId();
+
+        return writeProduct(id, () -> {
+            Product current = products.get(id);
+            if(current == null) throw new RepositoryException(ERROR_NOT_FOUND + " para atualização. ID: " + id);
+            if(current.getVersion() != product.getVersion()) {
+                throw new OptimisticLockException(id, product.getVersion(), current.getVersion());
+            }
+
+            Product state = ProductRepository.copyOf(product);
+            state.setVersion(current.getVersion() + 1);
+
+            String name = ProductNameIndex.normalize(state.getName());
+            boolean reserved = !name.equals(ProductNameIndex.normalize(current.getName())) && reserveName(name, id, state.getName());
+            int delta = state.getQuantity() - current.getQuantity();
+            StockMovement movement = delta != 0 ? movement(id, delta, StockMovement.Reason.ADJUSTMENT) : null;
+            commit(List.of(ProductChange.put(state, movement)), reserved ? name : null, id);
+
+            product.setVersion(state.getVersion());
+            logger.info("Produto atualizado. ID: {}, versão: {}", id, state.getVersion());
+            return product;
+        });
+    }
+
+    @Override
+    public Optional<Product> applyStockMovement(StockMovement movement) {
+        if(movement == null || movement.getReason() == null) throw new IllegalArgumentException("Movimentação inválida");
+        ProductRepository.validateId(movement.getProductId());
+        int id = movement.getProductId();
+
+        return writeProduct(id, () -> {
+            Product current = products.get(id);
+            if(current == null || current.getQuantity() + movement.getDelta() < 0) return Optional.empty();
+
+            Product state = ProductRepository.copyOf(current);
+            state.setQuantity(current.getQuantity() + movement.getDelta());
+            state.setVersion(current.getVersion() + 1);
+            if(movement.getTimestamp() == null) movement.setTimestamp(Instant.now());
+            commit(List.of(ProductChange.put(state, movement)), null, id);
+
+            return Optional.of(ProductRepository.copyOf(state));
+        });
+    }
+
+    @Override
+    public List<ReceivingResult> receive(List<ReceivingLine> lines) {
+        if(lines == null) throw new IllegalArgumentException("Linhas do recebimento não podem ser null");
+
+        return writeCatalog(() -> {
+            Map<Integer, Product> working = new HashMap<>();
+            List<ReceivingResult> results = new ArrayList<>(lines.size());
+            List<ProductChange> changes = new ArrayList<>();
+
+            for(ReceivingLine line : lines) {
+                Product previous = working.getOrDefault(line.getProductId(), products.get(line.getProductId()));
+
+                if(line.getQuantity() <= 0) {
+                    results.add(new ReceivingResult(line, ReceivingResult.Status.INVALID_QUANTITY, null));
+                } else if(previous == null) {
+                    results.add(new ReceivingResult(line, ReceivingResult.Status.PRODUCT_NOT_FOUND, null));
+                } else {
+                    Product state = ProductRepository.copyOf(previous);
+                    state.setQuantity(previous.getQuantity() + line.getQuantity());
+                    state.setVersion(previous.getVersion() + 1);
+                    working.put(state.getId(), state);
+
+                    changes.add(ProductChange.put(state, movement(state.getId(), line.getQuantity(), StockMovement.Reason.RECEIVING)));
+                    results.add(new ReceivingResult(line, ReceivingResult.Status.RECEIVED, ProductRepository.copyOf(state)));
+                }
+            }
+
+            if(!changes.isEmpty()) commit(changes, null, 0);
+            logger.info("Recebimento registrado. Linhas: {}, aplicadas: {}", lines.size(), changes.size());
+
+            return results;
+        });
+    }
+
+    @Override
+    public List<PriceChange> reprice(ProductFilter filter, PriceAdjustment adjustment, boolean preview) {
+        if(filter == null) throw new IllegalArgumentException("Filtro não pode ser null");
+        if(adjustment == null || adjustment.getType() == null) throw new IllegalArgumentException("Reajuste inválido");
+
+        long factor = 0;
+        switch (adjustment.getType()) {
+            case PERCENTAGE -> {
+                factor = 10_000 + ProductRepository.toHundredths(adjustment.getValue(), "Percentual");
+                if(factor < 0) throw new IllegalArgumentException("Percentual não pode ser menor que -100%");
+            }
+            case FIXED_DELTA -> factor = ProductRepository.toHundredths(adjustment.getValue(), "Valor do reajuste");
+            default -> {
+                if(adjustment.getPrices().isEmpty()) throw new IllegalArgumentException("Lista de preços vazia");
+            }
+        }
+        long adjustmentFactor = factor;
+
+        Supplier<List<PriceChange>> reprice = () -> {
+            List<PriceChange> changes = new ArrayList<>();
+            List<ProductChange> productChanges = new ArrayList<>();
+
+            for(Product current : sortedProducts()) {
+                if(!matches(current, filter, adjustment)) continue;
+
+                BigDecimal newPrice = newPrice(current, adjustment, adjustmentFactor);
+                changes.add(new PriceChange(current.getId(), current.getName(), current.getUnitValue(), newPrice));
+
+                Product state = ProductRepository.copyOf(current);
+                state.setUnitValue(newPrice);
+                state.setVersion(current.getVersion() + 1);
+                productChanges.add(ProductChange.put(state, null));
+            }
+
+            long negative = changes.stream().filter(change -> change.getNewPrice().signum() < 0).count();
+            if(negative > 0) {
+                throw new IllegalArgumentException("Reajuste deixaria " + negative + " produto(s) com preço negativo");
+            }
+
+            if(!preview && !productChanges.isEmpty()) {
+                commit(productChanges, null, 0);
+                logger.info("Reajuste de preços aplicado. {}, produtos: {}", adjustment, changes.size());
+            }
+            return changes;
+        };
+
+        return preview ? reprice.get() : writeCatalog(reprice);
+    }
+
+    @Override
+    public Product partialUpdate(int id, Map<String, Object> updates, Integer expectedVersion) {
+        if(updates == null || updates.isEmpty()) throw new IllegalArgumentException("Nenhuma atualizaçao fornecida");
+        ProductRepository.validateId(id);
+
+        return writeProduct(id, () -> {
+            Product current = products.get(id);
+            if(current == null) throw new RepositoryException(ERROR_NOT_FOUND + ". ID: " + id);
+            if(expectedVersion != null && current.getVersion() != expectedVersion) {
+                throw new OptimisticLockException(id, expectedVersion, current.getVersion());
+            }
+
+            Product state = ProductRepository.copyOf(current);
+            updates.forEach((column, value) -> {
+                switch (column) {
+                    case "nome" -> state.setName(String.valueOf(value));
+                    case "quantidade" -> state.setQuantity(toInt(value));
+                    case "valor_unitario" -> state.setUnitValue(toBigDecimal(value));
+                    case "estoque_minimo" -> state.setMinimumStock(toInt(value));
+                    default -> throw new IllegalArgumentException("Campo desconhecido: " + column);
+                }
+            });
+            ProductRepository.validateProduct(state);
+            state.setVersion(current.getVersion() + 1);
+
+            String name = ProductNameIndex.normalize(state.getName());
+            boolean reserved = !name.equals(ProductNameIndex.normalize(current.getName())) && reserveName(name, id, state.getName());
+            int delta = state.getQuantity() - current.getQuantity();
+            StockMovement movement = delta != 0 ? movement(id, delta, StockMovement.Reason.ADJUSTMENT) : null;
+            commit(List.of(ProductChange.put(state, movement)), reserved ? name : null, id);
+
+            logger.info("Produto atualizado parcialmente. ID: {}", id);
+            return ProductRepository.copyOf(state);
+        });
+    }
+
+    @Override
+    public void delete(int id) {
+        ProductRepository.validateId(id);
+
+        writeProduct(id, () -> {
+            if(!products.containsKey(id)) throw new RepositoryException(ERROR_NOT_FOUND + " para remoção. ID: " + id);
+            commit(List.of(ProductChange.delete(id)), null, id);
+            return null;
+        });
+    }
+
+    //=============== Consultas ===============
+
+    @Override
+    public List<Product> listAll() {
+        return sortedProducts().stream().map(ProductRepository::copyOf).toList();
+    }
+
+    @Override
+    public Optional<Product> findById(int id) {
+        ProductRepository.validateId(id);
+        return Optional.ofNullable(products.get(id)).map(ProductRepository::copyOf);
+    }
+
+    @Override
+    public Optional<Integer> findIdByNormalizedName(String normalizedName) {
+        if(normalizedName == null) throw new IllegalArgumentException("Nome não pode ser null");
+        return Optional.ofNullable(names.get(normalizedName));
+    }
+
+    @Override
+    public List<String> listNormalizedNames() {
+        return new ArrayList<>(names.keySet());
+    }
+
+    @Override
+    public Map<Integer, String> listIdsAndNormalizedNames() {
+        Map<Integer, String> result = new HashMap<>();
+        products.values().forEach(product -> result.put(product.getId(), ProductNameIndex.normalize(product.getName())));
+        return result;
+    }
+
+    @Override
+    public boolean isWriteThrough() {
+        return false;
+    }
+
+    public int size() {
+        return products.size();
+    }
+
+    /**
+     * @return última sequência do journal já gravada no SQLite
+     */
+    public long getSnapshotSequence() {
+        synchronized (snapshotMonitor) {
+            return snapshotSequence;
+        }
+    }
+
+    /**
+     * @return quantidade de produtos alterados desde o último snapshot
+     */
+    public int getPendingChanges() {
+        return dirty.size();
+    }
+
+    //=============== Snapshot ===============
+
+    /**
+     * Grava no SQLite os produtos alterados e as movimentações desde o último snapshot.
+     *
+     * <p>O lock de escrita é mantido apenas para copiar as alterações pendentes; a gravação
+     * no banco acontece com as escritas liberadas. Se ela falhar, as alterações voltam a
+     * ficar pendentes para o próximo snapshot.</p>
+     *
+     * @throws RepositoryException se a gravação falhar
+     */
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            long sequence;
+            Map<Integer, Product> changed = new LinkedHashMap<>();
+            List<StockMovement> movements = new ArrayList<>();
+            List<ProductChange> priceChanges = new ArrayList<>();
+
+            catalogLock.writeLock().lock();
+            try {
+                sequence = lastSequence.get();
+                if(sequence <= getSnapshotSequence()) return;
+
+                for(Integer id : dirty) changed.put(id, products.get(id));
+                dirty.clear();
+                for(StockMovement movement; (movement = pendingMovements.poll()) != null; ) movements.add(movement);
+                for(ProductChange change; (change = pendingPriceChanges.poll()) != null; ) priceChanges.add(change);
+            } finally {
+                catalogLock.writeLock().unlock();
+            }
+
+            long started = System.nanoTime();
+            try {
+                snapshotRepository.save(changed, movements, priceChanges, sequence);
+            } catch (RuntimeException e) {
+                dirty.addAll(changed.keySet());
+                pendingMovements.addAll(movements);
+                restorePriceChanges(priceChanges);
+                throw e;
+            }
+
+            synchronized (snapshotMonitor) {
+                snapshotSequence = sequence;
+                snapshotMonitor.notifyAll();
+            }
+            logger.debug("Snapshot do catálogo até a sequência {}: {} produtos em {} ms",
+                    sequence, changed.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Recusa novas escritas, grava o snapshot final e fecha o journal. Se o snapshot final
+     * falhar, as alterações continuam no journal e são recuperadas na próxima inicialização.
+     */
+    @Override
+    public void close() {
+        catalogLock.writeLock().lock();
+        try {
+            if(closed) return;
+            closed = true;
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            logger.error("Snapshot final do catálogo falhou; as alterações serão recuperadas do journal", e);
+        }
+
+        journal.close();
+        logger.info("Catálogo em memória fechado. Produtos: {}", products.size());
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void scheduledSnapshot() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            logger.warn("Não foi possível gravar o snapshot do catálogo; nova tentativa no próximo intervalo", e);
+        }
+    }
+
+    /**
+     * Executa uma escrita em um único produto.
+     */
+    private <T> T writeProduct(int id, Supplier<T> write) {
+        catalogLock.readLock().lock();
+        try {
+            if(closed) throw new RepositoryException(ERROR_CLOSED);
+            synchronized (locks[Math.floorMod(id, LOCK_STRIPES)]) {
+                return write.get();
+            }
+        } finally {
+            catalogLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Executa uma escrita em vários produtos, sem nenhuma outra escrita em andamento.
+     */
+    private <T> T writeCatalog(Supplier<T> write) {
+        catalogLock.writeLock().lock();
+        try {
+            if(closed) throw new RepositoryException(ERROR_CLOSED);
+            return write.get();
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Grava as alterações no journal e, depois de duráveis, publica-as no catálogo.
+     *
+     * @param changes alterações de uma operação
+     * @param reservedName nome reservado pela operação, liberado se a gravação falhar
+     * @param id produto dono do nome reservado
+     * @throws RepositoryException se o journal não puder ser gravado
+     */
+    private void commit(List<ProductChange> changes, String reservedName, int id) {
+        long sequence;
+        try {
+            sequence = journal.append(ProductChangeCodec.encode(changes));
+        } catch (JournalException e) {
+            if(reservedName != null) names.remove(reservedName, id);
+            logger.error(ERROR_WRITE, e);
+            throw new RepositoryException(ERROR_WRITE + ". Tente novamente mais tarde.", e);
+        }
+
+        changes.forEach(this::publish);
+        lastSequence.accumulateAndGet(sequence, Math::max);
+    }
+
+    private void publish(ProductChange change) {
+        int id = change.getProductId();
+
+        if(change.isDelete()) {
+            Product removed = products.remove(id);
+            if(removed != null) names.remove(ProductNameIndex.normalize(removed.getName()), id);
+        } else {
+            Product previous = products.put(id, change.getState());
+            if(previous != null) names.remove(ProductNameIndex.normalize(previous.getName()), id);
+            if(previous == null || previous.getUnitValue().compareTo(change.getState().getUnitValue()) != 0) {
+                pendingPriceChanges.add(change);
+            }
+            names.put(ProductNameIndex.normalize(change.getState().getName()), id);
+            lastId.accumulateAndGet(id, Math::max);
+            if(change.getMovement() != null) pendingMovements.add(change.getMovement());
+        }
+
+        dirty.add(id);
+    }
+
+    /**
+     * Devolve à fila as alterações de preço de um snapshot que falhou, antes das que
+     * chegaram durante a gravação, para que o histórico continue em ordem.
+     */
+    private void restorePriceChanges(List<ProductChange> priceChanges) {
+        catalogLock.writeLock().lock();
+        try {
+            List<ProductChange> arrived = new ArrayList<>();
+            for(ProductChange change; (change = pendingPriceChanges.poll()) != null; ) arrived.add(change);
+            pendingPriceChanges.addAll(priceChanges);
+            pendingPriceChanges.addAll(arrived);
+        } finally {
+            catalogLock.writeLock().unlock();
+        }
+    }
+
+    private void install(Product product) {
+        products.put(product.getId(), product);
+        names.put(ProductNameIndex.normalize(product.getName()), product.getId());
+    }
+
+    /**
+     * Reserva o nome para o produto antes da gravação, no lugar do índice único do banco.
+     *
+     * @return true se o nome foi reservado agora, false se já era do produto
+     * @throws DuplicateProductNameException se outro produto usa o nome
+     */
+    private boolean reserveName(String normalizedName, int id, String name) {
+        Integer owner = names.putIfAbsent(normalizedName, id);
+        if(owner != null && owner != id) throw new DuplicateProductNameException(name, null);
+        return owner == null;
+    }
+
+    private List<Product> sortedProducts() {
+        List<Product> sorted = new ArrayList<>(products.values());
+        sorted.sort(Comparator.comparingInt(Product::getId));
+        return sorted;
+    }
+
+    /**
+     * Mesma seleção da cláusula WHERE do {@link ProductRepository#reprice}.
+     */
+    private boolean matches(Product product, ProductFilter filter, PriceAdjustment adjustment) {
+        if(filter.getNameContains() != null && !filter.getNameContains().isBlank()
+                && !product.getName().toLowerCase().contains(filter.getNameContains().trim().toLowerCase())) return false;
+        if(filter.getIds() != null && !filter.getIds().contains(product.getId())) return false;
+        if(adjustment.getType() == PriceAdjustment.Type.PRICE_LIST && !adjustment.getPrices().containsKey(product.getId())) return false;
+        if(filter.getMinPrice() != null && product.getUnitValue().compareTo(filter.getMinPrice()) < 0) return false;
+        return filter.getMaxPrice() == null || product.getUnitValue().compareTo(filter.getMaxPrice()) <= 0;
+    }
+
+    /**
+     * Mesmo cálculo em centavos inteiros do {@link ProductRepository#reprice}.
+     */
+    private BigDecimal newPrice(Product product, PriceAdjustment adjustment, long factor) {
+        if(adjustment.getType() == PriceAdjustment.Type.PRICE_LIST) {
+            return adjustment.getPrices().get(product.getId()).setScale(2, RoundingMode.HALF_UP);
+        }
+
+        long cents = product.getUnitValue().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        return adjustment.getType() == PriceAdjustment.Type.PERCENTAGE
+                ? BigDecimal.valueOf((cents * factor + 5000) / 10000, 2)
+                : BigDecimal.valueOf(cents + factor, 2);
+    }
+
+    private StockMovement movement(int id, int delta, StockMovement.Reason reason) {
+        StockMovement movement = new StockMovement(id, delta, reason);
+        movement.setTimestamp(Instant.now());
+        return movement;
+    }
+
+    private static int toInt(Object value) {
+        return value instanceof Number number ? number.intValue() : Integer.parseInt(String.valueOf(value).trim());
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(String.valueOf(value).trim());
+    }
+
+    /**
+     * Os registros do journal já estão no catálogo quando chegam aqui; só são considerados
+     * aplicados depois que um snapshot os grava no SQLite. Até lá o journal mantém os
+     * segmentos que os contêm.
+     *
+     * <p>No fechamento o applier continua esperando pelo snapshot final, que normalmente
+     * cobre tudo; só desiste depois que o journal também começou a fechar, quando a recusa
+     * deixa os registros nos segmentos sem novas tentativas.</p>
+     */
+    private class Applier implements JournalApplier {
+        @Override
+        public long lastAppliedSequence() {
+            return getSnapshotSequence();
+        }
+
+        @Override
+        public void apply(List<JournalRecord> records) throws InterruptedException {
+            long last = records.get(records.size() - 1).getSequence();
+
+            while(true) {
+                synchronized (snapshotMonitor) {
+                    if(snapshotSequence >= last) return;
+                    snapshotMonitor.wait(APPLIER_CLOSE_CHECK_MILLIS);
+                }
+                //Fora do monitor: o journal não é consultado com ele seguro
+                if(closed && !journal.isRunning()) {
+                    throw new JournalException("Catálogo fechado antes do snapshot da sequência " + last);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Comandos de manutenção do SQLite: estatísticas do arquivo, {@code incremental_vacuum},
+ * {@code ANALYZE}/{@code PRAGMA optimize} e checkpoints do WAL.
+ *
+ * <p>Os comandos rodam em uma {@link Session}, que segura uma única conexão do pool do
+ * início ao fim da manutenção; assim, qualquer outra conexão pedida à loja nesse meio
+ * tempo é atividade da aplicação. Cada comando roda em sua própria transação, então o
+ * lock de escrita é liberado entre eles, e o {@code busy_timeout} da sessão limita quanto
+ * tempo um comando espera pelo banco.</p>
+ *
+ * @author João Pedro
+ */
+
+public class MaintenanceRepository {
+    //=============== Constantes ===============
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_MAINTENANCE = "Erro ao executar a manutenção do banco de dados";
+
+    //Queries SQL
+    private static final String PAGE_COUNT = "PRAGMA page_count";
+    private static final String PAGE_SIZE = "PRAGMA page_size";
+    private static final String FREELIST_COUNT = "PRAGMA freelist_count";
+    private static final String AUTO_VACUUM = "PRAGMA auto_vacuum";
+    private static final String BUSY_TIMEOUT = "PRAGMA busy_timeout";
+    private static final String INCREMENTAL_VACUUM = "PRAGMA incremental_vacuum(%d)";
+    private static final String ANALYSIS_LIMIT = "PRAGMA analysis_limit = %d";
+    private static final String HAS_STATISTICS = "SELECT 1 FROM sqlite_master WHERE name = 'sqlite_stat1'";
+    private static final String ANALYZE = "ANALYZE";
+    //0x10000 confere todas as tabelas, e não só as usadas por esta conexão; 0x02 roda o ANALYZE onde preciso
+    private static final String OPTIMIZE = "PRAGMA optimize = 0x10002";
+    private static final String WAL_CHECKPOINT = "PRAGMA wal_checkpoint(%s)";
+
+    //auto_vacuum = INCREMENTAL
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(MaintenanceRepository.class);
+
+    //=============== Operações ===============
+
+    /**
+     * Abre uma sessão de manutenção na loja.
+     *
+     * @param store ID da loja
+     * @param busyTimeoutMillis espera máxima de cada comando pelo banco
+     * @throws RepositoryException se houver erro na operação
+     */
+    public Session open(String store, int busyTimeoutMillis) {
+        Connection conn = null;
+        try {
+            conn = Database.connect(store);
+            int previousBusyTimeout = queryInt(conn, BUSY_TIMEOUT);
+            execute(conn, BUSY_TIMEOUT + " = " + busyTimeoutMillis);
+            return new Session(conn, previousBusyTimeout);
+        } catch (SQLException sqlException) {
+            closeConnection(conn);
+            logger.logDatabaseError("Abrir sessão de manutenção", BUSY_TIMEOUT, store, sqlException);
+            throw new RepositoryException(ERROR_MAINTENANCE, sqlException);
+        }
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private static int queryInt(Connection conn, String sql) throws SQLException {
+        try(Statement statement = conn.createStatement();
+            ResultSet resultSet = statement.executeQuery(sql)) {
+            return resultSet.next() ? resultSet.getInt(1) : 0;
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try(Statement statement = conn.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private void closeConnection(Connection conn) {
+        if(conn == null) return;
+
+        try {
+            conn.close();
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Fechar conexão", "close", null, sqlException);
+        }
+    }
+
+    /**
+     * Conexão reservada para a manutenção. Deve ser usada por uma thread de cada vez e
+     * fechada ao fim, o que devolve o {@code busy_timeout} original à conexão do pool.
+     */
+    public final class Session implements Closeable {
+        private final Connection conn;
+        private final int previousBusyTimeout;
+
+        private Session(Connection conn, int previousBusyTimeout) {
+            this.conn = conn;
+            this.previousBusyTimeout = previousBusyTimeout;
+        }
+
+        /**
+         * @return tamanho do arquivo principal em bytes, sem o WAL
+         */
+        public long fileSize() {
+            return run("Tamanho do arquivo", PAGE_COUNT, () -> (long) queryInt(conn, PAGE_COUNT) * queryInt(conn, PAGE_SIZE));
+        }
+
+        /**
+         * @return páginas livres no arquivo
+         */
+        public int freelistPages() {
+            return run("Páginas livres", FREELIST_COUNT, () -> queryInt(conn, FREELIST_COUNT));
+        }
+
+        /**
+         * @return se o banco foi criado com {@code auto_vacuum = INCREMENTAL}, condição para
+         * {@link #incrementalVacuum(int)} devolver páginas
+         */
+        public boolean incrementalVacuumEnabled() {
+            return run("Modo de auto_vacuum", AUTO_VACUUM, () -> queryInt(conn, AUTO_VACUUM) == AUTO_VACUUM_INCREMENTAL);
+        }
+
+        /**
+         * Devolve páginas livres ao sistema de arquivos, em uma transação.
+         *
+         * @param pages máximo de páginas devolvidas
+         */
+        public void incrementalVacuum(int pages) {
+            String sql = String.format(INCREMENTAL_VACUUM, pages);
+            run("Vacuum incremental", sql, () -> {
+                execute(conn, sql);
+                return null;
+            });
+        }
+
+        /**
+         * Atualiza as estatísticas do planejador. Sem estatísticas gravadas, roda um
+         * {@code ANALYZE}; depois, {@code PRAGMA optimize} só analisa as tabelas que mudaram.
+         *
+         * @param analysisLimit linhas lidas por índice; limita o tempo de cada análise
+         */
+        public void optimize(int analysisLimit) {
+            run("Atualizar estatísticas", OPTIMIZE, () -> {
+                execute(conn, String.format(ANALYSIS_LIMIT, analysisLimit));
+                execute(conn, queryInt(conn, HAS_STATISTICS) == 1 ? OPTIMIZE : ANALYZE);
+                return null;
+            });
+        }
+
+        /**
+         * Executa um checkpoint do WAL.
+         *
+         * @param truncate se true, usa o modo TRUNCATE, que também zera o arquivo do WAL mas
+         *                 aguarda, até o {@code busy_timeout} da sessão, as escritas e leituras
+         *                 em andamento; senão usa o modo PASSIVE, que não espera ninguém
+         * @return quadros no WAL e quadros já copiados para o banco; {@code busy} indica que o
+         * checkpoint não pôde ser concluído
+         */
+        public Checkpoint checkpoint(boolean truncate) {
+            String sql = String.format(WAL_CHECKPOINT, truncate ? "TRUNCATE" : "PASSIVE");
+            return run("Checkpoint do WAL", sql, () -> {
+                try(Statement statement = conn.createStatement();
+                    ResultSet resultSet = statement.executeQuery(sql)) {
+                    resultSet.next();
+                    return new Checkpoint(resultSet.getInt(1) != 0, resultSet.getInt(2), resultSet.getInt(3));
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            try {
+                execute(conn, BUSY_TIMEOUT + " = " + previousBusyTimeout);
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Restaurar busy_timeout", BUSY_TIMEOUT, previousBusyTimeout, sqlException);
+            } finally {
+                closeConnection(conn);
+            }
+        }
+
+        private <T> T run(String operation, String sql, SqlCall<T> call) {
+            try {
+                return call.call();
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError(operation, sql, null, sqlException);
+                throw new RepositoryException(ERROR_MAINTENANCE, sqlException);
+            }
+        }
+    }
+
+    /**
+     * Resultado de {@code PRAGMA wal_checkpoint}.
+     *
+     * @param busy checkpoint interrompido por escritas ou leituras em andamento
+     * @param walFrames quadros no WAL
+     * @param checkpointedFrames quadros já copiados para o banco
+     */
+    public record Checkpoint(boolean busy, int walFrames, int checkpointedFrames) {
+    }
+
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+}
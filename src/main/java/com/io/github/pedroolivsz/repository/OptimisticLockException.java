@@ -0,0 +1,31 @@
+package com.io.github.pedroolivsz.repository;
+
+/**
+ * Lançada quando um produto foi alterado por outra operação depois de ter sido lido,
+ * ou seja, a versão esperada não corresponde mais à versão gravada no banco.
+ */
+public class OptimisticLockException extends RepositoryException {
+    private final int productId;
+    private final int expectedVersion;
+    private final int currentVersion;
+
+    public OptimisticLockException(int productId, int expectedVersion, int currentVersion) {
+        super("Produto alterado por outra operação. ID: " + productId +
+                ", versão esperada: " + expectedVersion + ", versão atual: " + currentVersion);
+        this.productId = productId;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+
+    public int getCurrentVersion() {
+        return currentVersion;
+    }
+}
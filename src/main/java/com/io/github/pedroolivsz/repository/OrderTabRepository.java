@@ -1,6 +1,24 @@
 package com.io.github.pedroolivsz.repository;
 
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.CheckoutResult;
+import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.dominio.StockShortage;
 import com.io.github.pedroolivsz.logs.LogDatabase;
+import com.io.github.pedroolivsz.rowMapper.OrderTabRowMapper;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository responsável pelas operações de persistencia de comandas.
@@ -11,12 +29,370 @@ import com.io.github.pedroolivsz.logs.LogDatabase;
  * <ul>
  *     <li>Operações CRUD completas com validações</li>
  *     <li>Logging detalhado de erros</li>
+ *     <li>Fechamento transacional com atualização dos agregados de vendas</li>
+ *     <li>Fechamento com baixa de estoque de todos os itens em uma única transação</li>
  * </ul>
  *
  * @author João Pedro
  */
 
 public class OrderTabRepository {
+    //=============== Constantes ===============
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_OPEN = "Erro ao abrir comanda";
+    private static final String ERROR_ADD_ITEM = "Erro ao adicionar item à comanda";
+    private static final String ERROR_CLOSE = "Erro ao fechar comanda";
+    private static final String ERROR_CHECKOUT = "Erro ao fechar comanda com baixa de estoque";
+    private static final String ERROR_FIND = "Erro ao procurar comanda";
+    private static final String ERROR_NOT_OPEN = "Comanda não encontrada ou já fechada";
+
+    //Queries SQL
+    private static final String INSERT =
+            "INSERT INTO comandas (table_number, total_amount, status, aberta_em) VALUES(?, 0, 'OPEN', ?)";
+    private static final String INSERT_ITEM =
+            "INSERT INTO itens_comanda (comanda_id, produto_id, quantidade, valor_unitario) " +
+            "SELECT ?, ?, ?, ? WHERE EXISTS (SELECT 1 FROM comandas WHERE id = ? AND status = 'OPEN')";
+    //Total somado em centavos inteiros, como nos agregados de vendas
+    private static final String TOTAL_CENTS =
+            "SELECT COALESCE(SUM(" + SalesRollupRepository.LINE_CENTS + "), 0) FROM itens_comanda i WHERE i.comanda_id = ?";
+    private static final String CLOSE =
+            "UPDATE comandas SET status = 'CLOSED', fechada_em = ?, total_amount = ? WHERE id = ? AND status = 'OPEN'";
+    private static final String FIND_BY_ID =
+            "SELECT id, table_number, total_amount, status, aberta_em, fechada_em FROM comandas WHERE id = ?";
+    private static final String FIND_ITEMS =
+            "SELECT i.produto_id, p.nome, i.quantidade, i.valor_unitario FROM itens_comanda i " +
+            "LEFT JOIN produtos p ON p.id = i.produto_id WHERE i.comanda_id = ? ORDER BY i.id";
+    private static final String CHECK_AVAILABILITY =
+            "SELECT i.produto_id, p.nome, SUM(i.quantidade) AS pedida, p.quantidade, p.valor_unitario, " +
+            "p.estoque_minimo, p.versao FROM itens_comanda i LEFT JOIN produtos p ON p.id = i.produto_id " +
+            "WHERE i.comanda_id = ? GROUP BY i.produto_id ORDER BY i.produto_id";
+    private static final String DECREMENT_STOCK =
+            "UPDATE produtos SET quantidade = quantidade - ?, versao = versao + 1 WHERE id = ? AND quantidade >= ?";
+    private static final String FIND_QUANTITY =
+            "SELECT quantidade FROM produtos WHERE id = ?";
+
+    //=============== Dependências ===============
+
     private final LogDatabase logger = new LogDatabase(OrderTabRepository.class);
+    private final OrderTabRowMapper orderTabRowMapper = new OrderTabRowMapper();
+    private final SalesRollupRepository salesRollupRepository;
+    private final StockMovementRepository stockMovementRepository;
+
+    //=============== Construtores ===============
+
+    public OrderTabRepository() {
+        this(new SalesRollupRepository());
+    }
+
+    public OrderTabRepository(SalesRollupRepository salesRollupRepository) {
+        this(salesRollupRepository, new StockMovementRepository());
+    }
+
+    public OrderTabRepository(SalesRollupRepository salesRollupRepository, StockMovementRepository stockMovementRepository) {
+        if(salesRollupRepository == null) throw new IllegalArgumentException("SalesRollupRepository não pode ser null");
+        if(stockMovementRepository == null) throw new IllegalArgumentException("StockMovementRepository não pode ser null");
+        this.salesRollupRepository = salesRollupRepository;
+        this.stockMovementRepository = stockMovementRepository;
+    }
+
+    //=============== Métodos CRUD básicos ===============
+
+    /**
+     * Abre uma nova comanda para uma mesa.
+     *
+     * @param tableNumber número da mesa
+     * @return a comanda aberta com o ID gerado
+     * @throws RepositoryException se houver erro na operação
+     */
+    public OrderTab open(int tableNumber) {
+        OrderTab orderTab = new OrderTab(0, tableNumber, BigDecimal.ZERO);
+        orderTab.setOpenedAt(Instant.now());
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
+            preparedStatement.setInt(1, tableNumber);
+            preparedStatement.setLong(2, orderTab.getOpenedAt().toEpochMilli());
+            preparedStatement.executeUpdate();
+
+            try(ResultSet keys = preparedStatement.getGeneratedKeys()) {
+                if(keys.next()) orderTab.setId(keys.getInt(1));
+            }
+
+            logger.info("Comanda aberta com sucesso. ID: " + orderTab.getId());
+            return orderTab;
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Abrir comanda", INSERT, tableNumber, sqlException);
+            throw new RepositoryException(ERROR_OPEN + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+
+    /**
+     * Adiciona um item a uma comanda aberta.
+     *
+     * @param orderTabId ID da comanda
+     * @param item produto com o ID, a quantidade pedida e o valor unitário cobrado
+     * @throws RepositoryException se a comanda não estiver aberta ou houver erro na operação
+     */
+    public void addItem(int orderTabId, Product item) {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(INSERT_ITEM)) {
+            preparedStatement.setInt(1, orderTabId);
+            preparedStatement.setInt(2, item.getId());
+            preparedStatement.setInt(3, item.getQuantity());
+            preparedStatement.setBigDecimal(4, item.getUnitValue());
+            preparedStatement.setInt(5, orderTabId);
+
+            if(preparedStatement.executeUpdate() == 0) {
+                throw new RepositoryException(ERROR_NOT_OPEN + ". ID: " + orderTabId);
+            }
+
+            logger.info("Item adicionado à comanda " + orderTabId + ". Produto: " + item.getId());
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Adicionar item à comanda", INSERT_ITEM, item, sqlException);
+            throw new RepositoryException(ERROR_ADD_ITEM + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+
+    /**
+     * Fecha uma comanda, calculando o total e atualizando os agregados de vendas na
+     * mesma transação.
+     *
+     * @param orderTabId ID da comanda
+     * @return a comanda fechada
+     * @throws RepositoryException se a comanda não estiver aberta ou houver erro na operação
+     */
+    public OrderTab close(int orderTabId) {
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            close(conn, orderTabId, Instant.now());
+            OrderTab closed = findById(conn, orderTabId)
+                    .orElseThrow(() -> new RepositoryException(ERROR_NOT_OPEN + ". ID: " + orderTabId));
+
+            conn.commit();
+            logger.info("Comanda fechada com sucesso. ID: " + orderTabId);
+
+            return closed;
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Fechar comanda", CLOSE, orderTabId, sqlException);
+            throw new RepositoryException(ERROR_CLOSE + ". Tente novamente mais tarde.", sqlException);
+        } catch (RepositoryException repositoryException) {
+            rollback(conn);
+            throw repositoryException;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Fecha uma comanda dando baixa no estoque de todos os seus itens, em uma única transação.
+     *
+     * <p>As quantidades são somadas por produto e a disponibilidade de todos os produtos é
+     * verificada em uma única consulta. Se algum produto não tiver estoque suficiente, nada
+     * é gravado e o resultado traz todos os itens em falta. Caso contrário, as baixas, as
+     * movimentações de venda, o fechamento e os agregados de vendas são gravados juntos.</p>
+     *
+     * @param orderTabId ID da comanda
+     * @return comanda fechada e produtos atualizados, ou os itens em falta
+     * @throws RepositoryException se a comanda não estiver aberta ou houver erro na operação
+     */
+    public CheckoutResult checkout(int orderTabId) {
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            //O fechamento vem primeiro: valida que a comanda está aberta e, como a transação
+            //segura o lock de escrita, a disponibilidade lida a seguir não muda até o commit
+            Instant closedAt = Instant.now();
+            close(conn, orderTabId, closedAt);
+
+            List<Product> updated = new ArrayList<>();
+            List<StockShortage> shortages = new ArrayList<>();
+            List<StockMovement> movements = new ArrayList<>();
+            try(PreparedStatement preparedStatement = conn.prepareStatement(CHECK_AVAILABILITY)) {
+                preparedStatement.setInt(1, orderTabId);
+
+                try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while(resultSet.next()) {
+                        int productId = resultSet.getInt("produto_id");
+                        String name = resultSet.getString("nome");
+                        int requested = resultSet.getInt("pedida");
+                        int available = resultSet.getInt("quantidade");
+
+                        if(name == null || available < requested) {
+                            shortages.add(new StockShortage(productId, name, requested, available));
+                            continue;
+                        }
+
+                        Product product = new Product(productId, name, available - requested, resultSet.getBigDecimal("valor_unitario"));
+                        product.setMinimumStock(resultSet.getInt("estoque_minimo"));
+                        product.setVersion(resultSet.getInt("versao") + 1);
+                        updated.add(product);
+                        movements.add(new StockMovement(productId, -requested, StockMovement.Reason.SALE, orderTabId));
+                    }
+                }
+            }
+
+            if(!shortages.isEmpty()) {
+                conn.rollback();
+                logger.info("Fechamento da comanda " + orderTabId + " recusado. Itens em falta: " + shortages.size());
+                return CheckoutResult.rejected(shortages);
+            }
+
+            if(!movements.isEmpty()) {
+                try(PreparedStatement preparedStatement = conn.prepareStatement(DECREMENT_STOCK)) {
+                    for(StockMovement movement : movements) {
+                        preparedStatement.setInt(1, -movement.getDelta());
+                        preparedStatement.setInt(2, movement.getProductId());
+                        preparedStatement.setInt(3, -movement.getDelta());
+                        preparedStatement.addBatch();
+                    }
+                    //A baixa só acontece com saldo suficiente: se outra escrita passou à frente
+                    //da verificação, a linha não é alterada e o fechamento é recusado
+                    int[] affected = preparedStatement.executeBatch();
+                    for(int i = 0; i < affected.length; i++) {
+                        if(affected[i] == 0) {
+                            StockMovement movement = movements.get(i);
+                            shortages.add(new StockShortage(movement.getProductId(), updated.get(i).getName(),
+                                    -movement.getDelta(), findQuantity(conn, movement.getProductId())));
+                        }
+                    }
+                }
+                if(!shortages.isEmpty()) {
+                    conn.rollback();
+                    logger.info("Fechamento da comanda " + orderTabId + " recusado na baixa. Itens em falta: " + shortages.size());
+                    return CheckoutResult.rejected(shortages);
+                }
+                stockMovementRepository.record(conn, movements);
+            }
+
+            OrderTab closed = findById(conn, orderTabId)
+                    .orElseThrow(() -> new RepositoryException(ERROR_NOT_OPEN + ". ID: " + orderTabId));
+
+            conn.commit();
+            logger.info("Comanda fechada com baixa de estoque. ID: " + orderTabId + ", produtos: " + updated.size());
+
+            return CheckoutResult.completed(closed, updated, movements);
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Fechar comanda com baixa de estoque", CHECK_AVAILABILITY, orderTabId, sqlException);
+            throw new RepositoryException(ERROR_CHECKOUT + ". Tente novamente mais tarde.", sqlException);
+        } catch (RepositoryException repositoryException) {
+            rollback(conn);
+            throw repositoryException;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Busca uma comanda pelo ID, com seus itens.
+     *
+     * @param id o ID da comanda
+     * @return optional contendo a comanda caso encontrada
+     * @throws RepositoryException se houver erro na operação
+     */
+    public Optional<OrderTab> findById(int id) {
+        try(Connection conn = Database.connect()) {
+            return findById(conn, id);
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Procurar comanda por id", FIND_BY_ID, id, sqlException);
+            throw new RepositoryException(ERROR_FIND + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+
+    //=============== Métodos auxiliares ===============
+
+    /**
+     * Fecha a comanda e acumula suas vendas na conexão informada, sem commit.
+     *
+     * @param conn conexão da transação corrente
+     * @param orderTabId ID da comanda
+     * @param closedAt instante do fechamento
+     * @throws RepositoryException se a comanda não estiver aberta
+     * @throws SQLException se houver erro na operação
+     */
+    void close(Connection conn, int orderTabId, Instant closedAt) throws SQLException {
+        long totalCents;
+        try(PreparedStatement preparedStatement = conn.prepareStatement(TOTAL_CENTS)) {
+            preparedStatement.setInt(1, orderTabId);
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                totalCents = resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+
+        try(PreparedStatement preparedStatement = conn.prepareStatement(CLOSE)) {
+            preparedStatement.setLong(1, closedAt.toEpochMilli());
+            preparedStatement.setBigDecimal(2, BigDecimal.valueOf(totalCents, 2));
+            preparedStatement.setInt(3, orderTabId);
+
+            if(preparedStatement.executeUpdate() == 0) {
+                throw new RepositoryException(ERROR_NOT_OPEN + ". ID: " + orderTabId);
+            }
+        }
+
+        salesRollupRepository.accumulate(conn, orderTabId, closedAt);
+    }
+
+    private Optional<OrderTab> findById(Connection conn, int id) throws SQLException {
+        OrderTab orderTab;
+
+        try(PreparedStatement preparedStatement = conn.prepareStatement(FIND_BY_ID)) {
+            preparedStatement.setInt(1, id);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                if(!resultSet.next()) return Optional.empty();
+                orderTab = orderTabRowMapper.map(resultSet);
+            }
+        }
+
+        try(PreparedStatement preparedStatement = conn.prepareStatement(FIND_ITEMS)) {
+            preparedStatement.setInt(1, id);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) {
+                    orderTab.getProdutos().add(new Product(resultSet.getInt(1), resultSet.getString(2),
+                            resultSet.getInt(3), resultSet.getBigDecimal(4)));
+                }
+            }
+        }
+
+        return Optional.of(orderTab);
+    }
+
+    private int findQuantity(Connection conn, int productId) throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(FIND_QUANTITY)) {
+            preparedStatement.setInt(1, productId);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt("quantidade") : 0;
+            }
+        }
+    }
+
+    private void rollback(Connection conn) {
+        if(conn != null) {
+            try {
+                conn.rollback();
+                logger.info("Rollback executado com sucesso");
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Rollback falhou", "", null, sqlException);
+            }
+        }
+    }
 
+    private void closeConnection(Connection conn) {
+        if(conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Erro ao fechar conexão", "", null, sqlException);
+            }
+        }
+    }
 }
@@ -0,0 +1,179 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.journal.ProductChange;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository responsável pelo histórico de preços dos produtos.
+ *
+ * <p>Cada linha de {@code historico_precos} diz a partir de quando um preço passou a
+ * valer; a chave primária ({@code produto_id, vigente_desde}) é o próprio índice da
+ * consulta, então o preço em um instante é uma única busca no índice: a última linha do
+ * produto com {@code vigente_desde} até o instante.</p>
+ *
+ * <p>Características principais: </p>
+ * <ul>
+ *     <li>Escrita sempre na conexão (e transação) de quem altera o preço</li>
+ *     <li>Uma linha só quando o preço muda de fato</li>
+ *     <li>Preços de todas as linhas de uma comanda em uma única consulta</li>
+ * </ul>
+ *
+ * @author João Pedro
+ */
+
+public class PriceHistoryRepository {
+    //=============== Constantes ===============
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_PRICE_AT = "Erro ao consultar o preço histórico";
+
+    //Queries SQL
+    private static final String CURRENT_CENTS = "CAST(ROUND(p.valor_unitario * 100) AS INTEGER)";
+    private static final String LATEST_CENTS =
+            "SELECT h.valor_centavos FROM historico_precos h WHERE h.produto_id = p.id " +
+            "ORDER BY h.vigente_desde DESC LIMIT 1";
+    //Duas alterações do mesmo produto no mesmo milissegundo: vale a última
+    private static final String RECORD_IF_CHANGED =
+            "INSERT OR REPLACE INTO historico_precos (produto_id, vigente_desde, valor_centavos) " +
+            "SELECT p.id, ?, " + CURRENT_CENTS + " FROM produtos p " +
+            "WHERE p.id = ? AND " + CURRENT_CENTS + " IS NOT (" + LATEST_CENTS + ")";
+    //Preço informado, comparado com o que valia no instante (catálogo em memória)
+    private static final String RECORD_PRICE_IF_CHANGED =
+            "INSERT OR REPLACE INTO historico_precos (produto_id, vigente_desde, valor_centavos) " +
+            "SELECT ?1, ?2, ?3 WHERE ?3 IS NOT (SELECT h.valor_centavos FROM historico_precos h " +
+            "WHERE h.produto_id = ?1 AND h.vigente_desde <= ?2 ORDER BY h.vigente_desde DESC LIMIT 1)";
+    private static final String PRICE_AT =
+            "SELECT valor_centavos FROM historico_precos WHERE produto_id = ? AND vigente_desde <= ? " +
+            "ORDER BY vigente_desde DESC LIMIT 1";
+    //Comanda aberta: preços de agora
+    private static final String ORDER_TAB_PRICES =
+            "SELECT i.produto_id, (SELECT h.valor_centavos FROM historico_precos h " +
+            "WHERE h.produto_id = i.produto_id AND h.vigente_desde <= COALESCE(c.fechada_em, ?) " +
+            "ORDER BY h.vigente_desde DESC LIMIT 1) AS valor_centavos " +
+            "FROM itens_comanda i JOIN comandas c ON c.id = i.comanda_id " +
+            "WHERE i.comanda_id = ? ORDER BY i.id";
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(PriceHistoryRepository.class);
+
+    //=============== Escrita (transação do chamador) ===============
+
+    /**
+     * Grava o preço atual dos produtos informados, para os que tiveram o preço alterado
+     * desde a última linha do histórico.
+     *
+     * <p>Não faz commit: a gravação participa da transação de quem alterou o preço, e deve
+     * ser chamada depois da alteração.</p>
+     *
+     * @param conn conexão da transação corrente
+     * @param productIds produtos possivelmente alterados
+     * @param effectiveFrom instante a partir do qual o preço vale
+     * @throws SQLException se houver erro na operação
+     */
+    public void record(Connection conn, Collection<Integer> productIds, Instant effectiveFrom) throws SQLException {
+        if(productIds.isEmpty()) return;
+
+        try(PreparedStatement preparedStatement = conn.prepareStatement(RECORD_IF_CHANGED)) {
+            for(int productId : productIds) {
+                preparedStatement.setLong(1, effectiveFrom.toEpochMilli());
+                preparedStatement.setInt(2, productId);
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+    }
+
+    /**
+     * Grava o preço de cada alteração do catálogo em memória que mudou o preço do produto,
+     * a partir do instante da própria alteração.
+     *
+     * <p>Não faz commit: a gravação participa da transação do snapshot. As alterações devem
+     * vir na ordem em que foram feitas.</p>
+     *
+     * @param conn conexão da transação corrente
+     * @param changes alterações gravadas pelo snapshot; exclusões são ignoradas
+     * @throws SQLException se houver erro na operação
+     */
+    public void record(Connection conn, List<ProductChange> changes) throws SQLException {
+        if(changes.isEmpty()) return;
+
+        try(PreparedStatement preparedStatement = conn.prepareStatement(RECORD_PRICE_IF_CHANGED)) {
+            for(ProductChange change : changes) {
+                if(change.isDelete()) continue;
+
+                preparedStatement.setInt(1, change.getProductId());
+                preparedStatement.setLong(2, change.getChangedAt().toEpochMilli());
+                preparedStatement.setLong(3, change.getState().getUnitValue().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+                preparedStatement.addBatch();
+            }
+            preparedStatement.executeBatch();
+        }
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * @param productId ID do produto
+     * @param instant instante desejado
+     * @return preço que valia no instante, vazio se o produto ainda não existia
+     * @throws RepositoryException se houver erro na operação
+     */
+    public Optional<BigDecimal> priceAt(int productId, Instant instant) {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(PRICE_AT)) {
+            preparedStatement.setInt(1, productId);
+            preparedStatement.setLong(2, instant.toEpochMilli());
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? Optional.of(BigDecimal.valueOf(resultSet.getLong(1), 2)) : Optional.empty();
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Consultar preço histórico", PRICE_AT, productId, sqlException);
+            throw new RepositoryException(ERROR_PRICE_AT + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+
+    /**
+     * Preços de tabela dos produtos de uma comanda no instante do fechamento dela (ou
+     * agora, se ainda estiver aberta).
+     *
+     * @param orderTabId ID da comanda
+     * @return preço por ID de produto, na ordem dos itens; produtos sem preço no instante
+     * ficam de fora. Vazio se a comanda não existir ou não tiver itens
+     * @throws RepositoryException se houver erro na operação
+     */
+    public Map<Integer, BigDecimal> orderTabPrices(int orderTabId) {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(ORDER_TAB_PRICES)) {
+            preparedStatement.setLong(1, Instant.now().toEpochMilli());
+            preparedStatement.setInt(2, orderTabId);
+
+            Map<Integer, BigDecimal> prices = new LinkedHashMap<>();
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) {
+                    long cents = resultSet.getLong("valor_centavos");
+                    if(!resultSet.wasNull()) prices.put(resultSet.getInt("produto_id"), BigDecimal.valueOf(cents, 2));
+                }
+            }
+            return prices;
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Consultar preços históricos da comanda", ORDER_TAB_PRICES, orderTabId, sqlException);
+            throw new RepositoryException(ERROR_PRICE_AT + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+}
@@ -1,15 +1,30 @@
 package com.io.github.pedroolivsz.repository;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.sql.*;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.PriceAdjustment;
+import com.io.github.pedroolivsz.dominio.PriceChange;
 import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ProductFilter;
+import com.io.github.pedroolivsz.dominio.ReceivingLine;
+import com.io.github.pedroolivsz.dominio.ReceivingResult;
+import com.io.github.pedroolivsz.dominio.StockMovement;
 import com.io.github.pedroolivsz.logs.LogDatabase;
 import com.io.github.pedroolivsz.rowMapper.ProdutoRowMapper;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
 
 /**
  * Repository responsável pelas operações de persistência de produtos.
@@ -20,13 +35,15 @@ import com.io.github.pedroolivsz.rowMapper.ProdutoRowMapper;
  * <ul>
  *     <li>Operações CRUD completas com validalção</li>
  *     <li>Suporte a transações e rollback</li>
+ *     <li>Toda alteração de quantidade é registrada no histórico de movimentações
+ *     na mesma transação</li>
  *     <li>Logging detalhado de erros</li>
  * </ul>
  *
  * @author João Pedro
  */
 
-public class ProductRepository {
+public class ProductRepository implements ProductStore {
     //=============== Constantes ===============
 
     //Mensagens de erro padronizadas
@@ -36,23 +53,72 @@ public class ProductRepository {
     private static final String ERROR_LIST = "Erro ao listar produtos";
     private static final String ERROR_FIND = "Erro ao procurar produto";
     private static final String ERROR_NOT_FOUND = "Produto não encontrado";
+    private static final String ERROR_REPRICE = "Erro ao reajustar preços";
+    private static final String ERROR_RECEIVE = "Erro ao registrar recebimento";
 
     //Queries SQL
     private static final String INSERT =
-            "INSERT INTO produtos (quantidade, nome, valor_unitario) VALUES(?, ?, ?)";
+            "INSERT INTO produtos (quantidade, nome, valor_unitario, estoque_minimo) VALUES(?, ?, ?, ?)";
     private static final String UPDATE =
-            "UPDATE produtos SET quantidade = ?, nome = ?, valor_unitario = ? WHERE id = ?";
+            "UPDATE produtos SET quantidade = ?, nome = ?, valor_unitario = ?, estoque_minimo = ?, versao = versao + 1 " +
+            "WHERE id = ? AND versao = ?";
     private static final String DELETE =
             "DELETE FROM produtos WHERE id = ?";
     private static final String LIST_ALL =
-            "SELECT id, quantidade, nome, valor_unitario FROM produtos ORDER BY id";
+            "SELECT id, quantidade, nome, valor_unitario, estoque_minimo, versao FROM produtos ORDER BY id";
     private static final String FIND_BY_ID =
-            "SELECT id, quantidade, nome, valor_unitario FROM produtos WHERE id = ?";
+            "SELECT id, quantidade, nome, valor_unitario, estoque_minimo, versao FROM produtos WHERE id = ?";
+    private static final String FIND_BY_IDS =
+            "SELECT id, quantidade, nome, valor_unitario, estoque_minimo, versao FROM produtos WHERE id IN (%s)";
+    private static final String FIND_QUANTITY_AND_VERSION =
+            "SELECT quantidade, versao FROM produtos WHERE id = ?";
+    private static final Set<String> PARTIAL_UPDATE_COLUMNS = Set.of("nome", "quantidade", "valor_unitario", "estoque_minimo");
+    //A expressão precisa ser idêntica à do índice idx_produtos_nome_normalizado para usá-lo
+    private static final String FIND_ID_BY_NORMALIZED_NAME =
+            "SELECT id FROM produtos WHERE LOWER(TRIM(nome)) = ?";
+    private static final String LIST_NORMALIZED_NAMES =
+            "SELECT LOWER(TRIM(nome)) FROM produtos";
+    private static final String LIST_IDS_AND_NORMALIZED_NAMES =
+            "SELECT id, LOWER(TRIM(nome)) FROM produtos";
+
+    //Reajuste em centavos inteiros: evita o arredondamento binário de REAL no SQLite. O
+    //percentual entra como fator em centésimos de ponto percentual (10800 = +8%) e o
+    //"+ 5000" arredonda a divisão inteira para o centavo mais próximo (HALF_UP)
+    private static final String CURRENT_CENTS = "CAST(ROUND(valor_unitario * 100) AS INTEGER)";
+    private static final String PERCENTAGE_CENTS = "(" + CURRENT_CENTS + " * ? + 5000) / 10000";
+    private static final String FIXED_DELTA_CENTS = "(" + CURRENT_CENTS + " + ?)";
+    private static final String STOCK_VALUE_CENTS =
+            "SELECT COALESCE(SUM(quantidade * " + CURRENT_CENTS + "), 0) FROM produtos";
+    private static final String UPDATE_PRICE =
+            "UPDATE produtos SET valor_unitario = ?, versao = versao + 1 WHERE id = ?";
+    private static final String ADD_STOCK =
+            "UPDATE produtos SET quantidade = quantidade + ?, versao = versao + 1 WHERE id = ?";
+    private static final String APPLY_STOCK_DELTA =
+            "UPDATE produtos SET quantidade = quantidade + ?, versao = versao + 1 WHERE id = ? AND quantidade + ? >= 0";
 
     //=============== Dependências ===============
 
     private final LogDatabase logger = new LogDatabase(ProductRepository.class);
     private final ProdutoRowMapper produtoRowMapper = new ProdutoRowMapper();
+    private final StockMovementRepository stockMovementRepository;
+    private final PriceHistoryRepository priceHistoryRepository;
+
+    //=============== Construtores ===============
+
+    public ProductRepository() {
+        this(new StockMovementRepository());
+    }
+
+    public ProductRepository(StockMovementRepository stockMovementRepository) {
+        this(stockMovementRepository, new PriceHistoryRepository());
+    }
+
+    public ProductRepository(StockMovementRepository stockMovementRepository, PriceHistoryRepository priceHistoryRepository) {
+        if(stockMovementRepository == null) throw new IllegalArgumentException("StockMovementRepository não pode ser null");
+        if(priceHistoryRepository == null) throw new IllegalArgumentException("PriceHistoryRepository não pode ser null");
+        this.stockMovementRepository = stockMovementRepository;
+        this.priceHistoryRepository = priceHistoryRepository;
+    }
 
     //=============== Métodos CRUD básicos ===============
 
@@ -64,24 +130,26 @@ public class ProductRepository {
      * @throws RepositoryException se houver erro na operação
      * @throws IllegalArgumentException se o produto for null ou inválido
      */
+    @Override
     public Product create(Product product) {
         validateProduct(product);
-        try(Connection conn = Database.connect();
-            PreparedStatement preparedStatement = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)) {
-            setProductParameters(preparedStatement, product);
 
-            preparedStatement.executeUpdate();
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
 
-            try (ResultSet keys = preparedStatement.getGeneratedKeys()){
-                if(keys.next()) {
-                    product.setId(keys.getInt(1));
-                }
-            }
+            insert(conn, product);
 
+            conn.commit();
             logger.info("Produto criado com sucesso. ID: " + product.getId());
         } catch(SQLException sqlException) {
+            rollback(conn);
+            if(isUniqueViolation(sqlException)) throw new DuplicateProductNameException(product.getName(), sqlException);
             logger.logDatabaseError("Criar produto no banco", INSERT, product, sqlException);
             throw new RepositoryException(ERROR_CREATE + ". Tente novamente mais tarde");
+        } finally {
+            closeConnection(conn);
         }
 
         return product;
@@ -95,6 +163,7 @@ public class ProductRepository {
      * @throws RepositoryException se houver erro na operação
      * @throws IllegalArgumentException se o produto for null ou inválido
      */
+    @Override
     public Product createWithTransaction(Product product) {
         validateProduct(product);
 
@@ -103,21 +172,14 @@ public class ProductRepository {
             conn = Database.connect();
             conn.setAutoCommit(false);
 
-            try (PreparedStatement preparedStatement = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)){
-                setProductParameters(preparedStatement, product);
-
-                preparedStatement.executeUpdate();
-
-                try (ResultSet key = preparedStatement.getGeneratedKeys()) {
-                    if(key.next()) product.setId(key.getInt(1));
-                }
-            }
+            insert(conn, product);
 
             conn.commit();
             logger.info("Produto criado com sucesso (Transação). ID: " + product.getId());
             return product;
         } catch (SQLException sqlException) {
             rollback(conn);
+            if(isUniqueViolation(sqlException)) throw new DuplicateProductNameException(product.getName(), sqlException);
             logger.logDatabaseError("Criar produto com transição", INSERT, product, sqlException);
             throw new RepositoryException(ERROR_CREATE + " (Transação)", sqlException);
         } finally {
@@ -128,82 +190,375 @@ public class ProductRepository {
     /**
      * Atualiza um produto existente no banco de dados.
      *
-     * @param product o produto com os dados atualizados
+     * <p>A escrita é condicional: só ocorre se a versão gravada ainda for a versão do
+     * produto informado, isto é, se ninguém alterou a linha desde que ela foi lida. Em caso
+     * de sucesso a versão do produto é incrementada.</p>
+     *
+     * @param product o produto com os dados atualizados e a versão lida
      * @return o produto atualizado
-     * @throws RepositoryException se houver erro na operação
-     * @throws IllegalArgumentException se o produto for null ou inválido ou se o id não existir
+     * @throws OptimisticLockException se o produto foi alterado por outra operação
+     * @throws RepositoryException se houver erro na operação ou o produto não existir
+     * @throws IllegalArgumentException se o produto for null ou inválido
      */
+    @Override
     public Product update(Product product) {
         validateProduct(product);
         validateId(product.getId());
 
-        try(Connection conn = Database.connect();
-            PreparedStatement preparedStatement = conn.prepareStatement(UPDATE)) {
-            setProductParameters(preparedStatement, product);
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
 
-            preparedStatement.setInt(4, product.getId());
+            int[] previous = findQuantityAndVersion(conn, product.getId());
+            if(previous == null) {
+                throw new RepositoryException(ERROR_NOT_FOUND + " para atualização. ID: " + product.getId());
+            }
+            if(previous[1] != product.getVersion()) {
+                throw new OptimisticLockException(product.getId(), product.getVersion(), previous[1]);
+            }
 
-            int rows = preparedStatement.executeUpdate();
+            try(PreparedStatement preparedStatement = conn.prepareStatement(UPDATE)) {
+                setProductParameters(preparedStatement, product);
+                preparedStatement.setInt(5, product.getId());
+                preparedStatement.setInt(6, product.getVersion());
 
-            if(rows == 0) {
-                throw new RepositoryException(ERROR_NOT_FOUND + " para atualização. ID: " + product.getId());
+                //A condição na própria escrita cobre a alteração feita entre a leitura e o UPDATE
+                if(preparedStatement.executeUpdate() == 0) {
+                    int[] current = findQuantityAndVersion(conn, product.getId());
+                    throw new OptimisticLockException(product.getId(), product.getVersion(), current == null ? -1 : current[1]);
+                }
             }
 
-            logger.info("Produto atualizado com sucesso. ID: " + product.getId());
+            int delta = product.getQuantity() - previous[0];
+            if(delta != 0) {
+                stockMovementRepository.record(conn, List.of(
+                        new StockMovement(product.getId(), delta, StockMovement.Reason.ADJUSTMENT)));
+            }
+            priceHistoryRepository.record(conn, List.of(product.getId()), Instant.now());
+
+            conn.commit();
+            product.setVersion(product.getVersion() + 1);
+            logger.info("Produto atualizado com sucesso. ID: " + product.getId() + ", versão: " + product.getVersion());
         } catch (SQLException sqlException) {
+            rollback(conn);
+            if(isUniqueViolation(sqlException)) throw new DuplicateProductNameException(product.getName(), sqlException);
             logger.logDatabaseError("Editar produto no banco de dados", UPDATE, product, sqlException);
             throw new RepositoryException(ERROR_UPDATE + ". Tente novamente mais tarde", sqlException);
+        } catch (RepositoryException repositoryException) {
+            rollback(conn);
+            throw repositoryException;
+        } finally {
+            closeConnection(conn);
         }
 
         return product;
     }
 
+    /**
+     * Aplica uma movimentação de estoque de forma atômica.
+     *
+     * <p>A quantidade é alterada com um incremento no próprio banco, sem sobrescrever os
+     * demais campos, e a movimentação é gravada no histórico na mesma transação.</p>
+     *
+     * @param movement movimentação a aplicar (delta positivo para entrada, negativo para saída)
+     * @return o produto atualizado, ou vazio se o produto não existir ou o estoque ficaria negativo
+     * @throws RepositoryException se houver erro na operação
+     * @throws IllegalArgumentException se a movimentação for inválida
+     */
+    @Override
+    public Optional<Product> applyStockMovement(StockMovement movement) {
+        if(movement == null || movement.getReason() == null) throw new IllegalArgumentException("Movimentação inválida");
+        validateId(movement.getProductId());
+
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            int rows;
+            try(PreparedStatement preparedStatement = conn.prepareStatement(APPLY_STOCK_DELTA)) {
+                preparedStatement.setInt(1, movement.getDelta());
+                preparedStatement.setInt(2, movement.getProductId());
+                preparedStatement.setInt(3, movement.getDelta());
+                rows = preparedStatement.executeUpdate();
+            }
+
+            if(rows == 0) {
+                conn.rollback();
+                return Optional.empty();
+            }
+
+            stockMovementRepository.record(conn, List.of(movement));
+            Optional<Product> updated = findById(conn, movement.getProductId());
+
+            conn.commit();
+            logger.info("Movimentação de estoque aplicada. ID: " + movement.getProductId() + ", delta: " + movement.getDelta());
+
+            return updated;
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Aplicar movimentação de estoque", APPLY_STOCK_DELTA, movement, sqlException);
+            throw new RepositoryException(ERROR_UPDATE + ". Tente novamente mais tarde", sqlException);
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Registra o recebimento de uma nota de entrega inteira em uma única transação.
+     *
+     * <p>Os produtos são validados com uma única consulta {@code IN}; as linhas de produtos
+     * existentes são aplicadas como incrementos atômicos em um único batch, junto com as
+     * movimentações no histórico. Linhas com produto inexistente ou quantidade inválida não
+     * interrompem o recebimento: apenas são reportadas no resultado.</p>
+     *
+     * @param lines linhas da nota, na ordem em que foram informadas
+     * @return resultado de cada linha, na mesma ordem
+     * @throws RepositoryException se houver erro na operação
+     * @throws IllegalArgumentException se a lista de linhas for null
+     */
+    @Override
+    public List<ReceivingResult> receive(List<ReceivingLine> lines) {
+        if(lines == null) throw new IllegalArgumentException("Linhas do recebimento não podem ser null");
+
+        Set<Integer> ids = new LinkedHashSet<>();
+        for(ReceivingLine line : lines) {
+            if(line.getQuantity() > 0) ids.add(line.getProductId());
+        }
+
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            Map<Integer, Product> products = findByIds(conn, ids);
+
+            List<ReceivingResult> results = new ArrayList<>(lines.size());
+            List<StockMovement> movements = new ArrayList<>();
+            try(PreparedStatement preparedStatement = conn.prepareStatement(ADD_STOCK)) {
+                for(ReceivingLine line : lines) {
+                    Product product = products.get(line.getProductId());
+
+                    if(line.getQuantity() <= 0) {
+                        results.add(new ReceivingResult(line, ReceivingResult.Status.INVALID_QUANTITY, null));
+                    } else if(product == null) {
+                        results.add(new ReceivingResult(line, ReceivingResult.Status.PRODUCT_NOT_FOUND, null));
+                    } else {
+                        preparedStatement.setInt(1, line.getQuantity());
+                        preparedStatement.setInt(2, line.getProductId());
+                        preparedStatement.addBatch();
+                        movements.add(new StockMovement(line.getProductId(), line.getQuantity(), StockMovement.Reason.RECEIVING));
+
+                        //Estado após a linha: a transação segura o lock de escrita, então a
+                        //quantidade lida mais os incrementos anteriores é a quantidade gravada
+                        product.setQuantity(product.getQuantity() + line.getQuantity());
+                        product.setVersion(product.getVersion() + 1);
+                        results.add(new ReceivingResult(line, ReceivingResult.Status.RECEIVED, copyOf(product)));
+                    }
+                }
+
+                if(!movements.isEmpty()) preparedStatement.executeBatch();
+            }
+
+            stockMovementRepository.record(conn, movements);
+
+            conn.commit();
+            logger.info("Recebimento registrado. Linhas: " + lines.size() + ", aplicadas: " + movements.size());
+
+            return results;
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Registrar recebimento", ADD_STOCK, lines, sqlException);
+            throw new RepositoryException(ERROR_RECEIVE + ". Tente novamente mais tarde.", sqlException);
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Reajusta o preço de todos os produtos selecionados pelo filtro em uma única transação.
+     *
+     * <p>Reajustes percentuais e por valor fixo são aplicados com um único {@code UPDATE}
+     * sobre o conjunto; listas explícitas de preços usam um único statement em lote. Os
+     * novos preços são arredondados para o centavo (HALF_UP). Em modo de prévia, as
+     * alterações são calculadas da mesma forma, mas a transação é desfeita.</p>
+     *
+     * @param filter seleção dos produtos
+     * @param adjustment reajuste a aplicar
+     * @param preview se true, apenas calcula as alterações
+     * @return alterações de preço, uma por produto afetado, em ordem de ID
+     * @throws RepositoryException se houver erro na operação
+     * @throws IllegalArgumentException se o reajuste for inválido ou deixar algum preço negativo
+     */
+    @Override
+    public List<PriceChange> reprice(ProductFilter filter, PriceAdjustment adjustment, boolean preview) {
+        if(filter == null) throw new IllegalArgumentException("Filtro não pode ser null");
+        if(adjustment == null || adjustment.getType() == null) throw new IllegalArgumentException("Reajuste inválido");
+
+        List<Object> params = new ArrayList<>();
+        String newCents = newCentsExpression(adjustment, params);
+        String where = whereClause(filter, adjustment, params);
+        String select = "SELECT id, nome, valor_unitario, " + newCents + " AS novo_centavos " +
+                "FROM produtos WHERE " + where + " ORDER BY id";
+
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            List<PriceChange> changes = new ArrayList<>();
+            try(PreparedStatement preparedStatement = conn.prepareStatement(select)) {
+                setParameters(preparedStatement, params);
+
+                try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                    while(resultSet.next()) {
+                        int id = resultSet.getInt("id");
+                        BigDecimal newPrice = adjustment.getType() == PriceAdjustment.Type.PRICE_LIST
+                                ? adjustment.getPrices().get(id).setScale(2, RoundingMode.HALF_UP)
+                                : BigDecimal.valueOf(resultSet.getLong("novo_centavos"), 2);
+                        changes.add(new PriceChange(id, resultSet.getString("nome"),
+                                resultSet.getBigDecimal("valor_unitario"), newPrice));
+                    }
+                }
+            }
+
+            long negative = changes.stream().filter(change -> change.getNewPrice().signum() < 0).count();
+            if(negative > 0) {
+                throw new IllegalArgumentException("Reajuste deixaria " + negative + " produto(s) com preço negativo");
+            }
+
+            if(preview || changes.isEmpty()) {
+                conn.rollback();
+                return changes;
+            }
+
+            if(adjustment.getType() == PriceAdjustment.Type.PRICE_LIST) {
+                try(PreparedStatement preparedStatement = conn.prepareStatement(UPDATE_PRICE)) {
+                    for(PriceChange change : changes) {
+                        preparedStatement.setBigDecimal(1, change.getNewPrice());
+                        preparedStatement.setInt(2, change.getProductId());
+                        preparedStatement.addBatch();
+                    }
+                    preparedStatement.executeBatch();
+                }
+            } else {
+                String update = "UPDATE produtos SET valor_unitario = " + newCents + " / 100.0, " +
+                        "versao = versao + 1 WHERE " + where;
+                try(PreparedStatement preparedStatement = conn.prepareStatement(update)) {
+                    setParameters(preparedStatement, params);
+                    preparedStatement.executeUpdate();
+                }
+            }
+            priceHistoryRepository.record(conn, changes.stream().map(PriceChange::getProductId).toList(), Instant.now());
+
+            conn.commit();
+            logger.info("Reajuste de preços aplicado. " + adjustment + ", produtos: " + changes.size());
+
+            return changes;
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Reajustar preços", select, filter, sqlException);
+            throw new RepositoryException(ERROR_REPRICE + ". Tente novamente mais tarde.", sqlException);
+        } catch (IllegalArgumentException e) {
+            rollback(conn);
+            throw e;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
     /**
      * Atualiza parcialmente um produto existente.
      * Permite atualizar somente compos específicos.
      *
+     * <p>Uma alteração de quantidade é registrada no histórico como ajuste, na mesma transação.
+     * Como em {@link #update(Product)}, a versão é incrementada e, se informada, a versão
+     * esperada é conferida na própria escrita.</p>
+     *
      * @param id o ID do produto
      * @param updates mapa com os campos a serem atualizados
+     * @param expectedVersion versão lida pelo chamador; null grava sem conferir
      * @return o produto atualizado
+     * @throws OptimisticLockException se o produto estiver em outra versão
      * @throws RepositoryException se houver erro na operação
-     * @throws IllegalArgumentException se não houver atualizações ou o ID for inválido
+     * @throws IllegalArgumentException se não houver atualizações, algum campo for desconhecido
+     * ou o ID for inválido
      */
-    public Product partialUpdate(int id, Map<String, Object> updates) {
+    @Override
+    public Product partialUpdate(int id, Map<String, Object> updates, Integer expectedVersion) {
         if(updates == null || updates.isEmpty()) throw new IllegalArgumentException("Nenhuma atualizaçao fornecida");
 
         validateId(id);
 
-        StringBuilder sql = new StringBuilder("UPDATE produtos SET");
+        StringBuilder sql = new StringBuilder("UPDATE produtos SET ");
         List<Object> params = new ArrayList<>();
 
         updates.forEach((key, value) -> {
+            //Os nomes das colunas entram no SQL: só as editáveis são aceitas
+            if(!PARTIAL_UPDATE_COLUMNS.contains(key)) throw new IllegalArgumentException("Campo desconhecido: " + key);
             sql.append(key).append(" = ?, ");
             params.add(value);
         });
 
-        sql.setLength(sql.length() - 2); //Remove a última vírgula
-        sql.append(" WHERE id = ?");
+        sql.append("versao = versao + 1 WHERE id = ?");
         params.add(id);
+        if(expectedVersion != null) {
+            sql.append(" AND versao = ?");
+            params.add(expectedVersion);
+        }
+
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
 
-        try (Connection conn = Database.connect();
-        PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
-            for (int i = 0; i < params.size(); i++) {
-                preparedStatement.setObject(i + 1, params.get(i));
+            int[] previous = findQuantityAndVersion(conn, id);
+            if(previous == null) {
+                throw new RepositoryException(ERROR_NOT_FOUND + ". ID: " + id);
+            }
+            if(expectedVersion != null && previous[1] != expectedVersion) {
+                throw new OptimisticLockException(id, expectedVersion, previous[1]);
             }
 
-            int rows = preparedStatement.executeUpdate();
+            try(PreparedStatement preparedStatement = conn.prepareStatement(sql.toString())) {
+                for (int i = 0; i < params.size(); i++) {
+                    preparedStatement.setObject(i + 1, params.get(i));
+                }
 
-            if(rows == 0) {
-                throw new RepositoryException(ERROR_NOT_FOUND + ". ID: " + id);
+                if(preparedStatement.executeUpdate() == 0) {
+                    int[] current = findQuantityAndVersion(conn, id);
+                    if(current == null || expectedVersion == null) throw new RepositoryException(ERROR_NOT_FOUND + ". ID: " + id);
+                    throw new OptimisticLockException(id, expectedVersion, current[1]);
+                }
+            }
+            if(updates.containsKey("valor_unitario")) {
+                priceHistoryRepository.record(conn, List.of(id), Instant.now());
+            }
+
+            Product product = findById(conn, id)
+                    .orElseThrow(() -> new RepositoryException(ERROR_NOT_FOUND + " após a atualização"));
+
+            int delta = product.getQuantity() - previous[0];
+            if(delta != 0) {
+                stockMovementRepository.record(conn, List.of(
+                        new StockMovement(id, delta, StockMovement.Reason.ADJUSTMENT)));
             }
 
+            conn.commit();
             logger.info("Produto atualizado parcialmente. ID: " + id);
 
-            return findById(id)
-                    .orElseThrow(() -> new RepositoryException(ERROR_NOT_FOUND + " após a atualização"));
+            return product;
         } catch (SQLException sqlException) {
+            rollback(conn);
+            if(isUniqueViolation(sqlException)) throw new DuplicateProductNameException(String.valueOf(updates.get("nome")), sqlException);
             logger.logDatabaseError("Atualização parcial", sql.toString(), updates, sqlException);
             throw new RepositoryException("Erro na atualização parcial", sqlException);
+        } catch (RepositoryException repositoryException) {
+            rollback(conn);
+            throw repositoryException;
+        } finally {
+            closeConnection(conn);
         }
     }
 
@@ -214,6 +569,7 @@ public class ProductRepository {
      * @throws RepositoryException se houver erro na operação ou se o produto não existir
      * @throws IllegalArgumentException se o ID do produto for inválido
      */
+    @Override
     public void delete(int id) {
         validateId(id);
 
@@ -238,6 +594,7 @@ public class ProductRepository {
      * @return lista com todos os produtos
      * @throws RepositoryException se houver um erro na operação
      */
+    @Override
     public List<Product> listAll() {
         List<Product> products = new ArrayList<>();
 
@@ -266,6 +623,7 @@ public class ProductRepository {
      * @throws RepositoryException se houver erro na operação
      * @throws IllegalArgumentException se o ID for inválido
      */
+    @Override
     public Optional<Product> findById(int id) {
         validateId(id);
 
@@ -290,8 +648,291 @@ public class ProductRepository {
         return Optional.empty();
     }
 
+    /**
+     * Busca o ID do produto com o nome normalizado informado, usando o índice único.
+     *
+     * @param normalizedName nome já normalizado (sem espaços nas bordas e em minúsculas)
+     * @return optional com o ID do produto, vazio se nenhum produto usar o nome
+     * @throws RepositoryException se houver erro na operação
+     */
+    @Override
+    public Optional<Integer> findIdByNormalizedName(String normalizedName) {
+        if(normalizedName == null) throw new IllegalArgumentException("Nome não pode ser null");
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(FIND_ID_BY_NORMALIZED_NAME)) {
+            preparedStatement.setString(1, normalizedName);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? Optional.of(resultSet.getInt(1)) : Optional.empty();
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Procurar produto pelo nome normalizado", FIND_ID_BY_NORMALIZED_NAME, normalizedName, sqlException);
+            throw new RepositoryException(ERROR_FIND + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+
+    /**
+     * Soma o valor do estoque (quantidade vezes valor unitário) de todos os produtos, em
+     * centavos inteiros.
+     *
+     * @return valor total do estoque
+     * @throws RepositoryException se houver erro na operação
+     */
+    public BigDecimal stockValue() {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(STOCK_VALUE_CENTS);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+            return BigDecimal.valueOf(resultSet.next() ? resultSet.getLong(1) : 0, 2);
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Calcular valor do estoque", STOCK_VALUE_CENTS, sqlException);
+            throw new RepositoryException(ERROR_LIST + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+
+    /**
+     * Lista os nomes normalizados de todos os produtos, sem carregar as demais colunas.
+     *
+     * @return nomes normalizados
+     * @throws RepositoryException se houver erro na operação
+     */
+    @Override
+    public List<String> listNormalizedNames() {
+        List<String> names = new ArrayList<>();
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(LIST_NORMALIZED_NAMES);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            while(resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Listar os nomes normalizados dos produtos", LIST_NORMALIZED_NAMES, sqlException);
+            throw new RepositoryException(ERROR_LIST + ". Tente novamente mais tarde.", sqlException);
+        }
+
+        return names;
+    }
+
+    /**
+     * Lista o ID e o nome normalizado de todos os produtos, sem carregar as demais colunas.
+     *
+     * @return mapa de ID para nome normalizado
+     * @throws RepositoryException se houver erro na operação
+     */
+    @Override
+    public Map<Integer, String> listIdsAndNormalizedNames() {
+        Map<Integer, String> names = new HashMap<>();
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(LIST_IDS_AND_NORMALIZED_NAMES);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            while(resultSet.next()) {
+                names.put(resultSet.getInt(1), resultSet.getString(2));
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Listar os IDs e nomes normalizados dos produtos", LIST_IDS_AND_NORMALIZED_NAMES, sqlException);
+            throw new RepositoryException(ERROR_LIST + ". Tente novamente mais tarde.", sqlException);
+        }
+
+        return names;
+    }
+
     //=============== Métodos auxiliares privados ===============
 
+    /**
+     * Insere o produto e registra a quantidade inicial no histórico, na conexão informada.
+     *
+     * @param conn conexão da transação corrente
+     * @param product o produto a ser inserido
+     * @throws SQLException se houver erro na operação
+     */
+    private void insert(Connection conn, Product product) throws SQLException {
+        try (PreparedStatement preparedStatement = conn.prepareStatement(INSERT, Statement.RETURN_GENERATED_KEYS)){
+            setProductParameters(preparedStatement, product);
+
+            preparedStatement.executeUpdate();
+
+            try (ResultSet key = preparedStatement.getGeneratedKeys()) {
+                if(key.next()) product.setId(key.getInt(1));
+            }
+        }
+
+        if(product.getQuantity() != 0) {
+            stockMovementRepository.record(conn, List.of(
+                    new StockMovement(product.getId(), product.getQuantity(), StockMovement.Reason.CREATION)));
+        }
+        priceHistoryRepository.record(conn, List.of(product.getId()), Instant.now());
+    }
+
+    /**
+     * Busca um produto pelo ID usando uma conexão já aberta.
+     *
+     * @param conn conexão da transação corrente
+     * @param id o ID do produto
+     * @return optional contendo o produto caso encontrado
+     * @throws SQLException se houver erro na operação
+     */
+    private Optional<Product> findById(Connection conn, int id) throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(FIND_BY_ID)) {
+            preparedStatement.setInt(1, id);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? Optional.of(produtoRowMapper.map(resultSet)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Busca vários produtos em uma única consulta usando uma conexão já aberta.
+     *
+     * @param conn conexão da transação corrente
+     * @param ids IDs dos produtos
+     * @return produtos encontrados, por ID
+     * @throws SQLException se houver erro na operação
+     */
+    private Map<Integer, Product> findByIds(Connection conn, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Product> products = new HashMap<>();
+        if(ids.isEmpty()) return products;
+
+        String sql = String.format(FIND_BY_IDS, "?, ".repeat(ids.size() - 1) + "?");
+        try(PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+            int index = 1;
+            for(int id : ids) preparedStatement.setInt(index++, id);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) {
+                    Product product = produtoRowMapper.map(resultSet);
+                    products.put(product.getId(), product);
+                }
+            }
+        }
+
+        return products;
+    }
+
+    static Product copyOf(Product product) {
+        Product copy = new Product(product.getId(), product.getName(), product.getQuantity(), product.getUnitValue());
+        copy.setMinimumStock(product.getMinimumStock());
+        copy.setVersion(product.getVersion());
+        return copy;
+    }
+
+    /**
+     * Busca a quantidade e a versão atuais de um produto usando uma conexão já aberta.
+     *
+     * @param conn conexão da transação corrente
+     * @param id o ID do produto
+     * @return par {quantidade, versão}, ou null se o produto não existir
+     * @throws SQLException se houver erro na operação
+     */
+    private int[] findQuantityAndVersion(Connection conn, int id) throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(FIND_QUANTITY_AND_VERSION)) {
+            preparedStatement.setInt(1, id);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? new int[] {resultSet.getInt(1), resultSet.getInt(2)} : null;
+            }
+        }
+    }
+
+    /**
+     * Monta a expressão SQL do novo preço em centavos e adiciona seus parâmetros.
+     *
+     * @param adjustment reajuste a aplicar
+     * @param params lista de parâmetros do statement
+     * @return expressão do novo preço em centavos
+     * @throws IllegalArgumentException se o valor do reajuste for inválido
+     */
+    private String newCentsExpression(PriceAdjustment adjustment, List<Object> params) {
+        switch (adjustment.getType()) {
+            case PERCENTAGE -> {
+                long factor = 10_000 + toHundredths(adjustment.getValue(), "Percentual");
+                if(factor < 0) throw new IllegalArgumentException("Percentual não pode ser menor que -100%");
+                params.add(factor);
+                return PERCENTAGE_CENTS;
+            }
+            case FIXED_DELTA -> {
+                params.add(toHundredths(adjustment.getValue(), "Valor do reajuste"));
+                return FIXED_DELTA_CENTS;
+            }
+            default -> {
+                if(adjustment.getPrices().isEmpty()) throw new IllegalArgumentException("Lista de preços vazia");
+                return "NULL";
+            }
+        }
+    }
+
+    /**
+     * Monta a cláusula WHERE do filtro e adiciona seus parâmetros. Na lista explícita de
+     * preços, a seleção também se restringe aos produtos da lista.
+     *
+     * @param filter seleção dos produtos
+     * @param adjustment reajuste a aplicar
+     * @param params lista de parâmetros do statement
+     * @return cláusula WHERE, sem a palavra-chave
+     */
+    private String whereClause(ProductFilter filter, PriceAdjustment adjustment, List<Object> params) {
+        StringBuilder where = new StringBuilder("1 = 1");
+
+        if(filter.getNameContains() != null && !filter.getNameContains().isBlank()) {
+            String escaped = filter.getNameContains().trim().toLowerCase()
+                    .replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+            where.append(" AND LOWER(nome) LIKE ? ESCAPE '\\'");
+            params.add("%" + escaped + "%");
+        }
+
+        appendIdIn(where, filter.getIds(), params);
+        if(adjustment.getType() == PriceAdjustment.Type.PRICE_LIST) {
+            appendIdIn(where, adjustment.getPrices().keySet(), params);
+        }
+
+        if(filter.getMinPrice() != null) {
+            where.append(" AND valor_unitario >= ?");
+            params.add(filter.getMinPrice());
+        }
+        if(filter.getMaxPrice() != null) {
+            where.append(" AND valor_unitario <= ?");
+            params.add(filter.getMaxPrice());
+        }
+
+        return where.toString();
+    }
+
+    private void appendIdIn(StringBuilder where, Set<Integer> ids, List<Object> params) {
+        if(ids == null) return;
+        if(ids.isEmpty()) {
+            where.append(" AND 0 = 1");
+            return;
+        }
+
+        where.append(" AND id IN (").append("?, ".repeat(ids.size() - 1)).append("?)");
+        params.addAll(ids);
+    }
+
+    /**
+     * Converte um valor com até duas casas decimais em centésimos inteiros.
+     *
+     * @throws IllegalArgumentException se o valor for null ou tiver mais de duas casas decimais
+     */
+    static long toHundredths(BigDecimal value, String field) {
+        if(value == null) throw new IllegalArgumentException(field + " não pode ser null");
+
+        try {
+            return value.movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(field + " aceita no máximo duas casas decimais");
+        }
+    }
+
+    private void setParameters(PreparedStatement preparedStatement, List<Object> params) throws SQLException {
+        for(int i = 0; i < params.size(); i++) {
+            preparedStatement.setObject(i + 1, params.get(i));
+        }
+    }
+
     /**
      * Define os parâmetros do produto no preparedStatement.
      *
@@ -303,6 +944,7 @@ public class ProductRepository {
         preparedStatement.setInt(1, product.getQuantity());
         preparedStatement.setString(2, product.getName());
         preparedStatement.setBigDecimal(3, product.getUnitValue());
+        preparedStatement.setInt(4, product.getMinimumStock());
     }
 
     /**
@@ -311,11 +953,12 @@ public class ProductRepository {
      * @param product o produto a ser validado
      * @throws IllegalArgumentException se algum campo do produto for inválido
      */
-    private void validateProduct(Product product) {
+    static void validateProduct(Product product) {
         if(product == null) throw new IllegalArgumentException("Produto não pode ser nulo");
         if(product.getName() == null || product.getName().trim().isEmpty()) throw new IllegalArgumentException("Nome do produto não pode ser nulo ou vazio");
         if(product.getQuantity() < 0) throw new IllegalArgumentException("Quantidade não pode ser nergativa");
         if(product.getUnitValue() == null || product.getUnitValue().signum() < 0) throw new IllegalArgumentException("Valor unitário deve ser não-nulo e não-negativo");
+        if(product.getMinimumStock() < 0) throw new IllegalArgumentException("Estoque mínimo não pode ser negativo");
     }
 
     /**
@@ -324,10 +967,18 @@ public class ProductRepository {
      * @param id o ID a ser validado
      * @throws IllegalArgumentException se o ID for inválido
      */
-    private void validateId(int id) {
+    static void validateId(int id) {
         if(id < 0) throw new IllegalArgumentException("ID deve ser maior que zero");
     }
 
+    /**
+     * Verifica se a falha foi a violação de um índice único, como o do nome normalizado.
+     */
+    private boolean isUniqueViolation(SQLException sqlException) {
+        return sqlException instanceof SQLiteException
+                && ((SQLiteException) sqlException).getResultCode() == SQLiteErrorCode.SQLITE_CONSTRAINT_UNIQUE;
+    }
+
     /**
      * Executa rollback em uma conexão.
      *
@@ -0,0 +1,236 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.journal.ProductChange;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+import com.io.github.pedroolivsz.rowMapper.ProdutoRowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Leitura e gravação do catálogo do {@link InMemoryProductStore} no SQLite.
+ *
+ * <p>Cada snapshot grava, em uma única transação, o estado dos produtos alterados, as
+ * movimentações de estoque do período, os preços alterados no histórico e a sequência do journal coberta por ele em
+ * {@code journal_aplicado}. Na inicialização, a tabela de produtos e essa sequência são
+ * lidas juntas; só os registros posteriores do journal precisam ser reaplicados.</p>
+ *
+ * @author João Pedro
+ */
+
+public class ProductSnapshotRepository {
+    //=============== Constantes ===============
+
+    private static final String JOURNAL_NAME = "produtos_memoria";
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_LOAD = "Erro ao carregar o catálogo de produtos";
+    private static final String ERROR_SAVE = "Erro ao gravar o snapshot do catálogo";
+
+    //Queries SQL
+    private static final String LIST_ALL =
+            "SELECT id, quantidade, nome, valor_unitario, estoque_minimo, versao FROM produtos";
+    private static final String FIND_SEQUENCE =
+            "SELECT sequencia FROM journal_aplicado WHERE journal = ?";
+    private static final String FIND_LAST_ID =
+            "SELECT COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'produtos'), 0)";
+    private static final String SAVE_SEQUENCE =
+            "INSERT INTO journal_aplicado (journal, sequencia) VALUES(?, ?) " +
+            "ON CONFLICT (journal) DO UPDATE SET sequencia = excluded.sequencia";
+    private static final String DELETE =
+            "DELETE FROM produtos WHERE id = ?";
+    private static final String INSERT =
+            "INSERT INTO produtos (id, quantidade, nome, valor_unitario, estoque_minimo, versao) VALUES(?, ?, ?, ?, ?, ?)";
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(ProductSnapshotRepository.class);
+    private final ProdutoRowMapper produtoRowMapper = new ProdutoRowMapper();
+    private final StockMovementRepository stockMovementRepository;
+    private final PriceHistoryRepository priceHistoryRepository;
+
+    //=============== Construtores ===============
+
+    public ProductSnapshotRepository() {
+        this(new StockMovementRepository());
+    }
+
+    public ProductSnapshotRepository(StockMovementRepository stockMovementRepository) {
+        this(stockMovementRepository, new PriceHistoryRepository());
+    }
+
+    public ProductSnapshotRepository(StockMovementRepository stockMovementRepository, PriceHistoryRepository priceHistoryRepository) {
+        if(stockMovementRepository == null) throw new IllegalArgumentException("StockMovementRepository não pode ser null");
+        if(priceHistoryRepository == null) throw new IllegalArgumentException("PriceHistoryRepository não pode ser null");
+        this.stockMovementRepository = stockMovementRepository;
+        this.priceHistoryRepository = priceHistoryRepository;
+    }
+
+    //=============== Operações ===============
+
+    /**
+     * Lê todos os produtos, a sequência do journal já gravada e o último ID gerado, em
+     * uma única transação de leitura.
+     *
+     * @return catálogo gravado
+     * @throws RepositoryException se houver erro na operação
+     */
+    public StoredCatalog load() {
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            List<Product> products = new ArrayList<>();
+            try(PreparedStatement preparedStatement = conn.prepareStatement(LIST_ALL);
+                ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) products.add(produtoRowMapper.map(resultSet));
+            }
+
+            long sequence;
+            try(PreparedStatement preparedStatement = conn.prepareStatement(FIND_SEQUENCE)) {
+                preparedStatement.setString(1, JOURNAL_NAME);
+                try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                    sequence = resultSet.next() ? resultSet.getLong(1) : 0;
+                }
+            }
+
+            int lastId;
+            try(PreparedStatement preparedStatement = conn.prepareStatement(FIND_LAST_ID);
+                ResultSet resultSet = preparedStatement.executeQuery()) {
+                lastId = resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+
+            conn.commit();
+            return new StoredCatalog(products, sequence, lastId);
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Carregar o catálogo de produtos", LIST_ALL, sqlException);
+            throw new RepositoryException(ERROR_LOAD, sqlException);
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Grava um snapshot.
+     *
+     * <p>As linhas alteradas são removidas e inseridas de novo com o estado final, de modo
+     * que renomeações cruzadas entre produtos não violem o índice único do nome no meio da
+     * transação.</p>
+     *
+     * @param changed estado final de cada produto alterado, por ID; null para excluído
+     * @param movements movimentações de estoque do período
+     * @param priceChanges alterações do período que mudaram preço, na ordem em que foram feitas
+     * @param sequence última sequência do journal refletida no snapshot
+     * @throws RepositoryException se houver erro na operação
+     */
+    public void save(Map<Integer, Product> changed, List<StockMovement> movements, List<ProductChange> priceChanges, long sequence) {
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            try(PreparedStatement delete = conn.prepareStatement(DELETE);
+                PreparedStatement insert = conn.prepareStatement(INSERT)) {
+                for(Map.Entry<Integer, Product> entry : changed.entrySet()) {
+                    delete.setInt(1, entry.getKey());
+                    delete.addBatch();
+
+                    Product product = entry.getValue();
+                    if(product == null) continue;
+
+                    insert.setInt(1, product.getId());
+                    insert.setInt(2, product.getQuantity());
+                    insert.setString(3, product.getName());
+                    insert.setBigDecimal(4, product.getUnitValue());
+                    insert.setInt(5, product.getMinimumStock());
+                    insert.setInt(6, product.getVersion());
+                    insert.addBatch();
+                }
+
+                if(!changed.isEmpty()) {
+                    delete.executeBatch();
+                    insert.executeBatch();
+                }
+            }
+
+            //Depois dos produtos: os snapshots de estoque do histórico leem a quantidade gravada
+            stockMovementRepository.record(conn, movements);
+            priceHistoryRepository.record(conn, priceChanges);
+
+            try(PreparedStatement preparedStatement = conn.prepareStatement(SAVE_SEQUENCE)) {
+                preparedStatement.setString(1, JOURNAL_NAME);
+                preparedStatement.setLong(2, sequence);
+                preparedStatement.executeUpdate();
+            }
+
+            conn.commit();
+            logger.info("Snapshot do catálogo gravado até a sequência " + sequence + ". Produtos: " + changed.size() +
+                    ", movimentações: " + movements.size());
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Gravar snapshot do catálogo", INSERT, changed.keySet(), sqlException);
+            throw new RepositoryException(ERROR_SAVE, sqlException);
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    /**
+     * Catálogo lido do banco: produtos, sequência do journal refletida neles e último ID gerado.
+     */
+    public static class StoredCatalog {
+        private final List<Product> products;
+        private final long sequence;
+        private final int lastId;
+
+        public StoredCatalog(List<Product> products, long sequence, int lastId) {
+            this.products = products;
+            this.sequence = sequence;
+            this.lastId = lastId;
+        }
+
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public int getLastId() {
+            return lastId;
+        }
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void rollback(Connection conn) {
+        if(conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Rollback falhou", "", null, sqlException);
+            }
+        }
+    }
+
+    private void closeConnection(Connection conn) {
+        if(conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Erro ao fechar conexão", "", null, sqlException);
+            }
+        }
+    }
+}
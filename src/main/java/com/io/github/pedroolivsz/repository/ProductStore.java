@@ -0,0 +1,141 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.dominio.PriceAdjustment;
+import com.io.github.pedroolivsz.dominio.PriceChange;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ProductFilter;
+import com.io.github.pedroolivsz.dominio.ReceivingLine;
+import com.io.github.pedroolivsz.dominio.ReceivingResult;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Armazenamento do catálogo de produtos usado pelos services.
+ *
+ * <p>Implementações:</p>
+ * <ul>
+ *     <li>{@link ProductRepository}: cada operação é uma transação no SQLite</li>
+ *     <li>{@link InMemoryProductStore}: catálogo inteiro em memória, escritas confirmadas
+ *     em um journal e gravadas no SQLite em snapshots periódicos</li>
+ * </ul>
+ *
+ * <p>Em ambas, toda alteração de quantidade gera uma movimentação no histórico e toda
+ * escrita incrementa a versão do produto. Produtos retornados são cópias: alterá-los não
+ * altera o catálogo.</p>
+ *
+ * @author João Pedro
+ */
+
+public interface ProductStore {
+    //=============== Escrita ===============
+
+    /**
+     * @param product produto a criar; recebe o ID gerado
+     * @return o mesmo produto, com ID
+     * @throws DuplicateProductNameException se outro produto usa o nome normalizado
+     */
+    Product create(Product product);
+
+    /**
+     * @param product produto a criar; recebe o ID gerado
+     * @return o mesmo produto, com ID
+     * @throws DuplicateProductNameException se outro produto usa o nome normalizado
+     */
+    Product createWithTransaction(Product product);
+
+    /**
+     * Grava o produto se a versão armazenada ainda for a versão informada.
+     *
+     * @param product produto com os novos dados e a versão lida
+     * @return o produto, com a versão incrementada
+     * @throws OptimisticLockException se o produto foi alterado depois de lido
+     * @throws DuplicateProductNameException se outro produto usa o nome normalizado
+     */
+    Product update(Product product);
+
+    /**
+     * @param movement movimentação a aplicar (delta positivo para entrada, negativo para saída)
+     * @return o produto atualizado, ou vazio se o produto não existir ou o estoque ficaria negativo
+     */
+    Optional<Product> applyStockMovement(StockMovement movement);
+
+    /**
+     * Aplica todas as linhas válidas de uma nota de entrega de uma só vez.
+     *
+     * @param lines linhas da nota
+     * @return resultado de cada linha, na mesma ordem
+     */
+    List<ReceivingResult> receive(List<ReceivingLine> lines);
+
+    /**
+     * @param filter seleção dos produtos
+     * @param adjustment reajuste a aplicar
+     * @param preview se true, apenas calcula as alterações
+     * @return alterações de preço em ordem de ID
+     * @throws IllegalArgumentException se o reajuste for inválido ou deixar algum preço negativo
+     */
+    List<PriceChange> reprice(ProductFilter filter, PriceAdjustment adjustment, boolean preview);
+
+    /**
+     * @param id ID do produto
+     * @param updates novos valores por coluna ({@code nome}, {@code quantidade},
+     *                {@code valor_unitario}, {@code estoque_minimo})
+     * @return o produto atualizado, com a versão incrementada
+     */
+    default Product partialUpdate(int id, Map<String, Object> updates) {
+        return partialUpdate(id, updates, null);
+    }
+
+    /**
+     * Grava os campos informados se a versão armazenada ainda for a versão esperada.
+     *
+     * @param id ID do produto
+     * @param updates novos valores por coluna ({@code nome}, {@code quantidade},
+     *                {@code valor_unitario}, {@code estoque_minimo})
+     * @param expectedVersion versão lida pelo chamador; null grava sem conferir
+     * @return o produto atualizado, com a versão incrementada
+     * @throws OptimisticLockException se o produto estiver em outra versão
+     * @throws DuplicateProductNameException se outro produto usa o nome normalizado
+     */
+    Product partialUpdate(int id, Map<String, Object> updates, Integer expectedVersion);
+
+    /**
+     * @param id ID do produto
+     * @throws RepositoryException se o produto não existir
+     */
+    void delete(int id);
+
+    //=============== Consultas ===============
+
+    /**
+     * @return todos os produtos, em ordem de ID
+     */
+    List<Product> listAll();
+
+    Optional<Product> findById(int id);
+
+    /**
+     * @param normalizedName nome já normalizado
+     * @return ID do produto que usa o nome, vazio se nenhum
+     */
+    Optional<Integer> findIdByNormalizedName(String normalizedName);
+
+    List<String> listNormalizedNames();
+
+    /**
+     * @return nome normalizado de cada produto, por ID
+     */
+    Map<Integer, String> listIdsAndNormalizedNames();
+
+    /**
+     * Indica se cada escrita já está nas tabelas do SQLite quando retorna. Se false, outras
+     * rotinas não devem alterar a tabela de produtos diretamente, pois a alteração seria
+     * sobrescrita pelo próximo snapshot.
+     */
+    default boolean isWriteThrough() {
+        return true;
+    }
+}
@@ -0,0 +1,225 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.ProductSales;
+import com.io.github.pedroolivsz.dominio.SalesBucket;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository responsável pelos agregados de vendas por hora e por dia.
+ *
+ * <p>Os agregados são incrementados no fechamento de cada comanda, na mesma transação,
+ * de modo que os relatórios não precisem percorrer todas as comandas e itens. Valores
+ * são acumulados em centavos para que as somas sejam exatas.</p>
+ *
+ * <p>As horas são identificadas pelo epoch (em segundos) do seu início; os dias, pela data
+ * local no fuso {@code app.timezone} (padrão: fuso do sistema).</p>
+ *
+ * @author João Pedro
+ */
+
+public class SalesRollupRepository {
+    //=============== Constantes ===============
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_QUERY = "Erro ao consultar vendas";
+
+    //Expressão do valor de um item em centavos, a mesma nos agregados e nas consultas diretas
+    static final String LINE_CENTS = "CAST(ROUND(i.quantidade * i.valor_unitario * 100) AS INTEGER)";
+
+    //Queries SQL
+    private static final String ACCUMULATE_HOUR =
+            "INSERT INTO vendas_por_hora (hora, produto_id, quantidade, valor_centavos) " +
+            "SELECT ?, i.produto_id, SUM(i.quantidade), SUM(" + LINE_CENTS + ") " +
+            "FROM itens_comanda i WHERE i.comanda_id = ? GROUP BY i.produto_id " +
+            "ON CONFLICT (hora, produto_id) DO UPDATE SET " +
+            "quantidade = quantidade + excluded.quantidade, valor_centavos = valor_centavos + excluded.valor_centavos";
+    private static final String ACCUMULATE_DAY =
+            "INSERT INTO vendas_por_dia (dia, produto_id, quantidade, valor_centavos) " +
+            "SELECT ?, i.produto_id, SUM(i.quantidade), SUM(" + LINE_CENTS + ") " +
+            "FROM itens_comanda i WHERE i.comanda_id = ? GROUP BY i.produto_id " +
+            "ON CONFLICT (dia, produto_id) DO UPDATE SET " +
+            "quantidade = quantidade + excluded.quantidade, valor_centavos = valor_centavos + excluded.valor_centavos";
+    private static final String LIST_HOURLY =
+            "SELECT hora, produto_id, quantidade, valor_centavos FROM vendas_por_hora " +
+            "WHERE hora >= ? AND hora < ? ORDER BY hora, produto_id";
+    private static final String LIST_DAILY =
+            "SELECT dia, produto_id, quantidade, valor_centavos FROM vendas_por_dia " +
+            "WHERE dia >= ? AND dia <= ? ORDER BY dia, produto_id";
+    private static final String TOTALS_HOURLY =
+            "SELECT produto_id, SUM(quantidade), SUM(valor_centavos) FROM vendas_por_hora " +
+            "WHERE hora >= ? AND hora < ? GROUP BY produto_id";
+    private static final String TOTALS_DAILY =
+            "SELECT produto_id, SUM(quantidade), SUM(valor_centavos) FROM vendas_por_dia " +
+            "WHERE dia >= ? AND dia < ? GROUP BY produto_id";
+    private static final String TOTALS_CLOSED_TABS =
+            "SELECT i.produto_id, SUM(i.quantidade), SUM(" + LINE_CENTS + ") " +
+            "FROM comandas c JOIN itens_comanda i ON i.comanda_id = c.id " +
+            "WHERE c.status = 'CLOSED' AND c.fechada_em >= ? AND c.fechada_em < ? GROUP BY i.produto_id";
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(SalesRollupRepository.class);
+    private final ZoneId zone;
+
+    //=============== Construtores ===============
+
+    public SalesRollupRepository() {
+        this(Config.get("app.timezone") != null ? ZoneId.of(Config.get("app.timezone")) : ZoneId.systemDefault());
+    }
+
+    public SalesRollupRepository(ZoneId zone) {
+        if(zone == null) throw new IllegalArgumentException("Fuso horário não pode ser null");
+        this.zone = zone;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    //=============== Escrita (transação do chamador) ===============
+
+    /**
+     * Soma os itens de uma comanda aos agregados da hora e do dia do fechamento.
+     *
+     * <p>Não faz commit: deve ser chamado na transação que fecha a comanda.</p>
+     *
+     * @param conn conexão da transação corrente
+     * @param orderTabId ID da comanda fechada
+     * @param closedAt instante do fechamento
+     * @throws SQLException se houver erro na operação
+     */
+    public void accumulate(Connection conn, int orderTabId, Instant closedAt) throws SQLException {
+        try(PreparedStatement hour = conn.prepareStatement(ACCUMULATE_HOUR);
+            PreparedStatement day = conn.prepareStatement(ACCUMULATE_DAY)) {
+            hour.setLong(1, closedAt.truncatedTo(ChronoUnit.HOURS).getEpochSecond());
+            hour.setInt(2, orderTabId);
+            hour.executeUpdate();
+
+            day.setString(1, LocalDate.ofInstant(closedAt, zone).toString());
+            day.setInt(2, orderTabId);
+            day.executeUpdate();
+        }
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * Lista os agregados por hora e produto das horas iniciadas em [from, to).
+     *
+     * @throws RepositoryException se houver erro na operação
+     */
+    public List<SalesBucket> listHourly(Instant from, Instant to) {
+        List<SalesBucket> buckets = new ArrayList<>();
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(LIST_HOURLY)) {
+            preparedStatement.setLong(1, from.getEpochSecond());
+            preparedStatement.setLong(2, to.getEpochSecond());
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) {
+                    buckets.add(new SalesBucket(Instant.ofEpochSecond(resultSet.getLong(1)), mapSales(resultSet)));
+                }
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Listar vendas por hora", LIST_HOURLY, sqlException);
+            throw new RepositoryException(ERROR_QUERY + ". Tente novamente mais tarde.", sqlException);
+        }
+
+        return buckets;
+    }
+
+    /**
+     * Lista os agregados por dia e produto dos dias em [from, to] (inclusive).
+     *
+     * @throws RepositoryException se houver erro na operação
+     */
+    public List<SalesBucket> listDaily(LocalDate from, LocalDate to) {
+        List<SalesBucket> buckets = new ArrayList<>();
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(LIST_DAILY)) {
+            preparedStatement.setString(1, from.toString());
+            preparedStatement.setString(2, to.toString());
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) {
+                    Instant start = LocalDate.parse(resultSet.getString(1)).atStartOfDay(zone).toInstant();
+                    buckets.add(new SalesBucket(start, mapSales(resultSet)));
+                }
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Listar vendas por dia", LIST_DAILY, sqlException);
+            throw new RepositoryException(ERROR_QUERY + ". Tente novamente mais tarde.", sqlException);
+        }
+
+        return buckets;
+    }
+
+    /**
+     * Totais por produto a partir dos agregados por hora, para horas iniciadas em [from, to).
+     */
+    public Map<Integer, ProductSales> totalsFromHourly(Instant from, Instant to) {
+        return totals(TOTALS_HOURLY, from.getEpochSecond(), to.getEpochSecond());
+    }
+
+    /**
+     * Totais por produto a partir dos agregados por dia, para dias em [from, to).
+     */
+    public Map<Integer, ProductSales> totalsFromDaily(LocalDate from, LocalDate to) {
+        return totals(TOTALS_DAILY, from.toString(), to.toString());
+    }
+
+    /**
+     * Totais por produto lidos diretamente das comandas fechadas em [from, to).
+     * Usado apenas para as frações de hora que não formam um agregado completo.
+     */
+    public Map<Integer, ProductSales> totalsFromClosedTabs(Instant from, Instant to) {
+        return totals(TOTALS_CLOSED_TABS, from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private Map<Integer, ProductSales> totals(String sql, Object from, Object to) {
+        Map<Integer, ProductSales> totals = new LinkedHashMap<>();
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+            preparedStatement.setObject(1, from);
+            preparedStatement.setObject(2, to);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) {
+                    ProductSales sales = new ProductSales(resultSet.getInt(1), resultSet.getLong(2),
+                            BigDecimal.valueOf(resultSet.getLong(3), 2));
+                    totals.put(sales.getProductId(), sales);
+                }
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Totalizar vendas por produto", sql, List.of(from, to), sqlException);
+            throw new RepositoryException(ERROR_QUERY + ". Tente novamente mais tarde.", sqlException);
+        }
+
+        return totals;
+    }
+
+    private ProductSales mapSales(ResultSet resultSet) throws SQLException {
+        return new ProductSales(resultSet.getInt(2), resultSet.getLong(3), BigDecimal.valueOf(resultSet.getLong(4), 2));
+    }
+}
@@ -0,0 +1,130 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.SalesVelocity;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Persistência da velocidade de vendas dos produtos em {@code velocidade_vendas}.
+ *
+ * <p>A tabela é só um espelho periódico da memória: ela é lida uma vez, na carga, e
+ * regravada em lote com as taxas alteradas desde a última gravação.</p>
+ *
+ * @author João Pedro
+ */
+
+public class SalesVelocityRepository {
+    //=============== Constantes ===============
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_FIND = "Erro ao carregar velocidades de vendas";
+    private static final String ERROR_SAVE = "Erro ao gravar velocidades de vendas";
+
+    //Queries SQL
+    private static final String FIND_ALL =
+            "SELECT produto_id, taxa_diaria, atualizada_em FROM velocidade_vendas";
+    private static final String SAVE =
+            "INSERT OR REPLACE INTO velocidade_vendas (produto_id, taxa_diaria, atualizada_em) VALUES(?, ?, ?)";
+    private static final String DELETE =
+            "DELETE FROM velocidade_vendas WHERE produto_id = ?";
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(SalesVelocityRepository.class);
+
+    //=============== Operações ===============
+
+    /**
+     * @return velocidades gravadas, cada uma no instante da sua última atualização
+     * @throws RepositoryException se houver erro na operação
+     */
+    public List<SalesVelocity> findAll() {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(FIND_ALL);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+            List<SalesVelocity> velocities = new ArrayList<>();
+            while(resultSet.next()) {
+                velocities.add(new SalesVelocity(
+                        resultSet.getInt("produto_id"),
+                        resultSet.getDouble("taxa_diaria"),
+                        resultSet.getLong("atualizada_em")));
+            }
+            return velocities;
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Carregar velocidades de vendas", FIND_ALL, sqlException);
+            throw new RepositoryException(ERROR_FIND, sqlException);
+        }
+    }
+
+    /**
+     * Grava as velocidades alteradas e remove as dos produtos excluídos, em uma única transação.
+     *
+     * @param updated velocidades a gravar, substituindo as existentes
+     * @param removedProductIds produtos cujas velocidades devem ser removidas
+     * @throws RepositoryException se houver erro na operação
+     */
+    public void saveAll(Collection<SalesVelocity> updated, Collection<Integer> removedProductIds) {
+        if(updated.isEmpty() && removedProductIds.isEmpty()) return;
+
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            try(PreparedStatement preparedStatement = conn.prepareStatement(SAVE)) {
+                for(SalesVelocity velocity : updated) {
+                    preparedStatement.setInt(1, velocity.getProductId());
+                    preparedStatement.setDouble(2, velocity.getDailyRate());
+                    preparedStatement.setLong(3, velocity.getUpdatedAtMillis());
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+            }
+            try(PreparedStatement preparedStatement = conn.prepareStatement(DELETE)) {
+                for(int productId : removedProductIds) {
+                    preparedStatement.setInt(1, productId);
+                    preparedStatement.addBatch();
+                }
+                preparedStatement.executeBatch();
+            }
+
+            conn.commit();
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Gravar velocidades de vendas", SAVE, updated.size(), sqlException);
+            throw new RepositoryException(ERROR_SAVE, sqlException);
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void rollback(Connection conn) {
+        if(conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Rollback falhou", "", null, sqlException);
+            }
+        }
+    }
+
+    private void closeConnection(Connection conn) {
+        if(conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Erro ao fechar conexão", "", null, sqlException);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.journal.JournalApplier;
+import com.io.github.pedroolivsz.journal.JournalRecord;
+import com.io.github.pedroolivsz.journal.StockMovementCodec;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+import com.io.github.pedroolivsz.rowMapper.ProdutoRowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Aplica no banco as movimentações de estoque registradas no journal de escrita.
+ *
+ * <p>Cada lote é aplicado em uma única transação que também grava a sequência do último
+ * registro em {@code journal_aplicado}; registros já aplicados são ignorados, tornando
+ * o replay após uma queda idempotente.</p>
+ *
+ * @author João Pedro
+ */
+
+public class StockJournalRepository implements JournalApplier {
+    //=============== Constantes ===============
+
+    private static final String JOURNAL_NAME = "estoque";
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_SEQUENCE = "Erro ao ler a sequência aplicada do journal";
+    private static final String ERROR_FIND = "Erro ao procurar produto";
+
+    //Queries SQL
+    private static final String FIND_SEQUENCE =
+            "SELECT sequencia FROM journal_aplicado WHERE journal = ?";
+    private static final String SAVE_SEQUENCE =
+            "INSERT INTO journal_aplicado (journal, sequencia) VALUES(?, ?) " +
+            "ON CONFLICT (journal) DO UPDATE SET sequencia = excluded.sequencia";
+    private static final String APPLY_DELTA =
+            "UPDATE produtos SET quantidade = quantidade + ?, versao = versao + 1 WHERE id = ?";
+    private static final String FIND_WITH_SEQUENCE =
+            "SELECT p.id, p.quantidade, p.nome, p.valor_unitario, p.estoque_minimo, p.versao, " +
+            "(SELECT sequencia FROM journal_aplicado WHERE journal = ?) AS sequencia " +
+            "FROM produtos p WHERE p.id = ?";
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(StockJournalRepository.class);
+    private final ProdutoRowMapper produtoRowMapper = new ProdutoRowMapper();
+    private final StockMovementRepository stockMovementRepository;
+
+    //=============== Construtores ===============
+
+    public StockJournalRepository() {
+        this(new StockMovementRepository());
+    }
+
+    public StockJournalRepository(StockMovementRepository stockMovementRepository) {
+        if(stockMovementRepository == null) throw new IllegalArgumentException("StockMovementRepository não pode ser null");
+        this.stockMovementRepository = stockMovementRepository;
+    }
+
+    //=============== JournalApplier ===============
+
+    @Override
+    public long lastAppliedSequence() {
+        try(Connection conn = Database.connect()) {
+            return findSequence(conn);
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Ler sequência aplicada do journal", FIND_SEQUENCE, sqlException);
+            throw new RepositoryException(ERROR_SEQUENCE, sqlException);
+        }
+    }
+
+    @Override
+    public void apply(List<JournalRecord> records) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = Database.connect();
+            conn.setAutoCommit(false);
+
+            long applied = findSequence(conn);
+            List<StockMovement> movements = new ArrayList<>();
+            long last = applied;
+
+            for(JournalRecord record : records) {
+                if(record.getSequence() <= applied) continue;
+                movements.add(StockMovementCodec.decode(record.getPayload()));
+                last = record.getSequence();
+            }
+
+            if(movements.isEmpty()) {
+                conn.rollback();
+                return;
+            }
+
+            int[] rows;
+            try(PreparedStatement preparedStatement = conn.prepareStatement(APPLY_DELTA)) {
+                for(StockMovement movement : movements) {
+                    preparedStatement.setInt(1, movement.getDelta());
+                    preparedStatement.setInt(2, movement.getProductId());
+                    preparedStatement.addBatch();
+                }
+                rows = preparedStatement.executeBatch();
+            }
+
+            //Produtos excluídos depois da operação não geram histórico
+            List<StockMovement> applicable = new ArrayList<>();
+            for(int i = 0; i < rows.length; i++) {
+                if(rows[i] > 0) applicable.add(movements.get(i));
+                else logger.info("Movimentação do journal ignorada, produto inexistente. ID: " + movements.get(i).getProductId());
+            }
+            stockMovementRepository.record(conn, applicable);
+
+            try(PreparedStatement preparedStatement = conn.prepareStatement(SAVE_SEQUENCE)) {
+                preparedStatement.setString(1, JOURNAL_NAME);
+                preparedStatement.setLong(2, last);
+                preparedStatement.executeUpdate();
+            }
+
+            conn.commit();
+            logger.info("Journal aplicado até a sequência " + last + ". Movimentações: " + applicable.size());
+        } catch (SQLException sqlException) {
+            rollback(conn);
+            logger.logDatabaseError("Aplicar registros do journal", APPLY_DELTA, records.size(), sqlException);
+            throw sqlException;
+        } finally {
+            closeConnection(conn);
+        }
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * Busca um produto junto com a sequência do journal já refletida na sua quantidade,
+     * ambos lidos no mesmo comando.
+     *
+     * @param id o ID do produto
+     * @return optional com o produto e a sequência aplicada
+     * @throws RepositoryException se houver erro na operação
+     */
+    public Optional<AppliedProduct> findById(int id) {
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(FIND_WITH_SEQUENCE)) {
+            preparedStatement.setString(1, JOURNAL_NAME);
+            preparedStatement.setInt(2, id);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                if(!resultSet.next()) return Optional.empty();
+                return Optional.of(new AppliedProduct(produtoRowMapper.map(resultSet), resultSet.getLong("sequencia")));
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Procurar produto com sequência do journal", FIND_WITH_SEQUENCE, id, sqlException);
+            throw new RepositoryException(ERROR_FIND + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+
+    /**
+     * Produto lido do banco e a sequência do journal aplicada no momento da leitura.
+     */
+    public static class AppliedProduct {
+        private final Product product;
+        private final long appliedSequence;
+
+        public AppliedProduct(Product product, long appliedSequence) {
+            this.product = product;
+            this.appliedSequence = appliedSequence;
+        }
+
+        public Product getProduct() {
+            return product;
+        }
+
+        public long getAppliedSequence() {
+            return appliedSequence;
+        }
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private long findSequence(Connection conn) throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(FIND_SEQUENCE)) {
+            preparedStatement.setString(1, JOURNAL_NAME);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+
+    private void rollback(Connection conn) {
+        if(conn != null) {
+            try {
+                conn.rollback();
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Rollback falhou", "", null, sqlException);
+            }
+        }
+    }
+
+    private void closeConnection(Connection conn) {
+        if(conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException sqlException) {
+                logger.logDatabaseError("Erro ao fechar conexão", "", null, sqlException);
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.io.github.pedroolivsz.repository;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.logs.LogDatabase;
+import com.io.github.pedroolivsz.rowMapper.StockMovementRowMapper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Repository responsável pelo histórico (ledger) de movimentações de estoque.
+ *
+ * <p>O histórico é somente de inserção: cada alteração de quantidade gera uma linha com o
+ * delta aplicado. A cada {@code stock.snapshot.interval} movimentações de um produto é
+ * gravado um snapshot da quantidade, de forma que a quantidade em qualquer instante seja
+ * calculada a partir do snapshot mais próximo somado a um número limitado de movimentações.</p>
+ *
+ * <p>Características principais: </p>
+ * <ul>
+ *     <li>Escrita sempre na conexão (e transação) de quem altera o estoque</li>
+ *     <li>Inserções e snapshots em batch</li>
+ *     <li>Consulta de quantidade histórica com replay limitado</li>
+ * </ul>
+ *
+ * @author João Pedro
+ */
+
+public class StockMovementRepository {
+    //=============== Constantes ===============
+
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 100;
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_LIST = "Erro ao listar movimentações de estoque";
+    private static final String ERROR_QUANTITY_AT = "Erro ao calcular a quantidade histórica";
+    private static final String ERROR_RECONCILE = "Erro ao conciliar o estoque";
+
+    //Queries SQL
+    private static final String INSERT =
+            "INSERT INTO movimentacoes_estoque (produto_id, delta, motivo, comanda_id, criado_em) VALUES(?, ?, ?, ?, ?)";
+    private static final String SNAPSHOT_IF_DUE =
+            "INSERT INTO snapshots_estoque (produto_id, movimentacao_id, quantidade, criado_em) " +
+            "SELECT p.id, (SELECT MAX(m.id) FROM movimentacoes_estoque m WHERE m.produto_id = p.id), p.quantidade, ? " +
+            "FROM produtos p WHERE p.id = ? AND (" +
+            "SELECT COUNT(*) FROM movimentacoes_estoque m WHERE m.produto_id = p.id AND m.id > " +
+            "COALESCE((SELECT MAX(s.movimentacao_id) FROM snapshots_estoque s WHERE s.produto_id = p.id), 0)) >= ?";
+    private static final String LIST_BY_PRODUCT =
+            "SELECT id, produto_id, delta, motivo, comanda_id, criado_em FROM movimentacoes_estoque " +
+            "WHERE produto_id = ? ORDER BY id DESC LIMIT ?";
+    private static final String SNAPSHOT_AT =
+            "SELECT movimentacao_id, quantidade FROM snapshots_estoque " +
+            "WHERE produto_id = ? AND criado_em <= ? ORDER BY criado_em DESC, movimentacao_id DESC LIMIT 1";
+    private static final String FIRST_SNAPSHOT =
+            "SELECT movimentacao_id, quantidade FROM snapshots_estoque WHERE produto_id = ? ORDER BY movimentacao_id LIMIT 1";
+    private static final String CURRENT_QUANTITY =
+            "SELECT quantidade FROM produtos WHERE id = ?";
+    private static final String NEXT_SNAPSHOT_MOVEMENT =
+            "SELECT movimentacao_id FROM snapshots_estoque " +
+            "WHERE produto_id = ? AND criado_em > ? ORDER BY criado_em, movimentacao_id LIMIT 1";
+    private static final String LAST_MOVEMENT =
+            "SELECT MAX(id) FROM movimentacoes_estoque WHERE produto_id = ?";
+    //Os dois replays ficam entre dois snapshots consecutivos: id > anterior AND id <= seguinte
+    private static final String REPLAY_FORWARD =
+            "SELECT COALESCE(SUM(delta), 0) FROM movimentacoes_estoque " +
+            "WHERE produto_id = ? AND id > ? AND id <= ? AND criado_em <= ?";
+    private static final String REPLAY_BACKWARD =
+            "SELECT COALESCE(SUM(delta), 0) FROM movimentacoes_estoque " +
+            "WHERE produto_id = ? AND id > ? AND id <= ? AND criado_em > ?";
+    private static final String RECONCILE =
+            "SELECT p.id, p.quantidade - COALESCE(SUM(m.delta), 0) AS diferenca FROM produtos p " +
+            "LEFT JOIN movimentacoes_estoque m ON m.produto_id = p.id " +
+            "GROUP BY p.id HAVING diferenca <> 0 ORDER BY p.id";
+
+    //=============== Dependências ===============
+
+    private final LogDatabase logger = new LogDatabase(StockMovementRepository.class);
+    private final StockMovementRowMapper movementRowMapper = new StockMovementRowMapper();
+    private final int snapshotInterval;
+
+    //=============== Construtores ===============
+
+    public StockMovementRepository() {
+        this(Config.getInt("stock.snapshot.interval", DEFAULT_SNAPSHOT_INTERVAL));
+    }
+
+    /**
+     * @param snapshotInterval quantidade de movimentações de um produto entre dois snapshots
+     * @throws IllegalArgumentException se o intervalo não for positivo
+     */
+    public StockMovementRepository(int snapshotInterval) {
+        if(snapshotInterval <= 0) throw new IllegalArgumentException("Intervalo de snapshot deve ser maior que zero");
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    //=============== Escrita (transação do chamador) ===============
+
+    /**
+     * Grava movimentações em batch na conexão informada e, em seguida, os snapshots que
+     * estiverem pendentes para os produtos envolvidos.
+     *
+     * <p>Não faz commit: a gravação participa da transação de quem alterou o estoque.</p>
+     *
+     * @param conn conexão da transação corrente
+     * @param movements movimentações a gravar
+     * @throws SQLException se houver erro na operação
+     */
+    public void record(Connection conn, List<StockMovement> movements) throws SQLException {
+        if(movements.isEmpty()) return;
+
+        Instant now = Instant.now();
+
+        try(PreparedStatement preparedStatement = conn.prepareStatement(INSERT)) {
+            for(StockMovement movement : movements) {
+                //Movimentações vindas do journal já trazem o instante original da operação
+                if(movement.getTimestamp() == null) movement.setTimestamp(now);
+
+                preparedStatement.setInt(1, movement.getProductId());
+                preparedStatement.setInt(2, movement.getDelta());
+                preparedStatement.setString(3, movement.getReason().name());
+                if(movement.getOrderTabId() != null) {
+                    preparedStatement.setInt(4, movement.getOrderTabId());
+                } else {
+                    preparedStatement.setNull(4, Types.INTEGER);
+                }
+                preparedStatement.setLong(5, movement.getTimestamp().toEpochMilli());
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+        }
+
+        snapshotIfDue(conn, movements.stream().map(StockMovement::getProductId).distinct().toList(), now);
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * Lista as movimentações mais recentes de um produto.
+     *
+     * @param productId ID do produto
+     * @param limit quantidade máxima de movimentações
+     * @return movimentações da mais recente para a mais antiga
+     * @throws RepositoryException se houver erro na operação
+     */
+    public List<StockMovement> listByProduct(int productId, int limit) {
+        List<StockMovement> movements = new ArrayList<>();
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(LIST_BY_PRODUCT)) {
+            preparedStatement.setInt(1, productId);
+            preparedStatement.setInt(2, limit);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                while(resultSet.next()) {
+                    movements.add(movementRowMapper.map(resultSet));
+                }
+            }
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Listar movimentações do produto", LIST_BY_PRODUCT, productId, sqlException);
+            throw new RepositoryException(ERROR_LIST + ". Tente novamente mais tarde.", sqlException);
+        }
+
+        return movements;
+    }
+
+    /**
+     * Calcula a quantidade de um produto em um instante passado.
+     *
+     * <p>Parte do snapshot mais recente anterior ao instante e reaplica apenas as
+     * movimentações seguintes, até a do próximo snapshot (ou a última do produto, se não
+     * houver). Antes do primeiro snapshot o cálculo é feito no sentido inverso, a partir do
+     * primeiro snapshot (ou da quantidade atual). Em ambos os casos as duas pontas do replay
+     * são IDs de movimentação, então a busca no índice {@code (produto_id, id)} percorre só o
+     * intervalo entre dois snapshots.</p>
+     *
+     * @param productId ID do produto
+     * @param instant instante desejado
+     * @return quantidade no instante, vazio se o produto não existir mais e não tiver snapshots
+     * @throws RepositoryException se houver erro na operação
+     */
+    public OptionalInt quantityAt(int productId, Instant instant) {
+        long millis = instant.toEpochMilli();
+
+        try(Connection conn = Database.connect()) {
+            long[] snapshot = findSnapshot(conn, SNAPSHOT_AT, productId, millis);
+            if(snapshot != null) {
+                Long upTo = findMovementId(conn, NEXT_SNAPSHOT_MOVEMENT, productId, millis);
+                if(upTo == null) upTo = findMovementId(conn, LAST_MOVEMENT, productId, null);
+                if(upTo == null) upTo = snapshot[0];
+                return OptionalInt.of((int) (snapshot[1] + sum(conn, REPLAY_FORWARD, productId, snapshot[0], upTo, millis)));
+            }
+
+            snapshot = findSnapshot(conn, FIRST_SNAPSHOT, productId, null);
+            if(snapshot == null) {
+                Integer current = currentQuantity(conn, productId);
+                if(current == null) return OptionalInt.empty();
+                snapshot = new long[] {Long.MAX_VALUE, current};
+            }
+
+            //Não há snapshot anterior ao instante: o intervalo começa na primeira movimentação
+            return OptionalInt.of((int) (snapshot[1] - sum(conn, REPLAY_BACKWARD, productId, 0, snapshot[0], millis)));
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Calcular quantidade histórica", SNAPSHOT_AT, productId, sqlException);
+            throw new RepositoryException(ERROR_QUANTITY_AT + ". Tente novamente mais tarde.", sqlException);
+        }
+    }
+
+    /**
+     * Compara a quantidade atual de cada produto com a soma do seu histórico.
+     *
+     * @return mapa de ID do produto para a diferença (quantidade atual - soma das movimentações)
+     * @throws RepositoryException se houver erro na operação
+     */
+    public Map<Integer, Integer> findDiscrepancies() {
+        Map<Integer, Integer> discrepancies = new LinkedHashMap<>();
+
+        try(Connection conn = Database.connect();
+            PreparedStatement preparedStatement = conn.prepareStatement(RECONCILE);
+            ResultSet resultSet = preparedStatement.executeQuery()) {
+
+            while(resultSet.next()) {
+                discrepancies.put(resultSet.getInt("id"), resultSet.getInt("diferenca"));
+            }
+
+            logger.info("Conciliação de estoque concluída. Divergências: " + discrepancies.size());
+        } catch (SQLException sqlException) {
+            logger.logDatabaseError("Conciliar estoque", RECONCILE, sqlException);
+            throw new RepositoryException(ERROR_RECONCILE + ". Tente novamente mais tarde.", sqlException);
+        }
+
+        return discrepancies;
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    /**
+     * Grava, em batch, um snapshot para cada produto que acumulou movimentações suficientes
+     * desde o último snapshot.
+     */
+    private void snapshotIfDue(Connection conn, Collection<Integer> productIds, Instant now) throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(SNAPSHOT_IF_DUE)) {
+            for(int productId : productIds) {
+                preparedStatement.setLong(1, now.toEpochMilli());
+                preparedStatement.setInt(2, productId);
+                preparedStatement.setInt(3, snapshotInterval);
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+        }
+    }
+
+    private long[] findSnapshot(Connection conn, String sql, int productId, Long millis) throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+            preparedStatement.setInt(1, productId);
+            if(millis != null) preparedStatement.setLong(2, millis);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? new long[] {resultSet.getLong(1), resultSet.getLong(2)} : null;
+            }
+        }
+    }
+
+    private Integer currentQuantity(Connection conn, int productId) throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(CURRENT_QUANTITY)) {
+            preparedStatement.setInt(1, productId);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : null;
+            }
+        }
+    }
+
+    private Long findMovementId(Connection conn, String sql, int productId, Long millis) throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+            preparedStatement.setInt(1, productId);
+            if(millis != null) preparedStatement.setLong(2, millis);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                if(!resultSet.next()) return null;
+                long id = resultSet.getLong(1);
+                return resultSet.wasNull() ? null : id;
+            }
+        }
+    }
+
+    private long sum(Connection conn, String sql, int productId, long afterMovementId, long upToMovementId, long millis)
+            throws SQLException {
+        try(PreparedStatement preparedStatement = conn.prepareStatement(sql)) {
+            preparedStatement.setInt(1, productId);
+            preparedStatement.setLong(2, afterMovementId);
+            preparedStatement.setLong(3, upToMovementId);
+            preparedStatement.setLong(4, millis);
+
+            try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : 0;
+            }
+        }
+    }
+}
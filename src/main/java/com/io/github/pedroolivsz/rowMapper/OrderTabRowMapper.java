@@ -1,21 +1,33 @@
 package com.io.github.pedroolivsz.rowMapper;
 
 import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.logs.Span;
+import com.io.github.pedroolivsz.logs.Trace;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Instant;
 import java.util.ArrayList;
 
 public class OrderTabRowMapper implements RowMapper<OrderTab> {
     @Override
     public OrderTab map(ResultSet rs) throws SQLException {
-        OrderTab orderTab = new OrderTab();
+        Span span = Trace.span(ROW_MAPPING_SPAN);
+        try {
+            OrderTab orderTab = new OrderTab();
 
-        orderTab.setId(rs.getInt("id"));
-        orderTab.setTableNumber(rs.getInt("table_number"));
-        orderTab.setTotalAmount(rs.getBigDecimal("total_amount"));
-        orderTab.setProdutos(new ArrayList<>());
+            orderTab.setId(rs.getInt("id"));
+            orderTab.setTableNumber(rs.getInt("table_number"));
+            orderTab.setTotalAmount(rs.getBigDecimal("total_amount"));
+            orderTab.setProdutos(new ArrayList<>());
+            orderTab.setStatus(OrderTab.Status.valueOf(rs.getString("status")));
+            orderTab.setOpenedAt(Instant.ofEpochMilli(rs.getLong("aberta_em")));
+            long closedAt = rs.getLong("fechada_em");
+            orderTab.setClosedAt(rs.wasNull() ? null : Instant.ofEpochMilli(closedAt));
 
-        return orderTab;
+            return orderTab;
+        } finally {
+            span.close();
+        }
     }
 }
@@ -1,6 +1,8 @@
 package com.io.github.pedroolivsz.rowMapper;
 
 import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.logs.Span;
+import com.io.github.pedroolivsz.logs.Trace;
 
 import java.math.BigDecimal;
 import java.sql.ResultSet;
@@ -9,13 +11,20 @@ import java.sql.SQLException;
 public class ProdutoRowMapper implements RowMapper<Product>{
     @Override
     public Product map(ResultSet resultSet) throws SQLException {
-        Product product = new Product();
-        product.setId(resultSet.getInt("id"));
-        product.setQuantity(resultSet.getInt("quantity"));
-        product.setName(resultSet.getString("name"));
-        BigDecimal valor = resultSet.getBigDecimal("unit_value");
-        product.setUnitValue(valor != null ? valor : BigDecimal.ZERO);
+        Span span = Trace.span(ROW_MAPPING_SPAN);
+        try {
+            Product product = new Product();
+            product.setId(resultSet.getInt("id"));
+            product.setQuantity(resultSet.getInt("quantidade"));
+            product.setName(resultSet.getString("nome"));
+            BigDecimal valor = resultSet.getBigDecimal("valor_unitario");
+            product.setUnitValue(valor != null ? valor : BigDecimal.ZERO);
+            product.setMinimumStock(resultSet.getInt("estoque_minimo"));
+            product.setVersion(resultSet.getInt("versao"));
 
-        return product;
+            return product;
+        } finally {
+            span.close();
+        }
     }
 }
@@ -4,5 +4,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 public interface RowMapper<T> {
+    /**
+     * Nome do trecho, na árvore de rastreamento, em que o mapeamento das linhas é acumulado.
+     */
+    String ROW_MAPPING_SPAN = "row.mapping";
+
     T map(ResultSet rs) throws SQLException;
 }
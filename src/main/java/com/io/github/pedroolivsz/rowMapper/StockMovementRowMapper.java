@@ -0,0 +1,31 @@
+package com.io.github.pedroolivsz.rowMapper;
+
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.logs.Span;
+import com.io.github.pedroolivsz.logs.Trace;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+
+public class StockMovementRowMapper implements RowMapper<StockMovement> {
+    @Override
+    public StockMovement map(ResultSet rs) throws SQLException {
+        Span span = Trace.span(ROW_MAPPING_SPAN);
+        try {
+            StockMovement movement = new StockMovement();
+
+            movement.setId(rs.getLong("id"));
+            movement.setProductId(rs.getInt("produto_id"));
+            movement.setDelta(rs.getInt("delta"));
+            movement.setReason(StockMovement.Reason.valueOf(rs.getString("motivo")));
+            int orderTabId = rs.getInt("comanda_id");
+            movement.setOrderTabId(rs.wasNull() ? null : orderTabId);
+            movement.setTimestamp(Instant.ofEpochMilli(rs.getLong("criado_em")));
+
+            return movement;
+        } finally {
+            span.close();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.dominio.BackupResult;
+import com.io.github.pedroolivsz.repository.BackupRepository;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Backups online do banco, sem parar a aplicação.
+ *
+ * <p>A cópia é feita em passos de {@code backup.pages.per.step} páginas, com uma pausa de
+ * {@code backup.step.sleep.millis} entre eles, para que as vendas nunca esperem muito por
+ * ela. Cada cópia é gravada em um arquivo temporário, verificada com
+ * {@code PRAGMA integrity_check} e só então renomeada; apenas os
+ * {@code backup.keep} backups mais recentes são mantidos.</p>
+ *
+ * <p>Quando habilitado ({@code backup.enabled=true}), um backup é feito a cada
+ * {@code backup.interval.minutes}. {@link #backupNow()} pode ser chamado a qualquer momento.</p>
+ *
+ * @author João Pedro
+ */
+
+public class BackupService implements Closeable {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(BackupService.class);
+
+    private static final String PREFIX = "oasis-";
+    private static final String SUFFIX = ".db";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private static final int DEFAULT_INTERVAL_MINUTES = 60;
+    private static final int DEFAULT_KEEP = 7;
+    private static final int DEFAULT_PAGES_PER_STEP = 100;
+    private static final int DEFAULT_STEP_SLEEP_MILLIS = 10;
+    //Progresso registrado a cada 10% copiados
+    private static final int PROGRESS_STEPS = 10;
+    //Depois de tantos reinícios a cópia segue sem pausas, para terminar entre duas escritas
+    private static final int MAX_PAUSED_RESTARTS = 3;
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_BACKUP = "Não foi possível gerar o backup";
+    private static final String ERROR_CORRUPTED = "Backup gerado não passou na verificação de integridade";
+
+    //=============== Dependências ===============
+
+    private final BackupRepository backupRepository;
+    private final Path directory;
+    private final int keep;
+    private final int pagesPerStep;
+    private final long stepSleepMillis;
+    private final Clock clock;
+
+    //=============== Estado ===============
+
+    private ScheduledExecutorService scheduler;
+
+    //=============== Construtores ===============
+
+    /**
+     * Cria o serviço a partir das configurações e agenda os backups, se estiverem habilitados.
+     *
+     * @return o serviço agendado, ou vazio se {@code backup.enabled} não for true
+     */
+    public static Optional<BackupService> fromConfig() {
+        if(!Boolean.parseBoolean(Config.get("backup.enabled"))) return Optional.empty();
+
+        String directory = Config.get("backup.dir");
+        BackupService backupService = new BackupService(
+                new BackupRepository(),
+                Path.of(directory != null ? directory : "backups"),
+                Config.getInt("backup.keep", DEFAULT_KEEP),
+                Config.getInt("backup.pages.per.step", DEFAULT_PAGES_PER_STEP),
+                Config.getInt("backup.step.sleep.millis", DEFAULT_STEP_SLEEP_MILLIS),
+                Clock.systemDefaultZone());
+        backupService.schedule(Duration.ofMinutes(Config.getInt("backup.interval.minutes", DEFAULT_INTERVAL_MINUTES)));
+        return Optional.of(backupService);
+    }
+
+    /**
+     * @param backupRepository cópia e verificação do banco
+     * @param directory diretório dos backups
+     * @param keep quantidade de backups mantidos
+     * @param pagesPerStep páginas copiadas por passo
+     * @param stepSleepMillis pausa entre os passos
+     * @param clock relógio usado no nome dos arquivos
+     * @throws IllegalArgumentException se algum parâmetro for inválido
+     */
+    public BackupService(BackupRepository backupRepository, Path directory, int keep, int pagesPerStep,
+                         long stepSleepMillis, Clock clock) {
+        if(backupRepository == null) throw new IllegalArgumentException("BackupRepository não pode ser null");
+        if(directory == null) throw new IllegalArgumentException("Diretório de backup não pode ser null");
+        if(keep < 1) throw new IllegalArgumentException("Deve ser mantido ao menos um backup");
+        if(pagesPerStep < 1) throw new IllegalArgumentException("Páginas por passo deve ser maior que zero");
+        if(stepSleepMillis < 0) throw new IllegalArgumentException("Pausa entre passos não pode ser negativa");
+        if(clock == null) throw new IllegalArgumentException("Clock não pode ser null");
+        this.backupRepository = backupRepository;
+        this.directory = directory;
+        this.keep = keep;
+        this.pagesPerStep = pagesPerStep;
+        this.stepSleepMillis = stepSleepMillis;
+        this.clock = clock;
+    }
+
+    //=============== Agendamento ===============
+
+    /**
+     * Agenda um backup a cada intervalo, em uma thread de segundo plano. Falhas são
+     * registradas no log e não interrompem os backups seguintes.
+     *
+     * @param interval intervalo entre o fim de um backup e o início do próximo
+     */
+    public synchronized void schedule(Duration interval) {
+        if(interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Intervalo de backup deve ser positivo");
+        }
+        if(scheduler != null) throw new IllegalStateException("Backups já agendados");
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-backup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledBackup, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Backups agendados a cada {} min em {}", interval.toMinutes(), directory.toAbsolutePath());
+    }
+
+    @Override
+    public synchronized void close() {
+        if(scheduler == null) return;
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //=============== Operações ===============
+
+    /**
+     * Gera, verifica e rotaciona um backup.
+     *
+     * @return o backup gerado
+     * @throws ServiceException se a cópia falhar ou o arquivo não passar na verificação
+     */
+    public BackupResult backupNow() {
+        synchronized (backupRepository) {
+            Path target = directory.resolve(PREFIX + FILE_TIMESTAMP.format(clock.instant().atZone(clock.getZone())) + SUFFIX);
+            Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_SUFFIX);
+
+            try {
+                Files.createDirectories(directory);
+
+                long started = System.nanoTime();
+                StepObserver observer = new StepObserver();
+                backupRepository.backup(temporary, pagesPerStep, observer);
+                long copied = System.nanoTime();
+
+                List<String> problems = backupRepository.integrityCheck(temporary);
+                long checked = System.nanoTime();
+                if(!problems.isEmpty()) {
+                    logger.error("Backup {} corrompido: {}", temporary, problems);
+                    throw new ServiceException(ERROR_CORRUPTED);
+                }
+
+                Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+                BackupResult result = new BackupResult(target, observer.pages, observer.restarts,
+                        Duration.ofNanos(copied - started), Duration.ofNanos(checked - copied));
+                logger.info("Backup concluído. {}", result);
+
+                rotate();
+                return result;
+            } catch (IOException | RepositoryException e) {
+                throw new ServiceException(ERROR_BACKUP, e);
+            } finally {
+                deleteQuietly(temporary);
+            }
+        }
+    }
+
+    /**
+     * @return backups existentes, do mais recente para o mais antigo
+     */
+    public List<Path> listBackups() {
+        if(!Files.isDirectory(directory)) return List.of();
+
+        try(Stream<Path> files = Files.list(directory)) {
+            //O nome carrega o horário em ordem lexicográfica
+            return files.filter(this::isBackup)
+                    .sorted(Comparator.comparing((Path file) -> file.getFileName().toString()).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new ServiceException("Não foi possível listar os backups", e);
+        }
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void scheduledBackup() {
+        try {
+            backupNow();
+        } catch (RuntimeException e) {
+            logger.error("Erro no backup agendado", e);
+        }
+    }
+
+    private void rotate() {
+        List<Path> backups = listBackups();
+        for(Path old : backups.subList(Math.min(keep, backups.size()), backups.size())) {
+            deleteQuietly(old);
+            logger.info("Backup antigo removido: {}", old.getFileName());
+        }
+    }
+
+    private boolean isBackup(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX) && Files.isRegularFile(file);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Não foi possível remover {}", file, e);
+        }
+    }
+
+    /**
+     * Recebe o andamento depois de cada passo: registra o progresso, conta os reinícios e
+     * faz a pausa que libera o banco para as escritas.
+     */
+    private class StepObserver implements BackupRepository.StepObserver {
+        private int pages;
+        private int restarts;
+        private int lastRemaining = Integer.MAX_VALUE;
+        private int lastReported = -1;
+
+        @Override
+        public void afterStep(int remaining, int pageCount) {
+            //Uma escrita de outra conexão faz o SQLite recomeçar a cópia do início
+            if(remaining > lastRemaining) {
+                restarts++;
+                lastReported = -1;
+                if(restarts == MAX_PAUSED_RESTARTS) logger.warn("Backup recomeçou {} vezes; seguindo sem pausas entre os passos", restarts);
+            }
+            lastRemaining = remaining;
+            pages = pageCount;
+
+            int done = pageCount == 0 ? PROGRESS_STEPS : (pageCount - remaining) * PROGRESS_STEPS / pageCount;
+            if(done > lastReported) {
+                lastReported = done;
+                logger.info("Backup: {}% ({} de {} páginas)", done * 100 / PROGRESS_STEPS, pageCount - remaining, pageCount);
+            }
+
+            if(remaining > 0 && stepSleepMillis > 0 && restarts < MAX_PAUSED_RESTARTS && !Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(stepSleepMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.io.github.pedroolivsz.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom de strings, seguro para uso concorrente.
+ *
+ * <p>Responde "talvez contenha" ou "certamente não contém" com uma fração fixa de bits
+ * por elemento, independente do tamanho das strings. Não suporta remoção: um elemento
+ * removido continua gerando falso positivo até o filtro ser reconstruído.</p>
+ *
+ * @author João Pedro
+ */
+
+class BloomFilter {
+    //=============== Estado ===============
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    //=============== Construtor ===============
+
+    /**
+     * Dimensiona o filtro pela fórmula usual: m = -n ln(p) / ln(2)² bits e k = m/n ln(2) funções.
+     *
+     * @param expectedElements quantidade de elementos esperada
+     * @param falsePositiveRate taxa de falso positivo desejada para essa quantidade
+     * @throws IllegalArgumentException se os parâmetros forem inválidos
+     */
+    BloomFilter(int expectedElements, double falsePositiveRate) {
+        if(expectedElements <= 0) throw new IllegalArgumentException("Quantidade esperada deve ser maior que zero");
+        if(falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("Taxa de falso positivo deve estar entre 0 e 1");
+
+        long bits = (long) Math.ceil(-expectedElements * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bitCount = Math.max(64, (bits + 63) / 64 * 64);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedElements * Math.log(2)));
+        this.bits = new AtomicLongArray((int) (bitCount / 64));
+    }
+
+    //=============== Operações ===============
+
+    void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for(int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current;
+            do {
+                current = bits.get(word);
+                if((current & mask) != 0) break;
+            } while(!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for(int i = 0; i < hashCount; i++) {
+            long bit = index(h1 + i * h2);
+            if((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashCount() {
+        return hashCount;
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private long index(int combined) {
+        return (combined & 0x7fffffffL) % bitCount;
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre os bytes UTF-8 com a mistura final do SplitMix64; as duas
+     * metades do resultado alimentam o hashing duplo (h1 + i * h2).
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for(byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
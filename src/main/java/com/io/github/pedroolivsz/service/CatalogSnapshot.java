@@ -0,0 +1,247 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+
+import java.math.BigDecimal;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * Versão imutável do catálogo, com os produtos em ordem de ID.
+ *
+ * <p>Os produtos ficam em blocos de {@value #CHUNK_SIZE}. Alterar um produto ou incluir um
+ * no fim (o caso comum, já que os IDs são crescentes) gera uma versão nova que copia
+ * apenas o array de blocos e o bloco afetado, compartilhando os demais com a versão
+ * anterior; inclusões e exclusões no meio reconstroem os blocos.</p>
+ *
+ * <p>Os produtos são compartilhados entre as versões e entregues sem cópia. Por isso o
+ * catálogo guarda cópias somente leitura: qualquer setter chamado por quem os recebe lança
+ * {@link UnsupportedOperationException}, em vez de alterar o produto de todas as versões.
+ * Quem precisar alterar um produto deve copiá-lo antes.</p>
+ *
+ * @author João Pedro
+ */
+
+public final class CatalogSnapshot {
+    //=============== Constantes ===============
+
+    private static final int CHUNK_BITS = 6;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    //=============== Estado ===============
+
+    private final long version;
+    //Todos os blocos têm CHUNK_SIZE produtos, exceto o último
+    private final Product[][] chunks;
+    private final int size;
+    private final List<Product> products = new View();
+
+    //=============== Construtores ===============
+
+    private CatalogSnapshot(long version, Product[][] chunks, int size) {
+        this.version = version;
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    /**
+     * @param version versão do catálogo
+     * @param sortedById produtos em ordem crescente de ID
+     * @return catálogo com os produtos informados
+     */
+    static CatalogSnapshot of(long version, List<Product> sortedById) {
+        int size = sortedById.size();
+        Product[][] chunks = new Product[(size + CHUNK_SIZE - 1) >> CHUNK_BITS][];
+
+        for(int c = 0; c < chunks.length; c++) {
+            int from = c << CHUNK_BITS;
+            chunks[c] = sortedById.subList(from, Math.min(size, from + CHUNK_SIZE)).stream()
+                    .map(CatalogSnapshot::readOnly)
+                    .toArray(Product[]::new);
+        }
+
+        return new CatalogSnapshot(version, chunks, size);
+    }
+
+    //=============== Consultas ===============
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return produtos em ordem de ID; a lista não pode ser alterada
+     */
+    public List<Product> getProducts() {
+        return products;
+    }
+
+    /**
+     * Busca um produto por ID, com busca binária.
+     *
+     * @param id ID do produto
+     * @return produto, vazio se não estiver no catálogo
+     */
+    public Optional<Product> findById(int id) {
+        int index = indexOf(id);
+        return index >= 0 ? Optional.of(get(index)) : Optional.empty();
+    }
+
+    //=============== Novas versões ===============
+
+    /**
+     * Inclui ou substitui um produto. Um estado com versão anterior à do catálogo é
+     * ignorado, de modo que escritas concorrentes publicadas fora de ordem não voltem o
+     * produto no tempo.
+     *
+     * @param state estado do produto; o catálogo guarda uma cópia somente leitura
+     * @return nova versão do catálogo, ou esta se o estado for antigo
+     */
+    CatalogSnapshot with(Product state) {
+        Product product = readOnly(state);
+        int index = indexOf(product.getId());
+
+        if(index >= 0) {
+            if(product.getVersion() < get(index).getVersion()) return this;
+
+            Product[][] copy = chunks.clone();
+            int chunk = index >> CHUNK_BITS;
+            copy[chunk] = chunks[chunk].clone();
+            copy[chunk][index & (CHUNK_SIZE - 1)] = product;
+            return new CatalogSnapshot(version + 1, copy, size);
+        }
+
+        int insertion = -index - 1;
+        if(insertion < size) {
+            List<Product> rebuilt = new ArrayList<>(products);
+            rebuilt.add(insertion, product);
+            return of(version + 1, rebuilt);
+        }
+
+        //Inclusão no fim: só o último bloco muda, ou um bloco novo é criado
+        if((size & (CHUNK_SIZE - 1)) == 0) {
+            Product[][] copy = Arrays.copyOf(chunks, chunks.length + 1);
+            copy[chunks.length] = new Product[] {product};
+            return new CatalogSnapshot(version + 1, copy, size + 1);
+        }
+
+        Product[][] copy = chunks.clone();
+        int last = chunks.length - 1;
+        copy[last] = Arrays.copyOf(chunks[last], chunks[last].length + 1);
+        copy[last][chunks[last].length] = product;
+        return new CatalogSnapshot(version + 1, copy, size + 1);
+    }
+
+    /**
+     * @param id ID do produto removido
+     * @return nova versão do catálogo, ou esta se o produto não estiver nele
+     */
+    CatalogSnapshot without(int id) {
+        int index = indexOf(id);
+        if(index < 0) return this;
+
+        List<Product> rebuilt = new ArrayList<>(products);
+        rebuilt.remove(index);
+        return of(version + 1, rebuilt);
+    }
+
+    /**
+     * @param product produto
+     * @return cópia somente leitura do produto, ou ele mesmo se já for uma
+     */
+    static Product readOnly(Product product) {
+        return product instanceof ReadOnlyProduct ? product : new ReadOnlyProduct(product);
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private Product get(int index) {
+        return chunks[index >> CHUNK_BITS][index & (CHUNK_SIZE - 1)];
+    }
+
+    /**
+     * @return índice do produto, ou {@code -(ponto de inserção) - 1} se não existir
+     */
+    private int indexOf(int id) {
+        int low = 0;
+        int high = size - 1;
+
+        while(low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = get(middle).getId();
+
+            if(middleId < id) low = middle + 1;
+            else if(middleId > id) high = middle - 1;
+            else return middle;
+        }
+
+        return -(low + 1);
+    }
+
+    /**
+     * Produto publicado no catálogo; os setters lançam exceção.
+     */
+    private static final class ReadOnlyProduct extends Product {
+        private static final String ERROR_READ_ONLY = "Produto do catálogo publicado não pode ser alterado; altere uma cópia";
+
+        private ReadOnlyProduct(Product product) {
+            super(product.getId(), product.getName(), product.getQuantity(), product.getUnitValue());
+            super.setMinimumStock(product.getMinimumStock());
+            super.setVersion(product.getVersion());
+        }
+
+        @Override
+        public void setQuantity(int quantity) {
+            throw new UnsupportedOperationException(ERROR_READ_ONLY);
+        }
+
+        @Override
+        public void setName(String name) {
+            throw new UnsupportedOperationException(ERROR_READ_ONLY);
+        }
+
+        @Override
+        public void setUnitValue(BigDecimal unitValue) {
+            throw new UnsupportedOperationException(ERROR_READ_ONLY);
+        }
+
+        @Override
+        public void setMinimumStock(int minimumStock) {
+            throw new UnsupportedOperationException(ERROR_READ_ONLY);
+        }
+
+        @Override
+        public void setVersion(int version) {
+            throw new UnsupportedOperationException(ERROR_READ_ONLY);
+        }
+
+        @Override
+        public void setId(int id) {
+            throw new UnsupportedOperationException(ERROR_READ_ONLY);
+        }
+    }
+
+    /**
+     * Lista somente leitura sobre os blocos, sem cópia.
+     */
+    private final class View extends AbstractList<Product> implements RandomAccess {
+        @Override
+        public Product get(int index) {
+            if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Índice: " + index + ", tamanho: " + size);
+            return CatalogSnapshot.this.get(index);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
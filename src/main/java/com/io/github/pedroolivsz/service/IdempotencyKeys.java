@@ -0,0 +1,292 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.dominio.IdempotencyRecord;
+import com.io.github.pedroolivsz.repository.IdempotencyKeyRepository;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Chaves de idempotência das escritas: uma escrita repetida com a mesma chave devolve o
+ * resultado da primeira execução, sem executá-la de novo.
+ *
+ * <p>As chaves recentes ficam em memória, no máximo {@code idempotency.max.keys}, por
+ * {@code idempotency.ttl.minutes}; cada escrita concluída também é gravada em
+ * {@code chaves_idempotencia}, para valer depois de um reinício. No primeiro uso as chaves
+ * ainda válidas são carregadas do banco, então uma chave ausente da memória é nova e segue
+ * direto para a escrita: o banco só é consultado quando a memória já descartou, por falta
+ * de espaço, alguma chave que ainda não venceu. Uma repetição que chega enquanto a primeira
+ * execução está em andamento aguarda o resultado dela.</p>
+ *
+ * <p>Só escritas concluídas são lembradas: se a primeira execução falhar, a repetição
+ * executa de novo. A chave é gravada no banco logo depois da escrita, fora da transação
+ * dela; uma queda entre as duas faz a repetição executar de novo. As chaves gravadas por
+ * outras instâncias no mesmo arquivo só são vistas por esta depois de um reinício.</p>
+ *
+ * @author João Pedro
+ */
+
+public class IdempotencyKeys {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyKeys.class);
+
+    private static final int DEFAULT_TTL_MINUTES = 24 * 60;
+    private static final int DEFAULT_MAX_KEYS = 10_000;
+    private static final int MAX_KEY_LENGTH = 200;
+    //Intervalo entre as limpezas das chaves vencidas no banco
+    private static final long PURGE_INTERVAL_MILLIS = Duration.ofMinutes(10).toMillis();
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_INVALID_KEY = "Chave de idempotência deve ter de 1 a " + MAX_KEY_LENGTH + " caracteres";
+    private static final String ERROR_KEY_REUSED = "Chave de idempotência '%s' já usada em outra operação";
+
+    //=============== Dependências ===============
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final long ttlMillis;
+    private final int maxKeys;
+    private final Clock clock;
+
+    //=============== Estado ===============
+
+    //Em ordem de inserção, que é a ordem de vencimento; acessado sob o lock deste objeto
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private boolean loaded;
+    //Até quando a memória pode não ter uma chave válida que foi descartada
+    private long evictedUntilMillis;
+    private long nextPurgeMillis;
+
+    //=============== Construtores ===============
+
+    public IdempotencyKeys() {
+        this(new IdempotencyKeyRepository(),
+                Duration.ofMinutes(Config.getInt("idempotency.ttl.minutes", DEFAULT_TTL_MINUTES)),
+                Config.getInt("idempotency.max.keys", DEFAULT_MAX_KEYS),
+                Clock.systemUTC());
+    }
+
+    /**
+     * @param idempotencyKeyRepository persistência das chaves
+     * @param ttl validade de cada chave
+     * @param maxKeys máximo de chaves mantidas em memória
+     * @param clock relógio usado na validade
+     * @throws IllegalArgumentException se algum parâmetro for inválido
+     */
+    public IdempotencyKeys(IdempotencyKeyRepository idempotencyKeyRepository, Duration ttl, int maxKeys, Clock clock) {
+        if(idempotencyKeyRepository == null) throw new IllegalArgumentException("IdempotencyKeyRepository não pode ser null");
+        if(ttl == null || ttl.isZero() || ttl.isNegative()) throw new IllegalArgumentException("Validade das chaves deve ser positiva");
+        if(maxKeys < 1) throw new IllegalArgumentException("Máximo de chaves deve ser maior que zero");
+        if(clock == null) throw new IllegalArgumentException("Clock não pode ser null");
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxKeys = maxKeys;
+        this.clock = clock;
+    }
+
+    //=============== Operações ===============
+
+    /**
+     * Executa a escrita uma única vez por chave.
+     *
+     * @param key chave informada pelo cliente; null executa sem idempotência
+     * @param operation operação e argumentos que a identificam; a mesma chave com outra
+     *                  operação é recusada
+     * @param action escrita
+     * @param encoder codifica o resultado para guardá-lo
+     * @param decoder reconstrói o resultado guardado, a cada repetição
+     * @return resultado da escrita, original em caso de repetição
+     * @throws IllegalArgumentException se a chave for vazia ou longa demais
+     * @throws ServiceException se a chave já foi usada em outra operação
+     */
+    public <T> T execute(String key, String operation, Supplier<T> action, Function<T, String> encoder,
+                         Function<String, T> decoder) {
+        if(key == null) return action.get();
+        if(key.isBlank() || key.length() > MAX_KEY_LENGTH) throw new IllegalArgumentException(ERROR_INVALID_KEY);
+
+        Entry entry;
+        boolean owner;
+        boolean lookup;
+        synchronized (this) {
+            load();
+            long now = clock.millis();
+            expire(now);
+
+            entry = entries.get(key);
+            owner = entry == null;
+            lookup = owner && now < evictedUntilMillis;
+            if(owner) {
+                entry = new Entry(operation, now + ttlMillis);
+                put(key, entry);
+            }
+        }
+
+        if(!owner) {
+            if(!entry.operation.equals(operation)) throw new ServiceException(String.format(ERROR_KEY_REUSED, key));
+            String result = await(entry);
+            logger.info("Escrita repetida com a chave '{}' ({}); devolvendo o resultado original", key, operation);
+            return decoder.apply(result);
+        }
+
+        if(lookup) {
+            Optional<IdempotencyRecord> stored;
+            try {
+                stored = findStored(key);
+            } catch (ServiceException e) {
+                forget(key, entry, e);
+                throw e;
+            }
+            if(stored.isPresent()) {
+                if(!stored.get().getOperation().equals(operation)) {
+                    ServiceException reused = new ServiceException(String.format(ERROR_KEY_REUSED, key));
+                    forget(key, entry, reused);
+                    throw reused;
+                }
+                entry.result.complete(stored.get().getResult());
+                logger.info("Escrita repetida com a chave '{}' ({}); devolvendo o resultado gravado", key, operation);
+                return decoder.apply(stored.get().getResult());
+            }
+        }
+
+        T result;
+        String encoded;
+        try {
+            result = action.get();
+            encoded = encoder.apply(result);
+        } catch (RuntimeException e) {
+            forget(key, entry, e);
+            throw e;
+        }
+
+        entry.result.complete(encoded);
+        persist(new IdempotencyRecord(key, operation, encoded, entry.expiresAtMillis));
+        return result;
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    /**
+     * Carrega as chaves ainda válidas no primeiro uso. Chamado sob o lock.
+     */
+    private void load() {
+        if(loaded) return;
+        loaded = true;
+
+        long now = clock.millis();
+        try {
+            idempotencyKeyRepository.deleteExpired(now);
+            nextPurgeMillis = now + PURGE_INTERVAL_MILLIS;
+
+            List<IdempotencyRecord> records = idempotencyKeyRepository.findRecent(now, maxKeys + 1);
+            //As que não couberam continuam valendo no banco
+            if(records.size() > maxKeys) evictedUntilMillis = records.get(maxKeys).getExpiresAtMillis();
+
+            for(int i = Math.min(records.size(), maxKeys) - 1; i >= 0; i--) {
+                IdempotencyRecord record = records.get(i);
+                Entry entry = new Entry(record.getOperation(), record.getExpiresAtMillis());
+                entry.result.complete(record.getResult());
+                entries.put(record.getKey(), entry);
+            }
+            logger.info("Chaves de idempotência carregadas: {}", entries.size());
+        } catch (RepositoryException e) {
+            //Sem saber quais chaves existem, toda chave nova é conferida no banco
+            evictedUntilMillis = now + ttlMillis;
+            logger.error("Erro ao carregar as chaves de idempotência; as chaves serão conferidas no banco", e);
+        }
+    }
+
+    /**
+     * Remove da memória as chaves vencidas já concluídas. Chamado sob o lock.
+     */
+    private void expire(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while(iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if(entry.expiresAtMillis > now || !entry.result.isDone()) break;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Guarda a chave e descarta a mais antiga se a memória estiver cheia. Chamado sob o lock.
+     */
+    private void put(String key, Entry entry) {
+        entries.put(key, entry);
+        if(entries.size() <= maxKeys) return;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        Entry eldest = iterator.next();
+        iterator.remove();
+        evictedUntilMillis = Math.max(evictedUntilMillis, eldest.expiresAtMillis);
+    }
+
+    private void forget(String key, Entry entry, RuntimeException cause) {
+        synchronized (this) {
+            entries.remove(key, entry);
+        }
+        entry.result.completeExceptionally(cause);
+    }
+
+    private Optional<IdempotencyRecord> findStored(String key) {
+        try {
+            return idempotencyKeyRepository.find(key, clock.millis());
+        } catch (RepositoryException e) {
+            throw new ServiceException("Erro ao conferir a chave de idempotência", e);
+        }
+    }
+
+    /**
+     * Grava a chave no banco. Uma falha aqui não desfaz a escrita já concluída; a chave
+     * continua valendo em memória.
+     */
+    private void persist(IdempotencyRecord record) {
+        try {
+            idempotencyKeyRepository.save(record);
+
+            long now = clock.millis();
+            synchronized (this) {
+                if(now < nextPurgeMillis) return;
+                nextPurgeMillis = now + PURGE_INTERVAL_MILLIS;
+            }
+            int deleted = idempotencyKeyRepository.deleteExpired(now);
+            if(deleted > 0) logger.debug("Chaves de idempotência vencidas removidas: {}", deleted);
+        } catch (RepositoryException e) {
+            logger.warn("Chave de idempotência '{}' não gravada no banco; vale apenas em memória", record.getKey(), e);
+        }
+    }
+
+    /**
+     * Aguarda a primeira execução e repassa o erro dela, se falhou.
+     */
+    private static String await(Entry entry) {
+        try {
+            return entry.result.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        private final String operation;
+        private final long expiresAtMillis;
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+
+        private Entry(String operation, long expiresAtMillis) {
+            this.operation = operation;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
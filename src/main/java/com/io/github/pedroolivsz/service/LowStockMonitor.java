@@ -0,0 +1,140 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.dominio.Product;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Avalia o estoque mínimo dos produtos de forma incremental.
+ *
+ * <p>O monitor não consulta o catálogo: ele é chamado pelo {@link ProductService} apenas
+ * com o produto que acabou de ser alterado, mantendo em memória somente o conjunto de
+ * produtos que estão em alerta.</p>
+ *
+ * <p>Características principais: </p>
+ * <ul>
+ *     <li>De-duplicação: um produto em alerta não gera novos alertas até se recuperar</li>
+ *     <li>Histerese: o alerta só é encerrado quando o estoque atinge o mínimo mais a
+ *     margem configurada em {@code stock.alert.hysteresis}</li>
+ *     <li>Falhas de um listener não afetam os demais nem a operação de estoque</li>
+ * </ul>
+ *
+ * @author João Pedro
+ */
+
+public class LowStockMonitor {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockMonitor.class);
+
+    private static final int DEFAULT_HYSTERESIS = 1;
+
+    //=============== Estado ===============
+
+    private final int hysteresis;
+    private final Clock clock;
+    private final Set<Integer> alerted = ConcurrentHashMap.newKeySet();
+    private final List<StockAlertListener> listeners = new CopyOnWriteArrayList<>();
+
+    //=============== Construtores ===============
+
+    public LowStockMonitor() {
+        this(Config.getInt("stock.alert.hysteresis", DEFAULT_HYSTERESIS), Clock.systemUTC());
+    }
+
+    /**
+     * @param hysteresis unidades acima do estoque mínimo necessárias para encerrar um alerta
+     * @param clock relógio usado para marcar os alertas
+     * @throws IllegalArgumentException se a histerese for negativa ou o relógio for null
+     */
+    public LowStockMonitor(int hysteresis, Clock clock) {
+        if(hysteresis < 0) throw new IllegalArgumentException("Histerese não pode ser negativa");
+        if(clock == null) throw new IllegalArgumentException("Clock não pode ser null");
+        this.hysteresis = hysteresis;
+        this.clock = clock;
+    }
+
+    //=============== Listeners ===============
+
+    public void addListener(StockAlertListener listener) {
+        if(listener == null) throw new IllegalArgumentException("Listener não pode ser null");
+        listeners.add(listener);
+    }
+
+    public void removeListener(StockAlertListener listener) {
+        listeners.remove(listener);
+    }
+
+    //=============== Avaliação ===============
+
+    /**
+     * Avalia o estado de estoque de um produto recém alterado.
+     *
+     * @param product produto com a quantidade e o estoque mínimo atuais
+     */
+    public void evaluate(Product product) {
+        if(product == null) return;
+
+        int id = product.getId();
+        int minimum = product.getMinimumStock();
+
+        if(minimum <= 0) {
+            //Sem limite configurado: o produto deixa de ser monitorado sem gerar evento
+            alerted.remove(id);
+            return;
+        }
+
+        if(product.getQuantity() < minimum) {
+            if(alerted.add(id)) {
+                publish(StockAlert.Type.LOW_STOCK, product);
+            }
+        } else if(product.getQuantity() >= minimum + hysteresis) {
+            if(alerted.remove(id)) {
+                publish(StockAlert.Type.RESTOCKED, product);
+            }
+        }
+    }
+
+    /**
+     * Remove o produto do monitoramento, por exemplo após sua exclusão.
+     *
+     * @param id ID do produto
+     */
+    public void forget(int id) {
+        alerted.remove(id);
+    }
+
+    /**
+     * Indica se o produto está atualmente em alerta.
+     *
+     * @param id ID do produto
+     * @return true se houver alerta de estoque baixo ativo
+     */
+    public boolean isAlerted(int id) {
+        return alerted.contains(id);
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void publish(StockAlert.Type type, Product product) {
+        StockAlert alert = new StockAlert(type, product.getId(), product.getName(),
+                product.getQuantity(), product.getMinimumStock(), clock.instant());
+
+        logger.info("Alerta de estoque: {}", alert);
+
+        for(StockAlertListener listener : listeners) {
+            try {
+                listener.onStockAlert(alert);
+            } catch (RuntimeException e) {
+                logger.error("Erro no listener de alerta de estoque", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.MaintenanceResult;
+import com.io.github.pedroolivsz.repository.MaintenanceRepository;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manutenção periódica do banco nos períodos ociosos.
+ *
+ * <p>A cada {@code maintenance.check.interval.seconds}, se a última manutenção tiver mais
+ * de {@code maintenance.interval.minutes} e nenhuma conexão tiver sido pedida à loja nos
+ * últimos {@code maintenance.idle.millis}, o serviço:</p>
+ * <ol>
+ *     <li>faz um checkpoint PASSIVE do WAL, que não espera ninguém;</li>
+ *     <li>devolve as páginas livres com {@code incremental_vacuum} em passos pequenos;</li>
+ *     <li>atualiza as estatísticas do planejador com {@code ANALYZE}/{@code PRAGMA optimize};</li>
+ *     <li>faz um checkpoint TRUNCATE, que zera o arquivo do WAL.</li>
+ * </ol>
+ *
+ * <p>Nenhum comando pode segurar o banco por mais de {@code maintenance.lock.budget.millis}:
+ * o tamanho dos passos do vacuum se ajusta ao tempo medido do passo anterior, a análise é
+ * limitada por {@code maintenance.analysis.limit} e o checkpoint TRUNCATE desiste depois do
+ * orçamento. Se a aplicação pedir uma conexão durante a manutenção, ela para no passo
+ * seguinte e o restante fica para o próximo período ocioso.</p>
+ *
+ * <p>O vacuum incremental só devolve páginas em bancos criados com
+ * {@code auto_vacuum = INCREMENTAL}, o que as migrações fazem nos bancos novos; bancos
+ * antigos só passam a ter esse modo depois de um {@code VACUUM} completo.</p>
+ *
+ * @author João Pedro
+ */
+
+public class MaintenanceService implements Closeable {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(MaintenanceService.class);
+
+    private static final int DEFAULT_CHECK_INTERVAL_SECONDS = 30;
+    private static final int DEFAULT_INTERVAL_MINUTES = 60;
+    private static final int DEFAULT_IDLE_MILLIS = 30_000;
+    private static final int DEFAULT_LOCK_BUDGET_MILLIS = 50;
+    private static final int DEFAULT_VACUUM_PAGES_PER_STEP = 64;
+    private static final int DEFAULT_ANALYSIS_LIMIT = 400;
+    //Teto do passo do vacuum, mesmo com passos muito rápidos
+    private static final int MAX_VACUUM_PAGES_PER_STEP = 4096;
+
+    //Mensagens de erro padronizadas
+    private static final String ERROR_MAINTENANCE = "Não foi possível executar a manutenção do banco de dados";
+
+    //=============== Dependências ===============
+
+    private final MaintenanceRepository maintenanceRepository;
+    private final String store;
+    private final long lockBudgetMillis;
+    private final int vacuumPagesPerStep;
+    private final int analysisLimit;
+
+    //=============== Estado ===============
+
+    private ScheduledExecutorService scheduler;
+    private volatile MaintenanceResult lastResult;
+    private volatile long lastRunNanos;
+    private boolean warnedAutoVacuum;
+
+    //=============== Construtores ===============
+
+    /**
+     * Cria o serviço da loja padrão a partir das configurações e o agenda, se estiver habilitado.
+     *
+     * @return o serviço agendado, ou vazio se {@code maintenance.enabled} não for true
+     */
+    public static Optional<MaintenanceService> fromConfig() {
+        if(!Boolean.parseBoolean(Config.get("maintenance.enabled"))) return Optional.empty();
+
+        MaintenanceService maintenanceService = new MaintenanceService(
+                new MaintenanceRepository(),
+                Database.DEFAULT_STORE,
+                Config.getInt("maintenance.lock.budget.millis", DEFAULT_LOCK_BUDGET_MILLIS),
+                Config.getInt("maintenance.vacuum.pages.per.step", DEFAULT_VACUUM_PAGES_PER_STEP),
+                Config.getInt("maintenance.analysis.limit", DEFAULT_ANALYSIS_LIMIT));
+        maintenanceService.schedule(
+                Duration.ofSeconds(Config.getInt("maintenance.check.interval.seconds", DEFAULT_CHECK_INTERVAL_SECONDS)),
+                Duration.ofMinutes(Config.getInt("maintenance.interval.minutes", DEFAULT_INTERVAL_MINUTES)),
+                Duration.ofMillis(Config.getInt("maintenance.idle.millis", DEFAULT_IDLE_MILLIS)));
+        return Optional.of(maintenanceService);
+    }
+
+    /**
+     * @param maintenanceRepository comandos de manutenção
+     * @param store ID da loja mantida
+     * @param lockBudgetMillis tempo máximo de cada comando com o banco ocupado
+     * @param vacuumPagesPerStep páginas do primeiro passo do vacuum incremental
+     * @param analysisLimit linhas lidas por índice na atualização das estatísticas
+     * @throws IllegalArgumentException se algum parâmetro for inválido
+     */
+    public MaintenanceService(MaintenanceRepository maintenanceRepository, String store, long lockBudgetMillis,
+                              int vacuumPagesPerStep, int analysisLimit) {
+        if(maintenanceRepository == null) throw new IllegalArgumentException("MaintenanceRepository não pode ser null");
+        if(store == null || store.isBlank()) throw new IllegalArgumentException("Loja não pode ser vazia");
+        if(lockBudgetMillis < 1) throw new IllegalArgumentException("Orçamento de lock deve ser maior que zero");
+        if(vacuumPagesPerStep < 1) throw new IllegalArgumentException("Páginas por passo deve ser maior que zero");
+        if(analysisLimit < 1) throw new IllegalArgumentException("Limite da análise deve ser maior que zero");
+        this.maintenanceRepository = maintenanceRepository;
+        this.store = store;
+        this.lockBudgetMillis = lockBudgetMillis;
+        this.vacuumPagesPerStep = vacuumPagesPerStep;
+        this.analysisLimit = analysisLimit;
+    }
+
+    //=============== Agendamento ===============
+
+    /**
+     * Confere periodicamente se o banco está ocioso e, se a última manutenção for antiga o
+     * bastante, executa uma nova. Falhas são registradas no log e não interrompem o agendamento.
+     *
+     * @param checkInterval intervalo entre as conferências
+     * @param interval intervalo mínimo entre duas manutenções
+     * @param idle tempo sem conexões pedidas para o banco ser considerado ocioso
+     */
+    public synchronized void schedule(Duration checkInterval, Duration interval, Duration idle) {
+        if(checkInterval == null || checkInterval.isZero() || checkInterval.isNegative()) {
+            throw new IllegalArgumentException("Intervalo de conferência deve ser positivo");
+        }
+        if(interval == null || interval.isNegative()) throw new IllegalArgumentException("Intervalo de manutenção não pode ser negativo");
+        if(idle == null || idle.isNegative()) throw new IllegalArgumentException("Tempo ocioso não pode ser negativo");
+        if(scheduler != null) throw new IllegalStateException("Manutenção já agendada");
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> scheduledMaintenance(interval, idle),
+                checkInterval.toMillis(), checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Manutenção da loja {} agendada a cada {} min, após {} s ociosos",
+                store, interval.toMinutes(), idle.toSeconds());
+    }
+
+    @Override
+    public synchronized void close() {
+        if(scheduler == null) return;
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //=============== Operações ===============
+
+    /**
+     * Executa uma manutenção agora, sem esperar o banco ficar ocioso. Ainda assim ela para
+     * no primeiro passo em que notar atividade da aplicação.
+     *
+     * @return resultado da manutenção
+     * @throws ServiceException se algum comando falhar
+     */
+    public MaintenanceResult runNow() {
+        synchronized (maintenanceRepository) {
+            long started = System.nanoTime();
+            try(MaintenanceRepository.Session session = maintenanceRepository.open(store, (int) lockBudgetMillis)) {
+                //A sessão segura a própria conexão: qualquer conexão nova é da aplicação
+                long activity = Database.lastActivityNanos(store);
+                Run run = new Run(session, activity);
+
+                long fileSizeBefore = session.fileSize();
+                int freelistBefore = session.freelistPages();
+
+                MaintenanceRepository.Checkpoint checkpoint = run.checkpoint(false);
+                int vacuumed = run.vacuum(freelistBefore);
+                boolean analyzed = run.optimize();
+                boolean truncated = false;
+                if(checkpoint != null && !run.interrupted) {
+                    MaintenanceRepository.Checkpoint truncate = run.checkpoint(true);
+                    if(truncate != null) {
+                        checkpoint = truncate;
+                        truncated = !truncate.busy();
+                    }
+                }
+
+                MaintenanceResult result = new MaintenanceResult(store, fileSizeBefore, session.fileSize(),
+                        freelistBefore, session.freelistPages(), vacuumed,
+                        checkpoint != null ? checkpoint.walFrames() : 0, truncated, analyzed, !run.interrupted,
+                        Duration.ofNanos(run.longestLockNanos), Duration.ofNanos(System.nanoTime() - started));
+                logger.info("Manutenção do banco concluída. {}", result);
+
+                lastResult = result;
+                lastRunNanos = System.nanoTime();
+                return result;
+            } catch (RepositoryException e) {
+                throw new ServiceException(ERROR_MAINTENANCE, e);
+            }
+        }
+    }
+
+    /**
+     * @return resultado da última manutenção, se já houve alguma
+     */
+    public Optional<MaintenanceResult> lastResult() {
+        return Optional.ofNullable(lastResult);
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void scheduledMaintenance(Duration interval, Duration idle) {
+        try {
+            long now = System.nanoTime();
+            if(lastResult != null && now - lastRunNanos < interval.toNanos()) return;
+            if(now - Database.lastActivityNanos(store) < idle.toNanos()) return;
+
+            runNow();
+        } catch (RuntimeException e) {
+            logger.error("Erro na manutenção agendada", e);
+        }
+    }
+
+    /**
+     * Estado de uma manutenção em andamento: para antes de cada comando se a aplicação
+     * pediu uma conexão e mede quanto tempo cada comando ocupou o banco.
+     */
+    private class Run {
+        private final MaintenanceRepository.Session session;
+        private final long activity;
+        private boolean interrupted;
+        private long longestLockNanos;
+
+        private Run(MaintenanceRepository.Session session, long activity) {
+            this.session = session;
+            this.activity = activity;
+        }
+
+        private MaintenanceRepository.Checkpoint checkpoint(boolean truncate) {
+            if(shouldStop()) return null;
+
+            long started = System.nanoTime();
+            MaintenanceRepository.Checkpoint checkpoint = session.checkpoint(truncate);
+            locked(started);
+            return checkpoint;
+        }
+
+        /**
+         * Devolve as páginas livres em passos, dobrando o passo quando ele leva menos de um
+         * quarto do orçamento e cortando pela metade quando passa da metade.
+         */
+        private int vacuum(int freelist) {
+            if(freelist == 0) return 0;
+            if(!session.incrementalVacuumEnabled()) {
+                if(!warnedAutoVacuum) {
+                    warnedAutoVacuum = true;
+                    logger.warn("Loja {} sem auto_vacuum incremental: {} páginas livres só serão devolvidas por um VACUUM completo",
+                            store, freelist);
+                }
+                return 0;
+            }
+
+            long budget = TimeUnit.MILLISECONDS.toNanos(lockBudgetMillis);
+            int pages = vacuumPagesPerStep;
+            int vacuumed = 0;
+            while(freelist > 0 && !shouldStop()) {
+                long started = System.nanoTime();
+                session.incrementalVacuum(Math.min(pages, freelist));
+                long elapsed = locked(started);
+
+                int remaining = session.freelistPages();
+                //Sem progresso: o banco ficou ocupado durante todo o passo
+                if(remaining >= freelist) break;
+                vacuumed += freelist - remaining;
+                freelist = remaining;
+
+                if(elapsed > budget / 2) pages = Math.max(1, pages / 2);
+                else if(elapsed < budget / 4) pages = Math.min(MAX_VACUUM_PAGES_PER_STEP, pages * 2);
+            }
+            return vacuumed;
+        }
+
+        private boolean optimize() {
+            if(shouldStop()) return false;
+
+            long started = System.nanoTime();
+            session.optimize(analysisLimit);
+            locked(started);
+            return true;
+        }
+
+        private boolean shouldStop() {
+            if(!interrupted && (Database.lastActivityNanos(store) != activity || Thread.currentThread().isInterrupted())) {
+                interrupted = true;
+                logger.info("Manutenção da loja {} interrompida por atividade; o restante fica para o próximo período ocioso", store);
+            }
+            return interrupted;
+        }
+
+        private long locked(long started) {
+            long elapsed = System.nanoTime() - started;
+            longestLockNanos = Math.max(longestLockNanos, elapsed);
+            if(elapsed > TimeUnit.MILLISECONDS.toNanos(lockBudgetMillis)) {
+                logger.warn("Comando de manutenção da loja {} ocupou o banco por {} ms, acima do orçamento de {} ms",
+                        store, TimeUnit.NANOSECONDS.toMillis(elapsed), lockBudgetMillis);
+            }
+            return elapsed;
+        }
+    }
+}
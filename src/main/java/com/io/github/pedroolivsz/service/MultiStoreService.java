@@ -0,0 +1,155 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.config.StoreContext;
+import com.io.github.pedroolivsz.dominio.StoreProduct;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Consultas que percorrem todas as lojas.
+ *
+ * <p>Cada consulta é enviada em paralelo a todas as lojas, cada uma no próprio pool
+ * (selecionado pelo {@link StoreContext}), e os resultados são combinados na ordem em que
+ * as lojas foram configuradas. Se alguma loja falhar, a consulta inteira falha, indicando
+ * a loja, para que um total nunca seja exibido faltando uma parte.</p>
+ *
+ * @author João Pedro
+ */
+
+public class MultiStoreService implements Closeable {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(MultiStoreService.class);
+
+    private static final String ERROR_STORE_QUERY = "Erro ao consultar a loja %s";
+
+    //=============== Dependências ===============
+
+    private final List<String> stores;
+    private final ProductRepository productRepository;
+    private final ExecutorService executor;
+
+    //=============== Construtores ===============
+
+    /**
+     * Usa as lojas configuradas em {@code stores}.
+     */
+    public MultiStoreService() {
+        this(Database.stores(), new ProductRepository());
+    }
+
+    /**
+     * @param stores lojas consultadas
+     * @param productRepository repository usado em cada loja
+     * @throws IllegalArgumentException se não houver lojas ou o repository for null
+     */
+    public MultiStoreService(List<String> stores, ProductRepository productRepository) {
+        if(stores == null || stores.isEmpty()) throw new IllegalArgumentException("Informe ao menos uma loja");
+        if(productRepository == null) throw new IllegalArgumentException("ProductRepository não pode ser null");
+        this.stores = List.copyOf(stores);
+        this.productRepository = productRepository;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.stores.size(), runnable -> {
+            Thread thread = new Thread(runnable, "store-query-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //=============== Consultas ===============
+
+    public List<String> getStores() {
+        return stores;
+    }
+
+    /**
+     * @return valor do estoque de cada loja, na ordem das lojas
+     * @throws ServiceException se alguma loja falhar
+     */
+    public Map<String, BigDecimal> stockValueByStore() {
+        return fanOut("valor do estoque", productRepository::stockValue);
+    }
+
+    /**
+     * @return soma do valor do estoque de todas as lojas
+     * @throws ServiceException se alguma loja falhar
+     */
+    public BigDecimal totalStockValue() {
+        return stockValueByStore().values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * Procura um produto pelo nome em todas as lojas, usando o índice do nome normalizado
+     * de cada uma.
+     *
+     * @param name nome do produto, em qualquer caixa
+     * @return produto de cada loja que o tem, na ordem das lojas
+     * @throws ServiceException se alguma loja falhar
+     */
+    public List<StoreProduct> findByName(String name) {
+        if(name == null || name.isBlank()) throw new IllegalArgumentException("Nome não pode ser vazio");
+        String normalized = ProductNameIndex.normalize(name);
+
+        Map<String, List<StoreProduct>> found = fanOut("produto '" + normalized + "'", () -> {
+            String store = StoreContext.current();
+            return productRepository.findIdByNormalizedName(normalized)
+                    .flatMap(productRepository::findById)
+                    .map(product -> List.of(new StoreProduct(store, product)))
+                    .orElse(List.of());
+        });
+
+        List<StoreProduct> merged = new ArrayList<>();
+        found.values().forEach(merged::addAll);
+        return merged;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    /**
+     * Executa a consulta em todas as lojas em paralelo e aguarda todas.
+     */
+    private <T> Map<String, T> fanOut(String description, Supplier<T> query) {
+        long started = System.nanoTime();
+
+        Map<String, CompletableFuture<T>> pending = new LinkedHashMap<>();
+        for(String store : stores) {
+            pending.put(store, CompletableFuture.supplyAsync(() -> StoreContext.call(store, query), executor));
+        }
+
+        Map<String, T> results = new LinkedHashMap<>();
+        for(Map.Entry<String, CompletableFuture<T>> entry : pending.entrySet()) {
+            try {
+                results.put(entry.getKey(), entry.getValue().join());
+            } catch (CompletionException e) {
+                pending.values().forEach(future -> future.cancel(true));
+                logger.error("Erro ao consultar {} na loja {}", description, entry.getKey(), e.getCause());
+                throw new ServiceException(String.format(ERROR_STORE_QUERY, entry.getKey()), e.getCause());
+            }
+        }
+
+        logger.debug("Consulta de {} em {} lojas concluída em {} ms",
+                description, stores.size(), (System.nanoTime() - started) / 1_000_000);
+        return results;
+    }
+}
@@ -0,0 +1,255 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.dominio.CheckoutResult;
+import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockShortage;
+import com.io.github.pedroolivsz.repository.OrderTabRepository;
+import com.io.github.pedroolivsz.repository.ProductStore;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import com.io.github.pedroolivsz.validation.InsufficientStockException;
+import com.io.github.pedroolivsz.validation.ProductException;
+import com.io.github.pedroolivsz.validation.ProductNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.stream.Collectors;
+
+/**
+ * Service responsável pela lógica de negócio de comandas.
+ *
+ * <p>Os itens são gravados com o preço vigente do produto no momento do pedido, e o
+ * fechamento da comanda atualiza os agregados de vendas na mesma transação.</p>
+ *
+ * @author João Pedro
+ */
+
+public class OrderTabService {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderTabService.class);
+
+    //Mensagens de erros padronizadas
+    private static final String ERROR_ORDER_TAB_NOT_FOUND = "Comanda com ID %d não encontrada";
+    private static final String ERROR_PRODUCT_NOT_FOUND = "Produto com ID %d não encontrado";
+    private static final String ERROR_INVALID_QUANTITY = "Quantidade deve ser maior que zero";
+    private static final String ERROR_INVALID_TABLE = "Número da mesa deve ser maior que zero";
+    private static final String ERROR_INSUFFICIENT_STOCK = "Estoque insuficiente para fechar a comanda %d: %s";
+    private static final String ERROR_CHECKOUT_UNAVAILABLE =
+            "Fechamento com baixa de estoque indisponível com o catálogo em memória; use a baixa por produto";
+    private static final String ERROR_CHECKOUT_JOURNALED =
+            "Fechamento com baixa de estoque indisponível com o journal de escrita habilitado; use a baixa por produto";
+
+    //=============== Dependências ===============
+
+    private final OrderTabRepository orderTabRepository;
+    private final ProductStore productStore;
+    private final LowStockMonitor lowStockMonitor;
+    private final ProductCatalog catalog;
+    private final IdempotencyKeys idempotencyKeys;
+    private final SalesVelocityTracker salesVelocity;
+    private final StockJournal stockJournal;
+
+    //=============== Construtores ===============
+
+    /**
+     * Construtor com as dependências padrão: monitor, catálogo e chaves de idempotência
+     * próprios, sem journal de escrita, e a {@link SalesVelocityTracker#shared() velocidade de
+     * vendas compartilhada da loja}.
+     *
+     * @param orderTabRepository repository das comandas
+     * @param productStore armazenamento de produtos
+     * @throws IllegalArgumentException se alguma dependência for null
+     */
+    public OrderTabService(OrderTabRepository orderTabRepository, ProductStore productStore) {
+        this(orderTabRepository, productStore, new LowStockMonitor(),
+                productStore == null ? null : new ProductCatalog(productStore),
+                new IdempotencyKeys(), SalesVelocityTracker.shared(), null);
+    }
+
+    /**
+     * Construtor com injeção de dependências
+     *
+     * @param orderTabRepository repository das comandas
+     * @param productStore armazenamento de produtos
+     * @param lowStockMonitor monitor avaliado após a baixa de estoque do fechamento; deve ser
+     *                        o mesmo do {@link ProductService} para que os alertas não se repitam
+     * @param catalog catálogo que recebe os produtos baixados no fechamento; deve ser o mesmo
+     *                do {@link ProductService}
+     * @param idempotencyKeys chaves dos fechamentos repetidos pelos terminais
+     * @param salesVelocity velocidade de vendas alimentada pelas baixas do fechamento; deve ser
+     *                      a mesma do {@link ProductService}
+     * @param stockJournal journal de escrita do {@link ProductService} (opcional, pode ser null);
+     *                     com ele habilitado o fechamento com baixa é recusado
+     * @throws IllegalArgumentException se alguma dependência obrigatória for null
+     */
+    public OrderTabService(OrderTabRepository orderTabRepository, ProductStore productStore, LowStockMonitor lowStockMonitor,
+                           ProductCatalog catalog, IdempotencyKeys idempotencyKeys, SalesVelocityTracker salesVelocity,
+                           StockJournal stockJournal) {
+        if(orderTabRepository == null) throw new IllegalArgumentException("OrderTabRepository não pode ser null");
+        if(productStore == null) throw new IllegalArgumentException("ProductStore não pode ser null");
+        if(lowStockMonitor == null) throw new IllegalArgumentException("LowStockMonitor não pode ser null");
+        if(catalog == null) throw new IllegalArgumentException("ProductCatalog não pode ser null");
+        if(idempotencyKeys == null) throw new IllegalArgumentException("IdempotencyKeys não pode ser null");
+        if(salesVelocity == null) throw new IllegalArgumentException("SalesVelocityTracker não pode ser null");
+        this.orderTabRepository = orderTabRepository;
+        this.productStore = productStore;
+        this.lowStockMonitor = lowStockMonitor;
+        this.catalog = catalog;
+        this.idempotencyKeys = idempotencyKeys;
+        this.salesVelocity = salesVelocity;
+        this.stockJournal = stockJournal;
+    }
+
+    //=============== Operações ===============
+
+    /**
+     * Abre uma comanda para uma mesa.
+     *
+     * @param tableNumber número da mesa
+     * @return comanda aberta
+     * @throws ProductException se o número da mesa for inválido
+     * @throws ServiceException se houver erro na operação
+     */
+    public OrderTab open(int tableNumber) {
+        if(tableNumber <= 0) throw new ProductException(ERROR_INVALID_TABLE);
+
+        try {
+            return orderTabRepository.open(tableNumber);
+        } catch (RepositoryException e) {
+            logger.error("Erro ao abrir comanda para a mesa {}", tableNumber, e);
+            throw new ServiceException("Erro ao abrir comanda", e);
+        }
+    }
+
+    /**
+     * Adiciona um produto a uma comanda aberta, com o preço atual do produto.
+     *
+     * @param orderTabId ID da comanda
+     * @param productId ID do produto
+     * @param quantity quantidade pedida
+     * @throws ProductException se a quantidade for inválida ou o produto não existir
+     * @throws ServiceException se a comanda não estiver aberta ou houver erro na operação
+     */
+    public void addItem(int orderTabId, int productId, int quantity) {
+        if(quantity <= 0) throw new ProductException(ERROR_INVALID_QUANTITY);
+
+        try {
+            Product product = productStore.findById(productId)
+                    .orElseThrow(() -> new ProductNotFoundException(String.format(ERROR_PRODUCT_NOT_FOUND, productId)));
+
+            orderTabRepository.addItem(orderTabId,
+                    new Product(product.getId(), product.getName(), quantity, product.getUnitValue()));
+        } catch (ProductException e) {
+            throw e;
+        } catch (RepositoryException e) {
+            logger.error("Erro ao adicionar produto {} à comanda {}", productId, orderTabId, e);
+            throw new ServiceException("Erro ao adicionar item à comanda", e);
+        }
+    }
+
+    /**
+     * Fecha uma comanda.
+     *
+     * @param orderTabId ID da comanda
+     * @return comanda fechada com o total calculado
+     * @throws ServiceException se a comanda não estiver aberta ou houver erro na operação
+     */
+    public OrderTab close(int orderTabId) {
+        logger.info("Fechando comanda ID: {}", orderTabId);
+
+        try {
+            OrderTab closed = orderTabRepository.close(orderTabId);
+            logger.info("Comanda fechada. ID: {}, Total: {}", closed.getId(), closed.getTotalAmount());
+
+            return closed;
+        } catch (RepositoryException e) {
+            logger.error("Erro ao fechar comanda ID {}", orderTabId, e);
+            throw new ServiceException("Erro ao fechar comanda", e);
+        }
+    }
+
+    /**
+     * Fecha uma comanda dando baixa no estoque de todos os seus itens.
+     *
+     * <p>Tudo acontece em uma única transação: se qualquer produto não tiver estoque
+     * suficiente, nada é baixado e a comanda continua aberta.</p>
+     *
+     * <p>A baixa é feita direto na tabela de produtos, por isso é recusada quando o
+     * catálogo fica em memória ({@link ProductStore#isWriteThrough()} false) e quando o
+     * journal de escrita está habilitado: a disponibilidade lida no banco não conta as
+     * movimentações ainda não aplicadas, e a baixa poderia deixar o estoque negativo.</p>
+     *
+     * @param orderTabId ID da comanda
+     * @return comanda fechada com o total calculado
+     * @throws InsufficientStockException com todos os itens em falta, se houver algum
+     * @throws ServiceException se a comanda não estiver aberta ou houver erro na operação
+     */
+    public OrderTab checkout(int orderTabId) {
+        logger.info("Fechando comanda ID {} com baixa de estoque", orderTabId);
+
+        if(!productStore.isWriteThrough()) throw new ServiceException(ERROR_CHECKOUT_UNAVAILABLE);
+        if(stockJournal != null) throw new ServiceException(ERROR_CHECKOUT_JOURNALED);
+
+        try {
+            CheckoutResult result = orderTabRepository.checkout(orderTabId);
+
+            if(!result.isCompleted()) {
+                String items = result.getShortages().stream()
+                        .map(StockShortage::toString)
+                        .collect(Collectors.joining("; "));
+                String error = String.format(ERROR_INSUFFICIENT_STOCK, orderTabId, items);
+
+                logger.warn(error);
+                throw new InsufficientStockException(error, result.getShortages());
+            }
+
+            catalog.putAll(result.getUpdatedProducts());
+            result.getUpdatedProducts().forEach(lowStockMonitor::evaluate);
+            result.getMovements().forEach(movement -> salesVelocity.record(movement.getProductId(), -movement.getDelta()));
+
+            OrderTab closed = result.getOrderTab();
+            logger.info("Comanda fechada com baixa de estoque. ID: {}, Total: {}, Produtos: {}",
+                    closed.getId(), closed.getTotalAmount(), result.getUpdatedProducts().size());
+
+            return closed;
+        } catch (RepositoryException e) {
+            logger.error("Erro ao fechar comanda ID {} com baixa de estoque", orderTabId, e);
+            throw new ServiceException("Erro ao fechar comanda", e);
+        }
+    }
+
+    /**
+     * Fecha uma comanda com baixa de estoque uma única vez por chave de idempotência:
+     * repetido com a mesma chave, devolve a comanda fechada na primeira vez.
+     *
+     * @param idempotencyKey chave informada pelo terminal; null executa sem idempotência
+     * @param orderTabId ID da comanda
+     * @return comanda fechada com o total calculado
+     * @throws InsufficientStockException com todos os itens em falta, se houver algum
+     * @throws ServiceException se a comanda não estiver aberta, houver erro na operação ou a
+     * chave já foi usada em outra operação
+     */
+    public OrderTab checkout(String idempotencyKey, int orderTabId) {
+        //Uma comanda fechada não muda mais: basta guardar o ID e reler na repetição
+        return idempotencyKeys.execute(idempotencyKey, "checkout:" + orderTabId,
+                () -> checkout(orderTabId), tab -> String.valueOf(tab.getId()), id -> findById(Integer.parseInt(id)));
+    }
+
+    /**
+     * Busca uma comanda pelo ID.
+     *
+     * @param orderTabId ID da comanda
+     * @return comanda encontrada, com seus itens
+     * @throws ServiceException se a comanda não existir ou houver erro na operação
+     */
+    public OrderTab findById(int orderTabId) {
+        try {
+            return orderTabRepository.findById(orderTabId)
+                    .orElseThrow(() -> new ServiceException(String.format(ERROR_ORDER_TAB_NOT_FOUND, orderTabId)));
+        } catch (RepositoryException e) {
+            logger.error("Erro ao buscar comanda ID {}", orderTabId, e);
+            throw new ServiceException("Erro ao buscar comanda", e);
+        }
+    }
+}
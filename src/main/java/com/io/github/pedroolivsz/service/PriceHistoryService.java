@@ -0,0 +1,78 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.repository.PriceHistoryRepository;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Service de consulta ao histórico de preços.
+ *
+ * <p>Os preços são gravados pelo {@link com.io.github.pedroolivsz.repository.ProductRepository}
+ * na mesma transação de cada alteração de preço; este service expõe apenas as consultas
+ * de preço em um instante passado e dos preços de tabela de uma comanda.</p>
+ *
+ * @author João Pedro
+ */
+
+public class PriceHistoryService {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    //=============== Dependências ===============
+
+    private final PriceHistoryRepository priceHistoryRepository;
+
+    //=============== Construtores ===============
+
+    public PriceHistoryService() {
+        this(new PriceHistoryRepository());
+    }
+
+    public PriceHistoryService(PriceHistoryRepository priceHistoryRepository) {
+        if(priceHistoryRepository == null) throw new IllegalArgumentException("PriceHistoryRepository não pode ser null");
+        this.priceHistoryRepository = priceHistoryRepository;
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * @param productId ID do produto
+     * @param instant instante desejado
+     * @return preço do produto no instante, vazio se o produto ainda não existia
+     * @throws ServiceException se houver erro na operação
+     */
+    public Optional<BigDecimal> priceAt(int productId, Instant instant) {
+        if(instant == null) throw new IllegalArgumentException("Instante não pode ser null");
+
+        try {
+            return priceHistoryRepository.priceAt(productId, instant);
+        } catch (RepositoryException e) {
+            logger.error("Erro ao consultar preço histórico do produto ID {}", productId, e);
+            throw new ServiceException("Erro ao consultar preço histórico", e);
+        }
+    }
+
+    /**
+     * Preços de tabela dos produtos de uma comanda no fechamento dela, ou atuais se ainda
+     * estiver aberta, em uma única consulta.
+     *
+     * @param orderTabId ID da comanda
+     * @return preço por ID de produto, na ordem dos itens
+     * @throws ServiceException se houver erro na operação
+     */
+    public Map<Integer, BigDecimal> orderTabPrices(int orderTabId) {
+        try {
+            return priceHistoryRepository.orderTabPrices(orderTabId);
+        } catch (RepositoryException e) {
+            logger.error("Erro ao consultar preços históricos da comanda ID {}", orderTabId, e);
+            throw new ServiceException("Erro ao consultar preços históricos da comanda", e);
+        }
+    }
+}
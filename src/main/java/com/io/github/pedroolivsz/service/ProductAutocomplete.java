@@ -0,0 +1,278 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.dominio.ProductSuggestion;
+import com.io.github.pedroolivsz.repository.ProductStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Índice em memória para autocompletar nomes de produtos por prefixo.
+ *
+ * <p>Os nomes normalizados ficam em um array ordenado; a consulta localiza o primeiro
+ * nome maior ou igual ao prefixo por busca binária e percorre os seguintes enquanto
+ * começarem com o prefixo, custando O(log n + k) sem tocar o banco.</p>
+ *
+ * <p>Características principais: </p>
+ * <ul>
+ *     <li>Leitura sem bloqueio: as consultas usam o array publicado, que nunca é alterado;
+ *     cada escrita publica uma cópia nova</li>
+ *     <li>Carga em segundo plano: alterações recebidas durante a carga são guardadas e
+ *     aplicadas, na ordem, sobre o resultado dela</li>
+ *     <li>Enquanto a carga não termina, as consultas retornam lista vazia</li>
+ * </ul>
+ *
+ * @author João Pedro
+ */
+
+public class ProductAutocomplete {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductAutocomplete.class);
+
+    //=============== Dependências ===============
+
+    private final ProductStore productStore;
+
+    //=============== Estado ===============
+
+    private volatile Snapshot snapshot = new Snapshot(new String[0], new int[0]);
+    private volatile boolean loaded;
+
+    //Protegidos pelo monitor da instância
+    private CompletableFuture<Void> loading;
+    private Map<Integer, String> namesById = new HashMap<>();
+    private List<Runnable> pending = new ArrayList<>();
+
+    //=============== Construtor ===============
+
+    /**
+     * @param productStore repository usado para carregar os nomes
+     * @throws IllegalArgumentException se o repository for null
+     */
+    public ProductAutocomplete(ProductStore productStore) {
+        if(productStore == null) throw new IllegalArgumentException("ProductStore não pode ser null");
+        this.productStore = productStore;
+    }
+
+    //=============== Ciclo de vida ===============
+
+    /**
+     * Inicia a carga do índice em uma thread de segundo plano. Chamadas seguintes retornam
+     * a mesma carga; após uma falha, a próxima chamada tenta novamente.
+     *
+     * @return sinal de conclusão da carga
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if(loading != null) return loading;
+
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        loading = future;
+
+        Thread thread = new Thread(() -> load(future), "autocomplete");
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    public boolean isReady() {
+        return loaded;
+    }
+
+    public int size() {
+        return snapshot.names.length;
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * Retorna os primeiros produtos, em ordem alfabética, cujo nome normalizado começa
+     * com o prefixo informado.
+     *
+     * @param prefix prefixo digitado (normalizado como os nomes)
+     * @param limit quantidade máxima de sugestões
+     * @return sugestões encontradas; vazia enquanto o índice não estiver carregado
+     * @throws IllegalArgumentException se o prefixo for null ou o limite não for positivo
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        if(prefix == null) throw new IllegalArgumentException("Prefixo não pode ser null");
+        if(limit <= 0) throw new IllegalArgumentException("Limite deve ser maior que zero");
+
+        if(!loaded) {
+            start();
+            logger.debug("Índice de autocompletar ainda em carga; sugestões indisponíveis");
+            return List.of();
+        }
+
+        String normalized = ProductNameIndex.normalize(prefix);
+        Snapshot current = snapshot;
+        List<ProductSuggestion> suggestions = new ArrayList<>(Math.min(limit, 16));
+
+        for(int i = lowerBound(current.names, normalized); i < current.names.length && suggestions.size() < limit; i++) {
+            if(!current.names[i].startsWith(normalized)) break;
+            suggestions.add(new ProductSuggestion(current.ids[i], current.names[i]));
+        }
+
+        return suggestions;
+    }
+
+    //=============== Alterações incrementais ===============
+
+    /**
+     * Registra o nome atual de um produto, criado ou renomeado.
+     *
+     * @param productId ID do produto
+     * @param normalizedName nome normalizado
+     */
+    public synchronized void put(int productId, String normalizedName) {
+        if(!loaded) {
+            pending.add(() -> put(productId, normalizedName));
+            return;
+        }
+
+        String previous = namesById.put(productId, normalizedName);
+        if(normalizedName.equals(previous)) return;
+
+        Snapshot current = snapshot;
+        if(previous != null) current = current.without(previous, productId);
+        snapshot = current.with(normalizedName, productId);
+    }
+
+    /**
+     * Remove um produto excluído do índice.
+     *
+     * @param productId ID do produto
+     */
+    public synchronized void remove(int productId) {
+        if(!loaded) {
+            pending.add(() -> remove(productId));
+            return;
+        }
+
+        String previous = namesById.remove(productId);
+        if(previous != null) snapshot = snapshot.without(previous, productId);
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void load(CompletableFuture<Void> future) {
+        try {
+            long start = System.nanoTime();
+            Map<Integer, String> stored = productStore.listIdsAndNormalizedNames();
+
+            Integer[] order = stored.keySet().toArray(new Integer[0]);
+            Arrays.sort(order, Comparator.comparing((Integer id) -> stored.get(id)).thenComparing(id -> id));
+
+            String[] names = new String[order.length];
+            int[] ids = new int[order.length];
+            for(int i = 0; i < order.length; i++) {
+                ids[i] = order[i];
+                names[i] = stored.get(order[i]);
+            }
+
+            synchronized(this) {
+                namesById = new HashMap<>(stored);
+                snapshot = new Snapshot(names, ids);
+                loaded = true;
+
+                //Alterações já refletidas na carga são reaplicadas sem efeito
+                pending.forEach(Runnable::run);
+                pending = null;
+            }
+
+            logger.info("Índice de autocompletar carregado. Produtos: {}, tempo: {} ms",
+                    names.length, (System.nanoTime() - start) / 1_000_000);
+            future.complete(null);
+        } catch (RuntimeException e) {
+            logger.error("Erro ao carregar o índice de autocompletar", e);
+            synchronized(this) {
+                loading = null;
+            }
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * @return posição do primeiro nome maior ou igual ao prefixo
+     */
+    private static int lowerBound(String[] names, String prefix) {
+        int low = 0;
+        int high = names.length;
+
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(names[middle].compareTo(prefix) < 0) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Arrays paralelos ordenados por nome e, no empate, por ID. Nunca são alterados depois
+     * de publicados.
+     */
+    private static final class Snapshot {
+        private final String[] names;
+        private final int[] ids;
+
+        private Snapshot(String[] names, int[] ids) {
+            this.names = names;
+            this.ids = ids;
+        }
+
+        private Snapshot with(String name, int id) {
+            int position = position(name, id);
+            if(position >= 0) return this;
+            position = -position - 1;
+
+            String[] newNames = new String[names.length + 1];
+            int[] newIds = new int[ids.length + 1];
+            System.arraycopy(names, 0, newNames, 0, position);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            newNames[position] = name;
+            newIds[position] = id;
+            System.arraycopy(names, position, newNames, position + 1, names.length - position);
+            System.arraycopy(ids, position, newIds, position + 1, ids.length - position);
+            return new Snapshot(newNames, newIds);
+        }
+
+        private Snapshot without(String name, int id) {
+            int position = position(name, id);
+            if(position < 0) return this;
+
+            String[] newNames = new String[names.length - 1];
+            int[] newIds = new int[ids.length - 1];
+            System.arraycopy(names, 0, newNames, 0, position);
+            System.arraycopy(ids, 0, newIds, 0, position);
+            System.arraycopy(names, position + 1, newNames, position, names.length - position - 1);
+            System.arraycopy(ids, position + 1, newIds, position, ids.length - position - 1);
+            return new Snapshot(newNames, newIds);
+        }
+
+        /**
+         * @return posição do par, ou (-(ponto de inserção) - 1) se ele não estiver presente
+         */
+        private int position(String name, int id) {
+            int low = 0;
+            int high = names.length - 1;
+
+            while(low <= high) {
+                int middle = (low + high) >>> 1;
+                int comparison = names[middle].compareTo(name);
+                if(comparison == 0) comparison = Integer.compare(ids[middle], id);
+
+                if(comparison < 0) low = middle + 1;
+                else if(comparison > 0) high = middle - 1;
+                else return middle;
+            }
+            return -(low + 1);
+        }
+    }
+}
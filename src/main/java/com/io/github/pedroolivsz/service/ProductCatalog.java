@@ -0,0 +1,238 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.dominio.CatalogMetrics;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.ProductStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Catálogo de produtos publicado para leitura.
+ *
+ * <p>Os leitores recebem o {@link CatalogSnapshot} corrente de uma {@link AtomicReference}:
+ * sem lock, sem cópia e sempre uma versão inteira do catálogo. Cada escrita feita pelos
+ * services publica uma versão nova com o produto alterado, que compartilha com a anterior
+ * tudo o que não mudou.</p>
+ *
+ * <p>Características principais: </p>
+ * <ul>
+ *     <li>Carga preguiçosa: o catálogo é lido do banco na primeira consulta</li>
+ *     <li>Escritas feitas fora dos services (outro processo, SQL manual) são absorvidas
+ *     na reconstrução seguinte, feita em segundo plano quando o catálogo passa de
+ *     {@code catalog.snapshot.max.age.millis} sem ser conferido com o banco</li>
+ *     <li>Escritas recebidas durante uma reconstrução são reaplicadas sobre o resultado
+ *     dela, na ordem</li>
+ *     <li>Custo das reconstruções e defasagem expostos em {@link #metrics()}</li>
+ * </ul>
+ *
+ * @author João Pedro
+ */
+
+public class ProductCatalog {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private static final int DEFAULT_MAX_AGE_MILLIS = 60_000;
+
+    //=============== Dependências ===============
+
+    private final ProductStore productStore;
+    private final long maxAgeMillis;
+
+    //=============== Estado ===============
+
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long rebuiltAtMillis;
+    private volatile long nextRefreshMillis;
+
+    //Protegido pelo monitor da instância; não null durante uma reconstrução
+    private List<UnaryOperator<CatalogSnapshot>> pending;
+
+    //Métricas
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong lastRebuildNanos = new AtomicLong();
+    private final AtomicLong totalRebuildNanos = new AtomicLong();
+    private final AtomicLong incrementalUpdates = new AtomicLong();
+    private final AtomicLong totalIncrementalNanos = new AtomicLong();
+
+    //=============== Construtores ===============
+
+    public ProductCatalog(ProductStore productStore) {
+        this(productStore, Config.getInt("catalog.snapshot.max.age.millis", DEFAULT_MAX_AGE_MILLIS));
+    }
+
+    /**
+     * @param productStore armazenamento de onde o catálogo é lido
+     * @param maxAgeMillis tempo sem conferir com o banco a partir do qual uma consulta dispara
+     *                     a reconstrução em segundo plano; negativo desliga
+     * @throws IllegalArgumentException se o armazenamento for null
+     */
+    public ProductCatalog(ProductStore productStore, long maxAgeMillis) {
+        if(productStore == null) throw new IllegalArgumentException("ProductStore não pode ser null");
+        this.productStore = productStore;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    //=============== Leitura ===============
+
+    /**
+     * @return versão corrente do catálogo; a primeira chamada o carrega do banco
+     * @throws com.io.github.pedroolivsz.repository.RepositoryException se a primeira carga falhar
+     */
+    public CatalogSnapshot snapshot() {
+        CatalogSnapshot snapshot = current.get();
+        if(snapshot == null) return load();
+
+        if(maxAgeMillis >= 0 && System.currentTimeMillis() > nextRefreshMillis) refreshInBackground();
+        return snapshot;
+    }
+
+    /**
+     * @return métricas de reconstrução, atualização e defasagem
+     */
+    public CatalogMetrics metrics() {
+        CatalogSnapshot snapshot = current.get();
+        return new CatalogMetrics(
+                snapshot != null ? snapshot.getVersion() : 0,
+                snapshot != null ? snapshot.size() : 0,
+                rebuilds.get(),
+                Duration.ofNanos(lastRebuildNanos.get()),
+                Duration.ofNanos(totalRebuildNanos.get()),
+                incrementalUpdates.get(),
+                Duration.ofNanos(totalIncrementalNanos.get()),
+                snapshot != null ? Duration.ofMillis(System.currentTimeMillis() - rebuiltAtMillis) : Duration.ZERO);
+    }
+
+    //=============== Escrita ===============
+
+    /**
+     * Publica o estado atual de um produto criado ou alterado.
+     *
+     * @param product produto como gravado; uma cópia somente leitura é guardada
+     */
+    public void put(Product product) {
+        Product copy = CatalogSnapshot.readOnly(product);
+        update(snapshot -> snapshot.with(copy));
+    }
+
+    public void putAll(Collection<Product> products) {
+        List<Product> copies = products.stream().map(CatalogSnapshot::readOnly).toList();
+        update(snapshot -> {
+            for(Product copy : copies) snapshot = snapshot.with(copy);
+            return snapshot;
+        });
+    }
+
+    public void remove(int id) {
+        update(snapshot -> snapshot.without(id));
+    }
+
+    /**
+     * Reconstrói o catálogo a partir do banco, se já tiver sido carregado. Usado depois de
+     * escritas que alteram muitos produtos de uma vez.
+     */
+    public void refresh() {
+        if(current.get() != null) rebuild();
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private CatalogSnapshot load() {
+        rebuildLock.lock();
+        try {
+            CatalogSnapshot snapshot = current.get();
+            return snapshot != null ? snapshot : rebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private CatalogSnapshot rebuild() {
+        rebuildLock.lock();
+        try {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+
+            long started = System.nanoTime();
+            long startedMillis = System.currentTimeMillis();
+            List<Product> products;
+            try {
+                products = productStore.listAll();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+
+            CatalogSnapshot rebuilt;
+            synchronized (this) {
+                CatalogSnapshot previous = current.get();
+                rebuilt = CatalogSnapshot.of(previous != null ? previous.getVersion() + 1 : 1, products);
+                for(UnaryOperator<CatalogSnapshot> change : pending) rebuilt = change.apply(rebuilt);
+                pending = null;
+
+                rebuiltAtMillis = startedMillis;
+                nextRefreshMillis = startedMillis + maxAgeMillis;
+                current.set(rebuilt);
+            }
+
+            long elapsed = System.nanoTime() - started;
+            rebuilds.incrementAndGet();
+            lastRebuildNanos.set(elapsed);
+            totalRebuildNanos.addAndGet(elapsed);
+            logger.debug("Catálogo reconstruído. Versão: {}, produtos: {}, tempo: {} ms",
+                    rebuilt.getVersion(), rebuilt.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+            return rebuilt;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void refreshInBackground() {
+        if(!refreshing.compareAndSet(false, true)) return;
+
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                //Mantém a versão atual; a próxima tentativa espera outro intervalo completo
+                nextRefreshMillis = System.currentTimeMillis() + maxAgeMillis;
+                logger.warn("Não foi possível reconstruir o catálogo; mantendo a versão {}", current.get().getVersion(), e);
+            } finally {
+                refreshing.set(false);
+            }
+        }, "catalog-refresh");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private synchronized void update(UnaryOperator<CatalogSnapshot> change) {
+        if(pending != null) pending.add(change);
+
+        CatalogSnapshot snapshot = current.get();
+        if(snapshot == null) return;
+
+        long started = System.nanoTime();
+        current.set(change.apply(snapshot));
+        incrementalUpdates.incrementAndGet();
+        totalIncrementalNanos.addAndGet(System.nanoTime() - started);
+    }
+}
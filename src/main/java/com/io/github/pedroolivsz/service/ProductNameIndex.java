@@ -0,0 +1,134 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.repository.ProductStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conjunto em memória dos nomes normalizados do catálogo, consultado antes de gravar um
+ * produto para evitar a ida ao banco na verificação de nomes duplicados.
+ *
+ * <p>A unicidade é garantida pelo índice único do banco; este índice só antecipa a
+ * resposta. Um nome ausente do conjunto segue direto para a escrita, e um nome presente
+ * é confirmado no banco com uma busca pelo índice, já que o conjunto pode estar
+ * desatualizado em relação a outras instâncias que escrevem no mesmo arquivo.</p>
+ *
+ * <p>Catálogos com mais nomes que {@code product.names.bloom.threshold} usam um filtro de
+ * Bloom no lugar do conjunto exato, trocando falsos positivos ocasionais (resolvidos na
+ * confirmação) por memória constante por nome.</p>
+ *
+ * @author João Pedro
+ */
+
+public class ProductNameIndex {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductNameIndex.class);
+
+    private static final int DEFAULT_BLOOM_THRESHOLD = 500_000;
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+
+    //=============== Dependências ===============
+
+    private final ProductStore productStore;
+    private final int bloomThreshold;
+
+    //=============== Estado ===============
+
+    //Carregados no primeiro uso; exatamente um dos dois fica preenchido
+    private volatile boolean loaded;
+    private Set<String> names;
+    private BloomFilter bloomFilter;
+
+    //=============== Construtores ===============
+
+    public ProductNameIndex(ProductStore productStore) {
+        this(productStore, Config.getInt("product.names.bloom.threshold", DEFAULT_BLOOM_THRESHOLD));
+    }
+
+    /**
+     * @param productStore repository usado para carregar os nomes
+     * @param bloomThreshold quantidade de nomes a partir da qual o filtro de Bloom é usado
+     * @throws IllegalArgumentException se o repository for null ou o limite for negativo
+     */
+    public ProductNameIndex(ProductStore productStore, int bloomThreshold) {
+        if(productStore == null) throw new IllegalArgumentException("ProductStore não pode ser null");
+        if(bloomThreshold < 0) throw new IllegalArgumentException("Limite do filtro de Bloom não pode ser negativo");
+        this.productStore = productStore;
+        this.bloomThreshold = bloomThreshold;
+    }
+
+    //=============== Operações ===============
+
+    /**
+     * Normaliza um nome de produto da mesma forma que o índice único do banco
+     * ({@code LOWER(TRIM(nome))}) para nomes gravados pelo service.
+     *
+     * @param name nome informado
+     * @return nome sem espaços nas bordas e em minúsculas
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param normalizedName nome já normalizado
+     * @return false se nenhum produto usa o nome; true se o nome possivelmente está em uso
+     */
+    public boolean mightContain(String normalizedName) {
+        ensureLoaded();
+        return names != null ? names.contains(normalizedName) : bloomFilter.mightContain(normalizedName);
+    }
+
+    public void add(String normalizedName) {
+        ensureLoaded();
+        if(names != null) names.add(normalizedName);
+        else bloomFilter.add(normalizedName);
+    }
+
+    /**
+     * Remove um nome do conjunto exato. No filtro de Bloom a remoção não é possível e o
+     * nome passa a gerar apenas uma confirmação a mais no banco.
+     */
+    public void remove(String normalizedName) {
+        ensureLoaded();
+        if(names != null) names.remove(normalizedName);
+    }
+
+    public boolean usesBloomFilter() {
+        ensureLoaded();
+        return bloomFilter != null;
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void ensureLoaded() {
+        if(loaded) return;
+
+        synchronized(this) {
+            if(loaded) return;
+
+            long start = System.nanoTime();
+            List<String> stored = productStore.listNormalizedNames();
+
+            if(stored.size() > bloomThreshold) {
+                //Espaço para o catálogo dobrar antes de a taxa de falso positivo subir
+                bloomFilter = new BloomFilter(stored.size() * 2, BLOOM_FALSE_POSITIVE_RATE);
+                stored.forEach(bloomFilter::add);
+            } else {
+                names = ConcurrentHashMap.newKeySet(Math.max(16, stored.size() * 2));
+                names.addAll(stored);
+            }
+            loaded = true;
+
+            logger.info("Índice de nomes carregado. Nomes: {}, filtro de Bloom: {}, tempo: {} ms",
+                    stored.size(), bloomFilter != null, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
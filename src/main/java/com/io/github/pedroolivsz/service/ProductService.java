@@ -1,13 +1,32 @@
 package com.io.github.pedroolivsz.service;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.UnaryOperator;
 
+import com.io.github.pedroolivsz.dominio.CatalogMetrics;
+import com.io.github.pedroolivsz.dominio.PriceAdjustment;
+import com.io.github.pedroolivsz.dominio.PriceChange;
 import com.io.github.pedroolivsz.dominio.Product;
-import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.dominio.ProductFilter;
+import com.io.github.pedroolivsz.dominio.ProductSuggestion;
+import com.io.github.pedroolivsz.dominio.ReceivingLine;
+import com.io.github.pedroolivsz.dominio.ReceivingResult;
+import com.io.github.pedroolivsz.dominio.ReorderSuggestion;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.logs.Span;
+import com.io.github.pedroolivsz.logs.Trace;
+import com.io.github.pedroolivsz.repository.DuplicateProductNameException;
+import com.io.github.pedroolivsz.repository.OptimisticLockException;
+import com.io.github.pedroolivsz.repository.ProductStore;
 import com.io.github.pedroolivsz.repository.RepositoryException;
+import com.io.github.pedroolivsz.validation.DuplicateProductException;
 import com.io.github.pedroolivsz.validation.ProductException;
+import com.io.github.pedroolivsz.validation.ProductNotFoundException;
 import com.io.github.pedroolivsz.validation.ProductValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,23 +58,73 @@ public class ProductService {
     private static final String ERROR_INSUFFICIENT_STOCK = "Estoque insuficiente. Disponivel: %d, solicitado: %d";
     private static final String ERROR_INVALID_QUANTITY = "Quantidade deve ser maior que zero";
     private static final String ERROR_INVALID_PRICE = "Preço deve ser maior que zero";
+    private static final String ERROR_INVALID_MINIMUM_STOCK = "Estoque mínimo não pode ser negativo";
+    private static final String ERROR_EMPTY_RECEIVING = "Recebimento deve ter ao menos uma linha";
+
+    //Tentativas de uma escrita que encontrou o produto alterado por outra operação
+    private static final int MAX_CONFLICT_ATTEMPTS = 5;
+    private static final long CONFLICT_BACKOFF_MILLIS = 1;
 
     //=============== Dependências ===============
 
-    private final ProductRepository productRepository;
+    private final ProductStore productStore;
+    private final LowStockMonitor lowStockMonitor;
+    private final StockJournal stockJournal;
+    private final ProductNameIndex nameIndex;
+    private final ProductAutocomplete autocomplete;
+    private final ProductCatalog catalog;
+    private final IdempotencyKeys idempotencyKeys;
+    private final SalesVelocityTracker salesVelocity;
 
     //=============== Construtor ===============
 
     /**
-     * Construtor com injeção de dependẽncias
+     * Construtor com as dependências padrão: monitor, autocompletar, catálogo e chaves de
+     * idempotência próprios, sem journal de escrita, e a {@link SalesVelocityTracker#shared()
+     * velocidade de vendas compartilhada da loja}.
      *
-     * @param productRepository repository de produtos
+     * @param productStore armazenamento de produtos
      * @throws IllegalArgumentException se o repository for null
      */
 
-    public ProductService(ProductRepository productRepository) {
-        if(productRepository == null) throw new IllegalArgumentException("ProdutoRepository não pode ser null");
-        this.productRepository = productRepository;
+    public ProductService(ProductStore productStore) {
+        this(productStore, new LowStockMonitor(), null,
+                productStore == null ? null : new ProductAutocomplete(productStore),
+                productStore == null ? null : new ProductCatalog(productStore),
+                new IdempotencyKeys(), SalesVelocityTracker.shared());
+    }
+
+    /**
+     * Construtor com injeção de dependẽncias
+     *
+     * @param productStore armazenamento de produtos
+     * @param lowStockMonitor monitor de estoque mínimo
+     * @param stockJournal journal de escrita para as movimentações de estoque (opcional, pode ser null)
+     * @param autocomplete índice de autocompletar, mantido a cada criação, renomeação e exclusão
+     * @param catalog catálogo publicado para {@link #listAll()}; deve ser o mesmo usado pelo
+     *                {@link OrderTabService}, para que as baixas do fechamento apareçam nele
+     * @param idempotencyKeys chaves das escritas repetidas pelos terminais
+     * @param salesVelocity velocidade de vendas alimentada pelas baixas de estoque; deve ser a
+     *                      mesma do {@link OrderTabService}
+     * @throws IllegalArgumentException se alguma dependência obrigatória for null
+     */
+    public ProductService(ProductStore productStore, LowStockMonitor lowStockMonitor, StockJournal stockJournal,
+                          ProductAutocomplete autocomplete, ProductCatalog catalog, IdempotencyKeys idempotencyKeys,
+                          SalesVelocityTracker salesVelocity) {
+        if(productStore == null) throw new IllegalArgumentException("ProductStore não pode ser null");
+        if(lowStockMonitor == null) throw new IllegalArgumentException("LowStockMonitor não pode ser null");
+        if(autocomplete == null) throw new IllegalArgumentException("ProductAutocomplete não pode ser null");
+        if(catalog == null) throw new IllegalArgumentException("ProductCatalog não pode ser null");
+        if(idempotencyKeys == null) throw new IllegalArgumentException("IdempotencyKeys não pode ser null");
+        if(salesVelocity == null) throw new IllegalArgumentException("SalesVelocityTracker não pode ser null");
+        this.productStore = productStore;
+        this.lowStockMonitor = lowStockMonitor;
+        this.stockJournal = stockJournal;
+        this.nameIndex = new ProductNameIndex(productStore);
+        this.autocomplete = autocomplete;
+        this.catalog = catalog;
+        this.idempotencyKeys = idempotencyKeys;
+        this.salesVelocity = salesVelocity;
     }
 
     //=============== Métodos CRUD ===============
@@ -67,6 +136,7 @@ public class ProductService {
      * @param quantity quantidade inicial
      * @param unitValue valor unitário
      * @return produto com ID gerado
+     * @throws DuplicateProductException se já existir um produto com o mesmo nome normalizado
      * @throws ProductException se houver erro de validação ou regra de negócio
      * @throws ServiceException se houver erro na operação
      */
@@ -75,14 +145,15 @@ public class ProductService {
 
         try {
             //Validação básica
-            Product product = new Product(name.toLowerCase(), quantity, unitValue);
-            ProductValidator.validateProduct(product);
-
-            //Regras de negócio adicionais
-            validateBusinessRules(product);
+            Product product = new Product(ProductNameIndex.normalize(name), quantity, unitValue);
+            validate(product);
+            ensureNameAvailable(product.getName(), null);
 
             //Persistência
-            Product created = productRepository.create(product);
+            Product created = productStore.create(product);
+            nameIndex.add(created.getName());
+            autocomplete.put(created.getId(), created.getName());
+            catalog.put(created);
 
             logger.info("Produto criado com sucesso. ID: {}, nome: '{}'", created.getId(), created.getName());
 
@@ -90,6 +161,8 @@ public class ProductService {
         } catch (ProductException | IllegalArgumentException e) {
             logger.error("Erro de validação ao criar o produto: {}", e.getMessage());
             throw e;
+        } catch (DuplicateProductNameException e) {
+            throw duplicateName(e);
         } catch (RepositoryException e) {
             logger.error("Erro ao persistir produto no banco de dados", e);
             throw new ServiceException("Erro ao criar produto. Tente novamente.", e);
@@ -99,6 +172,26 @@ public class ProductService {
         }
     }
 
+    /**
+     * Cria um novo produto uma única vez por chave de idempotência: repetida com a mesma
+     * chave, devolve o produto criado na primeira vez.
+     *
+     * @param idempotencyKey chave informada pelo terminal; null cria sem idempotência
+     * @param name nome do produto
+     * @param quantity quantidade inicial
+     * @param unitValue valor unitário
+     * @return produto com ID gerado
+     * @throws DuplicateProductException se já existir um produto com o mesmo nome normalizado
+     * @throws ProductException se houver erro de validação ou regra de negócio
+     * @throws ServiceException se houver erro na operação ou a chave já foi usada em outra operação
+     */
+    public Product create(String idempotencyKey, String name, int quantity, BigDecimal unitValue) {
+        String operation = "create:" + (name == null ? null : ProductNameIndex.normalize(name)) + ":" + quantity + ":"
+                + (unitValue == null ? null : unitValue.toPlainString());
+        return idempotencyKeys.execute(idempotencyKey, operation,
+                () -> create(name, quantity, unitValue), ProductService::encode, ProductService::decode);
+    }
+
     /**
      * Cria um produto dentro de uma transação.
      *
@@ -106,22 +199,30 @@ public class ProductService {
      * @param quantity quantidade inicial
      * @param unitValue valor unitário
      * @return produto com o ID gerado
+     * @throws DuplicateProductException se já existir um produto com o mesmo nome normalizado
      * @throws ServiceException se houver erro na operação
      */
     public Product createWithTransaction(String name, int quantity, BigDecimal unitValue) {
         logger.info("Iniciando criação de produto (transação): '{}'", name);
 
         try {
-            Product product = new Product(name.toLowerCase(), quantity, unitValue);
-            ProductValidator.validateProduct(product);
+            Product product = new Product(ProductNameIndex.normalize(name), quantity, unitValue);
+            validate(product);
+            ensureNameAvailable(product.getName(), null);
 
-            validateBusinessRules(product);
-
-            Product created = productRepository.createWithTransaction(product);
+            Product created = productStore.createWithTransaction(product);
+            nameIndex.add(created.getName());
+            autocomplete.put(created.getId(), created.getName());
+            catalog.put(created);
 
             logger.info("Produto criado com transação. ID: {}, nome: '{}'", created.getId(), created.getName());
 
             return created;
+        } catch (DuplicateProductException e) {
+            logger.error("Erro de validação ao criar o produto: {}", e.getMessage());
+            throw e;
+        } catch (DuplicateProductNameException e) {
+            throw duplicateName(e);
         } catch (Exception e) {
             logger.error("Erro ao criar produto com transação", e);
             throw new ServiceException("Erro ao criar produto com transação", e);
@@ -129,7 +230,7 @@ public class ProductService {
     }
 
     /**
-     * Atualiza um produto existente.
+     * Atualiza um produto existente a partir do estado atual no banco.
      *
      * @param id ID do produto
      * @param nome novo nome
@@ -137,20 +238,68 @@ public class ProductService {
      * @param valorUnitario novo valor unitário
      * @return produto atualizado
      * @throws ProductException se o produto não existir ou houver erro na validação
+     * @throws OptimisticLockException se outra operação alterar nome, valor ou estoque mínimo durante a escrita
      * @throws ServiceException se houver erro na operação
      */
     public Product update(int id, String nome, int quantidade, BigDecimal valorUnitario) {
+        return updateFromVersion(id, nome, quantidade, valorUnitario, null);
+    }
+
+    /**
+     * Atualiza um produto existente, desde que ele ainda esteja na versão lida pelo chamador.
+     *
+     * <p>Se, entre a leitura e a escrita, o produto receber apenas movimentações de estoque,
+     * a alteração de quantidade pedida é aplicada como diferença sobre a quantidade mais
+     * recente, em vez de descartar as movimentações. Alterações concorrentes de nome, valor
+     * ou estoque mínimo não são mescladas e resultam em conflito.</p>
+     *
+     * @param id ID do produto
+     * @param nome novo nome
+     * @param quantidade nova quantidade
+     * @param valorUnitario novo valor unitário
+     * @param expectedVersion versão lida pelo chamador
+     * @return produto atualizado
+     * @throws ProductException se o produto não existir ou houver erro na validação
+     * @throws OptimisticLockException se o produto estiver em outra versão
+     * @throws ServiceException se houver erro na operação
+     */
+    public Product update(int id, String nome, int quantidade, BigDecimal valorUnitario, int expectedVersion) {
+        return updateFromVersion(id, nome, quantidade, valorUnitario, expectedVersion);
+    }
+
+    private Product updateFromVersion(int id, String nome, int quantidade, BigDecimal valorUnitario, Integer expectedVersion) {
         logger.info("Iniciando atualização do produto ID: {}", id);
 
         try {
             Product existing = ensureExists(id);
             logger.debug("Produto encontrado para atualização: {}", existing.getId());
 
-            Product product = new Product(id, nome.toLowerCase(), quantidade, valorUnitario);
-            ProductValidator.validateProduct(product);
-            validateBusinessRules(product);
+            if(expectedVersion != null && existing.getVersion() != expectedVersion) {
+                throw new OptimisticLockException(id, expectedVersion, existing.getVersion());
+            }
 
-            Product updated = productRepository.update(product);
+            String normalizedName = ProductNameIndex.normalize(nome);
+            if(!normalizedName.equals(existing.getName())) ensureNameAvailable(normalizedName, id);
+
+            int quantityDelta = quantidade - existing.getQuantity();
+            Product updated = updateWithRetry(existing, current -> {
+                if(!sameDescriptiveFields(existing, current)) {
+                    throw new OptimisticLockException(id, existing.getVersion(), current.getVersion());
+                }
+
+                Product product = new Product(id, normalizedName, current.getQuantity() + quantityDelta, valorUnitario);
+                product.setMinimumStock(current.getMinimumStock());
+                product.setVersion(current.getVersion());
+                validate(product);
+                return product;
+            });
+            catalog.put(updated);
+            lowStockMonitor.evaluate(updated);
+            if(!updated.getName().equals(existing.getName())) {
+                nameIndex.remove(existing.getName());
+                nameIndex.add(updated.getName());
+                autocomplete.put(id, updated.getName());
+            }
 
             logger.info("Produto atualizado com sucesso. ID: {}, Antigo: '{}', Novo: '{}'",
                     updated.getId(), existing.getName(), updated.getName());
@@ -159,6 +308,11 @@ public class ProductService {
         } catch (ProductException | IllegalArgumentException e) {
             logger.error("Erro de validação ao atualizar produto ID {}: {}", id, e.getMessage());
             throw e;
+        } catch (OptimisticLockException e) {
+            logger.warn("Conflito ao atualizar produto ID {}: {}", id, e.getMessage());
+            throw e;
+        } catch (DuplicateProductNameException e) {
+            throw duplicateName(e);
         } catch (RepositoryException e) {
             logger.error("Erro ao atualizar produto ID {} no banco de dados", id, e);
             throw new ServiceException("Erro ao atualizar produto", e);
@@ -177,16 +331,59 @@ public class ProductService {
      * @throws ServiceException se houver erro na operação
      */
     public Product partialUpdate(int id, Map<String, Object> updates) {
+        return partialUpdateFromVersion(id, updates, null);
+    }
+
+    /**
+     * Atualiza parcialmente um produto se ele ainda estiver na versão lida pelo chamador.
+     *
+     * @param id ID do produto
+     * @param updates mapa com os campos a atualizar
+     * @param expectedVersion versão do produto quando foi lido para edição
+     * @return produto atualizado
+     * @throws OptimisticLockException se o produto estiver em outra versão
+     * @throws ServiceException se houver erro na operação
+     */
+    public Product partialUpdate(int id, Map<String, Object> updates, int expectedVersion) {
+        return partialUpdateFromVersion(id, updates, expectedVersion);
+    }
+
+    private Product partialUpdateFromVersion(int id, Map<String, Object> updates, Integer expectedVersion) {
         logger.info("Iniciando atualização parcial do produto ID: {} - campos: {}", id, updates.keySet());
 
         try {
-            ensureExists(id);
+            Product existing = ensureExists(id);
             validatePartialUpdate(updates);
 
-            Product updated = productRepository.partialUpdate(id, updates);
+            //O índice único do banco compara com LOWER, que só conhece ASCII: o nome é
+            //normalizado e conferido aqui, como na edição completa
+            Map<String, Object> changes = updates;
+            if(updates.containsKey("nome")) {
+                String normalizedName = ProductNameIndex.normalize((String) updates.get("nome"));
+                if(!normalizedName.equals(existing.getName())) ensureNameAvailable(normalizedName, id);
+                changes = new LinkedHashMap<>(updates);
+                changes.put("nome", normalizedName);
+            }
+
+            Product updated = productStore.partialUpdate(id, changes, expectedVersion);
+            catalog.put(updated);
+            lowStockMonitor.evaluate(updated);
+            if(!updated.getName().equals(existing.getName())) {
+                nameIndex.remove(existing.getName());
+                nameIndex.add(updated.getName());
+                autocomplete.put(id, updated.getName());
+            }
             logger.info("Produto ID {} atualizado parcialmente com sucesso", id);
 
             return updated;
+        } catch (ProductException | IllegalArgumentException e) {
+            logger.error("Erro de validação ao atualizar parcialmente o produto ID {}: {}", id, e.getMessage());
+            throw e;
+        } catch (OptimisticLockException e) {
+            logger.warn("Conflito ao atualizar parcialmente o produto ID {}: {}", id, e.getMessage());
+            throw e;
+        } catch (DuplicateProductNameException e) {
+            throw duplicateName(e);
         } catch (Exception e) {
             logger.error("Erro ao atualizar parcialmente o produto ID: {}", id, e);
             throw new ServiceException("Erro na atualização parcial", e);
@@ -208,7 +405,12 @@ public class ProductService {
             //Regras de negócio antes de deletar
             validateBusinessRules(existing);
 
-            productRepository.delete(id);
+            productStore.delete(id);
+            catalog.remove(id);
+            lowStockMonitor.forget(id);
+            salesVelocity.forget(id);
+            nameIndex.remove(existing.getName());
+            autocomplete.remove(id);
 
             logger.info("Produto deletado com sucesso. ID: {}, nome = '{}'", id, existing.getName());
         } catch (ProductException e) {
@@ -226,25 +428,69 @@ public class ProductService {
     //=============== Métodos de consulta ===============
 
     /**
-     * Lista todos os produtos.
+     * Lista todos os produtos a partir do catálogo publicado, sem consultar o banco.
      *
-     * @return Lista imutável de produtos
+     * <p>A lista e os produtos dela são compartilhados entre as chamadas e são somente
+     * leitura: os setters dos produtos lançam {@link UnsupportedOperationException}. Para
+     * editar um produto, altere uma cópia.</p>
+     *
+     * @return Lista imutável de produtos somente leitura, em ordem de ID
      * @throws ServiceException se houver erro na operação
      */
     public List<Product> listAll() {
         logger.debug("Listando todos os produtos");
 
         try {
-            List<Product> products = productRepository.listAll();
-            logger.debug("Total de produtos encontrados: {}", products.size());
+            CatalogSnapshot snapshot = catalog.snapshot();
+            logger.debug("Total de produtos encontrados: {}, versão do catálogo: {}", snapshot.size(), snapshot.getVersion());
 
-            return List.copyOf(products);
+            return snapshot.getProducts();
         } catch (RepositoryException e) {
             logger.error("Erro ao listar produtos", e);
             throw new ServiceException("Erro ao listar produtos", e);
         }
     }
 
+    /**
+     * @return versão, custo de reconstrução e defasagem do catálogo usado por {@link #listAll()}
+     */
+    public CatalogMetrics catalogMetrics() {
+        return catalog.metrics();
+    }
+
+    /**
+     * Sugere produtos cujo nome começa com o prefixo digitado, a partir do índice em memória.
+     *
+     * @param prefix prefixo digitado
+     * @param limit quantidade máxima de sugestões
+     * @return sugestões em ordem alfabética; vazia enquanto o índice estiver em carga
+     * @throws ProductException se o prefixo ou o limite forem inválidos
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        try {
+            return autocomplete.suggest(prefix, limit);
+        } catch (IllegalArgumentException e) {
+            throw new ProductException(e.getMessage());
+        }
+    }
+
+    /**
+     * Sugere reposições pela velocidade de vendas, sem consultar o histórico: os produtos do
+     * catálogo são ordenados pelos dias de estoque que a quantidade atual ainda cobre.
+     *
+     * @param limit quantidade máxima de sugestões
+     * @return sugestões, do produto que acaba primeiro para o que acaba por último
+     * @throws ProductException se o limite for inválido
+     * @throws ServiceException se houver erro na operação
+     */
+    public List<ReorderSuggestion> reorderSuggestions(int limit) {
+        try {
+            return salesVelocity.suggest(listAll(), limit);
+        } catch (IllegalArgumentException e) {
+            throw new ProductException(e.getMessage());
+        }
+    }
+
     /**
      * Busca um produto por ID.
      *
@@ -282,14 +528,13 @@ public class ProductService {
         }
 
         try {
-            Product product = ensureExists(id);
-            int newQuantity = product.getQuantity() + quantity;
-
-            product.setQuantity(newQuantity);
-            Product updated = productRepository.update(product);
+            Product updated = applyStockMovement(new StockMovement(id, quantity, StockMovement.Reason.RECEIVING))
+                    .orElseGet(() -> ensureExists(id));
+            catalog.put(updated);
+            lowStockMonitor.evaluate(updated);
 
             logger.info("Estoque atualizado. ID: {}, Nova quantidade: {}, Quantidade anterior: {}",
-                    id, newQuantity, product.getQuantity() - quantity);
+                    id, updated.getQuantity(), updated.getQuantity() - quantity);
 
             return updated;
         } catch (Exception e) {
@@ -298,6 +543,59 @@ public class ProductService {
         }
     }
 
+    /**
+     * Adiciona quantidade ao estoque uma única vez por chave de idempotência.
+     *
+     * @param idempotencyKey chave informada pelo terminal; null executa sem idempotência
+     * @param id ID do produto
+     * @param quantity quantidade a adicionar
+     * @return produto atualizado, o da primeira execução em caso de repetição
+     * @throws ServiceException se houver erro na operação ou a chave já foi usada em outra operação
+     */
+    public Product addStock(String idempotencyKey, int id, int quantity) {
+        return idempotencyKeys.execute(idempotencyKey, "addStock:" + id + ":" + quantity,
+                () -> addStock(id, quantity), ProductService::encode, ProductService::decode);
+    }
+
+    /**
+     * Registra o recebimento de uma nota de entrega de fornecedor.
+     *
+     * <p>Todas as linhas válidas são aplicadas juntas, em uma única transação; linhas com
+     * produto inexistente ou quantidade inválida são apenas reportadas no resultado.</p>
+     *
+     * @param lines linhas da nota (produto e quantidade)
+     * @return resultado de cada linha, na ordem informada
+     * @throws ProductException se a nota estiver vazia
+     * @throws ServiceException se houver erro na operação
+     */
+    public List<ReceivingResult> receive(List<ReceivingLine> lines) {
+        if(lines == null || lines.isEmpty()) {
+            throw new ProductException(ERROR_EMPTY_RECEIVING);
+        }
+
+        logger.info("Registrando recebimento com {} linhas", lines.size());
+
+        try {
+            List<ReceivingResult> results = productStore.receive(lines);
+
+            //Avalia cada produto uma única vez, no estado após a última linha dele
+            Map<Integer, Product> received = new LinkedHashMap<>();
+            for(ReceivingResult result : results) {
+                if(result.isReceived()) received.put(result.getProduct().getId(), result.getProduct());
+                else logger.warn("Linha de recebimento não aplicada. {}", result);
+            }
+            catalog.putAll(received.values());
+            received.values().forEach(lowStockMonitor::evaluate);
+
+            logger.info("Recebimento registrado. Produtos atualizados: {}", received.size());
+
+            return results;
+        } catch (RepositoryException e) {
+            logger.error("Erro ao registrar recebimento", e);
+            throw new ServiceException("Erro ao registrar recebimento", e);
+        }
+    }
+
     /**
      * Remove quantidade do estoque de um produto.
      *
@@ -315,22 +613,26 @@ public class ProductService {
         }
 
         try {
-            Product product = ensureExists(id);
+            //O decremento só é aplicado se houver estoque; a releitura ocorre apenas na falha
+            Optional<Product> applied = applyStockMovement(new StockMovement(id, -quantity, StockMovement.Reason.REMOVAL));
 
-            if(product.getQuantity() < quantity) {
+            if(applied.isEmpty()) {
+                Product product = stockJournal != null
+                        ? stockJournal.project(id).orElseGet(() -> ensureExists(id))
+                        : ensureExists(id);
                 String error = String.format(ERROR_INSUFFICIENT_STOCK, product.getQuantity(), quantity);
 
                 logger.warn(error);
                 throw new ProductException(error);
             }
 
-            int newQuantity = product.getQuantity() - quantity;
-            product.setQuantity(newQuantity);
-
-            Product updated = productRepository.update(product);
+            Product updated = applied.get();
+            catalog.put(updated);
+            lowStockMonitor.evaluate(updated);
+            salesVelocity.record(id, quantity);
 
             logger.info("Estoque reduzido. ID: {}, Quantidade anterior: {}, Nova quantidade: {}",
-                    id, product.getQuantity() - quantity, newQuantity);
+                    id, updated.getQuantity() + quantity, updated.getQuantity());
 
             return updated;
         } catch (ProductException e) {
@@ -341,6 +643,23 @@ public class ProductService {
         }
     }
 
+    /**
+     * Remove quantidade do estoque uma única vez por chave de idempotência: um terminal que
+     * repete a baixa depois de um tempo esgotado recebe o resultado da primeira, sem baixar
+     * de novo.
+     *
+     * @param idempotencyKey chave informada pelo terminal; null executa sem idempotência
+     * @param id ID do produto
+     * @param quantity quantidade a remover
+     * @return produto atualizado, o da primeira execução em caso de repetição
+     * @throws ProductException se não houver estoque suficiente
+     * @throws ServiceException se houver erro na operação ou a chave já foi usada em outra operação
+     */
+    public Product removeStock(String idempotencyKey, int id, int quantity) {
+        return idempotencyKeys.execute(idempotencyKey, "removeStock:" + id + ":" + quantity,
+                () -> removeStock(id, quantity), ProductService::encode, ProductService::decode);
+    }
+
     /**
      * Atualiza o preco de um produto em estoque.
      *
@@ -360,39 +679,295 @@ public class ProductService {
             Product product = ensureExists(id);
             BigDecimal oldPrice = product.getUnitValue();
 
-            product.setUnitValue(newPrice);
-            Product updated = productRepository.update(product);
+            Product updated = updateWithRetry(product, current -> {
+                current.setUnitValue(newPrice);
+                return current;
+            });
+            catalog.put(updated);
 
             logger.info("Preço atualizado. ID: {}, Preço anterior: {}, Novo preço: {}",
-                    id, product.getUnitValue(), oldPrice);
+                    id, oldPrice, updated.getUnitValue());
 
             return updated;
+        } catch (OptimisticLockException e) {
+            logger.warn("Conflito ao atualizar o preço do produto ID {}: {}", id, e.getMessage());
+            throw e;
         } catch (Exception e) {
             logger.error("Erro ao atualizar o preço do produto ID {}", id, e);
             throw new ServiceException("Erro ao atualizar preço", e);
         }
     }
 
+    /**
+     * Reajusta o preço de um conjunto de produtos em uma única transação.
+     *
+     * @param filter seleção dos produtos
+     * @param adjustment percentual, valor fixo ou lista explícita de preços
+     * @return alterações aplicadas, uma por produto
+     * @throws ProductException se o reajuste for inválido ou deixar algum preço negativo
+     * @throws ServiceException se houver erro na operação
+     */
+    public List<PriceChange> reprice(ProductFilter filter, PriceAdjustment adjustment) {
+        return reprice(filter, adjustment, false);
+    }
+
+    /**
+     * Calcula o resultado de um reajuste de preços sem gravá-lo.
+     *
+     * @param filter seleção dos produtos
+     * @param adjustment percentual, valor fixo ou lista explícita de preços
+     * @return alterações que seriam aplicadas, uma por produto
+     * @throws ProductException se o reajuste for inválido ou deixar algum preço negativo
+     * @throws ServiceException se houver erro na operação
+     */
+    public List<PriceChange> previewReprice(ProductFilter filter, PriceAdjustment adjustment) {
+        return reprice(filter, adjustment, true);
+    }
+
+    private List<PriceChange> reprice(ProductFilter filter, PriceAdjustment adjustment, boolean preview) {
+        logger.info("{} de reajuste de preços. {} | {}", preview ? "Prévia" : "Aplicação", adjustment, filter);
+
+        try {
+            List<PriceChange> changes = productStore.reprice(filter, adjustment, preview);
+            //O reajuste não devolve os produtos gravados; o catálogo é relido uma vez
+            if(!preview && !changes.isEmpty()) catalog.refresh();
+            logger.info("Reajuste de preços {}. Produtos afetados: {}", preview ? "calculado" : "aplicado", changes.size());
+
+            return changes;
+        } catch (IllegalArgumentException e) {
+            logger.error("Reajuste de preços inválido: {}", e.getMessage());
+            throw new ProductException(e.getMessage());
+        } catch (RepositoryException e) {
+            logger.error("Erro ao reajustar preços", e);
+            throw new ServiceException("Erro ao reajustar preços", e);
+        }
+    }
+
+    /**
+     * Define o estoque mínimo de um produto, usado para os alertas de reposição.
+     *
+     * @param id ID do produto
+     * @param minimumStock estoque mínimo (0 desativa o alerta)
+     * @return produto atualizado
+     * @throws ProductException se o estoque mínimo for negativo ou o produto não existir
+     * @throws ServiceException se houver erro na operação
+     */
+    public Product updateMinimumStock(int id, int minimumStock) {
+        logger.info("Atualizando estoque mínimo do produto ID: {} para {}", id, minimumStock);
+
+        if(minimumStock < 0) {
+            throw new ProductException(ERROR_INVALID_MINIMUM_STOCK);
+        }
+
+        try {
+            Product updated = updateWithRetry(ensureExists(id), current -> {
+                current.setMinimumStock(minimumStock);
+                return current;
+            });
+            catalog.put(updated);
+            lowStockMonitor.evaluate(updated);
+
+            logger.info("Estoque mínimo atualizado. ID: {}, Estoque mínimo: {}", id, minimumStock);
+
+            return updated;
+        } catch (ProductException | OptimisticLockException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Erro ao atualizar o estoque mínimo do produto ID {}", id, e);
+            throw new ServiceException("Erro ao atualizar estoque mínimo", e);
+        }
+    }
+
+    //=============== Alertas de estoque ===============
+
+    /**
+     * Registra um listener para os alertas de estoque mínimo.
+     *
+     * @param listener listener a ser notificado
+     */
+    public void addStockAlertListener(StockAlertListener listener) {
+        lowStockMonitor.addListener(listener);
+    }
+
+    /**
+     * Remove um listener de alertas de estoque mínimo.
+     *
+     * @param listener listener a ser removido
+     */
+    public void removeStockAlertListener(StockAlertListener listener) {
+        lowStockMonitor.removeListener(listener);
+    }
+
     //=============== Métodos auxiliares privados ===============
 
+    /**
+     * Codifica o produto devolvido por uma escrita para a chave de idempotência. O nome vai
+     * por último, por poder conter o separador.
+     */
+    private static String encode(Product product) {
+        return product.getId() + ";" + product.getVersion() + ";" + product.getQuantity() + ";"
+                + product.getMinimumStock() + ";" + product.getUnitValue().toPlainString() + ";" + product.getName();
+    }
+
+    private static Product decode(String encoded) {
+        String[] fields = encoded.split(";", 6);
+        Product product = new Product(Integer.parseInt(fields[0]), fields[5], Integer.parseInt(fields[2]), new BigDecimal(fields[4]));
+        product.setVersion(Integer.parseInt(fields[1]));
+        product.setMinimumStock(Integer.parseInt(fields[3]));
+        return product;
+    }
+
+    /**
+     * Aplica uma movimentação de estoque diretamente no banco ou, se habilitado, no journal.
+     *
+     * @param movement movimentação a aplicar
+     * @return produto com a nova quantidade, vazio se não existir ou o estoque ficaria negativo
+     */
+    private Optional<Product> applyStockMovement(StockMovement movement) {
+        if(stockJournal == null) {
+            return productStore.applyStockMovement(movement);
+        }
+
+        synchronized (stockJournal.lockFor(movement.getProductId())) {
+            Optional<Product> projected = stockJournal.project(movement.getProductId());
+
+            if(projected.isEmpty() || projected.get().getQuantity() + movement.getDelta() < 0) {
+                return Optional.empty();
+            }
+
+            stockJournal.append(movement);
+
+            Product product = projected.get();
+            product.setQuantity(product.getQuantity() + movement.getDelta());
+            return Optional.of(product);
+        }
+    }
+
+    /**
+     * Grava uma alteração com controle otimista de versão.
+     *
+     * <p>A alteração é aplicada sobre o produto lido e gravada de forma condicional. Se outra
+     * operação gravar antes, o produto é relido e a mesma alteração é aplicada de novo sobre
+     * a versão mais recente, até {@value #MAX_CONFLICT_ATTEMPTS} tentativas, com uma espera
+     * aleatória crescente entre elas para desencontrar as escritas concorrentes. Por isso a
+     * alteração deve ser expressa em função do produto recebido, como um campo definido ou
+     * uma diferença de quantidade, e não como o estado completo lido antes.</p>
+     *
+     * @param read produto lido antes da alteração
+     * @param change alteração a aplicar sobre a versão corrente do produto
+     * @return produto atualizado
+     * @throws OptimisticLockException se o conflito persistir após todas as tentativas
+     */
+    private Product updateWithRetry(Product read, UnaryOperator<Product> change) {
+        Product current = read;
+
+        for(int attempt = 1; ; attempt++) {
+            Product changed = change.apply(current);
+            try {
+                return productStore.update(changed);
+            } catch (OptimisticLockException e) {
+                if(attempt >= MAX_CONFLICT_ATTEMPTS) throw e;
+
+                logger.debug("Conflito de versão no produto ID {} (tentativa {}). Relendo", read.getId(), attempt);
+                backOff(attempt);
+                current = ensureExists(read.getId());
+            }
+        }
+    }
+
+    /**
+     * Recusa um nome já usado por outro produto. Só nomes presentes no índice em memória
+     * são confirmados no banco; os demais seguem direto para a escrita, onde o índice
+     * único do banco continua valendo.
+     *
+     * @param normalizedName nome normalizado a gravar
+     * @param ownId ID do produto sendo alterado, ou null na criação
+     * @throws DuplicateProductException se outro produto usa o nome
+     */
+    private void ensureNameAvailable(String normalizedName, Integer ownId) {
+        Span span = Trace.span("validation.name");
+        try {
+            if(!nameIndex.mightContain(normalizedName)) return;
+
+            Optional<Integer> owner = productStore.findIdByNormalizedName(normalizedName);
+            if(owner.isEmpty()) {
+                //Nome liberado por outra instância ou falso positivo do filtro de Bloom
+                nameIndex.remove(normalizedName);
+                return;
+            }
+            if(!owner.get().equals(ownId)) {
+                logger.warn("Nome de produto já utilizado: '{}' (ID {})", normalizedName, owner.get());
+                throw new DuplicateProductException(normalizedName);
+            }
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Converte a violação do índice único, vinda de uma escrita concorrente ou de outra
+     * instância, no mesmo erro de validação da verificação prévia.
+     */
+    private DuplicateProductException duplicateName(DuplicateProductNameException e) {
+        logger.warn("Nome de produto já utilizado: '{}' (índice único do banco)", e.getName());
+        nameIndex.add(ProductNameIndex.normalize(e.getName()));
+        return new DuplicateProductException(e.getName());
+    }
+
+    private void backOff(int attempt) {
+        long maxMillis = CONFLICT_BACKOFF_MILLIS << (attempt - 1);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceException("Atualização interrompida", e);
+        }
+    }
+
+    /**
+     * Indica se nome, valor e estoque mínimo são os mesmos nas duas versões, ou seja, se
+     * só a quantidade pode ter mudado entre elas.
+     */
+    private boolean sameDescriptiveFields(Product read, Product current) {
+        return read.getName().equals(current.getName())
+                && read.getUnitValue().compareTo(current.getUnitValue()) == 0
+                && read.getMinimumStock() == current.getMinimumStock();
+    }
+
     /**
      * Verifica se um produto existe e o retorna.
      *
      * @param id ID do produto
      * @return produto encontrado
-     * @throws ProductException se o produto não for encontrado
+     * @throws ProductNotFoundException se o produto não for encontrado
      */
     private Product ensureExists(int id) {
         logger.debug("Verificando existência do produto com ID: {}", id);
 
-        return productRepository.findById(id)
+        return productStore.findById(id)
                 .orElseThrow(() -> {
                     String error = String.format(ERROR_PRODUCT_NOT_FOUND, id);
                     logger.warn(error);
-                    return new ProductException(error);
+                    return new ProductNotFoundException(error);
                 });
     }
 
+    /**
+     * Valida o produto e as regras de negócio, medindo o tempo no trecho {@code validation}.
+     *
+     * @param product produto a validar
+     * @throws ProductException se o produto for inválido ou violar alguma regra
+     */
+    private void validate(Product product) {
+        Span span = Trace.span("validation");
+        try {
+            ProductValidator.validateProduct(product);
+            validateBusinessRules(product);
+        } finally {
+            span.close();
+        }
+    }
+
     /**
      * Valida regras de negócio adicionais.
      *
@@ -411,6 +986,12 @@ public class ProductService {
      * @throws ProductException se os dados forem inválidos
      */
     private void validatePartialUpdate(Map<String, Object> updates) {
+        if(updates.containsKey("nome")) {
+            if(!(updates.get("nome") instanceof String name) || name.isBlank()) {
+                throw new ServiceException("Nome não pode ser vazio");
+            }
+        }
+
         if(updates.containsKey("quantidade")) {
             Object quantity = updates.get("quantidade");
             if(quantity instanceof Integer && (Integer) quantity < 0) {
@@ -0,0 +1,154 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.dominio.ProductSales;
+import com.io.github.pedroolivsz.dominio.SalesBucket;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import com.io.github.pedroolivsz.repository.SalesRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service de relatórios de vendas baseado nos agregados por hora e por dia.
+ *
+ * <p>Um intervalo arbitrário é decomposto em: dias completos (agregado diário), horas
+ * completas restantes (agregado por hora) e as frações de hora nas pontas, como a hora
+ * corrente, que são as únicas lidas diretamente das comandas fechadas.</p>
+ *
+ * @author João Pedro
+ */
+
+public class SalesReportService {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportService.class);
+
+    //=============== Dependências ===============
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    //=============== Construtor ===============
+
+    public SalesReportService(SalesRollupRepository salesRollupRepository) {
+        if(salesRollupRepository == null) throw new IllegalArgumentException("SalesRollupRepository não pode ser null");
+        this.salesRollupRepository = salesRollupRepository;
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * Vendas por hora e produto no intervalo [from, to).
+     *
+     * @throws ServiceException se houver erro na operação
+     */
+    public List<SalesBucket> hourlySales(Instant from, Instant to) {
+        validateRange(from, to);
+
+        try {
+            return List.copyOf(salesRollupRepository.listHourly(from.truncatedTo(ChronoUnit.HOURS), to));
+        } catch (RepositoryException e) {
+            logger.error("Erro ao consultar vendas por hora", e);
+            throw new ServiceException("Erro ao consultar vendas por hora", e);
+        }
+    }
+
+    /**
+     * Vendas por dia e produto entre as datas informadas (inclusive).
+     *
+     * @throws ServiceException se houver erro na operação
+     */
+    public List<SalesBucket> dailySales(LocalDate from, LocalDate to) {
+        if(from == null || to == null || to.isBefore(from)) throw new IllegalArgumentException("Intervalo de datas inválido");
+
+        try {
+            return List.copyOf(salesRollupRepository.listDaily(from, to));
+        } catch (RepositoryException e) {
+            logger.error("Erro ao consultar vendas por dia", e);
+            throw new ServiceException("Erro ao consultar vendas por dia", e);
+        }
+    }
+
+    /**
+     * Total vendido por produto no intervalo [from, to), ordenado pelo valor vendido.
+     *
+     * @throws ServiceException se houver erro na operação
+     */
+    public List<ProductSales> salesByProduct(Instant from, Instant to) {
+        validateRange(from, to);
+        logger.debug("Consultando vendas por produto entre {} e {}", from, to);
+
+        try {
+            Map<Integer, ProductSales> totals = new HashMap<>();
+
+            Instant firstHour = ceilHour(from);
+            Instant lastHour = to.truncatedTo(ChronoUnit.HOURS);
+
+            if(!firstHour.isBefore(lastHour)) {
+                merge(totals, salesRollupRepository.totalsFromClosedTabs(from, to));
+            } else {
+                merge(totals, salesRollupRepository.totalsFromClosedTabs(from, firstHour));
+                mergeWholeHours(totals, firstHour, lastHour);
+                merge(totals, salesRollupRepository.totalsFromClosedTabs(lastHour, to));
+            }
+
+            return totals.values().stream()
+                    .sorted(Comparator.comparing(ProductSales::getAmount).reversed())
+                    .toList();
+        } catch (RepositoryException e) {
+            logger.error("Erro ao consultar vendas por produto", e);
+            throw new ServiceException("Erro ao consultar vendas por produto", e);
+        }
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    /**
+     * Soma as horas completas em [from, to), usando o agregado diário para os dias
+     * inteiros contidos no intervalo quando o início do dia cai em hora cheia.
+     */
+    private void mergeWholeHours(Map<Integer, ProductSales> totals, Instant from, Instant to) {
+        ZoneId zone = salesRollupRepository.getZone();
+
+        LocalDate firstDay = LocalDate.ofInstant(from, zone);
+        Instant firstDayStart = firstDay.atStartOfDay(zone).toInstant();
+        if(firstDayStart.isBefore(from)) {
+            firstDay = firstDay.plusDays(1);
+            firstDayStart = firstDay.atStartOfDay(zone).toInstant();
+        }
+        LocalDate lastDay = LocalDate.ofInstant(to, zone);
+        Instant lastDayStart = lastDay.atStartOfDay(zone).toInstant();
+
+        boolean hourAligned = firstDayStart.equals(firstDayStart.truncatedTo(ChronoUnit.HOURS))
+                && lastDayStart.equals(lastDayStart.truncatedTo(ChronoUnit.HOURS));
+
+        if(!hourAligned || !firstDay.isBefore(lastDay)) {
+            merge(totals, salesRollupRepository.totalsFromHourly(from, to));
+            return;
+        }
+
+        merge(totals, salesRollupRepository.totalsFromHourly(from, firstDayStart));
+        merge(totals, salesRollupRepository.totalsFromDaily(firstDay, lastDay));
+        merge(totals, salesRollupRepository.totalsFromHourly(lastDayStart, to));
+    }
+
+    private void merge(Map<Integer, ProductSales> totals, Map<Integer, ProductSales> partial) {
+        partial.forEach((productId, sales) -> totals.merge(productId, sales, ProductSales::plus));
+    }
+
+    private Instant ceilHour(Instant instant) {
+        Instant truncated = instant.truncatedTo(ChronoUnit.HOURS);
+        return truncated.equals(instant) ? truncated : truncated.plus(1, ChronoUnit.HOURS);
+    }
+
+    private void validateRange(Instant from, Instant to) {
+        if(from == null || to == null || !from.isBefore(to)) throw new IllegalArgumentException("Intervalo inválido");
+    }
+}
@@ -0,0 +1,326 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.config.StoreContext;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ReorderSuggestion;
+import com.io.github.pedroolivsz.dominio.SalesVelocity;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import com.io.github.pedroolivsz.repository.SalesVelocityRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Velocidade de vendas de cada produto, mantida de forma incremental, e sugestões de
+ * reposição calculadas a partir dela.
+ *
+ * <p>Assim como o {@link LowStockMonitor}, o tracker não consulta o histórico: ele é chamado
+ * a cada baixa de estoque por venda ({@link ProductService#removeStock(int, int)} e o
+ * fechamento de comanda) apenas com o produto e a quantidade vendida. Cada produto guarda só
+ * a taxa em unidades por dia e o instante em que ela foi atualizada; a taxa decai
+ * exponencialmente com o tempo sem vendas, com meia-vida {@code sales.velocity.half.life.days},
+ * então cada venda é uma atualização O(1) e a taxa de um ritmo constante converge para ele
+ * em poucas meias-vidas.</p>
+ *
+ * <p>As taxas ficam em memória e as alteradas são gravadas em {@code velocidade_vendas} a cada
+ * {@code sales.velocity.flush.seconds} e no encerramento; uma queda perde no máximo as vendas
+ * desse intervalo. As taxas gravadas são carregadas no primeiro uso.</p>
+ *
+ * <p>Cada tracker pertence à loja selecionada no {@link StoreContext} quando foi criado: a
+ * carga e as gravações vão para o banco dessa loja, qualquer que seja a thread.</p>
+ *
+ * @author João Pedro
+ */
+
+public class SalesVelocityTracker implements Closeable {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesVelocityTracker.class);
+
+    private static final int DEFAULT_HALF_LIFE_DAYS = 7;
+    private static final int DEFAULT_TARGET_DAYS = 14;
+    private static final int DEFAULT_FLUSH_SECONDS = 60;
+    private static final double MILLIS_PER_DAY = Duration.ofDays(1).toMillis();
+    //Abaixo disso o produto é considerado parado e fica fora das sugestões
+    private static final double MIN_DAILY_RATE = 0.001;
+
+    //=============== Dependências ===============
+
+    private final SalesVelocityRepository salesVelocityRepository;
+    //Vida média da ponderação, em milissegundos (meia-vida / ln 2)
+    private final double meanLifeMillis;
+    private final double meanLifeDays;
+    private final int targetDays;
+    private final Clock clock;
+    private final String store;
+
+    //=============== Estado ===============
+
+    private final ConcurrentHashMap<Integer, SalesVelocity> velocities = new ConcurrentHashMap<>();
+    private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<Integer> removed = ConcurrentHashMap.newKeySet();
+    private volatile boolean loaded;
+    private ScheduledExecutorService scheduler;
+
+    //Tracker de cada loja para os serviços criados sem um tracker explícito
+    private static final Map<String, SalesVelocityTracker> shared = new HashMap<>();
+
+    //=============== Construtores ===============
+
+    public SalesVelocityTracker() {
+        this(new SalesVelocityRepository(),
+                Duration.ofDays(Config.getInt("sales.velocity.half.life.days", DEFAULT_HALF_LIFE_DAYS)),
+                Config.getInt("sales.velocity.target.days", DEFAULT_TARGET_DAYS),
+                Clock.systemUTC());
+    }
+
+    /**
+     * Cria o tracker da loja selecionada no {@link StoreContext}.
+     *
+     * @param salesVelocityRepository persistência das taxas
+     * @param halfLife tempo para uma venda passar a pesar metade na taxa
+     * @param targetDays dias de estoque que a reposição sugerida deve cobrir
+     * @param clock relógio usado nas atualizações e no decaimento
+     * @throws IllegalArgumentException se algum parâmetro for inválido
+     */
+    public SalesVelocityTracker(SalesVelocityRepository salesVelocityRepository, Duration halfLife, int targetDays,
+                                Clock clock) {
+        if(salesVelocityRepository == null) throw new IllegalArgumentException("SalesVelocityRepository não pode ser null");
+        if(halfLife == null || halfLife.isZero() || halfLife.isNegative()) throw new IllegalArgumentException("Meia-vida deve ser positiva");
+        if(targetDays < 1) throw new IllegalArgumentException("Horizonte de reposição deve ser maior que zero");
+        if(clock == null) throw new IllegalArgumentException("Clock não pode ser null");
+        this.salesVelocityRepository = salesVelocityRepository;
+        this.meanLifeMillis = halfLife.toMillis() / Math.log(2);
+        this.meanLifeDays = meanLifeMillis / MILLIS_PER_DAY;
+        this.targetDays = targetDays;
+        this.clock = clock;
+        this.store = StoreContext.current();
+    }
+
+    /**
+     * Cria o tracker da configuração, já com a gravação periódica agendada.
+     */
+    public static SalesVelocityTracker fromConfig() {
+        SalesVelocityTracker tracker = new SalesVelocityTracker();
+        tracker.schedule(Duration.ofSeconds(Config.getInt("sales.velocity.flush.seconds", DEFAULT_FLUSH_SECONDS)));
+        return tracker;
+    }
+
+    /**
+     * Tracker da loja selecionada no {@link StoreContext}, criado com {@link #fromConfig()} no
+     * primeiro uso. Os serviços criados sem um tracker explícito usam este, para que todas as
+     * baixas da loja alimentem as mesmas taxas e elas sejam gravadas.
+     */
+    public static synchronized SalesVelocityTracker shared() {
+        return shared.computeIfAbsent(StoreContext.current(), store -> fromConfig());
+    }
+
+    //=============== Agendamento ===============
+
+    /**
+     * Grava periodicamente as taxas alteradas. Falhas são registradas no log e as taxas
+     * continuam pendentes para a próxima gravação.
+     *
+     * @param interval intervalo entre as gravações
+     */
+    public synchronized void schedule(Duration interval) {
+        if(interval == null || interval.isZero() || interval.isNegative()) {
+            throw new IllegalArgumentException("Intervalo de gravação deve ser positivo");
+        }
+        if(scheduler != null) throw new IllegalStateException("Gravação já agendada");
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-velocity-flush-" + store);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::scheduledFlush, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+        logger.info("Gravação da velocidade de vendas da loja {} agendada a cada {} s", store, interval.toSeconds());
+    }
+
+    /**
+     * Encerra a gravação periódica e grava as taxas pendentes.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+            scheduler = null;
+        }
+        //A espera fica fora do lock: a gravação em andamento precisa dele para terminar
+        if(current != null) {
+            current.shutdownNow();
+            try {
+                current.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        scheduledFlush();
+    }
+
+    //=============== Atualização ===============
+
+    /**
+     * Registra uma venda. Nunca falha: um erro aqui não pode desfazer a baixa já gravada.
+     *
+     * @param productId ID do produto vendido
+     * @param quantity unidades vendidas; zero ou negativa é ignorada
+     */
+    public void record(int productId, int quantity) {
+        if(quantity <= 0) return;
+
+        try {
+            load();
+            long now = clock.millis();
+            velocities.compute(productId, (id, current) ->
+                    new SalesVelocity(id, decayed(current, now) + quantity / meanLifeDays,
+                            current == null ? now : Math.max(now, current.getUpdatedAtMillis())));
+            removed.remove(productId);
+            dirty.add(productId);
+        } catch (RuntimeException e) {
+            logger.error("Erro ao registrar venda do produto ID {} na velocidade de vendas", productId, e);
+        }
+    }
+
+    /**
+     * Descarta a taxa do produto, por exemplo após sua exclusão.
+     *
+     * @param productId ID do produto
+     */
+    public void forget(int productId) {
+        velocities.remove(productId);
+        dirty.remove(productId);
+        removed.add(productId);
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * @param productId ID do produto
+     * @return unidades vendidas por dia, decaídas até agora; zero se o produto nunca vendeu
+     */
+    public double dailyRate(int productId) {
+        load();
+        return decayed(velocities.get(productId), clock.millis());
+    }
+
+    /**
+     * Ordena os produtos pelos dias de estoque que a quantidade atual cobre na velocidade de
+     * vendas atual, do que acaba primeiro para o que acaba por último. Produtos sem vendas
+     * recentes ficam de fora.
+     *
+     * @param products produtos com a quantidade atual
+     * @param limit quantidade máxima de sugestões
+     * @return sugestões, com a quantidade a pedir para cobrir {@code sales.velocity.target.days}
+     * @throws IllegalArgumentException se o limite for menor que 1
+     */
+    public List<ReorderSuggestion> suggest(Collection<Product> products, int limit) {
+        if(limit < 1) throw new IllegalArgumentException("Limite deve ser maior que zero");
+        load();
+
+        long now = clock.millis();
+        List<ReorderSuggestion> suggestions = new ArrayList<>();
+        for(Product product : products) {
+            double rate = decayed(velocities.get(product.getId()), now);
+            if(rate < MIN_DAILY_RATE) continue;
+
+            int quantity = Math.max(0, product.getQuantity());
+            int suggested = (int) Math.max(0, Math.ceil(rate * targetDays) - quantity);
+            suggestions.add(new ReorderSuggestion(product.getId(), product.getName(), quantity,
+                    rate, quantity / rate, suggested));
+        }
+
+        suggestions.sort(Comparator.comparingDouble(ReorderSuggestion::getDaysOfCover)
+                .thenComparing(Comparator.comparingDouble(ReorderSuggestion::getDailyRate).reversed()));
+        return suggestions.size() > limit ? List.copyOf(suggestions.subList(0, limit)) : suggestions;
+    }
+
+    //=============== Persistência ===============
+
+    /**
+     * Grava as taxas alteradas desde a última gravação.
+     *
+     * @return quantidade de taxas gravadas
+     * @throws ServiceException se houver erro na operação; as taxas continuam pendentes
+     */
+    public synchronized int flush() {
+        if(!loaded) return 0;
+
+        List<SalesVelocity> updated = new ArrayList<>();
+        for(Iterator<Integer> iterator = dirty.iterator(); iterator.hasNext(); ) {
+            Integer productId = iterator.next();
+            iterator.remove();
+            SalesVelocity velocity = velocities.get(productId);
+            if(velocity != null) updated.add(velocity);
+        }
+        List<Integer> deleted = new ArrayList<>();
+        for(Iterator<Integer> iterator = removed.iterator(); iterator.hasNext(); ) {
+            deleted.add(iterator.next());
+            iterator.remove();
+        }
+
+        try {
+            StoreContext.run(store, () -> salesVelocityRepository.saveAll(updated, deleted));
+            if(!updated.isEmpty()) logger.debug("Velocidades de vendas gravadas: {}", updated.size());
+            return updated.size();
+        } catch (RepositoryException e) {
+            updated.forEach(velocity -> dirty.add(velocity.getProductId()));
+            deleted.stream().filter(productId -> !velocities.containsKey(productId)).forEach(removed::add);
+            throw new ServiceException("Erro ao gravar velocidades de vendas", e);
+        }
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    /**
+     * Carrega as taxas gravadas no primeiro uso. Se a carga falhar, as taxas recomeçam do zero.
+     */
+    private void load() {
+        if(loaded) return;
+
+        synchronized (this) {
+            if(loaded) return;
+            try {
+                for(SalesVelocity velocity : StoreContext.call(store, salesVelocityRepository::findAll)) {
+                    velocities.put(velocity.getProductId(), velocity);
+                }
+                logger.info("Velocidades de vendas da loja {} carregadas: {}", store, velocities.size());
+            } catch (RepositoryException e) {
+                logger.error("Erro ao carregar as velocidades de vendas; as taxas recomeçam do zero", e);
+            }
+            loaded = true;
+        }
+    }
+
+    private double decayed(SalesVelocity velocity, long nowMillis) {
+        if(velocity == null) return 0;
+        long elapsed = Math.max(0, nowMillis - velocity.getUpdatedAtMillis());
+        return velocity.getDailyRate() * Math.exp(-elapsed / meanLifeMillis);
+    }
+
+    private void scheduledFlush() {
+        try {
+            flush();
+        } catch (ServiceException e) {
+            logger.error("Erro na gravação periódica da velocidade de vendas", e);
+        }
+    }
+}
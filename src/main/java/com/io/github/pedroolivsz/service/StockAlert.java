@@ -0,0 +1,68 @@
+package com.io.github.pedroolivsz.service;
+
+import java.time.Instant;
+
+/**
+ * Evento emitido quando o estoque de um produto cruza o seu estoque mínimo.
+ *
+ * @author João Pedro
+ */
+
+public class StockAlert {
+
+    public enum Type {
+        /** O estoque ficou abaixo do mínimo configurado. */
+        LOW_STOCK,
+        /** O estoque voltou a ficar acima do mínimo (considerando a histerese). */
+        RESTOCKED
+    }
+
+    private final Type type;
+    private final int productId;
+    private final String productName;
+    private final int quantity;
+    private final int minimumStock;
+    private final Instant timestamp;
+
+    public StockAlert(Type type, int productId, String productName, int quantity, int minimumStock, Instant timestamp) {
+        this.type = type;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.minimumStock = minimumStock;
+        this.timestamp = timestamp;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getMinimumStock() {
+        return minimumStock;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return type +
+                "| Id: " + productId +
+                "| " + productName +
+                "| Quantidade: " + quantity +
+                "| Estoque mínimo: " + minimumStock;
+    }
+}
@@ -0,0 +1,12 @@
+package com.io.github.pedroolivsz.service;
+
+/**
+ * Recebe os alertas de estoque emitidos pelo {@link LowStockMonitor}.
+ *
+ * <p>Os listeners são chamados de forma síncrona na thread que alterou o estoque,
+ * portanto devem retornar rapidamente.</p>
+ */
+@FunctionalInterface
+public interface StockAlertListener {
+    void onStockAlert(StockAlert alert);
+}
@@ -0,0 +1,176 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.config.Config;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.journal.JournalApplier;
+import com.io.github.pedroolivsz.journal.JournalRecord;
+import com.io.github.pedroolivsz.journal.StockMovementCodec;
+import com.io.github.pedroolivsz.journal.WriteAheadJournal;
+import com.io.github.pedroolivsz.repository.StockJournalRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Caminho de escrita de estoque que passa pelo {@link WriteAheadJournal}.
+ *
+ * <p>Quando habilitado ({@code journal.enabled=true}), as movimentações de estoque são
+ * confirmadas assim que gravadas no journal, sem esperar pelo SQLite. Para validar a
+ * disponibilidade, a quantidade do banco é somada às movimentações ainda não aplicadas;
+ * a sequência aplicada é lida junto com a quantidade, então cada movimentação é contada
+ * exatamente uma vez, antes ou depois de chegar ao banco.</p>
+ *
+ * @author João Pedro
+ */
+
+public class StockJournal implements Closeable {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(StockJournal.class);
+
+    private static final int DEFAULT_SEGMENT_BYTES = 1024 * 1024;
+    private static final int DEFAULT_GROUP_COMMIT_MILLIS = 2;
+    private static final int LOCK_STRIPES = 64;
+
+    //=============== Estado ===============
+
+    private final WriteAheadJournal journal;
+    private final StockJournalRepository stockJournalRepository;
+    private final Map<Integer, ConcurrentSkipListMap<Long, Integer>> pending = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    //=============== Construtores ===============
+
+    /**
+     * Cria o journal a partir das configurações, se estiver habilitado.
+     *
+     * @return o journal iniciado, ou vazio se {@code journal.enabled} não for true
+     */
+    public static Optional<StockJournal> fromConfig() {
+        if(!Boolean.parseBoolean(Config.get("journal.enabled"))) return Optional.empty();
+
+        String directory = Config.get("journal.dir");
+        return Optional.of(new StockJournal(
+                Path.of(directory != null ? directory : "journal"),
+                Config.getInt("journal.segment.bytes", DEFAULT_SEGMENT_BYTES),
+                Config.getInt("journal.group.commit.millis", DEFAULT_GROUP_COMMIT_MILLIS),
+                new StockJournalRepository()));
+    }
+
+    /**
+     * Recupera o journal do diretório informado e inicia a aplicação em segundo plano.
+     *
+     * @param directory diretório dos segmentos
+     * @param segmentBytes tamanho de cada segmento
+     * @param groupCommitMillis janela de group commit
+     * @param stockJournalRepository destino das movimentações
+     */
+    public StockJournal(Path directory, int segmentBytes, long groupCommitMillis, StockJournalRepository stockJournalRepository) {
+        if(stockJournalRepository == null) throw new IllegalArgumentException("StockJournalRepository não pode ser null");
+        this.stockJournalRepository = stockJournalRepository;
+        for(int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+
+        this.journal = new WriteAheadJournal(directory, segmentBytes, groupCommitMillis, new Applier());
+        for(JournalRecord record : journal.recover()) {
+            track(record.getSequence(), StockMovementCodec.decode(record.getPayload()));
+        }
+        journal.start();
+    }
+
+    //=============== Operações ===============
+
+    /**
+     * Lock do produto: validação e gravação de uma movimentação devem ocorrer sob ele.
+     *
+     * @param productId ID do produto
+     * @return objeto usado para sincronização
+     */
+    public Object lockFor(int productId) {
+        return locks[Math.floorMod(productId, LOCK_STRIPES)];
+    }
+
+    /**
+     * Busca o produto com a quantidade projetada: a do banco mais as movimentações já
+     * confirmadas no journal e ainda não aplicadas.
+     *
+     * <p>As pendentes são copiadas antes da leitura do banco: uma movimentação só sai delas
+     * depois do commit, então as aplicadas entre a cópia e a leitura aparecem nas duas e são
+     * descartadas pela sequência lida, e nenhuma fica de fora.</p>
+     *
+     * @param productId ID do produto
+     * @return produto com a quantidade projetada, vazio se não existir
+     */
+    public Optional<Product> project(int productId) {
+        ConcurrentSkipListMap<Long, Integer> deltas = pending.get(productId);
+        NavigableMap<Long, Integer> notAppliedBeforeRead = deltas == null ? Collections.emptyNavigableMap() : new TreeMap<>(deltas);
+
+        return stockJournalRepository.findById(productId).map(applied -> {
+            Product product = applied.getProduct();
+            int notApplied = notAppliedBeforeRead.tailMap(applied.getAppliedSequence(), false).values().stream()
+                    .mapToInt(Integer::intValue)
+                    .sum();
+            product.setQuantity(product.getQuantity() + notApplied);
+
+            return product;
+        });
+    }
+
+    /**
+     * Grava a movimentação no journal e retorna quando ela estiver durável.
+     *
+     * @param movement movimentação de estoque
+     */
+    public void append(StockMovement movement) {
+        if(movement.getTimestamp() == null) movement.setTimestamp(Instant.now());
+
+        long sequence = journal.append(StockMovementCodec.encode(movement));
+        track(sequence, movement);
+    }
+
+    public long getAppliedSequence() {
+        return journal.getAppliedSequence();
+    }
+
+    @Override
+    public void close() {
+        journal.close();
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private void track(long sequence, StockMovement movement) {
+        pending.computeIfAbsent(movement.getProductId(), id -> new ConcurrentSkipListMap<>())
+                .put(sequence, movement.getDelta());
+    }
+
+    /**
+     * Aplica os lotes no banco e, após o commit, descarta as movimentações pendentes já aplicadas.
+     */
+    private class Applier implements JournalApplier {
+        @Override
+        public long lastAppliedSequence() {
+            return stockJournalRepository.lastAppliedSequence();
+        }
+
+        @Override
+        public void apply(List<JournalRecord> records) throws Exception {
+            stockJournalRepository.apply(records);
+
+            long last = records.get(records.size() - 1).getSequence();
+            pending.values().forEach(deltas -> deltas.headMap(last, true).clear());
+            logger.debug("Movimentações do journal aplicadas até a sequência {}", last);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.io.github.pedroolivsz.service;
+
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import com.io.github.pedroolivsz.repository.StockMovementRepository;
+import com.io.github.pedroolivsz.validation.ProductException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+
+/**
+ * Service de consulta ao histórico de movimentações de estoque.
+ *
+ * <p>As movimentações são gravadas pelo {@link com.io.github.pedroolivsz.repository.ProductRepository}
+ * junto com cada alteração de estoque; este service expõe apenas as consultas de
+ * histórico, quantidade em um instante passado e conciliação.</p>
+ *
+ * @author João Pedro
+ */
+
+public class StockMovementService {
+    //=============== Constantes ===============
+
+    private static final Logger logger = LoggerFactory.getLogger(StockMovementService.class);
+
+    private static final int MAX_HISTORY = 1000;
+
+    //=============== Dependências ===============
+
+    private final StockMovementRepository stockMovementRepository;
+
+    //=============== Construtor ===============
+
+    public StockMovementService(StockMovementRepository stockMovementRepository) {
+        if(stockMovementRepository == null) throw new IllegalArgumentException("StockMovementRepository não pode ser null");
+        this.stockMovementRepository = stockMovementRepository;
+    }
+
+    //=============== Consultas ===============
+
+    /**
+     * Lista as movimentações mais recentes de um produto.
+     *
+     * @param productId ID do produto
+     * @param limit quantidade máxima de movimentações (até {@value #MAX_HISTORY})
+     * @return movimentações da mais recente para a mais antiga
+     * @throws ProductException se o limite for inválido
+     * @throws ServiceException se houver erro na operação
+     */
+    public List<StockMovement> listByProduct(int productId, int limit) {
+        if(limit <= 0 || limit > MAX_HISTORY) {
+            throw new ProductException("Limite deve estar entre 1 e " + MAX_HISTORY);
+        }
+
+        try {
+            return List.copyOf(stockMovementRepository.listByProduct(productId, limit));
+        } catch (RepositoryException e) {
+            logger.error("Erro ao listar movimentações do produto ID {}", productId, e);
+            throw new ServiceException("Erro ao listar movimentações de estoque", e);
+        }
+    }
+
+    /**
+     * Calcula a quantidade de um produto em um instante passado.
+     *
+     * @param productId ID do produto
+     * @param instant instante desejado
+     * @return quantidade no instante, vazio se não houver informação para o produto
+     * @throws ServiceException se houver erro na operação
+     */
+    public OptionalInt quantityAt(int productId, Instant instant) {
+        if(instant == null) throw new IllegalArgumentException("Instante não pode ser null");
+
+        try {
+            return stockMovementRepository.quantityAt(productId, instant);
+        } catch (RepositoryException e) {
+            logger.error("Erro ao calcular quantidade histórica do produto ID {}", productId, e);
+            throw new ServiceException("Erro ao calcular quantidade histórica", e);
+        }
+    }
+
+    /**
+     * Lista os produtos cuja quantidade atual diverge da soma do seu histórico.
+     *
+     * @return mapa de ID do produto para a diferença encontrada
+     * @throws ServiceException se houver erro na operação
+     */
+    public Map<Integer, Integer> reconcile() {
+        try {
+            Map<Integer, Integer> discrepancies = stockMovementRepository.findDiscrepancies();
+
+            if(!discrepancies.isEmpty()) {
+                logger.warn("Divergências de estoque encontradas: {}", discrepancies);
+            }
+
+            return Map.copyOf(discrepancies);
+        } catch (RepositoryException e) {
+            logger.error("Erro ao conciliar estoque", e);
+            throw new ServiceException("Erro ao conciliar estoque", e);
+        }
+    }
+}
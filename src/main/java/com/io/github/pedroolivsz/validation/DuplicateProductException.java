@@ -0,0 +1,14 @@
+package com.io.github.pedroolivsz.validation;
+
+public class DuplicateProductException extends ProductException {
+    private final String name;
+
+    public DuplicateProductException(String name) {
+        super("Já existe um produto com o nome '" + name + "'");
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
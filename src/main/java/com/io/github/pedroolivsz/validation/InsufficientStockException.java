@@ -0,0 +1,18 @@
+package com.io.github.pedroolivsz.validation;
+
+import com.io.github.pedroolivsz.dominio.StockShortage;
+
+import java.util.List;
+
+public class InsufficientStockException extends ProductException {
+    private final List<StockShortage> shortages;
+
+    public InsufficientStockException(String message, List<StockShortage> shortages) {
+        super(message);
+        this.shortages = List.copyOf(shortages);
+    }
+
+    public List<StockShortage> getShortages() {
+        return shortages;
+    }
+}
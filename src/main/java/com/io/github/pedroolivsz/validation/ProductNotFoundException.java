@@ -0,0 +1,7 @@
+package com.io.github.pedroolivsz.validation;
+
+public class ProductNotFoundException extends ProductException {
+    public ProductNotFoundException(String message) {
+        super(message);
+    }
+}
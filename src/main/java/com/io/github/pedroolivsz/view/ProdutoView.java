@@ -2,14 +2,39 @@ package com.io.github.pedroolivsz.view;
 
 import com.io.github.pedroolivsz.controller.ProdutoController;
 import com.io.github.pedroolivsz.dominio.Product;
-import com.io.github.pedroolivsz.repository.RepositoryException;
-import com.io.github.pedroolivsz.validation.ProductException;
 
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import javax.swing.SwingWorker;
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.awt.Frame;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
+/**
+ * Telas de produto em {@link JOptionPane}.
+ *
+ * <p>Os diálogos de entrada rodam na thread de eventos do Swing; as chamadas ao controller
+ * rodam em um {@link SwingWorker}, com uma janela de andamento que permite cancelar a
+ * espera. Cancelar não desfaz uma escrita que já chegou ao banco.</p>
+ */
 public class ProdutoView {
+    //Operações mais rápidas que isso não chegam a exibir a janela de andamento
+    private static final int PROGRESS_DELAY_MILLIS = 300;
+    //Linhas enviadas de cada vez para a listagem
+    private static final int LIST_CHUNK_SIZE = 200;
+
     private final ProdutoController produtoController;
 
     public ProdutoView(ProdutoController produtoController) {
@@ -17,170 +42,240 @@ public class ProdutoView {
     }
 
     public void createProduct() {
-        try {
-            String nome = JOptionPane.showInputDialog(
-                    null,
-                    "Nome:",
-                    "Cadastro de produto:",
-                    JOptionPane.PLAIN_MESSAGE
-            );
-            int quantidade = Integer.parseInt(JOptionPane.showInputDialog(
-                    null,
-                    "Quantidade:",
-                    "Cadastro de produto:",
-                    JOptionPane.PLAIN_MESSAGE)
-            );
-            BigDecimal valorUnitario = BigDecimal.valueOf(
-                    Double.parseDouble(JOptionPane.showInputDialog(null,
-                            "Valor unitário:",
-                            "Cadastro de produto:",
-                            JOptionPane.PLAIN_MESSAGE))
-            );
-
-            Product productCreated = produtoController.create(nome, quantidade, valorUnitario);
-
-            JOptionPane.showMessageDialog(
-                    null,
-                    "Nome: " + productCreated.getName() + "\n" +
-                            "Quantidade: " + productCreated.getQuantity() + "\n" +
-                            "Valor unitário: R$" + productCreated.getUnitValue() + "\n" +
-                            "Adicionado com sucesso ao estoque!"
-            );
-        } catch (ProductException | RepositoryException exception) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    exception.getMessage(),
-                    "Erro",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+        String nome = JOptionPane.showInputDialog(
+                null,
+                "Nome:",
+                "Cadastro de produto:",
+                JOptionPane.PLAIN_MESSAGE
+        );
+        int quantidade = Integer.parseInt(JOptionPane.showInputDialog(
+                null,
+                "Quantidade:",
+                "Cadastro de produto:",
+                JOptionPane.PLAIN_MESSAGE)
+        );
+        BigDecimal valorUnitario = BigDecimal.valueOf(
+                Double.parseDouble(JOptionPane.showInputDialog(null,
+                        "Valor unitário:",
+                        "Cadastro de produto:",
+                        JOptionPane.PLAIN_MESSAGE))
+        );
 
+        runInBackground("Cadastro de produto", "Salvando produto...",
+                () -> produtoController.create(nome, quantidade, valorUnitario),
+                productCreated -> JOptionPane.showMessageDialog(
+                        null,
+                        "Nome: " + productCreated.getName() + "\n" +
+                                "Quantidade: " + productCreated.getQuantity() + "\n" +
+                                "Valor unitário: R$" + productCreated.getUnitValue() + "\n" +
+                                "Adicionado com sucesso ao estoque!"
+                ));
     }
+
     public void updateProduct() {
-        try {
-            int id = Integer.parseInt(JOptionPane.showInputDialog(
-                    null,
-                    "Id do produto:",
-                    "Edição de produto",
-                    JOptionPane.PLAIN_MESSAGE)
-            );
-            String nome = JOptionPane.showInputDialog(
-                    null,
-                    "Nome:",
-                    "Cadastro de produto:",
-                    JOptionPane.PLAIN_MESSAGE
-            );
-            int quantidade = Integer.parseInt(JOptionPane.showInputDialog(
-                    null,
-                    "Quantidade:",
-                    "Cadastro de produto:",
-                    JOptionPane.PLAIN_MESSAGE)
-            );
-            BigDecimal valorUnitario = BigDecimal.valueOf(Double.parseDouble(JOptionPane.showInputDialog(
-                    null,
-                    "Valor unitário:",
-                    "Cadastro de produto:",
-                    JOptionPane.PLAIN_MESSAGE)
-            ));
-
-            Product updated = produtoController.update(id, nome, quantidade, valorUnitario);
-
-            JOptionPane.showMessageDialog(
-                    null,
-                    "Nome: " + updated.getName() + "\n" +
-                    "Quantidade: " + updated.getQuantity() + "\n" +
-                    "Valor unitário: R$" + updated.getUnitValue() + "\n" +
-                    "Editado com sucesso!"
-            );
-        } catch (ProductException | RepositoryException exception) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    exception.getMessage(),
-                    "Erro",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+        int id = Integer.parseInt(JOptionPane.showInputDialog(
+                null,
+                "Id do produto:",
+                "Edição de produto",
+                JOptionPane.PLAIN_MESSAGE)
+        );
+        String nome = JOptionPane.showInputDialog(
+                null,
+                "Nome:",
+                "Cadastro de produto:",
+                JOptionPane.PLAIN_MESSAGE
+        );
+        int quantidade = Integer.parseInt(JOptionPane.showInputDialog(
+                null,
+                "Quantidade:",
+                "Cadastro de produto:",
+                JOptionPane.PLAIN_MESSAGE)
+        );
+        BigDecimal valorUnitario = BigDecimal.valueOf(Double.parseDouble(JOptionPane.showInputDialog(
+                null,
+                "Valor unitário:",
+                "Cadastro de produto:",
+                JOptionPane.PLAIN_MESSAGE)
+        ));
+
+        runInBackground("Edição de produto", "Salvando alterações...",
+                () -> produtoController.update(id, nome, quantidade, valorUnitario),
+                updated -> JOptionPane.showMessageDialog(
+                        null,
+                        "Nome: " + updated.getName() + "\n" +
+                        "Quantidade: " + updated.getQuantity() + "\n" +
+                        "Valor unitário: R$" + updated.getUnitValue() + "\n" +
+                        "Editado com sucesso!"
+                ));
     }
 
     public void deleteProduct() {
-        try {
-            int id = Integer.parseInt(
-                    JOptionPane.showInputDialog(
-                    null,
-                    "Id do produto:",
-                    "Deletar produto",
-                    JOptionPane.PLAIN_MESSAGE
-                    ));
-
-            produtoController.delete(id);
-
-            JOptionPane.showMessageDialog(
-                    null,
-                    "O produto de ID: " + id + " foi excluido com sucesso",
-                    "Confirmação",
-                    JOptionPane.PLAIN_MESSAGE
-            );
-        } catch (ProductException | RepositoryException exception) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    exception.getMessage(),
-                    "Erro",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+        int id = Integer.parseInt(
+                JOptionPane.showInputDialog(
+                null,
+                "Id do produto:",
+                "Deletar produto",
+                JOptionPane.PLAIN_MESSAGE
+                ));
+
+        runInBackground("Deletar produto", "Excluindo produto...",
+                () -> {
+                    produtoController.delete(id);
+                    return id;
+                },
+                deleted -> JOptionPane.showMessageDialog(
+                        null,
+                        "O produto de ID: " + deleted + " foi excluido com sucesso",
+                        "Confirmação",
+                        JOptionPane.PLAIN_MESSAGE
+                ));
     }
 
+    /**
+     * Abre a lista de produtos e a preenche em blocos de {@value #LIST_CHUNK_SIZE} linhas,
+     * à medida que são formatadas em segundo plano.
+     */
     public void listAllProducts() {
-        List<Product> products = produtoController.listAll();
+        JTextArea area = new JTextArea(20, 60);
+        area.setEditable(false);
+        area.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JProgressBar progressBar = new JProgressBar(0, 100);
+        progressBar.setIndeterminate(true);
+        JButton button = new JButton("Cancelar");
 
-        if(products.isEmpty()) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    "Lista vazia",
-                    "Lista de produtos",
-                    JOptionPane.PLAIN_MESSAGE
-            );
-            return;
-        }
+        JDialog dialog = new JDialog((Frame) null, "Lista de produtos", false);
+        JPanel footer = new JPanel(new BorderLayout(8, 0));
+        footer.setBorder(BorderFactory.createEmptyBorder(8, 8, 8, 8));
+        footer.add(progressBar, BorderLayout.CENTER);
+        footer.add(button, BorderLayout.EAST);
+        dialog.add(new JScrollPane(area), BorderLayout.CENTER);
+        dialog.add(footer, BorderLayout.SOUTH);
+        dialog.pack();
+        dialog.setLocationRelativeTo(null);
 
-        StringBuilder listaProdutos = new StringBuilder();
+        SwingWorker<Integer, String> worker = new SwingWorker<>() {
+            @Override
+            protected Integer doInBackground() {
+                List<Product> products = produtoController.listAll();
+                StringBuilder chunk = new StringBuilder();
 
-        for(Product product : products) {
-            listaProdutos.append(product).append("\n");
-        }
+                for(int i = 0; i < products.size() && !isCancelled(); i++) {
+                    chunk.append(products.get(i)).append("\n");
 
-        JOptionPane.showMessageDialog(
-                null,
-                listaProdutos,
-                "Lista de produtos",
-                JOptionPane.PLAIN_MESSAGE
-        );
+                    if((i + 1) % LIST_CHUNK_SIZE == 0 || i == products.size() - 1) {
+                        publish(chunk.toString());
+                        chunk.setLength(0);
+                        setProgress((i + 1) * 100 / products.size());
+                    }
+                }
+
+                return products.size();
+            }
+
+            @Override
+            protected void process(List<String> chunks) {
+                for(String rows : chunks) area.append(rows);
+            }
+
+            @Override
+            protected void done() {
+                button.setText("Fechar");
+                progressBar.setIndeterminate(false);
+                if(isCancelled()) {
+                    progressBar.setString("Cancelado");
+                    progressBar.setStringPainted(true);
+                    return;
+                }
+
+                try {
+                    if(get() == 0) area.setText("Lista vazia");
+                    progressBar.setValue(100);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    dialog.dispose();
+                    showError(e.getCause());
+                }
+            }
+        };
+        worker.addPropertyChangeListener(event -> {
+            if("progress".equals(event.getPropertyName())) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue((Integer) event.getNewValue());
+            }
+        });
+        button.addActionListener(event -> {
+            if(worker.isDone()) dialog.dispose();
+            else worker.cancel(true);
+        });
+
+        worker.execute();
+        dialog.setVisible(true);
     }
 
     public void findProductById() {
-        try {
-            int id = Integer.parseInt(
-                    JOptionPane.showInputDialog(
+        int id = Integer.parseInt(
+                JOptionPane.showInputDialog(
+                        null,
+                        "Id do produto:",
+                        "Procurar produto por id",
+                        JOptionPane.PLAIN_MESSAGE
+                ));
+
+        runInBackground("Procurar produto por id", "Buscando produto...",
+                () -> produtoController.findbyId(id),
+                product -> JOptionPane.showMessageDialog(
+                        null, product,
+                        "Produto encontrado",
+                        JOptionPane.PLAIN_MESSAGE
+                ));
+    }
+
+    /**
+     * Executa a chamada ao controller em um {@link SwingWorker} e entrega o resultado, ou o
+     * erro, na thread de eventos.
+     */
+    private <T> void runInBackground(String title, String message, Callable<T> call, Consumer<T> onSuccess) {
+        ProgressDialog progress = new ProgressDialog(title, message);
+
+        SwingWorker<T, Void> worker = new SwingWorker<>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return call.call();
+            }
+
+            @Override
+            protected void done() {
+                progress.close();
+
+                try {
+                    onSuccess.accept(get());
+                } catch (CancellationException e) {
+                    JOptionPane.showMessageDialog(
                             null,
-                            "Id do produto:",
-                            "Procurar produto por id",
-                            JOptionPane.PLAIN_MESSAGE
-                    ));
-
-            Product product = produtoController.findbyId(id);
-
-            JOptionPane.showMessageDialog(
-                    null, product,
-                    "Produto encontrado",
-                    JOptionPane.PLAIN_MESSAGE
-            );
-        } catch (ProductException | RepositoryException exception) {
-            JOptionPane.showMessageDialog(
-                    null,
-                    exception.getMessage(),
-                    "Erro",
-                    JOptionPane.ERROR_MESSAGE
-            );
-        }
+                            "Operação cancelada. Se já havia sido enviada ao banco, ela pode ter sido concluída.",
+                            title,
+                            JOptionPane.WARNING_MESSAGE
+                    );
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    showError(e.getCause());
+                }
+            }
+        };
+        progress.onCancel(() -> worker.cancel(true));
+
+        worker.execute();
+        progress.showAfter(PROGRESS_DELAY_MILLIS);
+    }
+
+    private void showError(Throwable exception) {
+        JOptionPane.showMessageDialog(
+                null,
+                exception.getMessage(),
+                "Erro",
+                JOptionPane.ERROR_MESSAGE
+        );
     }
 }
@@ -0,0 +1,89 @@
+package com.io.github.pedroolivsz.view;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.Timer;
+import java.awt.BorderLayout;
+import java.awt.FlowLayout;
+import java.awt.Frame;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+
+/**
+ * Janela de andamento de uma operação em segundo plano, com botão de cancelar.
+ *
+ * <p>Só aparece se a operação passar do atraso informado em {@link #showAfter(int)}, para
+ * não piscar nas operações rápidas. Deve ser usada na thread de eventos do Swing.</p>
+ *
+ * @author João Pedro
+ */
+
+class ProgressDialog {
+    private final JDialog dialog;
+    private final JProgressBar progressBar = new JProgressBar(0, 100);
+    private final JButton cancelButton = new JButton("Cancelar");
+    private Timer timer;
+    private boolean closed;
+
+    ProgressDialog(String title, String message) {
+        dialog = new JDialog((Frame) null, title, false);
+        dialog.setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+
+        progressBar.setIndeterminate(true);
+
+        JPanel content = new JPanel(new BorderLayout(0, 8));
+        content.setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        content.add(new JLabel(message), BorderLayout.NORTH);
+        content.add(progressBar, BorderLayout.CENTER);
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 0, 0));
+        buttons.add(cancelButton);
+        content.add(buttons, BorderLayout.SOUTH);
+
+        dialog.setContentPane(content);
+        dialog.pack();
+        dialog.setLocationRelativeTo(null);
+    }
+
+    /**
+     * @param onCancel chamado quando o usuário cancela pelo botão ou fechando a janela
+     */
+    void onCancel(Runnable onCancel) {
+        cancelButton.addActionListener(event -> {
+            cancelButton.setEnabled(false);
+            onCancel.run();
+        });
+        dialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent event) {
+                cancelButton.doClick();
+            }
+        });
+    }
+
+    void showAfter(int delayMillis) {
+        timer = new Timer(delayMillis, event -> {
+            if(!closed) dialog.setVisible(true);
+        });
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    /**
+     * @param percent andamento de 0 a 100; a barra deixa de ser indeterminada
+     */
+    void setProgress(int percent) {
+        progressBar.setIndeterminate(false);
+        progressBar.setValue(percent);
+    }
+
+    void close() {
+        closed = true;
+        if(timer != null) timer.stop();
+        dialog.dispose();
+    }
+}
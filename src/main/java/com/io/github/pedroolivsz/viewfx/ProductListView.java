@@ -2,29 +2,69 @@ package com.io.github.pedroolivsz.viewfx;
 
 import com.io.github.pedroolivsz.controller.ProdutoController;
 import com.io.github.pedroolivsz.dominio.Product;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
+import javafx.geometry.Insets;
 import javafx.scene.Parent;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
 
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
-
+/**
+ * Tabela de produtos com filtro por nome e ordenação por coluna.
+ *
+ * <p>O filtro e a ordenação são calculados pelo {@link ProductTableModel} em uma thread de
+ * segundo plano; a tabela recebe o resultado pronto em uma única troca de itens. Cada tecla
+ * ou clique gera uma nova consulta e abandona a anterior, se ainda estiver em andamento,
+ * então digitar no filtro não trava a tela mesmo com muitos produtos.</p>
+ */
 public class ProductListView {
     private final ProdutoController produtoController;
     private final BorderPane root;
     private final TableView<Product> tabela;
+    private final TextField filtro = new TextField();
+    private final Label total = new Label();
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-table");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //Só o resultado da consulta mais recente é publicado
+    private final AtomicLong generation = new AtomicLong();
+
+    //Acessados apenas na thread do JavaFX
+    private ProductTableModel model;
+    private ProductTableModel.Result result;
 
     public ProductListView(ProdutoController produtoController) {
+        this(produtoController, null);
+    }
+
+    /**
+     * @param produtoController controller de produtos
+     * @param products catálogo já carregado em segundo plano, ou null para carregar agora
+     */
+    public ProductListView(ProdutoController produtoController, List<Product> products) {
         this.produtoController = produtoController;
         this.root = new BorderPane();
         this.tabela = new TableView<>();
 
         setupTable();
-        loadData();
+        setupFilter();
+        loadData(products);
 
         root.setCenter(tabela);
     }
@@ -33,21 +73,88 @@ public class ProductListView {
         TableColumn<Product, Integer> colunaId = new TableColumn<>("ID");
         colunaId.setCellValueFactory(p -> new SimpleIntegerProperty(p.getValue().getId()).asObject());
         colunaId.setPrefWidth(50);
+        colunaId.setUserData(ProductTableModel.Column.ID);
 
         TableColumn<Product, String> colunaNome = new TableColumn<>("Nome");
         colunaNome.setCellValueFactory(p -> new SimpleStringProperty(p.getValue().getName()));
         colunaNome.setPrefWidth(200);
+        colunaNome.setUserData(ProductTableModel.Column.NAME);
 
         TableColumn<Product, Integer> colunaQuantidade = new TableColumn<>("Quantidade");
         colunaQuantidade.setCellValueFactory(p -> new SimpleIntegerProperty(p.getValue().getQuantity()).asObject());
         colunaQuantidade.setPrefWidth(120);
+        colunaQuantidade.setUserData(ProductTableModel.Column.QUANTITY);
 
         tabela.getColumns().addAll(colunaId, colunaNome, colunaQuantidade);
+
+        //A tabela não ordena os itens: o clique no cabeçalho só dispara uma nova consulta
+        tabela.setSortPolicy(table -> {
+            refresh();
+            return true;
+        });
+    }
+
+    private void setupFilter() {
+        filtro.setPromptText("Filtrar por nome");
+        filtro.textProperty().addListener((observable, antes, depois) -> refresh());
+        HBox.setHgrow(filtro, Priority.ALWAYS);
+
+        HBox barra = new HBox(10, filtro, total);
+        barra.setPadding(new Insets(8));
+        root.setTop(barra);
     }
 
-    private void loadData() {
-        List<Product> products = produtoController.listAll();
-        tabela.setItems(FXCollections.observableList(products));
+    private void loadData(List<Product> products) {
+        tabela.setPlaceholder(new Label("Carregando produtos..."));
+
+        executor.execute(() -> {
+            try {
+                ProductTableModel loaded = new ProductTableModel(products != null ? products : produtoController.listAll());
+                Platform.runLater(() -> {
+                    model = loaded;
+                    tabela.setPlaceholder(new Label("Nenhum produto encontrado"));
+                    refresh();
+                });
+            } catch (RuntimeException e) {
+                Platform.runLater(() -> tabela.setPlaceholder(new Label("Erro ao carregar produtos: " + e.getMessage())));
+            }
+        });
+    }
+
+    /**
+     * Agenda a consulta com o filtro e a ordenação atuais. Chamado na thread do JavaFX.
+     */
+    private void refresh() {
+        if(model == null) return;
+
+        ProductTableModel current = model;
+        ProductTableModel.Result previous = result;
+        String filter = filtro.getText();
+        TableColumn<Product, ?> sortColumn = tabela.getSortOrder().isEmpty() ? null : tabela.getSortOrder().get(0);
+        ProductTableModel.Column column = sortColumn != null
+                ? (ProductTableModel.Column) sortColumn.getUserData()
+                : ProductTableModel.Column.ID;
+        boolean ascending = sortColumn == null || sortColumn.getSortType() == TableColumn.SortType.ASCENDING;
+        long requested = generation.incrementAndGet();
+
+        executor.execute(() -> {
+            if(generation.get() != requested) return;
+
+            ProductTableModel.Result computed;
+            try {
+                computed = current.query(filter, column, ascending, previous, () -> generation.get() != requested);
+            } catch (CancellationException e) {
+                return;
+            }
+
+            Platform.runLater(() -> {
+                if(generation.get() != requested || model != current) return;
+
+                result = computed;
+                tabela.setItems(FXCollections.observableList(computed));
+                total.setText(computed.size() + " de " + current.size() + " produtos");
+            });
+        });
     }
 
     public Parent getRoot() {
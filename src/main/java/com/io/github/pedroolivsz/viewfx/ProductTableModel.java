@@ -0,0 +1,152 @@
+package com.io.github.pedroolivsz.viewfx;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.service.ProductNameIndex;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Modelo indexado da tabela de produtos, sem dependência do JavaFX.
+ *
+ * <p>Na construção, os nomes são normalizados uma vez e a ordem dos produtos é calculada
+ * para cada coluna. Uma consulta percorre a ordem da coluna escolhida (de trás para frente,
+ * se decrescente) e mantém só os nomes que contêm o filtro, então o resultado já sai
+ * ordenado, sem ordenar nada a cada tecla. Quando o filtro novo estende o anterior na mesma
+ * ordenação, só o resultado anterior é percorrido.</p>
+ *
+ * <p>O modelo e os resultados são imutáveis e podem ser calculados fora da thread do JavaFX.</p>
+ *
+ * @author João Pedro
+ */
+
+public class ProductTableModel {
+    //=============== Constantes ===============
+
+    //Intervalo, em linhas, entre as verificações de cancelamento
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    public enum Column {
+        ID,
+        NAME,
+        QUANTITY
+    }
+
+    //=============== Estado ===============
+
+    private final Product[] products;
+    private final String[] names;
+    private final int[][] orders = new int[Column.values().length][];
+
+    //=============== Construtor ===============
+
+    /**
+     * @param products produtos da tabela; a lista não é alterada
+     */
+    public ProductTableModel(List<Product> products) {
+        this.products = products.toArray(new Product[0]);
+        this.names = new String[this.products.length];
+        for(int i = 0; i < names.length; i++) names[i] = ProductNameIndex.normalize(this.products[i].getName());
+
+        //Empates são desfeitos pelo ID, para que a ordem não mude entre consultas
+        Comparator<Integer> byId = Comparator.comparingInt(i -> this.products[i].getId());
+        orders[Column.ID.ordinal()] = sorted(byId);
+        orders[Column.NAME.ordinal()] = sorted(Comparator.<Integer, String>comparing(i -> names[i]).thenComparing(byId));
+        orders[Column.QUANTITY.ordinal()] = sorted(Comparator.<Integer>comparingInt(i -> this.products[i].getQuantity()).thenComparing(byId));
+    }
+
+    //=============== Consultas ===============
+
+    public int size() {
+        return products.length;
+    }
+
+    /**
+     * @param filter trecho do nome, em qualquer caixa; vazio ou null mantém todos
+     * @param column coluna da ordenação
+     * @param ascending ordem crescente
+     * @param previous resultado anterior deste modelo, reaproveitado se o filtro novo o
+     *                 estender na mesma ordenação; pode ser null
+     * @param cancelled consultado durante o cálculo; se true, o cálculo é abandonado
+     * @return produtos filtrados e ordenados
+     * @throws CancellationException se o cálculo for cancelado
+     */
+    public Result query(String filter, Column column, boolean ascending, Result previous, BooleanSupplier cancelled) {
+        String normalized = filter == null ? "" : ProductNameIndex.normalize(filter);
+        int[] order = orders[column.ordinal()];
+
+        int[] candidates;
+        boolean reversed;
+        if(previous != null && previous.model == this && previous.column == column && previous.ascending == ascending
+                && normalized.contains(previous.filter)) {
+            candidates = previous.rows;
+            reversed = false;
+        } else {
+            candidates = order;
+            reversed = !ascending;
+        }
+
+        if(normalized.isEmpty()) {
+            int[] rows = reversed ? reverse(candidates) : candidates;
+            return new Result(this, normalized, column, ascending, rows);
+        }
+
+        int[] rows = new int[candidates.length];
+        int count = 0;
+        for(int i = 0; i < candidates.length; i++) {
+            if(i % CANCEL_CHECK_INTERVAL == 0 && cancelled.getAsBoolean()) throw new CancellationException();
+
+            int row = candidates[reversed ? candidates.length - 1 - i : i];
+            if(names[row].contains(normalized)) rows[count++] = row;
+        }
+
+        return new Result(this, normalized, column, ascending, Arrays.copyOf(rows, count));
+    }
+
+    //=============== Métodos auxiliares privados ===============
+
+    private int[] sorted(Comparator<Integer> comparator) {
+        return IntStream.range(0, products.length).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int[] reverse(int[] rows) {
+        int[] reversed = new int[rows.length];
+        for(int i = 0; i < rows.length; i++) reversed[i] = rows[rows.length - 1 - i];
+        return reversed;
+    }
+
+    /**
+     * Resultado de uma consulta: lista somente leitura sobre as linhas do modelo.
+     */
+    public static final class Result extends AbstractList<Product> implements RandomAccess {
+        private final ProductTableModel model;
+        private final String filter;
+        private final Column column;
+        private final boolean ascending;
+        private final int[] rows;
+
+        private Result(ProductTableModel model, String filter, Column column, boolean ascending, int[] rows) {
+            this.model = model;
+            this.filter = filter;
+            this.column = column;
+            this.ascending = ascending;
+            this.rows = rows;
+        }
+
+        @Override
+        public Product get(int index) {
+            return model.products[rows[index]];
+        }
+
+        @Override
+        public int size() {
+            return rows.length;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package http;
+
+import com.io.github.pedroolivsz.controller.OrderTabController;
+import com.io.github.pedroolivsz.controller.ProdutoController;
+import com.io.github.pedroolivsz.http.ApiServer;
+import com.io.github.pedroolivsz.http.Json;
+import com.io.github.pedroolivsz.repository.OrderTabRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.OrderTabService;
+import com.io.github.pedroolivsz.service.ProductService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ApiServerLoadTest {
+        private static final int WORKERS = 16;
+        private static final int REQUESTS_PER_WORKER = 40;
+
+        private ApiServer apiServer;
+        private String baseUrl;
+        private int port;
+
+        @Before
+        public void startServer() throws Exception {
+                ProductRepository productRepository = new ProductRepository();
+                ProductService productService = new ProductService(productRepository);
+                OrderTabService orderTabService = new OrderTabService(new OrderTabRepository(), productRepository);
+
+                apiServer = new ApiServer(new ProdutoController(productService), new OrderTabController(orderTabService));
+                port = apiServer.start(0);
+                baseUrl = "http://localhost:" + port;
+        }
+
+        @After
+        public void stopServer() {
+                apiServer.stop();
+        }
+
+        @Test
+        public void testCrudAndStockUnderConcurrentLoad() throws Exception {
+                //Cenário
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                HttpResponse<String> created = client.send(post("/api/products",
+                        "{\"nome\":\"Água mineral\",\"quantidade\":100000,\"valorUnitario\":3.50}"),
+                        HttpResponse.BodyHandlers.ofString());
+                Assert.assertEquals(201, created.statusCode());
+                int productId = ((BigDecimal) Json.parseObject(created.body()).get("id")).intValue();
+
+                AtomicInteger removed = new AtomicInteger();
+                AtomicInteger errors = new AtomicInteger();
+                ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+
+                //Ação
+                List<Future<?>> results = new ArrayList<>();
+                for(int w = 0; w < WORKERS; w++) {
+                        int worker = w;
+                        results.add(workers.submit(() -> {
+                                for(int i = 0; i < REQUESTS_PER_WORKER; i++) {
+                                        //Três leituras para cada escrita, como no uso do caixa
+                                        boolean write = (i + worker) % 4 == 0;
+                                        HttpRequest request = write
+                                                ? post("/api/products/" + productId + "/stock/remove", "{\"quantidade\":1}")
+                                                : HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + productId)).GET().build();
+
+                                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                                        if(response.statusCode() != 200) errors.incrementAndGet();
+                                        else if(write) removed.incrementAndGet();
+                                }
+                                return null;
+                        }));
+                }
+                for(Future<?> result : results) result.get();
+                workers.shutdown();
+                workers.awaitTermination(5, TimeUnit.SECONDS);
+
+                HttpResponse<String> after = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + productId)).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+
+                //Verificação
+                Assert.assertEquals(0, errors.get());
+                Assert.assertEquals(WORKERS * REQUESTS_PER_WORKER / 4, removed.get());
+                Assert.assertEquals(new BigDecimal(100000 - removed.get()), Json.parseObject(after.body()).get("quantidade"));
+        }
+
+        @Test
+        public void testPipelinedRequestsOnOneConnection() throws Exception {
+                //Cenário
+                String request = "GET /api/health HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                        + "GET /api/products/999999999 HTTP/1.1\r\nHost: localhost\r\n\r\n";
+
+                //Ação
+                String responses;
+                try(Socket socket = new Socket("localhost", port)) {
+                        socket.setSoTimeout(5_000);
+                        OutputStream output = socket.getOutputStream();
+                        output.write(request.getBytes(StandardCharsets.US_ASCII));
+                        output.flush();
+                        responses = readResponses(socket.getInputStream(), 2);
+                }
+
+                //Verificação
+                int first = responses.indexOf("HTTP/1.1 200");
+                int second = responses.indexOf("HTTP/1.1 404");
+                Assert.assertTrue(responses, first >= 0);
+                Assert.assertTrue(responses, second > first);
+        }
+
+        @Test
+        public void testOrderTabFlowAndErrorMapping() throws Exception {
+                //Cenário
+                HttpClient client = HttpClient.newHttpClient();
+                HttpResponse<String> product = client.send(post("/api/products",
+                        "{\"nome\":\"Porção de fritas\",\"quantidade\":5,\"valorUnitario\":25}"),
+                        HttpResponse.BodyHandlers.ofString());
+                int productId = ((BigDecimal) Json.parseObject(product.body()).get("id")).intValue();
+
+                //Ação
+                HttpResponse<String> opened = client.send(post("/api/order-tabs", "{\"mesa\":4}"), HttpResponse.BodyHandlers.ofString());
+                int tabId = ((BigDecimal) Json.parseObject(opened.body()).get("id")).intValue();
+                HttpResponse<String> item = client.send(post("/api/order-tabs/" + tabId + "/items",
+                        "{\"produtoId\":" + productId + ",\"quantidade\":2}"), HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> closed = client.send(post("/api/order-tabs/" + tabId + "/close", ""), HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> closedAgain = client.send(post("/api/order-tabs/" + tabId + "/close", ""), HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> invalid = client.send(post("/api/products/" + productId + "/stock/remove", "{\"quantidade\":50}"),
+                        HttpResponse.BodyHandlers.ofString());
+                HttpResponse<String> malformed = client.send(post("/api/products", "{\"nome\":"), HttpResponse.BodyHandlers.ofString());
+
+                //Verificação
+                Assert.assertEquals(201, opened.statusCode());
+                Assert.assertEquals(200, item.statusCode());
+                Assert.assertEquals(200, closed.statusCode());
+                Map<String, Object> closedTab = Json.parseObject(closed.body());
+                Assert.assertEquals("CLOSED", closedTab.get("status"));
+                Assert.assertEquals(0, new BigDecimal("50").compareTo((BigDecimal) closedTab.get("total")));
+                Assert.assertEquals(409, closedAgain.statusCode());
+                Assert.assertEquals(400, invalid.statusCode());
+                Assert.assertEquals(400, malformed.statusCode());
+        }
+
+        private HttpRequest post(String path, String body) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+        }
+
+        /**
+         * Lê respostas com Content-Length até obter a quantidade esperada. A decodificação em
+         * ISO-8859-1 mantém um caractere por byte, para comparar com o Content-Length.
+         */
+        private static String readResponses(InputStream input, int expected) throws Exception {
+                StringBuilder received = new StringBuilder();
+                byte[] buffer = new byte[4096];
+                int complete = 0;
+                while(complete < expected) {
+                        int read = input.read(buffer);
+                        if(read < 0) break;
+                        received.append(new String(Arrays.copyOf(buffer, read), StandardCharsets.ISO_8859_1));
+                        complete = countComplete(received.toString());
+                }
+                return received.toString();
+        }
+
+        private static int countComplete(String received) {
+                int complete = 0;
+                int position = 0;
+                while(true) {
+                        int headerEnd = received.indexOf("\r\n\r\n", position);
+                        if(headerEnd < 0) return complete;
+                        String headers = received.substring(position, headerEnd).toLowerCase();
+                        int lengthAt = headers.indexOf("content-length:");
+                        int length = 0;
+                        if(lengthAt >= 0) {
+                                int lineEnd = headers.indexOf("\r\n", lengthAt);
+                                length = Integer.parseInt(headers.substring(lengthAt + 15, lineEnd < 0 ? headers.length() : lineEnd).trim());
+                        }
+                        int end = headerEnd + 4 + length;
+                        if(end > received.length()) return complete;
+                        complete++;
+                        position = end;
+                }
+        }
+}
@@ -0,0 +1,139 @@
+package http;
+
+import com.io.github.pedroolivsz.controller.OrderTabController;
+import com.io.github.pedroolivsz.controller.ProdutoController;
+import com.io.github.pedroolivsz.http.ApiServer;
+import com.io.github.pedroolivsz.http.Json;
+import com.io.github.pedroolivsz.repository.OrderTabRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.OrderTabService;
+import com.io.github.pedroolivsz.service.ProductService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vazão e latência da API HTTP com vários clientes lendo e baixando estoque do mesmo produto
+ * por um tempo fixo. Roda só com o perfil soak
+ * ({@code mvn -Psoak test}), com um arquivo SQLite próprio.
+ *
+ * <p>Clientes e duração podem ser alterados com {@code -Dsoak.terminals} e
+ * {@code -Dsoak.duration.seconds}.</p>
+ */
+public class ApiServerSoakTest {
+        private static final Logger logger = LoggerFactory.getLogger(ApiServerSoakTest.class);
+
+        private static final int WORKERS = Integer.getInteger("soak.terminals", 16);
+        private static final int DURATION_SECONDS = Integer.getInteger("soak.duration.seconds", 3);
+
+        private ApiServer apiServer;
+        private String baseUrl;
+
+        @Before
+        public void startServer() throws Exception {
+                ProductRepository productRepository = new ProductRepository();
+                ProductService productService = new ProductService(productRepository);
+                OrderTabService orderTabService = new OrderTabService(new OrderTabRepository(), productRepository);
+
+                apiServer = new ApiServer(new ProdutoController(productService), new OrderTabController(orderTabService));
+                baseUrl = "http://localhost:" + apiServer.start(0);
+        }
+
+        @After
+        public void stopServer() {
+                apiServer.stop();
+        }
+
+        @Test
+        public void testThroughputAndLatencyUnderConcurrentLoad() throws Exception {
+                //Cenário
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                HttpResponse<String> created = client.send(post("/api/products",
+                        "{\"nome\":\"Água mineral " + System.nanoTime() + "\",\"quantidade\":1000000,\"valorUnitario\":3.50}"),
+                        HttpResponse.BodyHandlers.ofString());
+                Assert.assertEquals(201, created.statusCode());
+                int productId = ((BigDecimal) Json.parseObject(created.body()).get("id")).intValue();
+
+                AtomicInteger removed = new AtomicInteger();
+                AtomicInteger errors = new AtomicInteger();
+                ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+                //Ação
+                long start = System.nanoTime();
+                List<Future<List<Long>>> results = new ArrayList<>();
+                for(int w = 0; w < WORKERS; w++) {
+                        int worker = w;
+                        results.add(workers.submit(() -> {
+                                List<Long> latencies = new ArrayList<>();
+                                int i = 0;
+                                while(System.nanoTime() < deadline) {
+                                        //Três leituras para cada escrita, como no uso do caixa
+                                        boolean write = (i++ + worker) % 4 == 0;
+                                        HttpRequest request = write
+                                                ? post("/api/products/" + productId + "/stock/remove", "{\"quantidade\":1}")
+                                                : HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + productId)).GET().build();
+
+                                        long requestStart = System.nanoTime();
+                                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                                        latencies.add(System.nanoTime() - requestStart);
+
+                                        if(response.statusCode() != 200) errors.incrementAndGet();
+                                        else if(write) removed.incrementAndGet();
+                                }
+                                return latencies;
+                        }));
+                }
+
+                List<Long> latencies = new ArrayList<>();
+                for(Future<List<Long>> result : results) latencies.addAll(result.get());
+                double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+                workers.shutdown();
+                workers.awaitTermination(5, TimeUnit.SECONDS);
+
+                long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+                logger.info(String.format("API HTTP: %d requisições, %.0f req/s, p50 %.2f ms, p95 %.2f ms, p99 %.2f ms",
+                        sorted.length, sorted.length / elapsedSeconds,
+                        percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99)));
+
+                HttpResponse<String> after = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + productId)).GET().build(),
+                        HttpResponse.BodyHandlers.ofString());
+
+                //Verificação
+                Assert.assertEquals(0, errors.get());
+                Assert.assertTrue(sorted.length > 0);
+                Assert.assertEquals(new BigDecimal(1000000 - removed.get()), Json.parseObject(after.body()).get("quantidade"));
+        }
+
+        private HttpRequest post(String path, String body) {
+                return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+        }
+
+        private static double percentile(long[] sorted, int percentile) {
+                int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+                return sorted[Math.max(0, index)] / 1e6;
+        }
+}
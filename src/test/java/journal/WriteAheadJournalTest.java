@@ -0,0 +1,104 @@
+package journal;
+
+import com.io.github.pedroolivsz.journal.JournalApplier;
+import com.io.github.pedroolivsz.journal.JournalRecord;
+import com.io.github.pedroolivsz.journal.WriteAheadJournal;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class WriteAheadJournalTest {
+        @Test
+        public void testRecordsAreAppliedInOrderAndSegmentsTruncated() throws Exception {
+                //Cenário
+                Path directory = Files.createTempDirectory("journal");
+                FakeApplier applier = new FakeApplier();
+                WriteAheadJournal journal = new WriteAheadJournal(directory, 4096, 1, applier);
+                journal.start();
+
+                //Ação
+                for(int i = 0; i < 500; i++) {
+                        journal.append(("registro-" + i).getBytes(StandardCharsets.UTF_8));
+                }
+                waitUntil(() -> journal.getAppliedSequence() == 500);
+                journal.append("ultimo".getBytes(StandardCharsets.UTF_8));
+                waitUntil(() -> journal.getAppliedSequence() == 501);
+                journal.close();
+
+                //Verificação
+                Assert.assertEquals(501, applier.sequences.size());
+                for(int i = 0; i < applier.sequences.size(); i++) {
+                        Assert.assertEquals(i + 1, (long) applier.sequences.get(i));
+                }
+                Assert.assertEquals(1, journal.getSegmentCount());
+        }
+
+        @Test
+        public void testUnappliedRecordsAreReplayedAfterRestart() throws Exception {
+                //Cenário
+                Path directory = Files.createTempDirectory("journal");
+                FakeApplier unavailable = new FakeApplier();
+                unavailable.failing.set(true);
+                WriteAheadJournal journal = new WriteAheadJournal(directory, 4096, 0, unavailable);
+                journal.start();
+
+                for(int i = 0; i < 10; i++) {
+                        journal.append(new byte[] {(byte) i});
+                }
+                journal.close();
+
+                //Ação
+                FakeApplier restarted = new FakeApplier();
+                restarted.applied.set(4);
+                WriteAheadJournal reopened = new WriteAheadJournal(directory, 4096, 0, restarted);
+                List<JournalRecord> recovered = reopened.recover();
+                reopened.start();
+                waitUntil(() -> reopened.getAppliedSequence() == 10);
+                long next = reopened.append(new byte[] {42});
+                reopened.close();
+
+                //Verificação
+                Assert.assertEquals(6, recovered.size());
+                Assert.assertEquals(5, recovered.get(0).getSequence());
+                Assert.assertEquals(4, recovered.get(0).getPayload()[0]);
+                Assert.assertEquals(List.of(5L, 6L, 7L, 8L, 9L, 10L, 11L), restarted.sequences);
+                Assert.assertEquals(11, next);
+        }
+
+        private void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+                long deadline = System.currentTimeMillis() + 10_000;
+                while(!condition.getAsBoolean()) {
+                        if(System.currentTimeMillis() > deadline) Assert.fail("Tempo esgotado aguardando o journal");
+                        Thread.sleep(5);
+                }
+        }
+
+        private static class FakeApplier implements JournalApplier {
+                private final List<Long> sequences = Collections.synchronizedList(new ArrayList<>());
+                private final AtomicLong applied = new AtomicLong();
+                private final AtomicBoolean failing = new AtomicBoolean();
+
+                @Override
+                public long lastAppliedSequence() {
+                        return applied.get();
+                }
+
+                @Override
+                public void apply(List<JournalRecord> records) {
+                        if(failing.get()) throw new IllegalStateException("Banco bloqueado");
+                        for(JournalRecord record : records) {
+                                if(record.getSequence() <= applied.get()) continue;
+                                sequences.add(record.getSequence());
+                                applied.set(record.getSequence());
+                        }
+                }
+        }
+}
@@ -0,0 +1,65 @@
+package logs;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.logs.SlowQuery;
+import com.io.github.pedroolivsz.logs.SlowQueryLog;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class SlowQueryLogTest {
+        @After
+        public void restoreDefaults() {
+                SlowQueryLog.setThresholdMillis(50);
+                SlowQueryLog.setParameterMode(SlowQueryLog.ParameterMode.TYPES);
+                SlowQueryLog.clear();
+        }
+
+        @Test
+        public void testSlowStatementsAreRecordedWithPlanAndRedactedParameters() {
+                //Cenário
+                ProductService productService = new ProductService(new ProductRepository());
+                Product product = productService.create("Licor rastreado " + System.nanoTime(), 2, new BigDecimal("45"));
+                SlowQueryLog.clear();
+                SlowQueryLog.setThresholdMillis(0);
+
+                //Ação
+                productService.findById(product.getId());
+                SlowQueryLog.setParameterMode(SlowQueryLog.ParameterMode.HIDDEN);
+                productService.findById(product.getId());
+
+                //Verificação
+                List<SlowQuery> top = SlowQueryLog.top();
+                SlowQuery findById = top.stream()
+                        .filter(query -> query.getSql().contains("FROM produtos WHERE id = ?"))
+                        .findFirst().orElseThrow();
+
+                Assert.assertEquals(2, findById.getCount());
+                Assert.assertTrue(findById.getPlan(), findById.getPlan().contains("USING INTEGER PRIMARY KEY"));
+                Assert.assertTrue(findById.getParameters().equals("[Integer]") || findById.getParameters().equals("[?]"));
+                Assert.assertFalse(findById.getParameters().contains(String.valueOf(product.getId())));
+                Assert.assertTrue(findById.getTotalNanos() >= findById.getMaxNanos());
+                for(int i = 1; i < top.size(); i++) {
+                        Assert.assertTrue(top.get(i - 1).getMaxNanos() >= top.get(i).getMaxNanos());
+                }
+        }
+
+        @Test
+        public void testStatementsBelowThresholdAreIgnored() {
+                //Cenário
+                ProductService productService = new ProductService(new ProductRepository());
+                SlowQueryLog.clear();
+                SlowQueryLog.setThresholdMillis(60_000);
+
+                //Ação
+                productService.listAll();
+
+                //Verificação
+                Assert.assertTrue(SlowQueryLog.top().isEmpty());
+        }
+}
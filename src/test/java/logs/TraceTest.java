@@ -0,0 +1,88 @@
+package logs;
+
+import com.io.github.pedroolivsz.controller.ProdutoController;
+import com.io.github.pedroolivsz.logs.Span;
+import com.io.github.pedroolivsz.logs.Trace;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.MDC;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class TraceTest {
+        @Test
+        public void testControllerCallProducesSpanTreeWithCorrelationId() {
+                //Cenário
+                ProdutoController controller = new ProdutoController(new ProductService(new ProductRepository()));
+                List<Span> roots = new ArrayList<>();
+                List<String> correlationIds = new ArrayList<>();
+                Consumer<Span> listener = root -> {
+                        roots.add(root);
+                        correlationIds.add(MDC.get(Trace.CORRELATION_ID));
+                };
+                Trace.addListener(listener);
+
+                //Ação
+                try {
+                        controller.create("Tônica rastreada " + System.nanoTime(), 4, new BigDecimal("7"));
+                        controller.listAll();
+                } finally {
+                        Trace.removeListener(listener);
+                }
+
+                //Verificação
+                Assert.assertEquals(2, roots.size());
+                Span create = roots.get(0);
+                Assert.assertEquals("ProdutoController.create", create.getName());
+                Assert.assertEquals(create.getCorrelationId(), correlationIds.get(0));
+                Assert.assertNotEquals(create.getCorrelationId(), roots.get(1).getCorrelationId());
+                Assert.assertNull(MDC.get(Trace.CORRELATION_ID));
+
+                Span service = create.find("ProductService.create");
+                Assert.assertNotNull(service);
+                Assert.assertNotNull(service.find("validation"));
+                Assert.assertNotNull(service.find("connection.acquire"));
+                Span statements = service.getChildren().stream()
+                        .filter(child -> child.getName().equals("statement"))
+                        .findFirst().orElseThrow();
+                Assert.assertTrue(statements.getCount() >= 2);
+                Assert.assertTrue(create.getTotalNanos() >= service.getTotalNanos());
+
+                Span rows = roots.get(1).find("row.mapping");
+                Assert.assertNotNull(rows);
+                Assert.assertTrue(rows.getCount() >= 1);
+                Assert.assertEquals(1, roots.get(1).getChildren().size());
+        }
+
+        @Test
+        public void testSlowOperationsAreWrittenToTheDedicatedLog() throws Exception {
+                //Cenário
+                ProdutoController controller = new ProdutoController(new ProductService(new ProductRepository()));
+                List<Span> roots = new ArrayList<>();
+                Consumer<Span> listener = roots::add;
+                Trace.addListener(listener);
+                Trace.setSlowThresholdMillis(0);
+
+                //Ação
+                try {
+                        controller.listAll();
+                } finally {
+                        Trace.setSlowThresholdMillis(200);
+                        Trace.removeListener(listener);
+                }
+
+                //Verificação
+                Assert.assertFalse(Trace.isActive());
+                String slowLog = Files.readString(Path.of(System.getProperty("slow.log.file")), StandardCharsets.UTF_8);
+                Assert.assertTrue(slowLog.contains("[" + roots.get(0).getCorrelationId() + "]"));
+                Assert.assertTrue(slowLog.contains("ProductService.listAll"));
+        }
+}
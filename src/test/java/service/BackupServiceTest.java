@@ -0,0 +1,120 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.BackupResult;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.BackupRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.BackupService;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.ServiceException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public class BackupServiceTest {
+        @Test
+        public void testBackupIsCopiedAndVerifiedWhileSelling() throws Exception {
+                //Cenário
+                ProductService productService = new ProductService(new ProductRepository());
+                Product created = productService.create("Espumante " + System.nanoTime(), 500, new BigDecimal("80.00"));
+                Path directory = Files.createTempDirectory("backups");
+                //Um passo por página: as vendas acontecem entre os passos
+                BackupService backupService = new BackupService(new BackupRepository(), directory, 3, 1, 1, Clock.systemUTC());
+
+                //Ação
+                Thread seller = new Thread(() -> {
+                        for(int i = 0; i < 20; i++) productService.removeStock(created.getId(), 1);
+                });
+                seller.start();
+                BackupResult result = backupService.backupNow();
+                seller.join();
+
+                //Verificação
+                Assert.assertTrue(Files.exists(result.getFile()));
+                Assert.assertTrue(result.getPages() > 0);
+                Assert.assertEquals(List.of(result.getFile()), backupService.listBackups());
+                Assert.assertTrue(new BackupRepository().integrityCheck(result.getFile()).isEmpty());
+                try(Connection conn = DriverManager.getConnection("jdbc:sqlite:" + result.getFile());
+                    PreparedStatement preparedStatement = conn.prepareStatement("SELECT quantidade FROM produtos WHERE id = ?")) {
+                        preparedStatement.setInt(1, created.getId());
+                        try(ResultSet resultSet = preparedStatement.executeQuery()) {
+                                Assert.assertTrue(resultSet.next());
+                                Assert.assertTrue(resultSet.getInt(1) <= 500 && resultSet.getInt(1) >= 480);
+                        }
+                }
+        }
+
+        @Test
+        public void testOnlyNewestBackupsAreKept() throws Exception {
+                //Cenário
+                Path directory = Files.createTempDirectory("backups");
+                MovingClock clock = new MovingClock();
+                BackupService backupService = new BackupService(new BackupRepository(), directory, 2, 1000, 0, clock);
+
+                //Ação
+                Path first = backupService.backupNow().getFile();
+                clock.advance();
+                Path second = backupService.backupNow().getFile();
+                clock.advance();
+                Path third = backupService.backupNow().getFile();
+
+                //Verificação
+                Assert.assertEquals(List.of(third, second), backupService.listBackups());
+                Assert.assertFalse(Files.exists(first));
+        }
+
+        @Test
+        public void testCorruptedBackupIsDiscarded() throws Exception {
+                //Cenário
+                Path directory = Files.createTempDirectory("backups");
+                BackupRepository corrupting = new BackupRepository() {
+                        @Override
+                        public List<String> integrityCheck(Path file) {
+                                return List.of("Page 2 is never used");
+                        }
+                };
+                BackupService backupService = new BackupService(corrupting, directory, 2, 1000, 0, Clock.systemUTC());
+
+                //Ação e Verificação
+                Assert.assertThrows(ServiceException.class, backupService::backupNow);
+                Assert.assertTrue(backupService.listBackups().isEmpty());
+                try(var files = Files.list(directory)) {
+                        Assert.assertEquals(0, files.count());
+                }
+        }
+
+        private static class MovingClock extends Clock {
+                private Instant now = Instant.parse("2026-01-01T10:00:00Z");
+
+                void advance() {
+                        now = now.plus(Duration.ofMinutes(1));
+                }
+
+                @Override
+                public ZoneOffset getZone() {
+                        return ZoneOffset.UTC;
+                }
+
+                @Override
+                public Clock withZone(java.time.ZoneId zone) {
+                        return this;
+                }
+
+                @Override
+                public Instant instant() {
+                        return now;
+                }
+        }
+}
@@ -0,0 +1,73 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.PriceAdjustment;
+import com.io.github.pedroolivsz.dominio.PriceChange;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ProductFilter;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.validation.ProductException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class BulkRepricingTest {
+        private final ProductService productService = new ProductService(new ProductRepository());
+
+        @Test
+        public void testPercentagePreviewAndApplyWithRounding() {
+                //Cenário
+                String group = "bebida-" + System.nanoTime();
+                Product soda = productService.create(group + " refrigerante", 10, new BigDecimal("1.25"));
+                Product juice = productService.create(group + " suco", 10, new BigDecimal("2.05"));
+                Product other = productService.create("porção-" + System.nanoTime(), 10, new BigDecimal("30"));
+                ProductFilter drinks = ProductFilter.all().nameContains(group);
+
+                //Ação
+                List<PriceChange> preview = productService.previewReprice(drinks, PriceAdjustment.percentage(new BigDecimal("10")));
+                BigDecimal afterPreview = productService.findById(soda.getId()).getUnitValue();
+                List<PriceChange> applied = productService.reprice(drinks, PriceAdjustment.percentage(new BigDecimal("8.5")));
+
+                //Verificação
+                Assert.assertEquals(2, preview.size());
+                Assert.assertEquals(new BigDecimal("1.38"), preview.get(0).getNewPrice());
+                Assert.assertEquals(0, new BigDecimal("1.25").compareTo(afterPreview));
+
+                Assert.assertEquals(2, applied.size());
+                Assert.assertEquals(new BigDecimal("1.36"), applied.get(0).getNewPrice());
+                Assert.assertEquals(new BigDecimal("2.22"), applied.get(1).getNewPrice());
+                Assert.assertEquals(0, new BigDecimal("1.36").compareTo(productService.findById(soda.getId()).getUnitValue()));
+                Assert.assertEquals(0, new BigDecimal("2.22").compareTo(productService.findById(juice.getId()).getUnitValue()));
+                Assert.assertEquals(0, new BigDecimal("30").compareTo(productService.findById(other.getId()).getUnitValue()));
+                Assert.assertTrue(productService.findById(soda.getId()).getVersion() > soda.getVersion());
+        }
+
+        @Test
+        public void testFixedDeltaAndPriceListAreAtomic() {
+                //Cenário
+                Product cheap = productService.create("bala-" + System.nanoTime(), 10, new BigDecimal("0.30"));
+                Product regular = productService.create("chocolate-" + System.nanoTime(), 10, new BigDecimal("5.00"));
+                ProductFilter both = ProductFilter.all().ids(Set.of(cheap.getId(), regular.getId()));
+
+                //Ação
+                ProductException negative = Assert.assertThrows(ProductException.class,
+                        () -> productService.reprice(both, PriceAdjustment.fixedDelta(new BigDecimal("-0.50"))));
+                List<PriceChange> raised = productService.reprice(both, PriceAdjustment.fixedDelta(new BigDecimal("0.25")));
+                List<PriceChange> listed = productService.reprice(ProductFilter.all(), PriceAdjustment.priceList(Map.of(
+                        cheap.getId(), new BigDecimal("0.999"),
+                        regular.getId(), new BigDecimal("6"))));
+
+                //Verificação
+                Assert.assertTrue(negative.getMessage().contains("1 produto"));
+                Assert.assertEquals(2, raised.size());
+                Assert.assertEquals(new BigDecimal("0.55"), raised.get(0).getNewPrice());
+                Assert.assertEquals(new BigDecimal("5.25"), raised.get(1).getNewPrice());
+                Assert.assertEquals(2, listed.size());
+                Assert.assertEquals(0, new BigDecimal("1.00").compareTo(productService.findById(cheap.getId()).getUnitValue()));
+                Assert.assertEquals(0, new BigDecimal("6").compareTo(productService.findById(regular.getId()).getUnitValue()));
+        }
+}
@@ -0,0 +1,50 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ReceivingLine;
+import com.io.github.pedroolivsz.dominio.ReceivingResult;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.StockMovementRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class GoodsReceivingTest {
+        @Test
+        public void testDeliveryNoteIsAppliedInOneTransactionWithPerLineResults() {
+                //Cenário
+                ProductService productService = new ProductService(new ProductRepository());
+                StockMovementRepository stockMovementRepository = new StockMovementRepository();
+                Product flour = productService.create("Farinha de trigo", 2, new BigDecimal("6.50"));
+                Product oil = productService.create("Óleo de soja", 1, new BigDecimal("9.90"));
+
+                //Ação
+                List<ReceivingResult> results = productService.receive(List.of(
+                        new ReceivingLine(flour.getId(), 10),
+                        new ReceivingLine(999_999, 5),
+                        new ReceivingLine(oil.getId(), 0),
+                        new ReceivingLine(oil.getId(), 12),
+                        new ReceivingLine(flour.getId(), 3)));
+
+                //Verificação
+                Assert.assertEquals(5, results.size());
+                Assert.assertEquals(ReceivingResult.Status.RECEIVED, results.get(0).getStatus());
+                Assert.assertEquals(12, results.get(0).getProduct().getQuantity());
+                Assert.assertEquals(ReceivingResult.Status.PRODUCT_NOT_FOUND, results.get(1).getStatus());
+                Assert.assertEquals(ReceivingResult.Status.INVALID_QUANTITY, results.get(2).getStatus());
+                Assert.assertEquals(13, results.get(3).getProduct().getQuantity());
+                Assert.assertEquals(15, results.get(4).getProduct().getQuantity());
+
+                Assert.assertEquals(15, productService.findById(flour.getId()).getQuantity());
+                Assert.assertEquals(13, productService.findById(oil.getId()).getQuantity());
+
+                List<StockMovement> flourMovements = stockMovementRepository.listByProduct(flour.getId(), 10);
+                Assert.assertEquals(3, flourMovements.size());
+                Assert.assertEquals(StockMovement.Reason.RECEIVING, flourMovements.get(0).getReason());
+                Assert.assertEquals(15, flourMovements.stream().mapToInt(StockMovement::getDelta).sum());
+        }
+}
@@ -0,0 +1,81 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.IdempotencyKeyRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.IdempotencyKeys;
+import com.io.github.pedroolivsz.service.LowStockMonitor;
+import com.io.github.pedroolivsz.service.ProductAutocomplete;
+import com.io.github.pedroolivsz.service.ProductCatalog;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.SalesVelocityTracker;
+import com.io.github.pedroolivsz.service.ServiceException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class IdempotencyKeysTest {
+        private static ProductService newService(IdempotencyKeys idempotencyKeys) {
+                ProductRepository productRepository = new ProductRepository();
+                return new ProductService(productRepository, new LowStockMonitor(), null,
+                        new ProductAutocomplete(productRepository), new ProductCatalog(productRepository), idempotencyKeys,
+                        SalesVelocityTracker.shared());
+        }
+
+        @Test
+        public void testRepeatedRemovalReturnsOriginalResult() throws Exception {
+                //Cenário
+                ProductService productService = newService(new IdempotencyKeys());
+                Product created = productService.create("Gin " + System.nanoTime(), 50, new BigDecimal("12.00"));
+                String key = "baixa-" + System.nanoTime();
+
+                //Ação
+                ExecutorService executor = Executors.newFixedThreadPool(8);
+                List<Future<Product>> retries = new ArrayList<>();
+                for(int i = 0; i < 8; i++) retries.add(executor.submit(() -> productService.removeStock(key, created.getId(), 3)));
+                List<Product> results = new ArrayList<>();
+                for(Future<Product> retry : retries) results.add(retry.get());
+                executor.shutdown();
+
+                //Verificação
+                Assert.assertEquals(47, productService.findById(created.getId()).getQuantity());
+                for(Product result : results) {
+                        Assert.assertEquals(47, result.getQuantity());
+                        Assert.assertEquals(created.getName(), result.getName());
+                        Assert.assertEquals(0, new BigDecimal("12.00").compareTo(result.getUnitValue()));
+                }
+                Assert.assertThrows(ServiceException.class, () -> productService.removeStock(key, created.getId(), 4));
+                Assert.assertThrows(ServiceException.class, () -> productService.addStock(key, created.getId(), 3));
+        }
+
+        @Test
+        public void testKeysSurviveRestartAndEviction() {
+                //Cenário
+                String name = "Vermute " + System.nanoTime();
+                String key = "criacao-" + System.nanoTime();
+                Product created = newService(new IdempotencyKeys()).create(key, name, 10, new BigDecimal("30.00"));
+
+                //Ação
+                //Outra instância, como depois de um reinício, com espaço para uma única chave em memória
+                IdempotencyKeys restarted = new IdempotencyKeys(new IdempotencyKeyRepository(), Duration.ofHours(1), 1, Clock.systemUTC());
+                ProductService productService = newService(restarted);
+                Product filler = productService.create("filler-" + System.nanoTime(), "Tônica " + System.nanoTime(), 5, new BigDecimal("6.00"));
+                Product repeated = productService.create(key, name, 10, new BigDecimal("30.00"));
+                Product again = productService.create(key, name, 10, new BigDecimal("30.00"));
+
+                //Verificação
+                Assert.assertNotEquals(created.getId(), filler.getId());
+                Assert.assertEquals(created.getId(), repeated.getId());
+                Assert.assertEquals(created.getId(), again.getId());
+                Assert.assertEquals(created.getVersion(), repeated.getVersion());
+                Assert.assertEquals(10, repeated.getQuantity());
+        }
+}
@@ -0,0 +1,105 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.journal.ProductChange;
+import com.io.github.pedroolivsz.repository.InMemoryProductStore;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.ProductSnapshotRepository;
+import com.io.github.pedroolivsz.repository.RepositoryException;
+import com.io.github.pedroolivsz.service.PriceHistoryService;
+import com.io.github.pedroolivsz.service.ProductService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public class InMemoryProductStoreTest {
+        @Test
+        public void testSnapshotIsWrittenToSqlite() throws Exception {
+                //Cenário
+                Path directory = Files.createTempDirectory("product-store");
+                InMemoryProductStore store = new InMemoryProductStore(directory, 64 * 1024, 1, 60_000, new ProductSnapshotRepository());
+                ProductService productService = new ProductService(store);
+                Product created = productService.create("Tônica " + System.nanoTime(), 20, new BigDecimal("5.00"));
+                productService.removeStock(created.getId(), 3);
+
+                //Ação
+                ProductRepository sqlite = new ProductRepository();
+                boolean visibleBeforeSnapshot = sqlite.findById(created.getId()).isPresent();
+                store.snapshot();
+
+                //Verificação
+                Assert.assertFalse(visibleBeforeSnapshot);
+                Assert.assertEquals(17, sqlite.findById(created.getId()).orElseThrow().getQuantity());
+                Assert.assertEquals(0, store.getPendingChanges());
+                store.close();
+        }
+
+        @Test
+        public void testJournalIsReplayedWhenSnapshotFailed() throws Exception {
+                //Cenário: banco indisponível durante toda a execução, inclusive no snapshot final
+                Path directory = Files.createTempDirectory("product-store");
+                InMemoryProductStore crashed = new InMemoryProductStore(directory, 64 * 1024, 1, 60_000, new UnavailableSnapshots());
+                ProductService productService = new ProductService(crashed);
+                Product created = productService.create("Água tônica " + System.nanoTime(), 30, new BigDecimal("4.00"));
+                productService.removeStock(created.getId(), 5);
+                productService.updatePrice(created.getId(), new BigDecimal("4.25"));
+                crashed.close();
+
+                //Ação
+                InMemoryProductStore recovered = new InMemoryProductStore(directory, 64 * 1024, 1, 60_000, new ProductSnapshotRepository());
+
+                //Verificação
+                Product product = recovered.findById(created.getId()).orElseThrow();
+                Assert.assertEquals(25, product.getQuantity());
+                Assert.assertEquals(0, new BigDecimal("4.25").compareTo(product.getUnitValue()));
+                Assert.assertEquals(2, product.getVersion());
+                Assert.assertEquals(created.getId(), (int) recovered.findIdByNormalizedName(created.getName()).orElseThrow());
+
+                recovered.close();
+                Assert.assertEquals(25, new ProductRepository().findById(created.getId()).orElseThrow().getQuantity());
+        }
+
+        @Test
+        public void testPriceChangesAreRecordedInHistoryAtTheEditTime() throws Exception {
+                //Cenário
+                Path directory = Files.createTempDirectory("product-store");
+                InMemoryProductStore store = new InMemoryProductStore(directory, 64 * 1024, 1, 60_000, new ProductSnapshotRepository());
+                ProductService productService = new ProductService(store);
+                PriceHistoryService priceHistoryService = new PriceHistoryService();
+                Product created = productService.create("Água com gás " + System.nanoTime(), 10, new BigDecimal("3.00"));
+                Thread.sleep(3);
+                Instant afterCreation = Instant.now();
+                Thread.sleep(3);
+                productService.updatePrice(created.getId(), new BigDecimal("3.50"));
+                Thread.sleep(3);
+                Instant afterFirstEdit = Instant.now();
+                Thread.sleep(3);
+                productService.updatePrice(created.getId(), new BigDecimal("3.75"));
+                Thread.sleep(3);
+                Instant afterSecondEdit = Instant.now();
+                Thread.sleep(3);
+
+                //Ação
+                store.snapshot();
+
+                //Verificação: cada preço vale desde a sua edição, não desde o snapshot
+                Assert.assertEquals(new BigDecimal("3.00"), priceHistoryService.priceAt(created.getId(), afterCreation).orElseThrow());
+                Assert.assertEquals(new BigDecimal("3.50"), priceHistoryService.priceAt(created.getId(), afterFirstEdit).orElseThrow());
+                Assert.assertEquals(new BigDecimal("3.75"), priceHistoryService.priceAt(created.getId(), afterSecondEdit).orElseThrow());
+                store.close();
+        }
+
+        private static class UnavailableSnapshots extends ProductSnapshotRepository {
+                @Override
+                public void save(Map<Integer, Product> changed, List<StockMovement> movements, List<ProductChange> priceChanges, long sequence) {
+                        throw new RepositoryException("Banco indisponível");
+                }
+        }
+}
@@ -0,0 +1,43 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.service.LowStockMonitor;
+import com.io.github.pedroolivsz.service.StockAlert;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LowStockMonitorTest {
+        @Test
+        public void testAlertIsDeduplicatedAndClearedWithHysteresis() {
+                //Cenário
+                LowStockMonitor monitor = new LowStockMonitor(2, Clock.systemUTC());
+                List<StockAlert> alerts = new ArrayList<>();
+                monitor.addListener(alerts::add);
+
+                Product product = new Product(1, "cerveja", 10, new BigDecimal("8.5"));
+                product.setMinimumStock(5);
+
+                //Ação
+                product.setQuantity(4);
+                monitor.evaluate(product);
+                product.setQuantity(3);
+                monitor.evaluate(product);
+                product.setQuantity(5);
+                monitor.evaluate(product);
+                product.setQuantity(4);
+                monitor.evaluate(product);
+                product.setQuantity(7);
+                monitor.evaluate(product);
+
+                //Verificação
+                Assert.assertEquals(2, alerts.size());
+                Assert.assertEquals(StockAlert.Type.LOW_STOCK, alerts.get(0).getType());
+                Assert.assertEquals(StockAlert.Type.RESTOCKED, alerts.get(1).getType());
+                Assert.assertFalse(monitor.isAlerted(1));
+        }
+}
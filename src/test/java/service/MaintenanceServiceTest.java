@@ -0,0 +1,56 @@
+package service;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.MaintenanceResult;
+import com.io.github.pedroolivsz.repository.MaintenanceRepository;
+import com.io.github.pedroolivsz.service.MaintenanceService;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+public class MaintenanceServiceTest {
+        private static final String STORE = "manutencao-teste";
+
+        @BeforeClass
+        public static void configureStore() throws Exception {
+                Path directory = Files.createTempDirectory("maintenance");
+                System.setProperty("store." + STORE + ".db.url", "jdbc:sqlite:" + directory.resolve("manutencao.db"));
+        }
+
+        @Test
+        public void testFreePagesAreReturnedAndWalIsTruncated() throws Exception {
+                //Cenário
+                try(Connection conn = Database.connect(STORE)) {
+                        try(Statement statement = conn.createStatement()) {
+                                statement.execute("CREATE TABLE rascunho (dados BLOB)");
+                        }
+                        try(PreparedStatement preparedStatement = conn.prepareStatement("INSERT INTO rascunho VALUES (randomblob(4000))")) {
+                                for(int i = 0; i < 500; i++) preparedStatement.executeUpdate();
+                        }
+                        try(Statement statement = conn.createStatement()) {
+                                statement.execute("DROP TABLE rascunho");
+                        }
+                }
+                MaintenanceService maintenanceService = new MaintenanceService(new MaintenanceRepository(), STORE, 50, 8, 100);
+
+                //Ação
+                MaintenanceResult result = maintenanceService.runNow();
+
+                //Verificação
+                Assert.assertTrue(result.isCompleted());
+                Assert.assertTrue(result.getFreelistBefore() >= 500);
+                Assert.assertEquals(0, result.getFreelistAfter());
+                Assert.assertEquals(result.getFreelistBefore(), result.getVacuumedPages());
+                Assert.assertTrue(result.getFileSizeAfter() < result.getFileSizeBefore());
+                Assert.assertTrue(result.isAnalyzed());
+                Assert.assertTrue(result.isWalTruncated());
+                Assert.assertEquals(0, result.getWalFrames());
+                Assert.assertEquals(result, maintenanceService.lastResult().orElseThrow());
+        }
+}
@@ -0,0 +1,71 @@
+package service;
+
+import com.io.github.pedroolivsz.config.StoreContext;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StoreProduct;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.MultiStoreService;
+import com.io.github.pedroolivsz.service.ServiceException;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class MultiStoreServiceTest {
+        private static final String CENTRO = "centro-teste";
+        private static final String PRAIA = "praia-teste";
+
+        @BeforeClass
+        public static void configureStores() throws Exception {
+                Path directory = Files.createTempDirectory("stores");
+                System.setProperty("store." + CENTRO + ".db.url", "jdbc:sqlite:" + directory.resolve("centro.db"));
+                System.setProperty("store." + PRAIA + ".db.url", "jdbc:sqlite:" + directory.resolve("praia.db"));
+        }
+
+        @Test
+        public void testCrossStoreQueriesMergeEveryStore() {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                String name = "caipirinha " + System.nanoTime();
+                StoreContext.run(CENTRO, () -> {
+                        productRepository.create(new Product(name, 10, new BigDecimal("2.50")));
+                        productRepository.create(new Product("gelo " + System.nanoTime(), 3, new BigDecimal("1.10")));
+                });
+                StoreContext.run(PRAIA, () -> productRepository.create(new Product(name, 4, new BigDecimal("2.75"))));
+
+                //Ação
+                List<StoreProduct> found;
+                Map<String, BigDecimal> values;
+                try(MultiStoreService multiStoreService = new MultiStoreService(List.of(CENTRO, PRAIA), productRepository)) {
+                        found = multiStoreService.findByName(name.toUpperCase());
+                        values = multiStoreService.stockValueByStore();
+                }
+
+                //Verificação
+                Assert.assertEquals(List.of(CENTRO, PRAIA), found.stream().map(StoreProduct::getStore).toList());
+                Assert.assertEquals(10, found.get(0).getProduct().getQuantity());
+                Assert.assertEquals(4, found.get(1).getProduct().getQuantity());
+                Assert.assertEquals(List.of(CENTRO, PRAIA), List.copyOf(values.keySet()));
+                Assert.assertEquals(0, StoreContext.call(CENTRO, productRepository::stockValue).compareTo(values.get(CENTRO)));
+                Assert.assertTrue(values.get(PRAIA).compareTo(new BigDecimal("11.00")) >= 0);
+                //A loja padrão não foi tocada
+                Assert.assertTrue(productRepository.findIdByNormalizedName(name).isEmpty());
+        }
+
+        @Test
+        public void testFailingStoreFailsTheWholeQuery() {
+                //Cenário
+                try(MultiStoreService multiStoreService = new MultiStoreService(List.of(CENTRO, "inexistente"), new ProductRepository())) {
+                        //Ação
+                        ServiceException error = Assert.assertThrows(ServiceException.class, multiStoreService::totalStockValue);
+
+                        //Verificação
+                        Assert.assertTrue(error.getMessage().contains("inexistente"));
+                }
+        }
+}
@@ -0,0 +1,133 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.dominio.StockShortage;
+import com.io.github.pedroolivsz.repository.OrderTabRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.StockJournalRepository;
+import com.io.github.pedroolivsz.repository.StockMovementRepository;
+import com.io.github.pedroolivsz.service.IdempotencyKeys;
+import com.io.github.pedroolivsz.service.LowStockMonitor;
+import com.io.github.pedroolivsz.service.OrderTabService;
+import com.io.github.pedroolivsz.service.ProductAutocomplete;
+import com.io.github.pedroolivsz.service.ProductCatalog;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.SalesVelocityTracker;
+import com.io.github.pedroolivsz.service.ServiceException;
+import com.io.github.pedroolivsz.service.StockJournal;
+import com.io.github.pedroolivsz.validation.InsufficientStockException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.List;
+
+public class OrderTabCheckoutTest {
+        private final ProductRepository productRepository = new ProductRepository();
+        private final ProductService productService = new ProductService(productRepository);
+        private final OrderTabService orderTabService = new OrderTabService(new OrderTabRepository(), productRepository);
+
+        @Test
+        public void testCheckoutDecrementsAggregatedQuantitiesAndClosesTab() {
+                //Cenário
+                Product beer = productService.create("Chope", 10, new BigDecimal("11"));
+                Product fries = productService.create("Batata frita", 3, new BigDecimal("28"));
+                OrderTab orderTab = orderTabService.open(12);
+                orderTabService.addItem(orderTab.getId(), beer.getId(), 2);
+                orderTabService.addItem(orderTab.getId(), fries.getId(), 1);
+                orderTabService.addItem(orderTab.getId(), beer.getId(), 3);
+
+                //Ação
+                OrderTab closed = orderTabService.checkout(orderTab.getId());
+
+                //Verificação
+                Assert.assertEquals(OrderTab.Status.CLOSED, closed.getStatus());
+                Assert.assertEquals(0, new BigDecimal("83").compareTo(closed.getTotalAmount()));
+                Assert.assertEquals(5, productService.findById(beer.getId()).getQuantity());
+                Assert.assertEquals(2, productService.findById(fries.getId()).getQuantity());
+
+                List<StockMovement> movements = new StockMovementRepository().listByProduct(beer.getId(), 1);
+                Assert.assertEquals(StockMovement.Reason.SALE, movements.get(0).getReason());
+                Assert.assertEquals(-5, movements.get(0).getDelta());
+                Assert.assertEquals(Integer.valueOf(orderTab.getId()), movements.get(0).getOrderTabId());
+        }
+
+        @Test
+        public void testCloseSumsTheTotalInCentsLikeTheSalesRollups() {
+                //Cenário: cada item vale em centavos inteiros, como nos agregados de vendas
+                Product candy = productService.create("Bala de hortelã " + System.nanoTime(), 10, new BigDecimal("0.125"));
+                Product gum = productService.create("Chiclete " + System.nanoTime(), 10, new BigDecimal("0.20"));
+                OrderTab orderTab = orderTabService.open(4);
+                orderTabService.addItem(orderTab.getId(), candy.getId(), 3);
+                orderTabService.addItem(orderTab.getId(), gum.getId(), 1);
+
+                //Ação
+                OrderTab closed = orderTabService.close(orderTab.getId());
+
+                //Verificação: 0,375 arredondado para 0,38, mais 0,20
+                Assert.assertEquals(0, new BigDecimal("0.58").compareTo(closed.getTotalAmount()));
+                Assert.assertEquals(0, new BigDecimal("0.58").compareTo(orderTabService.findById(orderTab.getId()).getTotalAmount()));
+        }
+
+        @Test
+        public void testCheckoutFailsAtomicallyListingEveryShortItem() {
+                //Cenário
+                Product wine = productService.create("Vinho tinto", 1, new BigDecimal("90"));
+                Product water = productService.create("Água sem gás", 20, new BigDecimal("4"));
+                Product dessert = productService.create("Pudim", 2, new BigDecimal("15"));
+                OrderTab orderTab = orderTabService.open(3);
+                orderTabService.addItem(orderTab.getId(), wine.getId(), 2);
+                orderTabService.addItem(orderTab.getId(), water.getId(), 4);
+                orderTabService.addItem(orderTab.getId(), dessert.getId(), 2);
+                orderTabService.addItem(orderTab.getId(), dessert.getId(), 1);
+
+                //Ação
+                InsufficientStockException exception = Assert.assertThrows(InsufficientStockException.class,
+                        () -> orderTabService.checkout(orderTab.getId()));
+
+                //Verificação
+                List<StockShortage> shortages = exception.getShortages();
+                Assert.assertEquals(2, shortages.size());
+                Assert.assertEquals(wine.getId(), shortages.get(0).getProductId());
+                Assert.assertEquals(2, shortages.get(0).getRequested());
+                Assert.assertEquals(1, shortages.get(0).getAvailable());
+                Assert.assertEquals(dessert.getId(), shortages.get(1).getProductId());
+                Assert.assertEquals(3, shortages.get(1).getRequested());
+
+                Assert.assertEquals(20, productService.findById(water.getId()).getQuantity());
+                Assert.assertTrue(orderTabService.findById(orderTab.getId()).isOpen());
+        }
+
+        @Test
+        public void testCheckoutIsRefusedWhileTheStockJournalIsEnabled() throws Exception {
+                //Cenário
+                StockJournal stockJournal = new StockJournal(Files.createTempDirectory("journal"), 64 * 1024, 1,
+                        new StockJournalRepository());
+                LowStockMonitor lowStockMonitor = new LowStockMonitor();
+                ProductCatalog catalog = new ProductCatalog(productRepository);
+                IdempotencyKeys idempotencyKeys = new IdempotencyKeys();
+                SalesVelocityTracker tracker = new SalesVelocityTracker();
+                ProductService journaled = new ProductService(productRepository, lowStockMonitor, stockJournal,
+                        new ProductAutocomplete(productRepository), catalog, idempotencyKeys, tracker);
+                OrderTabService journaledTabs = new OrderTabService(new OrderTabRepository(), productRepository,
+                        lowStockMonitor, catalog, idempotencyKeys, tracker, stockJournal);
+                Product juice = journaled.create("Suco " + System.nanoTime(), 2, new BigDecimal("9"));
+                OrderTab orderTab = journaledTabs.open(5);
+                journaledTabs.addItem(orderTab.getId(), juice.getId(), 2);
+
+                //Ação
+                //A baixa pelo journal ainda não chegou ao banco quando o fechamento confere o saldo
+                journaled.removeStock(juice.getId(), 1);
+                ServiceException exception = Assert.assertThrows(ServiceException.class,
+                        () -> journaledTabs.checkout(orderTab.getId()));
+                stockJournal.close();
+
+                //Verificação
+                Assert.assertTrue(exception.getMessage().contains("journal"));
+                Assert.assertTrue(journaledTabs.findById(orderTab.getId()).isOpen());
+                Assert.assertEquals(1, productRepository.findById(juice.getId()).orElseThrow().getQuantity());
+        }
+}
@@ -0,0 +1,67 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.OrderTabRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.OrderTabService;
+import com.io.github.pedroolivsz.service.PriceHistoryService;
+import com.io.github.pedroolivsz.service.ProductService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+public class PriceHistoryTest {
+        private final ProductRepository productRepository = new ProductRepository();
+        private final ProductService productService = new ProductService(productRepository);
+        private final PriceHistoryService priceHistoryService = new PriceHistoryService();
+
+        @Test
+        public void testPriceAtReturnsPriceInEffectAtEachInstant() throws InterruptedException {
+                //Cenário
+                Instant beforeCreation = Instant.now();
+                Thread.sleep(3);
+                Product product = productService.create("Suco de laranja " + System.nanoTime(), 10, new BigDecimal("8.5"));
+                Thread.sleep(3);
+                Instant afterCreation = Instant.now();
+                Thread.sleep(3);
+
+                //Ação
+                productService.updatePrice(product.getId(), new BigDecimal("9.9"));
+                Thread.sleep(3);
+                Instant afterUpdate = Instant.now();
+                //Mesmo preço: não gera nova linha
+                productService.updatePrice(product.getId(), new BigDecimal("9.90"));
+
+                //Verificação
+                Assert.assertTrue(priceHistoryService.priceAt(product.getId(), beforeCreation).isEmpty());
+                Assert.assertEquals(new BigDecimal("8.50"), priceHistoryService.priceAt(product.getId(), afterCreation).orElseThrow());
+                Assert.assertEquals(new BigDecimal("9.90"), priceHistoryService.priceAt(product.getId(), afterUpdate).orElseThrow());
+                Assert.assertEquals(new BigDecimal("9.90"), priceHistoryService.priceAt(product.getId(), Instant.now()).orElseThrow());
+        }
+
+        @Test
+        public void testOrderTabPricesKeepPricesOfCheckoutAfterRepricing() throws InterruptedException {
+                //Cenário
+                OrderTabService orderTabService = new OrderTabService(new OrderTabRepository(), productRepository);
+                Product beer = productService.create("Chope claro " + System.nanoTime(), 10, new BigDecimal("11"));
+                Product fries = productService.create("Porção de fritas " + System.nanoTime(), 10, new BigDecimal("28"));
+                OrderTab orderTab = orderTabService.open(7);
+                orderTabService.addItem(orderTab.getId(), beer.getId(), 2);
+                orderTabService.addItem(orderTab.getId(), fries.getId(), 1);
+                orderTabService.checkout(orderTab.getId());
+                Thread.sleep(3);
+
+                //Ação
+                productService.updatePrice(beer.getId(), new BigDecimal("13"));
+                Map<Integer, BigDecimal> prices = priceHistoryService.orderTabPrices(orderTab.getId());
+
+                //Verificação
+                Assert.assertEquals(2, prices.size());
+                Assert.assertEquals(new BigDecimal("11.00"), prices.get(beer.getId()));
+                Assert.assertEquals(new BigDecimal("28.00"), prices.get(fries.getId()));
+        }
+}
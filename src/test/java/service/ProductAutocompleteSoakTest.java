@@ -0,0 +1,56 @@
+package service;
+
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.ProductAutocomplete;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo médio de uma consulta do autocompletar sobre um catálogo grande. Roda só com o
+ * perfil soak ({@code mvn -Psoak test}).
+ *
+ * <p>O tamanho do catálogo e a quantidade de consultas podem ser alterados com
+ * {@code -Dsoak.products} e {@code -Dsoak.queries}.</p>
+ */
+public class ProductAutocompleteSoakTest {
+        private static final Logger logger = LoggerFactory.getLogger(ProductAutocompleteSoakTest.class);
+
+        private static final int CATALOG_SIZE = Integer.getInteger("soak.products", 100_000);
+        private static final int QUERIES = Integer.getInteger("soak.queries", 20_000);
+
+        @Test
+        public void testTopKByPrefixLatencyOverALargeCatalog() throws Exception {
+                //Cenário
+                Map<Integer, String> catalog = new HashMap<>();
+                for(int i = 1; i <= CATALOG_SIZE; i++) catalog.put(i, String.format("produto %06d", i));
+                ProductAutocomplete autocomplete = new ProductAutocomplete(new ProductRepository() {
+                        @Override
+                        public Map<Integer, String> listIdsAndNormalizedNames() {
+                                return new HashMap<>(catalog);
+                        }
+                });
+                autocomplete.start().get(30, TimeUnit.SECONDS);
+                int bound = Math.max(2, CATALOG_SIZE / 100);
+
+                //Ação
+                long start = System.nanoTime();
+                int found = 0;
+                for(int i = 0; i < QUERIES; i++) {
+                        String prefix = String.format("produto %04d", ThreadLocalRandom.current().nextInt(1, bound));
+                        found += autocomplete.suggest(prefix, 10).size();
+                }
+                double averageMicros = (System.nanoTime() - start) / 1_000.0 / QUERIES;
+                logger.info(String.format("Autocompletar sobre %d produtos: %.1f µs por consulta", CATALOG_SIZE, averageMicros));
+
+                //Verificação
+                Assert.assertTrue(found > 0);
+                Assert.assertTrue("Média: " + averageMicros + " µs", averageMicros < 1_000);
+        }
+}
@@ -0,0 +1,109 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ProductSuggestion;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.IdempotencyKeys;
+import com.io.github.pedroolivsz.service.LowStockMonitor;
+import com.io.github.pedroolivsz.service.ProductAutocomplete;
+import com.io.github.pedroolivsz.service.ProductCatalog;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.SalesVelocityTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+public class ProductAutocompleteTest {
+        private static final int CATALOG_SIZE = 100_000;
+
+        @Test
+        public void testTopKByPrefixOverALargeCatalog() throws Exception {
+                //Cenário
+                Map<Integer, String> catalog = new HashMap<>();
+                for(int i = 1; i <= CATALOG_SIZE; i++) catalog.put(i, String.format("produto %06d", i));
+                ProductAutocomplete autocomplete = new ProductAutocomplete(stubRepository(catalog, null));
+                autocomplete.start().get(30, TimeUnit.SECONDS);
+
+                //Ação
+                int queries = 1_000;
+                int found = 0;
+                for(int i = 0; i < queries; i++) {
+                        String prefix = String.format("produto %04d", ThreadLocalRandom.current().nextInt(1, 1000));
+                        found += autocomplete.suggest(prefix, 10).size();
+                }
+
+                //Verificação
+                Assert.assertEquals(CATALOG_SIZE, autocomplete.size());
+                Assert.assertEquals(queries * 10, found);
+                Assert.assertEquals(List.of(12340, 12341, 12342),
+                        autocomplete.suggest(" PRODUTO 01234", 3).stream().map(ProductSuggestion::getProductId).collect(Collectors.toList()));
+                Assert.assertTrue(autocomplete.suggest("vinho", 5).isEmpty());
+        }
+
+        @Test
+        public void testChangesDuringBackgroundLoadAreApplied() throws Exception {
+                //Cenário
+                CountDownLatch release = new CountDownLatch(1);
+                Map<Integer, String> catalog = new HashMap<>(Map.of(1, "cerveja", 2, "cachaça", 3, "caipirinha"));
+                ProductAutocomplete autocomplete = new ProductAutocomplete(stubRepository(catalog, release));
+                autocomplete.start();
+
+                //Ação
+                Assert.assertTrue(autocomplete.suggest("ca", 10).isEmpty());
+                autocomplete.put(4, "café");
+                autocomplete.put(2, "cachaça ouro");
+                autocomplete.remove(3);
+                release.countDown();
+                autocomplete.start().get(30, TimeUnit.SECONDS);
+
+                //Verificação
+                Assert.assertEquals(List.of("cachaça ouro", "café"),
+                        autocomplete.suggest("ca", 10).stream().map(ProductSuggestion::getName).collect(Collectors.toList()));
+                Assert.assertEquals(3, autocomplete.size());
+        }
+
+        @Test
+        public void testServiceKeepsTheIndexUpToDate() throws Exception {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                ProductAutocomplete autocomplete = new ProductAutocomplete(productRepository);
+                autocomplete.start().get(30, TimeUnit.SECONDS);
+                ProductService productService = new ProductService(productRepository, new LowStockMonitor(), null, autocomplete,
+                        new ProductCatalog(productRepository), new IdempotencyKeys(), SalesVelocityTracker.shared());
+                String prefix = "espumante " + System.nanoTime();
+
+                //Ação
+                Product brut = productService.create(prefix + " brut", 3, new BigDecimal("80"));
+                Product demiSec = productService.create(prefix + " demi-sec", 3, new BigDecimal("75"));
+                productService.update(demiSec.getId(), prefix + " moscatel", 3, new BigDecimal("75"));
+                productService.delete(brut.getId());
+
+                //Verificação
+                List<ProductSuggestion> suggestions = productService.suggest(prefix.toUpperCase(), 10);
+                Assert.assertEquals(1, suggestions.size());
+                Assert.assertEquals(demiSec.getId(), suggestions.get(0).getProductId());
+                Assert.assertEquals(prefix + " moscatel", suggestions.get(0).getName());
+        }
+
+        private static ProductRepository stubRepository(Map<Integer, String> names, CountDownLatch release) {
+                return new ProductRepository() {
+                        @Override
+                        public Map<Integer, String> listIdsAndNormalizedNames() {
+                                try {
+                                        if(release != null) release.await();
+                                } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                }
+                                return new HashMap<>(names);
+                        }
+                };
+        }
+}
@@ -0,0 +1,78 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.CatalogMetrics;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.IdempotencyKeys;
+import com.io.github.pedroolivsz.service.LowStockMonitor;
+import com.io.github.pedroolivsz.service.ProductAutocomplete;
+import com.io.github.pedroolivsz.service.ProductCatalog;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.SalesVelocityTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class ProductCatalogTest {
+        @Test
+        public void testWritesPublishNewVersionsWithoutTouchingOldOnes() {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                ProductCatalog catalog = new ProductCatalog(productRepository, -1);
+                ProductService productService = new ProductService(productRepository, new LowStockMonitor(), null,
+                        new ProductAutocomplete(productRepository), catalog, new IdempotencyKeys(), SalesVelocityTracker.shared());
+                Product created = productService.create("Vermute " + System.nanoTime(), 12, new BigDecimal("30.00"));
+                List<Product> before = productService.listAll();
+
+                //Ação
+                productService.updatePrice(created.getId(), new BigDecimal("32.00"));
+                productService.removeStock(created.getId(), 2);
+                List<Product> after = productService.listAll();
+
+                //Verificação
+                Assert.assertSame(after, productService.listAll());
+                Product old = before.stream().filter(p -> p.getId() == created.getId()).findFirst().orElseThrow();
+                Product current = after.stream().filter(p -> p.getId() == created.getId()).findFirst().orElseThrow();
+                Assert.assertEquals(0, new BigDecimal("30.00").compareTo(old.getUnitValue()));
+                Assert.assertEquals(12, old.getQuantity());
+                Assert.assertEquals(0, new BigDecimal("32.00").compareTo(current.getUnitValue()));
+                Assert.assertEquals(10, current.getQuantity());
+                Assert.assertEquals(before.size(), after.size());
+                for(int i = 1; i < after.size(); i++) Assert.assertTrue(after.get(i - 1).getId() < after.get(i).getId());
+                Assert.assertThrows(UnsupportedOperationException.class, () -> after.remove(0));
+                Assert.assertThrows(UnsupportedOperationException.class, () -> current.setQuantity(0));
+                Assert.assertThrows(UnsupportedOperationException.class, () -> old.setUnitValue(BigDecimal.ONE));
+
+                CatalogMetrics metrics = productService.catalogMetrics();
+                Assert.assertEquals(1, metrics.getRebuilds());
+                Assert.assertEquals(2, metrics.getIncrementalUpdates());
+                Assert.assertEquals(3, metrics.getVersion());
+        }
+
+        @Test
+        public void testStaleStatesAreIgnoredAndOutsideWritesAppearAfterRefresh() {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                ProductCatalog catalog = new ProductCatalog(productRepository, -1);
+                ProductService outside = new ProductService(productRepository);
+                Product created = outside.create("Licor " + System.nanoTime(), 7, new BigDecimal("45.00"));
+                long version = catalog.snapshot().getVersion();
+
+                //Ação
+                Product sold = outside.removeStock(created.getId(), 3);
+                boolean visibleBeforeRefresh = catalog.snapshot().findById(created.getId()).orElseThrow().getQuantity() == 4;
+                catalog.put(created);
+                catalog.refresh();
+                catalog.put(created);
+
+                //Verificação
+                Assert.assertFalse(visibleBeforeRefresh);
+                Product current = catalog.snapshot().findById(created.getId()).orElseThrow();
+                Assert.assertEquals(4, current.getQuantity());
+                Assert.assertEquals(sold.getVersion(), current.getVersion());
+                Assert.assertTrue(catalog.snapshot().getVersion() > version);
+                Assert.assertEquals(2, catalog.metrics().getRebuilds());
+        }
+}
@@ -0,0 +1,137 @@
+package service;
+
+import com.io.github.pedroolivsz.config.Migrations;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.ProductNameIndex;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.validation.DuplicateProductException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ProductNameUniquenessTest {
+        @Test
+        public void testDuplicateNameIsRejectedByTheIndexAndByTheDatabase() {
+                //Cenário
+                ProductService terminalA = new ProductService(new ProductRepository());
+                ProductService terminalB = new ProductService(new ProductRepository());
+                String name = "Cerveja artesanal " + System.nanoTime();
+                terminalB.create("Carregar índice " + System.nanoTime(), 1, BigDecimal.ONE);
+                terminalA.create(name, 5, new BigDecimal("18"));
+
+                //Ação / Verificação
+                //Terminal A conhece o nome no índice em memória
+                DuplicateProductException local = Assert.assertThrows(DuplicateProductException.class,
+                        () -> terminalA.create("  " + name.toUpperCase() + " ", 1, BigDecimal.ONE));
+                Assert.assertEquals(ProductNameIndex.normalize(name), local.getName());
+
+                //Terminal B carregou o índice antes da criação: quem recusa é o índice único do banco
+                Assert.assertThrows(DuplicateProductException.class, () -> terminalB.create(name, 1, BigDecimal.ONE));
+                Assert.assertThrows(DuplicateProductException.class, () -> terminalB.create(name, 1, BigDecimal.ONE));
+        }
+
+        @Test
+        public void testRenameAndDeleteKeepTheIndexInSync() {
+                //Cenário
+                ProductService productService = new ProductService(new ProductRepository());
+                String suffix = String.valueOf(System.nanoTime());
+                Product wine = productService.create("Vinho branco " + suffix, 2, new BigDecimal("70"));
+                Product juice = productService.create("Suco de caju " + suffix, 2, new BigDecimal("9"));
+
+                //Ação / Verificação
+                Assert.assertThrows(DuplicateProductException.class,
+                        () -> productService.update(juice.getId(), "Vinho branco " + suffix, 2, new BigDecimal("9")));
+
+                productService.update(wine.getId(), "Vinho rosé " + suffix, 2, new BigDecimal("70"));
+                Product renamed = productService.update(juice.getId(), "Vinho branco " + suffix, 2, new BigDecimal("9"));
+                Assert.assertEquals("vinho branco " + suffix, renamed.getName());
+
+                productService.delete(wine.getId());
+                Product recreated = productService.create("Vinho rosé " + suffix, 1, new BigDecimal("75"));
+                Assert.assertNotEquals(wine.getId(), recreated.getId());
+        }
+
+        @Test
+        public void testPartialRenameIsNormalizedAndChecked() {
+                //Cenário
+                ProductService productService = new ProductService(new ProductRepository());
+                String suffix = String.valueOf(System.nanoTime());
+                Product water = productService.create("Água com gás " + suffix, 2, new BigDecimal("5"));
+                Product soda = productService.create("Refrigerante " + suffix, 2, new BigDecimal("7"));
+
+                //Ação / Verificação
+                //Difere só em maiúsculas acentuadas, que o LOWER do SQLite não converte
+                Assert.assertThrows(DuplicateProductException.class,
+                        () -> productService.partialUpdate(soda.getId(), Map.of("nome", " ÁGUA COM GÁS " + suffix)));
+
+                Product renamed = productService.partialUpdate(water.getId(), Map.of("nome", "  ÁGUA MINERAL " + suffix));
+                Assert.assertEquals("água mineral " + suffix, renamed.getName());
+
+                Product recreated = productService.create("Água com gás " + suffix, 1, new BigDecimal("5"));
+                Assert.assertNotEquals(water.getId(), recreated.getId());
+        }
+
+        @Test
+        public void testBloomFilterModeConfirmsPositivesInTheDatabase() {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                ProductService productService = new ProductService(productRepository);
+                String name = "Água tônica " + System.nanoTime();
+                productService.create(name, 3, new BigDecimal("6"));
+                ProductNameIndex bloomIndex = new ProductNameIndex(productRepository, 0);
+
+                //Ação / Verificação
+                Assert.assertTrue(bloomIndex.usesBloomFilter());
+                Assert.assertTrue(bloomIndex.mightContain(ProductNameIndex.normalize(name)));
+
+                int falsePositives = 0;
+                for(int i = 0; i < 1_000; i++) {
+                        if(bloomIndex.mightContain("inexistente " + i + " " + name)) falsePositives++;
+                }
+                Assert.assertTrue("Falsos positivos: " + falsePositives, falsePositives < 50);
+        }
+
+        @Test
+        public void testMigrationRenamesDuplicatesWithoutCollidingWithExistingNames() throws Exception {
+                //Cenário: banco na versão 2, com uma duplicata cujo sufixo já é o nome de outro produto
+                File file = File.createTempFile("migracao-", ".db");
+                file.deleteOnExit();
+                try(Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+                    Statement statement = conn.createStatement()) {
+                        statement.execute("CREATE TABLE produtos (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                                "quantidade INTEGER NOT NULL DEFAULT 0, nome TEXT NOT NULL, valor_unitario NUMERIC NOT NULL DEFAULT 0, " +
+                                "estoque_minimo INTEGER NOT NULL DEFAULT 0)");
+                        statement.execute("INSERT INTO produtos (id, nome) VALUES (1, 'Cerveja'), (2, 'Cerveja (7)'), " +
+                                "(3, 'cerveja (7) '), (7, ' cerveja')");
+                        statement.execute("PRAGMA user_version = 2");
+
+                        //Ação
+                        Migrations.migrate(conn);
+
+                        //Verificação
+                        Map<Integer, String> names = new HashMap<>();
+                        try(ResultSet resultSet = statement.executeQuery("SELECT id, nome FROM produtos")) {
+                                while(resultSet.next()) names.put(resultSet.getInt("id"), resultSet.getString("nome"));
+                        }
+                        Assert.assertEquals("Cerveja", names.get(1));
+                        Assert.assertEquals("Cerveja (7)", names.get(2));
+                        Assert.assertEquals(4, names.values().stream().map(name -> name.trim().toLowerCase()).distinct().count());
+                        Assert.assertEquals(Migrations.latestVersion(), currentVersion(statement));
+                }
+        }
+
+        private static int currentVersion(Statement statement) throws Exception {
+                try(ResultSet resultSet = statement.executeQuery("PRAGMA user_version")) {
+                        return resultSet.getInt(1);
+                }
+        }
+}
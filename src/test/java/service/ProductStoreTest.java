@@ -0,0 +1,122 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.InMemoryProductStore;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.ProductSnapshotRepository;
+import com.io.github.pedroolivsz.repository.ProductStore;
+import com.io.github.pedroolivsz.repository.StockMovementRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.StockMovementService;
+import com.io.github.pedroolivsz.validation.DuplicateProductException;
+import com.io.github.pedroolivsz.validation.ProductException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Mesmo comportamento do {@link ProductService} sobre as duas implementações de {@link ProductStore}.
+ */
+@RunWith(Parameterized.class)
+public class ProductStoreTest {
+        @Parameterized.Parameters(name = "{0}")
+        public static List<Object[]> stores() {
+                return List.of(new Object[] {"sqlite"}, new Object[] {"memory"});
+        }
+
+        private final String implementation;
+        private final StockMovementRepository stockMovementRepository = new StockMovementRepository();
+        private ProductStore store;
+        private ProductService productService;
+
+        public ProductStoreTest(String implementation) {
+                this.implementation = implementation;
+        }
+
+        @Before
+        public void openStore() throws IOException {
+                store = implementation.equals("memory")
+                        ? new InMemoryProductStore(Files.createTempDirectory("product-store"), 64 * 1024, 1, 50,
+                                new ProductSnapshotRepository(stockMovementRepository))
+                        : new ProductRepository(stockMovementRepository);
+                productService = new ProductService(store);
+        }
+
+        @After
+        public void closeStore() throws IOException {
+                if(store instanceof Closeable closeable) closeable.close();
+        }
+
+        @Test
+        public void testStockPriceAndNameRules() {
+                //Cenário
+                String name = "Refrigerante " + implementation + " " + System.nanoTime();
+                Product created = productService.create(name, 10, new BigDecimal("6.00"));
+
+                //Ação
+                productService.removeStock(created.getId(), 4);
+                productService.addStock(created.getId(), 2);
+                Product repriced = productService.updatePrice(created.getId(), new BigDecimal("6.50"));
+                flush();
+
+                //Verificação
+                Assert.assertEquals(8, repriced.getQuantity());
+                Assert.assertEquals(0, new BigDecimal("6.50").compareTo(productService.findById(created.getId()).getUnitValue()));
+                Assert.assertEquals(3, productService.findById(created.getId()).getVersion());
+                Assert.assertThrows(ProductException.class, () -> productService.removeStock(created.getId(), 9));
+                Assert.assertThrows(DuplicateProductException.class, () -> productService.create(name.toUpperCase(), 1, BigDecimal.ONE));
+                Assert.assertFalse(new StockMovementService(stockMovementRepository).reconcile().containsKey(created.getId()));
+
+                productService.delete(created.getId());
+                Assert.assertTrue(store.findById(created.getId()).isEmpty());
+                Assert.assertTrue(store.findIdByNormalizedName(created.getName()).isEmpty());
+        }
+
+        @Test
+        public void testConcurrentSalesNeverOversell() throws InterruptedException {
+                //Cenário
+                Product created = productService.create("Cerveja " + implementation + " " + System.nanoTime(), 150, new BigDecimal("9.00"));
+                AtomicInteger sold = new AtomicInteger();
+                AtomicInteger refused = new AtomicInteger();
+
+                //Ação
+                List<Thread> terminals = new ArrayList<>();
+                for(int t = 0; t < 4; t++) {
+                        Thread terminal = new Thread(() -> {
+                                for(int i = 0; i < 50; i++) {
+                                        try {
+                                                productService.removeStock(created.getId(), 1);
+                                                sold.incrementAndGet();
+                                        } catch (ProductException e) {
+                                                refused.incrementAndGet();
+                                        }
+                                }
+                        });
+                        terminals.add(terminal);
+                        terminal.start();
+                }
+                for(Thread terminal : terminals) terminal.join();
+                flush();
+
+                //Verificação
+                Assert.assertEquals(150, sold.get());
+                Assert.assertEquals(50, refused.get());
+                Assert.assertEquals(0, productService.findById(created.getId()).getQuantity());
+                Assert.assertFalse(new StockMovementService(stockMovementRepository).reconcile().containsKey(created.getId()));
+        }
+
+        private void flush() {
+                if(store instanceof InMemoryProductStore memory) memory.snapshot();
+        }
+}
@@ -0,0 +1,164 @@
+package service;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.OptimisticLockException;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão das edições otimistas (versão conferida na gravação) contra edições que seguram o
+ * lock de escrita do banco, com um produto disputado e com um produto por terminal. Roda só com
+ * o perfil soak ({@code mvn -Psoak test}), com um arquivo SQLite próprio.
+ *
+ * <p>Terminais e duração de cada cenário podem ser alterados com {@code -Dsoak.terminals} e
+ * {@code -Dsoak.duration.seconds}.</p>
+ */
+public class ProductVersioningSoakTest {
+        private static final Logger logger = LoggerFactory.getLogger(ProductVersioningSoakTest.class);
+
+        private static final int WORKERS = Integer.getInteger("soak.terminals", 8);
+        private static final int DURATION_SECONDS = Integer.getInteger("soak.duration.seconds", 2);
+        private static final long THINK_MILLIS = 1;
+
+        private final ProductService productService = new ProductService(new ProductRepository());
+
+        @Test
+        public void testOptimisticEditsAgainstLockingUnderContention() throws Exception {
+                //Cenário
+                int[] hotOptimistic = createProducts(1);
+                int[] hotLocking = createProducts(1);
+                int[] spreadOptimistic = createProducts(WORKERS);
+                int[] spreadLocking = createProducts(WORKERS);
+
+                //Ação
+                int[] hotOptimisticResult = run(hotOptimistic, this::editOptimistically);
+                int[] hotLockingResult = run(hotLocking, this::editWithLock);
+                int[] spreadOptimisticResult = run(spreadOptimistic, this::editOptimistically);
+                int[] spreadLockingResult = run(spreadLocking, this::editWithLock);
+
+                report("1 produto", hotOptimisticResult, hotLockingResult);
+                report(WORKERS + " produtos", spreadOptimisticResult, spreadLockingResult);
+
+                //Verificação
+                assertNoLostEdits(hotOptimistic, hotOptimisticResult);
+                assertNoLostEdits(hotLocking, hotLockingResult);
+                assertNoLostEdits(spreadOptimistic, spreadOptimisticResult);
+                assertNoLostEdits(spreadLocking, spreadLockingResult);
+        }
+
+        /**
+         * Lê, "pensa" sem segurar lock e grava condicionalmente; em conflito, recomeça.
+         *
+         * @return {edições aplicadas, conflitos}
+         */
+        private int[] editOptimistically(int id) throws Exception {
+                int applied = 0;
+                int conflicts = 0;
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+                while(System.nanoTime() < deadline) {
+                        Product read = productService.findById(id);
+                        Thread.sleep(THINK_MILLIS);
+                        try {
+                                productService.update(id, read.getName(), read.getQuantity() + 1, read.getUnitValue(), read.getVersion());
+                                applied++;
+                        } catch (OptimisticLockException e) {
+                                conflicts++;
+                        }
+                }
+                return new int[] {applied, conflicts};
+        }
+
+        /**
+         * Segura o lock de escrita do banco durante toda a leitura, o "pensamento" e a escrita.
+         *
+         * @return {edições aplicadas, 0}
+         */
+        private int[] editWithLock(int id) throws Exception {
+                int applied = 0;
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+                while(System.nanoTime() < deadline) {
+                        try(Connection conn = Database.connect()) {
+                                conn.setAutoCommit(false);
+                                int quantity;
+                                try(PreparedStatement select = conn.prepareStatement("SELECT quantidade FROM produtos WHERE id = ?")) {
+                                        select.setInt(1, id);
+                                        try(ResultSet resultSet = select.executeQuery()) {
+                                                resultSet.next();
+                                                quantity = resultSet.getInt(1);
+                                        }
+                                }
+                                Thread.sleep(THINK_MILLIS);
+                                try(PreparedStatement update = conn.prepareStatement(
+                                        "UPDATE produtos SET quantidade = ?, versao = versao + 1 WHERE id = ?")) {
+                                        update.setInt(1, quantity + 1);
+                                        update.setInt(2, id);
+                                        update.executeUpdate();
+                                }
+                                conn.commit();
+                                conn.setAutoCommit(true);
+                                applied++;
+                        }
+                }
+                return new int[] {applied, 0};
+        }
+
+        private int[] createProducts(int count) {
+                int[] ids = new int[count];
+                for(int i = 0; i < count; i++) ids[i] = productService.create("Produto disputado " + System.nanoTime() + "-" + i, 1, BigDecimal.TEN).getId();
+                return ids;
+        }
+
+        private void assertNoLostEdits(int[] ids, int[] result) {
+                int total = 0;
+                for(int id : ids) total += productService.findById(id).getQuantity() - 1;
+                Assert.assertTrue(result[0] > 0);
+                Assert.assertEquals(result[0], total);
+        }
+
+        private static void report(String scenario, int[] optimistic, int[] locking) {
+                logger.info(String.format("%s - otimista: %.0f edições/s, %d conflitos | lock: %.0f edições/s", scenario,
+                        optimistic[0] / (double) DURATION_SECONDS, optimistic[1], locking[0] / (double) DURATION_SECONDS));
+        }
+
+        private static int[] run(int[] ids, Worker worker) throws Exception {
+                ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+                List<Future<int[]>> futures = new ArrayList<>();
+                for(int w = 0; w < WORKERS; w++) {
+                        int id = ids[w % ids.length];
+                        futures.add(executor.submit(() -> worker.edit(id)));
+                }
+
+                int[] total = new int[2];
+                for(Future<int[]> future : futures) {
+                        int[] result = future.get();
+                        total[0] += result[0];
+                        total[1] += result[1];
+                }
+                executor.shutdown();
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+                return total;
+        }
+
+        @FunctionalInterface
+        private interface Worker {
+                int[] edit(int id) throws Exception;
+        }
+}
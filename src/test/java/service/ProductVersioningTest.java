@@ -0,0 +1,230 @@
+package service;
+
+import com.io.github.pedroolivsz.config.Database;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.OptimisticLockException;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.validation.ProductException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProductVersioningTest {
+        private static final int WORKERS = 8;
+        private static final int EDITS_PER_WORKER = 25;
+        private static final int OPERATIONS_PER_WORKER = 100;
+        private static final long THINK_MILLIS = 1;
+
+        private final ProductService productService = new ProductService(new ProductRepository());
+
+        @Test
+        public void testStaleVersionIsRejected() {
+                //Cenário
+                Product product = productService.create("Suco de laranja", 10, new BigDecimal("8"));
+                Product read = productService.findById(product.getId());
+
+                //Ação
+                Product afterSale = productService.removeStock(product.getId(), 2);
+                Product edited = productService.update(product.getId(), "suco de laranja", 8, new BigDecimal("9"), afterSale.getVersion());
+                OptimisticLockException conflict = Assert.assertThrows(OptimisticLockException.class,
+                        () -> productService.update(product.getId(), "suco de laranja", 20, new BigDecimal("7"), read.getVersion()));
+
+                //Verificação
+                Assert.assertTrue(afterSale.getVersion() > read.getVersion());
+                Assert.assertEquals(afterSale.getVersion() + 1, edited.getVersion());
+                Assert.assertEquals(read.getVersion(), conflict.getExpectedVersion());
+                Assert.assertEquals(edited.getVersion(), conflict.getCurrentVersion());
+                Assert.assertEquals(0, new BigDecimal("9").compareTo(productService.findById(product.getId()).getUnitValue()));
+        }
+
+        @Test
+        public void testPartialUpdateIncrementsAndChecksVersion() {
+                //Cenário
+                Product product = productService.create("Água tônica " + System.nanoTime(), 10, new BigDecimal("5"));
+                Product read = productService.findById(product.getId());
+
+                //Ação
+                Product partial = productService.partialUpdate(product.getId(), Map.of("estoque_minimo", 4));
+                Assert.assertThrows(OptimisticLockException.class,
+                        () -> productService.update(product.getId(), read.getName(), 30, new BigDecimal("6"), read.getVersion()));
+                Assert.assertThrows(OptimisticLockException.class,
+                        () -> productService.partialUpdate(product.getId(), Map.of("quantidade", 30), read.getVersion()));
+                Product checked = productService.partialUpdate(product.getId(), Map.of("quantidade", 12), partial.getVersion());
+
+                //Verificação
+                Assert.assertEquals(read.getVersion() + 1, partial.getVersion());
+                Assert.assertEquals(partial.getVersion() + 1, checked.getVersion());
+                Assert.assertEquals(12, productService.findById(product.getId()).getQuantity());
+                Assert.assertEquals(4, productService.findById(product.getId()).getMinimumStock());
+        }
+
+        @Test
+        public void testContendedEditsAreNotLost() throws Exception {
+                //Cenário
+                //Um produto disputado por todos os terminais e um produto por terminal
+                int[] hotOptimistic = createProducts(1);
+                int[] hotLocking = createProducts(1);
+                int[] spreadOptimistic = createProducts(WORKERS);
+                int[] spreadLocking = createProducts(WORKERS);
+
+                //Ação
+                int[] hotOptimisticResult = run(hotOptimistic, this::editOptimistically);
+                int[] hotLockingResult = run(hotLocking, this::editWithLock);
+                int[] spreadOptimisticResult = run(spreadOptimistic, this::editOptimistically);
+                int[] spreadLockingResult = run(spreadLocking, this::editWithLock);
+
+                //Verificação
+                assertNoLostEdits(hotOptimistic, hotOptimisticResult);
+                assertNoLostEdits(hotLocking, hotLockingResult);
+                assertNoLostEdits(spreadOptimistic, spreadOptimisticResult);
+                assertNoLostEdits(spreadLocking, spreadLockingResult);
+                Assert.assertEquals(WORKERS * EDITS_PER_WORKER, hotLockingResult[0]);
+                Assert.assertEquals(WORKERS * EDITS_PER_WORKER, spreadLockingResult[0]);
+        }
+
+        @Test
+        public void testConcurrentStockMovementsAreNotLostByUpdates() throws Exception {
+                //Cenário
+                Product product = productService.create("Água com gás", 100_000, new BigDecimal("4"));
+                AtomicInteger removed = new AtomicInteger();
+                AtomicInteger priceChanges = new AtomicInteger();
+                AtomicInteger exhausted = new AtomicInteger();
+                ExecutorService executor = Executors.newFixedThreadPool(4);
+
+                //Ação
+                List<Future<?>> futures = new ArrayList<>();
+                for(int w = 0; w < 4; w++) {
+                        boolean seller = w % 2 == 0;
+                        futures.add(executor.submit(() -> {
+                                for(int i = 0; i < OPERATIONS_PER_WORKER; i++) {
+                                        if(seller) {
+                                                productService.removeStock(product.getId(), 1);
+                                                removed.incrementAndGet();
+                                        } else {
+                                                try {
+                                                        productService.updatePrice(product.getId(), new BigDecimal(4 + i % 3));
+                                                        priceChanges.incrementAndGet();
+                                                } catch (OptimisticLockException e) {
+                                                        exhausted.incrementAndGet();
+                                                }
+                                        }
+                                }
+                                return null;
+                        }));
+                }
+                for(Future<?> future : futures) future.get();
+                executor.shutdown();
+
+                //Verificação
+                Assert.assertEquals(2 * OPERATIONS_PER_WORKER, priceChanges.get() + exhausted.get());
+                Assert.assertTrue(priceChanges.get() > 0);
+                Assert.assertEquals(100_000 - removed.get(), productService.findById(product.getId()).getQuantity());
+        }
+
+        /**
+         * Lê, "pensa" sem segurar lock e grava condicionalmente; em conflito, a tentativa conta
+         * como conflito e não é repetida.
+         *
+         * @return {edições aplicadas, conflitos}
+         */
+        private int[] editOptimistically(int id) throws Exception {
+                int applied = 0;
+                int conflicts = 0;
+
+                for(int attempt = 0; attempt < EDITS_PER_WORKER; attempt++) {
+                        Product read = productService.findById(id);
+                        Thread.sleep(THINK_MILLIS);
+                        try {
+                                productService.update(id, read.getName(), read.getQuantity() + 1, read.getUnitValue(), read.getVersion());
+                                applied++;
+                        } catch (OptimisticLockException e) {
+                                conflicts++;
+                        }
+                }
+                return new int[] {applied, conflicts};
+        }
+
+        /**
+         * Segura o lock de escrita do banco durante toda a leitura, o "pensamento" e a escrita.
+         *
+         * @return {edições aplicadas, 0}
+         */
+        private int[] editWithLock(int id) throws Exception {
+                int applied = 0;
+
+                for(int attempt = 0; attempt < EDITS_PER_WORKER; attempt++) {
+                        try(Connection conn = Database.connect()) {
+                                conn.setAutoCommit(false);
+                                int quantity;
+                                try(PreparedStatement select = conn.prepareStatement("SELECT quantidade FROM produtos WHERE id = ?")) {
+                                        select.setInt(1, id);
+                                        try(ResultSet resultSet = select.executeQuery()) {
+                                                resultSet.next();
+                                                quantity = resultSet.getInt(1);
+                                        }
+                                }
+                                Thread.sleep(THINK_MILLIS);
+                                try(PreparedStatement update = conn.prepareStatement(
+                                        "UPDATE produtos SET quantidade = ?, versao = versao + 1 WHERE id = ?")) {
+                                        update.setInt(1, quantity + 1);
+                                        update.setInt(2, id);
+                                        update.executeUpdate();
+                                }
+                                conn.commit();
+                                conn.setAutoCommit(true);
+                                applied++;
+                        }
+                }
+                return new int[] {applied, 0};
+        }
+
+        private int[] createProducts(int count) {
+                int[] ids = new int[count];
+                for(int i = 0; i < count; i++) ids[i] = productService.create("Produto disputado " + System.nanoTime() + "-" + i, 1, BigDecimal.TEN).getId();
+                return ids;
+        }
+
+        private void assertNoLostEdits(int[] ids, int[] result) {
+                int total = 0;
+                for(int id : ids) total += productService.findById(id).getQuantity() - 1;
+                Assert.assertTrue(result[0] > 0);
+                Assert.assertEquals(result[0], total);
+        }
+
+        private static int[] run(int[] ids, Worker worker) throws Exception {
+                ExecutorService executor = Executors.newFixedThreadPool(WORKERS);
+                List<Future<int[]>> futures = new ArrayList<>();
+                for(int w = 0; w < WORKERS; w++) {
+                        int id = ids[w % ids.length];
+                        futures.add(executor.submit(() -> worker.edit(id)));
+                }
+
+                int[] total = new int[2];
+                for(Future<int[]> future : futures) {
+                        int[] result = future.get();
+                        total[0] += result[0];
+                        total[1] += result[1];
+                }
+                executor.shutdown();
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+                return total;
+        }
+
+        @FunctionalInterface
+        private interface Worker {
+                int[] edit(int id) throws Exception;
+        }
+}
@@ -0,0 +1,63 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ProductSales;
+import com.io.github.pedroolivsz.repository.OrderTabRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.SalesRollupRepository;
+import com.io.github.pedroolivsz.service.OrderTabService;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.SalesReportService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+public class SalesReportServiceTest {
+        @Test
+        public void testRollupsMatchRawLines() {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                ProductService productService = new ProductService(productRepository);
+                SalesRollupRepository salesRollupRepository = new SalesRollupRepository(ZoneOffset.UTC);
+                OrderTabService orderTabService = new OrderTabService(new OrderTabRepository(salesRollupRepository), productRepository);
+                SalesReportService salesReportService = new SalesReportService(salesRollupRepository);
+
+                Product product = productService.create("Suco de maracujá", 30, new BigDecimal("7.35"));
+
+                //Ação
+                OrderTab orderTab = orderTabService.open(4);
+                orderTabService.addItem(orderTab.getId(), product.getId(), 2);
+                orderTabService.addItem(orderTab.getId(), product.getId(), 1);
+                OrderTab closed = orderTabService.close(orderTab.getId());
+
+                Instant closedAt = closed.getClosedAt();
+                ProductSales fromRollups = find(salesReportService, product.getId(),
+                        closedAt.minus(Duration.ofDays(3)), closedAt.plus(Duration.ofDays(2)));
+                ProductSales fromRawLines = find(salesReportService, product.getId(),
+                        closedAt.minusMillis(1), closedAt.plusMillis(1));
+
+                //Verificação
+                Assert.assertEquals(OrderTab.Status.CLOSED, closed.getStatus());
+                Assert.assertEquals(0, new BigDecimal("22.05").compareTo(closed.getTotalAmount()));
+                Assert.assertEquals(3, fromRollups.getQuantity());
+                Assert.assertEquals(0, new BigDecimal("22.05").compareTo(fromRollups.getAmount()));
+                Assert.assertEquals(fromRollups.getQuantity(), fromRawLines.getQuantity());
+                Assert.assertEquals(0, fromRollups.getAmount().compareTo(fromRawLines.getAmount()));
+                Assert.assertTrue(salesReportService.dailySales(LocalDate.ofInstant(closedAt, ZoneOffset.UTC),
+                        LocalDate.ofInstant(closedAt, ZoneOffset.UTC)).stream()
+                        .anyMatch(bucket -> bucket.getSales().getProductId() == product.getId()));
+        }
+
+        private ProductSales find(SalesReportService salesReportService, int productId, Instant from, Instant to) {
+                return salesReportService.salesByProduct(from, to).stream()
+                        .filter(sales -> sales.getProductId() == productId)
+                        .findFirst()
+                        .orElseThrow();
+        }
+}
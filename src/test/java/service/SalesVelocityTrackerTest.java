@@ -0,0 +1,143 @@
+package service;
+
+import com.io.github.pedroolivsz.config.StoreContext;
+import com.io.github.pedroolivsz.dominio.OrderTab;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.ReorderSuggestion;
+import com.io.github.pedroolivsz.repository.OrderTabRepository;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.SalesVelocityRepository;
+import com.io.github.pedroolivsz.service.IdempotencyKeys;
+import com.io.github.pedroolivsz.service.LowStockMonitor;
+import com.io.github.pedroolivsz.service.OrderTabService;
+import com.io.github.pedroolivsz.service.ProductAutocomplete;
+import com.io.github.pedroolivsz.service.ProductCatalog;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.SalesVelocityTracker;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+public class SalesVelocityTrackerTest {
+        @Test
+        public void testRateConvergesDecaysAndSurvivesReload() {
+                //Cenário
+                MovingClock clock = new MovingClock();
+                SalesVelocityRepository repository = new SalesVelocityRepository();
+                SalesVelocityTracker tracker = new SalesVelocityTracker(repository, Duration.ofDays(1), 14, clock);
+                int productId = 1_000_000 + (int) (System.nanoTime() % 1_000_000);
+
+                //Ação: 10 unidades por dia, em duas vendas, durante 20 dias
+                for(int day = 0; day < 20; day++) {
+                        tracker.record(productId, 5);
+                        clock.advance(Duration.ofHours(12));
+                        tracker.record(productId, 5);
+                        clock.advance(Duration.ofHours(12));
+                }
+                double steady = tracker.dailyRate(productId);
+                clock.advance(Duration.ofDays(1));
+                double afterHalfLife = tracker.dailyRate(productId);
+                int flushed = tracker.flush();
+
+                //Verificação
+                //Entre uma venda e outra a taxa oscila em torno do ritmo real
+                Assert.assertEquals(10, steady, 2);
+                Assert.assertEquals(steady / 2, afterHalfLife, 1e-9);
+                Assert.assertTrue(flushed >= 1);
+                Assert.assertEquals(0, tracker.flush());
+
+                SalesVelocityTracker reloaded = new SalesVelocityTracker(repository, Duration.ofDays(1), 14, clock);
+                Assert.assertEquals(afterHalfLife, reloaded.dailyRate(productId), 1e-9);
+        }
+
+        @Test
+        public void testRemovalsAndCheckoutsRankProductsByDaysOfCover() {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                LowStockMonitor lowStockMonitor = new LowStockMonitor();
+                ProductCatalog catalog = new ProductCatalog(productRepository);
+                IdempotencyKeys idempotencyKeys = new IdempotencyKeys();
+                SalesVelocityTracker tracker = new SalesVelocityTracker();
+                ProductService productService = new ProductService(productRepository, lowStockMonitor, null,
+                        new ProductAutocomplete(productRepository), catalog, idempotencyKeys, tracker);
+                OrderTabService orderTabService = new OrderTabService(new OrderTabRepository(), productRepository,
+                        lowStockMonitor, catalog, idempotencyKeys, tracker, null);
+
+                Product lemon = productService.create("Limão " + System.nanoTime(), 40, new BigDecimal("1.5"));
+                Product ice = productService.create("Gelo " + System.nanoTime(), 200, new BigDecimal("8"));
+                Product straw = productService.create("Canudo " + System.nanoTime(), 500, new BigDecimal("0.1"));
+
+                //Ação
+                productService.removeStock(lemon.getId(), 10);
+                productService.removeStock(ice.getId(), 10);
+                OrderTab orderTab = orderTabService.open(9);
+                orderTabService.addItem(orderTab.getId(), lemon.getId(), 10);
+                orderTabService.checkout(orderTab.getId());
+
+                List<ReorderSuggestion> suggestions = productService.reorderSuggestions(1000);
+
+                //Verificação
+                Assert.assertEquals(2 * tracker.dailyRate(ice.getId()), tracker.dailyRate(lemon.getId()), 1e-6);
+                List<Integer> ranked = suggestions.stream()
+                        .map(ReorderSuggestion::getProductId)
+                        .filter(id -> id == lemon.getId() || id == ice.getId() || id == straw.getId())
+                        .toList();
+                Assert.assertEquals(List.of(lemon.getId(), ice.getId()), ranked);
+
+                ReorderSuggestion first = suggestions.stream().filter(s -> s.getProductId() == lemon.getId()).findFirst().orElseThrow();
+                Assert.assertEquals(20, first.getQuantity());
+                Assert.assertEquals(20 / first.getDailyRate(), first.getDaysOfCover(), 1e-9);
+        }
+
+        @Test
+        public void testEachStoreHasItsOwnTrackerAndTable() throws Exception {
+                //Cenário
+                String store = "velocidade-teste";
+                System.setProperty("store." + store + ".db.url",
+                        "jdbc:sqlite:" + Files.createTempDirectory("stores").resolve("velocidade.db"));
+                SalesVelocityRepository repository = new SalesVelocityRepository();
+                SalesVelocityTracker tracker = StoreContext.call(store,
+                        () -> new SalesVelocityTracker(repository, Duration.ofDays(1), 14, new MovingClock()));
+                int productId = 2_000_000 + (int) (System.nanoTime() % 1_000_000);
+
+                //Ação: venda e gravação fora do contexto da loja
+                tracker.record(productId, 3);
+                tracker.flush();
+
+                //Verificação
+                Assert.assertSame(StoreContext.call(store, SalesVelocityTracker::shared), StoreContext.call(store, SalesVelocityTracker::shared));
+                Assert.assertNotSame(SalesVelocityTracker.shared(), StoreContext.call(store, SalesVelocityTracker::shared));
+                Assert.assertTrue(StoreContext.call(store, repository::findAll).stream().anyMatch(v -> v.getProductId() == productId));
+                Assert.assertTrue(repository.findAll().stream().noneMatch(v -> v.getProductId() == productId));
+        }
+
+        private static class MovingClock extends Clock {
+                private Instant now = Instant.parse("2026-01-01T10:00:00Z");
+
+                void advance(Duration duration) {
+                        now = now.plus(duration);
+                }
+
+                @Override
+                public ZoneOffset getZone() {
+                        return ZoneOffset.UTC;
+                }
+
+                @Override
+                public Clock withZone(java.time.ZoneId zone) {
+                        return this;
+                }
+
+                @Override
+                public Instant instant() {
+                        return now;
+                }
+        }
+}
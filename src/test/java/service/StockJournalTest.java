@@ -0,0 +1,109 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.journal.JournalRecord;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.StockJournalRepository;
+import com.io.github.pedroolivsz.service.IdempotencyKeys;
+import com.io.github.pedroolivsz.service.LowStockMonitor;
+import com.io.github.pedroolivsz.service.ProductAutocomplete;
+import com.io.github.pedroolivsz.service.ProductCatalog;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.SalesVelocityTracker;
+import com.io.github.pedroolivsz.service.StockJournal;
+import com.io.github.pedroolivsz.validation.ProductException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class StockJournalTest {
+        @Test
+        public void testJournaledStockChangesReachTheDatabase() throws Exception {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                StockJournal stockJournal = new StockJournal(Files.createTempDirectory("journal"), 64 * 1024, 1,
+                        new StockJournalRepository());
+                ProductService productService = new ProductService(productRepository, new LowStockMonitor(), stockJournal,
+                        new ProductAutocomplete(productRepository), new ProductCatalog(productRepository), new IdempotencyKeys(),
+                        SalesVelocityTracker.shared());
+                Product product = productService.create("Refrigerante lata", 10, new BigDecimal("6"));
+
+                //Ação
+                Product afterSale = productService.removeStock(product.getId(), 7);
+                Product afterReceiving = productService.addStock(product.getId(), 5);
+                ProductException insufficient = Assert.assertThrows(ProductException.class,
+                        () -> productService.removeStock(product.getId(), 9));
+
+                long deadline = System.currentTimeMillis() + 10_000;
+                while(productRepository.findById(product.getId()).orElseThrow().getQuantity() != 8
+                        && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(5);
+                }
+                stockJournal.close();
+
+                //Verificação
+                Assert.assertEquals(3, afterSale.getQuantity());
+                Assert.assertEquals(8, afterReceiving.getQuantity());
+                Assert.assertTrue(insufficient.getMessage().contains("Disponivel: 8"));
+                Assert.assertEquals(8, productRepository.findById(product.getId()).orElseThrow().getQuantity());
+        }
+
+        @Test
+        public void testProjectionCountsMovementsAppliedDuringTheRead() throws Exception {
+                //Cenário
+                ProductRepository productRepository = new ProductRepository();
+                Product product = new ProductService(productRepository).create("Tônica " + System.nanoTime(), 10, new BigDecimal("5"));
+                CountDownLatch read = new CountDownLatch(1);
+                AtomicBoolean armed = new AtomicBoolean();
+                AtomicReference<StockJournal> journalRef = new AtomicReference<>();
+                //A aplicação só começa depois da leitura do banco e termina antes de ela ser usada
+                StockJournalRepository interleaving = new StockJournalRepository() {
+                        @Override
+                        public void apply(List<JournalRecord> records) throws SQLException {
+                                try {
+                                        read.await(10, TimeUnit.SECONDS);
+                                } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                }
+                                super.apply(records);
+                        }
+
+                        @Override
+                        public Optional<AppliedProduct> findById(int id) {
+                                Optional<AppliedProduct> applied = super.findById(id);
+                                if(armed.get()) {
+                                        long target = applied.orElseThrow().getAppliedSequence() + 1;
+                                        read.countDown();
+                                        long deadline = System.currentTimeMillis() + 10_000;
+                                        while(journalRef.get().getAppliedSequence() < target && System.currentTimeMillis() < deadline) {
+                                                Thread.onSpinWait();
+                                        }
+                                }
+                                return applied;
+                        }
+                };
+                StockJournal stockJournal = new StockJournal(Files.createTempDirectory("journal"), 64 * 1024, 1, interleaving);
+                journalRef.set(stockJournal);
+
+                //Ação
+                stockJournal.append(new StockMovement(product.getId(), -5, StockMovement.Reason.SALE));
+                armed.set(true);
+                Product projected = stockJournal.project(product.getId()).orElseThrow();
+                armed.set(false);
+                stockJournal.close();
+
+                //Verificação
+                Assert.assertEquals(5, projected.getQuantity());
+                Assert.assertEquals(5, productRepository.findById(product.getId()).orElseThrow().getQuantity());
+        }
+}
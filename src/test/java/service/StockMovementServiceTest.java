@@ -0,0 +1,99 @@
+package service;
+
+import com.io.github.pedroolivsz.config.Migrations;
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.dominio.StockMovement;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.StockMovementRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.StockMovementService;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class StockMovementServiceTest {
+        @Test
+        public void testQuantityAtReplaysFromNearestSnapshot() throws InterruptedException {
+                //Cenário
+                StockMovementRepository stockMovementRepository = new StockMovementRepository(3);
+                ProductService productService = new ProductService(new ProductRepository(stockMovementRepository));
+                StockMovementService stockMovementService = new StockMovementService(stockMovementRepository);
+
+                Product created = productService.create("Agua com gas", 50, new BigDecimal("4.5"));
+                List<Instant> instants = new ArrayList<>();
+                List<Integer> quantities = new ArrayList<>();
+
+                //Ação
+                for(int i = 1; i <= 8; i++) {
+                        Thread.sleep(3);
+                        Product updated = i % 3 == 0
+                                ? productService.addStock(created.getId(), i)
+                                : productService.removeStock(created.getId(), i);
+                        instants.add(Instant.now());
+                        quantities.add(updated.getQuantity());
+                        Thread.sleep(3);
+                }
+
+                //Verificação
+                for(int i = 0; i < instants.size(); i++) {
+                        Assert.assertEquals((int) quantities.get(i),
+                                stockMovementService.quantityAt(created.getId(), instants.get(i)).getAsInt());
+                }
+                Assert.assertEquals(9, stockMovementService.listByProduct(created.getId(), 100).size());
+                Assert.assertFalse(stockMovementService.reconcile().containsKey(created.getId()));
+        }
+
+        @Test
+        public void testPartialQuantityUpdateIsRecordedAsAdjustment() {
+                //Cenário
+                StockMovementRepository stockMovementRepository = new StockMovementRepository();
+                ProductService productService = new ProductService(new ProductRepository(stockMovementRepository));
+                StockMovementService stockMovementService = new StockMovementService(stockMovementRepository);
+                Product created = productService.create("Tônica " + System.nanoTime(), 12, new BigDecimal("6"));
+
+                //Ação
+                productService.partialUpdate(created.getId(), Map.of("quantidade", 30));
+
+                //Verificação
+                StockMovement adjustment = stockMovementService.listByProduct(created.getId(), 1).get(0);
+                Assert.assertEquals(StockMovement.Reason.ADJUSTMENT, adjustment.getReason());
+                Assert.assertEquals(18, adjustment.getDelta());
+                Assert.assertEquals(30, stockMovementService.quantityAt(created.getId(), Instant.now()).getAsInt());
+                Assert.assertFalse(stockMovementService.reconcile().containsKey(created.getId()));
+        }
+
+        @Test
+        public void testMigrationSeedsOpeningBalanceForExistingProducts() throws Exception {
+                //Cenário: banco na versão 2, anterior ao histórico
+                File file = File.createTempFile("migracao-", ".db");
+                file.deleteOnExit();
+                try(Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+                    Statement statement = conn.createStatement()) {
+                        statement.execute("CREATE TABLE produtos (id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                                "quantidade INTEGER NOT NULL DEFAULT 0, nome TEXT NOT NULL, valor_unitario NUMERIC NOT NULL DEFAULT 0, " +
+                                "estoque_minimo INTEGER NOT NULL DEFAULT 0)");
+                        statement.execute("INSERT INTO produtos (quantidade, nome, valor_unitario) VALUES (7, 'Cachaça', 30), (0, 'Rum', 45)");
+                        statement.execute("PRAGMA user_version = 2");
+
+                        //Ação
+                        Migrations.migrate(conn);
+
+                        //Verificação
+                        try(ResultSet resultSet = statement.executeQuery(
+                                "SELECT p.id FROM produtos p LEFT JOIN movimentacoes_estoque m ON m.produto_id = p.id " +
+                                "GROUP BY p.id HAVING p.quantidade <> COALESCE(SUM(m.delta), 0) OR COUNT(m.id) <> 1")) {
+                                Assert.assertFalse(resultSet.next());
+                        }
+                }
+        }
+}
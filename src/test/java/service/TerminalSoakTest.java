@@ -0,0 +1,224 @@
+package service;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.repository.InMemoryProductStore;
+import com.io.github.pedroolivsz.repository.OptimisticLockException;
+import com.io.github.pedroolivsz.repository.ProductRepository;
+import com.io.github.pedroolivsz.repository.ProductSnapshotRepository;
+import com.io.github.pedroolivsz.repository.ProductStore;
+import com.io.github.pedroolivsz.repository.StockMovementRepository;
+import com.io.github.pedroolivsz.service.ProductService;
+import com.io.github.pedroolivsz.service.StockMovementService;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sqlite.SQLiteException;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Carga de vários terminais sobre o mesmo banco: consultas, vendas e edições de preço por um
+ * tempo fixo. Roda na execução "soak" do surefire, com um arquivo SQLite próprio.
+ *
+ * <p>Terminais, duração e produtos podem ser alterados com {@code -Dsoak.terminals},
+ * {@code -Dsoak.duration.seconds} e {@code -Dsoak.products}; {@code -Dsoak.store=memory} usa o
+ * catálogo em memória no lugar do SQLite.</p>
+ */
+public class TerminalSoakTest {
+        private static final Logger logger = LoggerFactory.getLogger(TerminalSoakTest.class);
+
+        private static final int TERMINALS = Integer.getInteger("soak.terminals", 8);
+        private static final int DURATION_SECONDS = Integer.getInteger("soak.duration.seconds", 5);
+        private static final int PRODUCTS = Integer.getInteger("soak.products", 40);
+        private static final String STORE = System.getProperty("soak.store", "sqlite");
+        private static final int INITIAL_STOCK = 1_000_000;
+
+        private enum Operation { LOOKUP, SALE, EDIT }
+
+        @Test
+        public void testConcurrentTerminalsKeepStockConsistent() throws Exception {
+                //Cenário
+                StockMovementRepository stockMovementRepository = new StockMovementRepository();
+                ProductStore store = STORE.equals("memory")
+                        ? new InMemoryProductStore(Files.createTempDirectory("soak-store"), 1024 * 1024, 2, 1000,
+                                new ProductSnapshotRepository(stockMovementRepository))
+                        : new ProductRepository(stockMovementRepository);
+                ProductService productService = new ProductService(store);
+                StockMovementService stockMovementService = new StockMovementService(stockMovementRepository);
+
+                int[] ids = new int[PRODUCTS];
+                String run = String.valueOf(System.nanoTime());
+                for(int i = 0; i < PRODUCTS; i++) {
+                        ids[i] = productService.create("Item do caixa " + run + "-" + i, INITIAL_STOCK, new BigDecimal("10.00")).getId();
+                }
+
+                AtomicLongArray sold = new AtomicLongArray(PRODUCTS);
+                List<Terminal> terminals = new ArrayList<>();
+                ConcurrentLinkedQueue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+                CountDownLatch start = new CountDownLatch(1);
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+                //Ação
+                List<Thread> threads = new ArrayList<>();
+                for(int t = 0; t < TERMINALS; t++) {
+                        Terminal terminal = new Terminal();
+                        terminals.add(terminal);
+                        Thread thread = new Thread(() -> {
+                                try {
+                                        start.await();
+                                        terminal.run(productService, ids, sold, deadline, unexpected);
+                                } catch (InterruptedException e) {
+                                        Thread.currentThread().interrupt();
+                                }
+                        }, "terminal-" + t);
+                        threads.add(thread);
+                        thread.start();
+                }
+                start.countDown();
+                for(Thread thread : threads) thread.join(TimeUnit.SECONDS.toMillis(DURATION_SECONDS + 60));
+
+                //Verificação
+                Report report = Report.of(terminals, DURATION_SECONDS);
+                logger.info(report.toString());
+
+                Assert.assertTrue("Erros inesperados: " + unexpected, unexpected.isEmpty());
+                Assert.assertTrue("Nenhuma venda concluída", report.count(Operation.SALE) > 0);
+
+                for(int i = 0; i < PRODUCTS; i++) {
+                        Product product = productService.findById(ids[i]);
+                        Assert.assertEquals("Estoque do produto " + ids[i], INITIAL_STOCK - sold.get(i), product.getQuantity());
+                        Assert.assertTrue(product.getQuantity() >= 0);
+                }
+
+                if(store instanceof InMemoryProductStore memory) memory.close();
+                Map<Integer, Integer> discrepancies = stockMovementService.reconcile();
+                for(int id : ids) {
+                        Assert.assertFalse("Histórico divergente do produto " + id, discrepancies.containsKey(id));
+                }
+        }
+
+        //=============== Terminal simulado ===============
+
+        private static final class Terminal {
+                private final long[][] latencies = new long[Operation.values().length][];
+                private final int[] counts = new int[Operation.values().length];
+                private int busy;
+                private int conflicts;
+
+                private Terminal() {
+                        for(int i = 0; i < latencies.length; i++) latencies[i] = new long[1024];
+                }
+
+                private void run(ProductService productService, int[] ids, AtomicLongArray sold, long deadline,
+                                 ConcurrentLinkedQueue<Throwable> unexpected) {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+                        while(System.nanoTime() < deadline) {
+                                int index = random.nextInt(ids.length);
+                                int roll = random.nextInt(100);
+                                Operation operation = roll < 60 ? Operation.LOOKUP : roll < 90 ? Operation.SALE : Operation.EDIT;
+
+                                long begin = System.nanoTime();
+                                try {
+                                        switch (operation) {
+                                                case LOOKUP -> productService.findById(ids[index]);
+                                                case SALE -> {
+                                                        int quantity = random.nextInt(1, 4);
+                                                        productService.removeStock(ids[index], quantity);
+                                                        sold.addAndGet(index, quantity);
+                                                }
+                                                case EDIT -> productService.updatePrice(ids[index],
+                                                        BigDecimal.valueOf(random.nextInt(500, 2000), 2));
+                                        }
+                                        record(operation, System.nanoTime() - begin);
+                                } catch (OptimisticLockException e) {
+                                        //Edições concorrentes no mesmo produto podem esgotar as tentativas
+                                        conflicts++;
+                                } catch (RuntimeException e) {
+                                        if(isBusy(e)) busy++;
+                                        else unexpected.add(e);
+                                }
+                        }
+                }
+
+                private void record(Operation operation, long nanos) {
+                        int slot = operation.ordinal();
+                        if(counts[slot] == latencies[slot].length) latencies[slot] = Arrays.copyOf(latencies[slot], counts[slot] * 2);
+                        latencies[slot][counts[slot]++] = nanos;
+                }
+
+                private static boolean isBusy(Throwable error) {
+                        for(Throwable cause = error; cause != null; cause = cause.getCause()) {
+                                if(cause instanceof SQLiteException sqlite && sqlite.getResultCode().name().startsWith("SQLITE_BUSY")) return true;
+                                if(cause.getMessage() != null && cause.getMessage().contains("SQLITE_BUSY")) return true;
+                        }
+                        return false;
+                }
+        }
+
+        //=============== Relatório ===============
+
+        private static final class Report {
+                private final long[][] latencies = new long[Operation.values().length][];
+                private final int seconds;
+                private int busy;
+                private int conflicts;
+
+                private Report(int seconds) {
+                        this.seconds = seconds;
+                }
+
+                private static Report of(List<Terminal> terminals, int seconds) {
+                        Report report = new Report(seconds);
+                        for(Operation operation : Operation.values()) {
+                                int slot = operation.ordinal();
+                                report.latencies[slot] = terminals.stream()
+                                        .flatMapToLong(terminal -> Arrays.stream(terminal.latencies[slot], 0, terminal.counts[slot]))
+                                        .sorted().toArray();
+                        }
+                        for(Terminal terminal : terminals) {
+                                report.busy += terminal.busy;
+                                report.conflicts += terminal.conflicts;
+                        }
+                        return report;
+                }
+
+                private int count(Operation operation) {
+                        return latencies[operation.ordinal()].length;
+                }
+
+                private static double percentileMillis(long[] sorted, double percentile) {
+                        if(sorted.length == 0) return 0;
+                        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+                        return sorted[Math.max(0, index)] / 1_000_000.0;
+                }
+
+                @Override
+                public String toString() {
+                        StringBuilder builder = new StringBuilder(String.format("Soak: %d terminais, %d s, %d produtos, %s%n",
+                                TERMINALS, seconds, PRODUCTS, STORE));
+                        int total = 0;
+                        for(Operation operation : Operation.values()) {
+                                long[] sorted = latencies[operation.ordinal()];
+                                total += sorted.length;
+                                builder.append(String.format("  %-6s %7d ops  %8.1f ops/s  p50 %7.2f ms  p99 %7.2f ms%n",
+                                        operation, sorted.length, sorted.length / (double) seconds,
+                                        percentileMillis(sorted, 50), percentileMillis(sorted, 99)));
+                        }
+                        builder.append(String.format("  Total  %7d ops  %8.1f ops/s  SQLITE_BUSY: %d  conflitos de edição: %d",
+                                total, total / (double) seconds, busy, conflicts));
+                        return builder.toString();
+                }
+        }
+}
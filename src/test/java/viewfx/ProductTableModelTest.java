@@ -0,0 +1,57 @@
+package viewfx;
+
+import com.io.github.pedroolivsz.dominio.Product;
+import com.io.github.pedroolivsz.viewfx.ProductTableModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+public class ProductTableModelTest {
+        @Test
+        public void testFilterKeepsPrecomputedOrder() {
+                //Cenário
+                ProductTableModel model = new ProductTableModel(List.of(
+                        new Product(1, "cerveja pilsen", 30, BigDecimal.ONE),
+                        new Product(2, "água", 50, BigDecimal.ONE),
+                        new Product(3, "cerveja ipa", 10, BigDecimal.ONE),
+                        new Product(4, "Cerveja Stout", 30, BigDecimal.ONE)));
+
+                //Ação
+                ProductTableModel.Result byName = model.query("CERVEJA", ProductTableModel.Column.NAME, true, null, () -> false);
+                ProductTableModel.Result byQuantity = model.query(" cerveja", ProductTableModel.Column.QUANTITY, false, null, () -> false);
+                ProductTableModel.Result all = model.query("", ProductTableModel.Column.ID, false, null, () -> false);
+
+                //Verificação
+                Assert.assertEquals(List.of(3, 1, 4), ids(byName));
+                Assert.assertEquals(List.of(4, 1, 3), ids(byQuantity));
+                Assert.assertEquals(List.of(4, 3, 2, 1), ids(all));
+        }
+
+        @Test
+        public void testRefinedFilterReusesPreviousResultAndCanBeCancelled() {
+                //Cenário
+                List<Product> products = new ArrayList<>();
+                for(int i = 1; i <= 100_000; i++) products.add(new Product(i, "produto " + i, i % 97, BigDecimal.ONE));
+                ProductTableModel model = new ProductTableModel(products);
+
+                //Ação
+                ProductTableModel.Result first = model.query("produto 9", ProductTableModel.Column.QUANTITY, true, null, () -> false);
+                ProductTableModel.Result refined = model.query("produto 99", ProductTableModel.Column.QUANTITY, true, first, () -> false);
+                ProductTableModel.Result fresh = model.query("produto 99", ProductTableModel.Column.QUANTITY, true, null, () -> false);
+
+                //Verificação
+                Assert.assertEquals(ids(fresh), ids(refined));
+                Assert.assertEquals(1111, refined.size());
+                Assert.assertThrows(UnsupportedOperationException.class, () -> refined.remove(0));
+                Assert.assertThrows(CancellationException.class,
+                        () -> model.query("produto", ProductTableModel.Column.NAME, true, null, () -> true));
+        }
+
+        private static List<Integer> ids(List<Product> products) {
+                return products.stream().map(Product::getId).toList();
+        }
+}